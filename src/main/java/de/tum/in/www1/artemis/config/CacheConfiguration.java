@@ -6,6 +6,7 @@ import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +16,8 @@ import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.modeling.*;
 import de.tum.in.www1.artemis.domain.quiz.*;
 import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.service.CourseDashboardCacheService;
+import de.tum.in.www1.artemis.service.CourseStatisticsService;
 import io.github.jhipster.config.JHipsterProperties;
 import io.github.jhipster.config.jcache.BeanClassLoaderAwareJCacheRegionFactory;
 
@@ -24,13 +27,27 @@ public class CacheConfiguration {
 
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    private final javax.cache.configuration.Configuration<Object, Object> courseDashboardCacheConfiguration;
+
+    private final javax.cache.configuration.Configuration<Object, Object> courseStatisticsCacheConfiguration;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, @Value("${artemis.course-dashboard-cache.max-entries:5000}") long courseDashboardMaxEntries,
+            @Value("${artemis.course-dashboard-cache.time-to-live:600}") long courseDashboardTimeToLive,
+            @Value("${artemis.course-statistics.time-to-live:10}") long courseStatisticsTimeToLive) {
         BeanClassLoaderAwareJCacheRegionFactory.setBeanClassLoader(this.getClass().getClassLoader());
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
 
         jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
                 CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
                         .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds()))).build());
+        // the dashboards are invalidated by the CourseDashboardCacheService, the time to live only limits the memory of users who do not come back
+        courseDashboardCacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(courseDashboardMaxEntries))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(courseDashboardTimeToLive))).build());
+        // the statistics are not invalidated, so they are only kept for a short time
+        courseStatisticsCacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(courseStatisticsTimeToLive))).build());
     }
 
     @Bean
@@ -150,6 +167,8 @@ public class CacheConfiguration {
             cm.createCache(ExampleSubmission.class.getName() + ".tutorParticipations", jcacheConfiguration);
             // jhipster-needle-ehcache-add-entry
             cm.createCache("files", jcacheConfiguration);
+            cm.createCache(CourseDashboardCacheService.COURSE_DASHBOARD_CACHE, courseDashboardCacheConfiguration);
+            cm.createCache(CourseStatisticsService.COURSE_STATISTICS_CACHE, courseStatisticsCacheConfiguration);
         };
     }
 }
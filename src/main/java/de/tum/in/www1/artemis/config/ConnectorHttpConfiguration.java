@@ -0,0 +1,65 @@
+package de.tum.in.www1.artemis.config;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The HTTP client that is shared by the connectors to the external systems (Bamboo, Bitbucket, JIRA and the LTI consumers). The connections are pooled and kept alive, so that
+ * consecutive requests to the same host do not need a new TCP connection and TLS handshake.
+ */
+@Configuration
+public class ConnectorHttpConfiguration {
+
+    @Value("${artemis.connector.http.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${artemis.connector.http.max-connections-per-host:20}")
+    private int maxConnectionsPerHost;
+
+    @Value("${artemis.connector.http.connect-timeout:10000}")
+    private int connectTimeout;
+
+    @Value("${artemis.connector.http.read-timeout:120000}")
+    private int readTimeout;
+
+    @Value("${artemis.connector.http.idle-timeout:30000}")
+    private long idleTimeout;
+
+    @Value("${artemis.connector.http.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${artemis.connector.http.retry.backoff:500}")
+    private long backoff;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient connectorHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+
+        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(connectTimeout).setConnectionRequestTimeout(connectTimeout).setSocketTimeout(readTimeout).build();
+
+        // requests are retried by the ConnectorRequestInterceptor, which also records the retries
+        return HttpClientBuilder.create().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig).disableAutomaticRetries().evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS).build();
+    }
+
+    @Bean
+    public RestTemplate connectorRestTemplate(CloseableHttpClient connectorHttpClient, MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(connectorHttpClient));
+        restTemplate.setInterceptors(Collections.singletonList(new ConnectorRequestInterceptor(meterRegistry, maxAttempts, backoff)));
+        return restTemplate;
+    }
+}
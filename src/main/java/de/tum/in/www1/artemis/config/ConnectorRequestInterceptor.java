@@ -0,0 +1,107 @@
+package de.tum.in.www1.artemis.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Retries idempotent requests to the external systems with an exponential backoff when the connection fails or the server is temporarily unavailable, and records the latency and
+ * the outcome of every request per host.
+ */
+public class ConnectorRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Logger log = LoggerFactory.getLogger(ConnectorRequestInterceptor.class);
+
+    public static final String REQUEST_METRIC = "artemis.connector.http.requests";
+
+    public static final String RETRY_METRIC = "artemis.connector.http.retries";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxAttempts;
+
+    private final long backoff;
+
+    /**
+     * @param meterRegistry the registry for the request metrics
+     * @param maxAttempts   the maximum number of attempts of an idempotent request, including the first one
+     * @param backoff       the delay (in ms) before the first retry, it is doubled for every further retry
+     */
+    public ConnectorRequestInterceptor(MeterRegistry meterRegistry, int maxAttempts, long backoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String host = request.getURI().getHost();
+        String method = request.getMethodValue();
+        boolean retryable = request.getMethod() == HttpMethod.GET || request.getMethod() == HttpMethod.HEAD;
+        long start = System.nanoTime();
+        int attempt = 1;
+        while (true) {
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                if (retryable && attempt < maxAttempts && isTemporaryError(response.getRawStatusCode())) {
+                    log.warn("{} {} failed with status {}, retrying (attempt {} of {})", method, request.getURI(), response.getRawStatusCode(), attempt, maxAttempts);
+                    response.close();
+                }
+                else {
+                    record(meterRegistry, host, method, String.valueOf(response.getRawStatusCode()), System.nanoTime() - start);
+                    return response;
+                }
+            }
+            catch (IOException e) {
+                if (!retryable || attempt >= maxAttempts) {
+                    record(meterRegistry, host, method, "IO_ERROR", System.nanoTime() - start);
+                    throw e;
+                }
+                log.warn("{} {} failed with {}, retrying (attempt {} of {})", method, request.getURI(), e.toString(), attempt, maxAttempts);
+            }
+            Counter.builder(RETRY_METRIC).description("Retried requests to external systems").tag("host", host != null ? host : "unknown").register(meterRegistry).increment();
+            sleep(backoff << (attempt - 1));
+            attempt++;
+        }
+    }
+
+    private boolean isTemporaryError(int status) {
+        return status == HttpStatus.BAD_GATEWAY.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    private void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the retry of a request", e);
+        }
+    }
+
+    /**
+     * Record the duration of a request to an external system
+     *
+     * @param meterRegistry the registry for the request metrics
+     * @param host          the host of the external system, null if the host is unknown
+     * @param method        the HTTP method of the request
+     * @param outcome       the status code of the response or IO_ERROR if no response has been received
+     * @param duration      the duration of the request (including retries) in ns
+     */
+    public static void record(MeterRegistry meterRegistry, String host, String method, String outcome, long duration) {
+        Timer.builder(REQUEST_METRIC).description("Requests to external systems").tag("host", host != null ? host : "unknown").tag("method", method).tag("outcome", outcome).register(meterRegistry)
+                .record(duration, TimeUnit.NANOSECONDS);
+    }
+}
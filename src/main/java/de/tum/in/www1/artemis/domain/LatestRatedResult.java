@@ -0,0 +1,60 @@
+package de.tum.in.www1.artemis.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.persistence.*;
+
+import org.hibernate.annotations.Immutable;
+
+/**
+ * The latest rated result with a completion date of a participation, i.e. the result that is shown to the student in the course dashboard. This is a read model that is
+ * maintained by the LatestRatedResultService in the same transaction in which a result is created, updated or deleted, it is never changed through this entity.
+ */
+@Entity
+@Immutable
+@Table(name = "latest_rated_result")
+public class LatestRatedResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "participation_id")
+    private Long participationId;
+
+    @Column(name = "result_id", nullable = false)
+    private Long resultId;
+
+    public Long getParticipationId() {
+        return participationId;
+    }
+
+    public Long getResultId() {
+        return resultId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        LatestRatedResult latestRatedResult = (LatestRatedResult) o;
+        if (latestRatedResult.getParticipationId() == null || getParticipationId() == null) {
+            return false;
+        }
+        return Objects.equals(getParticipationId(), latestRatedResult.getParticipationId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getParticipationId());
+    }
+
+    @Override
+    public String toString() {
+        return "LatestRatedResult{" + "participationId=" + getParticipationId() + ", resultId=" + getResultId() + "}";
+    }
+}
@@ -0,0 +1,148 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import java.util.*;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.quiz.*;
+
+/**
+ * Compiled version of {@link ScoringStrategyDragAndDropAllOrNothing} and {@link ScoringStrategyDragAndDropProportionalWithPenalty}. The drop locations are stored as arrays sorted
+ * by id together with the sorted ids of their correct drag items, so that the mappings of an answer can be checked with binary searches.
+ */
+final class DragAndDropScoringPlan implements ScoringPlan {
+
+    private static final long[] NO_DRAG_ITEMS = new long[0];
+
+    private final ScoringType scoringType;
+
+    private final boolean questionInvalid;
+
+    private final double score;
+
+    private final long[] dropLocationIds;
+
+    private final boolean[] dropLocationInvalid;
+
+    /**
+     * the sorted ids of the correct drag items for each drop location
+     */
+    private final long[][] correctDragItemIds;
+
+    /**
+     * the number of drop locations that were meant to not stay empty
+     */
+    private final int mappedDropLocations;
+
+    private DragAndDropScoringPlan(DragAndDropQuestion question, DropLocation[] sortedDropLocations, Map<Long, List<Long>> correctDragItemsByDropLocation) {
+        this.scoringType = question.getScoringType();
+        this.questionInvalid = question.isInvalid();
+        this.score = question.getScore();
+        this.dropLocationIds = new long[sortedDropLocations.length];
+        this.dropLocationInvalid = new boolean[sortedDropLocations.length];
+        this.correctDragItemIds = new long[sortedDropLocations.length][];
+        int mappedDropLocations = 0;
+        for (int i = 0; i < sortedDropLocations.length; i++) {
+            dropLocationIds[i] = sortedDropLocations[i].getId();
+            dropLocationInvalid[i] = sortedDropLocations[i].isInvalid();
+            List<Long> dragItemIds = correctDragItemsByDropLocation.get(dropLocationIds[i]);
+            if (dragItemIds == null) {
+                correctDragItemIds[i] = NO_DRAG_ITEMS;
+            }
+            else {
+                correctDragItemIds[i] = dragItemIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+                mappedDropLocations++;
+            }
+        }
+        this.mappedDropLocations = mappedDropLocations;
+    }
+
+    /**
+     * compile the scoring plan for the given question
+     *
+     * @param question the drag and drop question
+     * @return the compiled plan or null if the question cannot be compiled (unknown scoring type or unsaved drop locations, drag items or mappings)
+     */
+    static DragAndDropScoringPlan compile(DragAndDropQuestion question) {
+        if (question.getScoringType() != ScoringType.ALL_OR_NOTHING && question.getScoringType() != ScoringType.PROPORTIONAL_WITH_PENALTY) {
+            return null;
+        }
+        for (DropLocation dropLocation : question.getDropLocations()) {
+            if (dropLocation.getId() == null) {
+                return null;
+            }
+        }
+        Map<Long, List<Long>> correctDragItemsByDropLocation = new HashMap<>();
+        for (DragAndDropMapping mapping : question.getCorrectMappings()) {
+            if (mapping.getDropLocation() == null || mapping.getDragItem() == null || mapping.getDropLocation().getId() == null || mapping.getDragItem().getId() == null) {
+                return null;
+            }
+            correctDragItemsByDropLocation.computeIfAbsent(mapping.getDropLocation().getId(), id -> new ArrayList<>()).add(mapping.getDragItem().getId());
+        }
+        DropLocation[] sortedDropLocations = question.getDropLocations().toArray(new DropLocation[0]);
+        Arrays.sort(sortedDropLocations, (first, second) -> Long.compare(first.getId(), second.getId()));
+        return new DragAndDropScoringPlan(question, sortedDropLocations, correctDragItemsByDropLocation);
+    }
+
+    @Override
+    public double calculateScore(SubmittedAnswer submittedAnswer) {
+        // check if the question is invalid: if true: -> return with full points
+        if (questionInvalid) {
+            return score;
+        }
+        if (!(submittedAnswer instanceof DragAndDropSubmittedAnswer)) {
+            // the submitted answer's type doesn't fit the question's type => it cannot be correct
+            return 0.0;
+        }
+
+        // the selected drag item for each drop location (the first mapping wins, like in DragAndDropSubmittedAnswer.getSelectedDragItemForDropLocation)
+        DragItem[] selectedDragItems = new DragItem[dropLocationIds.length];
+        for (DragAndDropMapping mapping : ((DragAndDropSubmittedAnswer) submittedAnswer).getMappings()) {
+            if (mapping.getDropLocation() == null || mapping.getDropLocation().getId() == null) {
+                continue;
+            }
+            int index = Arrays.binarySearch(dropLocationIds, mapping.getDropLocation().getId());
+            if (index >= 0 && selectedDragItems[index] == null) {
+                selectedDragItems[index] = mapping.getDragItem();
+            }
+        }
+
+        int correctMappings = 0;
+        int incorrectMappings = 0;
+        for (int i = 0; i < dropLocationIds.length; i++) {
+            DragItem selectedDragItem = selectedDragItems[i];
+            boolean meantToBeMapped = correctDragItemIds[i].length > 0;
+            // invalid drop location or invalid drag item => always correct, otherwise check if the user's mapping is correct
+            if (dropLocationInvalid[i] || (selectedDragItem != null && selectedDragItem.isInvalid()) || isDropLocationCorrect(i, selectedDragItem)) {
+                // points are only given for drop locations that were meant to not stay empty
+                if (meantToBeMapped) {
+                    correctMappings++;
+                }
+            }
+            else if (scoringType == ScoringType.ALL_OR_NOTHING) {
+                return 0.0;
+            }
+            else {
+                // wrong mappings always deduct points
+                incorrectMappings++;
+            }
+        }
+        if (scoringType == ScoringType.ALL_OR_NOTHING) {
+            return score;
+        }
+
+        // every correct mapping increases the fraction by 1/mappedDropLocations, every incorrect mapping decreases it by 1/mappedDropLocations
+        double fraction = (((double) correctMappings / mappedDropLocations) - ((double) incorrectMappings / mappedDropLocations));
+        // end result is maxScore * fraction, but at least 0
+        return Math.max(0, score * fraction);
+    }
+
+    private boolean isDropLocationCorrect(int index, DragItem selectedDragItem) {
+        // this drop location was meant to stay empty and user didn't drag anything onto it
+        if (selectedDragItem == null) {
+            return correctDragItemIds[index].length == 0;
+        }
+        // OR the user dragged one of the correct drag items onto this drop location
+        return selectedDragItem.getId() != null && Arrays.binarySearch(correctDragItemIds[index], selectedDragItem.getId()) >= 0;
+    }
+}
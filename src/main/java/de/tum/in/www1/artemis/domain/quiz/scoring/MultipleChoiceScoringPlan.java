@@ -0,0 +1,109 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.quiz.AnswerOption;
+import de.tum.in.www1.artemis.domain.quiz.MultipleChoiceQuestion;
+import de.tum.in.www1.artemis.domain.quiz.MultipleChoiceSubmittedAnswer;
+
+/**
+ * Compiled version of {@link ScoringStrategyMultipleChoiceAllOrNothing} and {@link ScoringStrategyMultipleChoiceProportionalWithPenalty}. The answer options are stored as arrays
+ * sorted by id, so that the selected options of an answer can be found with a binary search.
+ */
+final class MultipleChoiceScoringPlan implements ScoringPlan {
+
+    private final ScoringType scoringType;
+
+    private final boolean questionInvalid;
+
+    private final double score;
+
+    private final long[] optionIds;
+
+    private final boolean[] correct;
+
+    private final boolean[] invalid;
+
+    private MultipleChoiceScoringPlan(MultipleChoiceQuestion question, AnswerOption[] sortedOptions) {
+        this.scoringType = question.getScoringType();
+        this.questionInvalid = question.isInvalid();
+        this.score = question.getScore();
+        this.optionIds = new long[sortedOptions.length];
+        this.correct = new boolean[sortedOptions.length];
+        this.invalid = new boolean[sortedOptions.length];
+        for (int i = 0; i < sortedOptions.length; i++) {
+            optionIds[i] = sortedOptions[i].getId();
+            correct[i] = Boolean.TRUE.equals(sortedOptions[i].isIsCorrect());
+            invalid[i] = sortedOptions[i].isInvalid();
+        }
+    }
+
+    /**
+     * compile the scoring plan for the given question
+     *
+     * @param question the multiple choice question
+     * @return the compiled plan or null if the question cannot be compiled (unknown scoring type or unsaved answer options)
+     */
+    static MultipleChoiceScoringPlan compile(MultipleChoiceQuestion question) {
+        if (question.getScoringType() != ScoringType.ALL_OR_NOTHING && question.getScoringType() != ScoringType.PROPORTIONAL_WITH_PENALTY) {
+            return null;
+        }
+        List<AnswerOption> answerOptions = question.getAnswerOptions();
+        for (AnswerOption answerOption : answerOptions) {
+            if (answerOption.getId() == null) {
+                return null;
+            }
+        }
+        AnswerOption[] sortedOptions = answerOptions.toArray(new AnswerOption[0]);
+        Arrays.sort(sortedOptions, (first, second) -> Long.compare(first.getId(), second.getId()));
+        return new MultipleChoiceScoringPlan(question, sortedOptions);
+    }
+
+    @Override
+    public double calculateScore(SubmittedAnswer submittedAnswer) {
+        // check if the question is invalid: if true: -> return with full points
+        if (questionInvalid) {
+            return score;
+        }
+        if (!(submittedAnswer instanceof MultipleChoiceSubmittedAnswer)) {
+            // the submitted answer's type doesn't fit the question's type => it cannot be correct
+            return 0.0;
+        }
+
+        boolean[] selected = new boolean[optionIds.length];
+        for (AnswerOption selectedOption : ((MultipleChoiceSubmittedAnswer) submittedAnswer).getSelectedOptions()) {
+            if (selectedOption.getId() == null) {
+                continue;
+            }
+            int index = Arrays.binarySearch(optionIds, selectedOption.getId());
+            if (index >= 0) {
+                selected[index] = true;
+            }
+        }
+
+        int correctSelections = 0;
+        for (int i = 0; i < optionIds.length; i++) {
+            // correct selection means either a correct option was selected or an incorrect option was not selected
+            // invalid answer options are treated as if they were answered correctly
+            if (invalid[i] || correct[i] == selected[i]) {
+                correctSelections++;
+            }
+            else if (scoringType == ScoringType.ALL_OR_NOTHING) {
+                return 0.0;
+            }
+        }
+        if (scoringType == ScoringType.ALL_OR_NOTHING) {
+            return score;
+        }
+
+        // every correct selection increases the fraction by 1/totalOptions, every incorrect selection decreases it by 1/totalOptions
+        double totalOptions = optionIds.length;
+        double incorrectSelections = optionIds.length - correctSelections;
+        double fraction = ((correctSelections / totalOptions) - (incorrectSelections / totalOptions));
+        // end result is maxScore * fraction, but at least 0
+        return Math.max(0, score * fraction);
+    }
+}
@@ -0,0 +1,90 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.*;
+
+/**
+ * Immutable scoring plans for all questions of a quiz. The plans are compiled once for a loaded version of the quiz and can then score many submissions (e.g. when a quiz ends or
+ * is re-evaluated) without walking the entity collections of the questions again. A plan must be compiled again after the quiz has been changed.
+ */
+public final class QuizScoringPlan {
+
+    private final QuizQuestion[] quizQuestions;
+
+    private final ScoringPlan[] scoringPlans;
+
+    private final int maxTotalScore;
+
+    private QuizScoringPlan(QuizQuestion[] quizQuestions, ScoringPlan[] scoringPlans, int maxTotalScore) {
+        this.quizQuestions = quizQuestions;
+        this.scoringPlans = scoringPlans;
+        this.maxTotalScore = maxTotalScore;
+    }
+
+    /**
+     * compile the scoring plans for all questions of the given quiz
+     *
+     * @param quizExercise the quiz with its questions
+     * @return the compiled plans
+     */
+    public static QuizScoringPlan compile(QuizExercise quizExercise) {
+        QuizQuestion[] quizQuestions = quizExercise.getQuizQuestions().toArray(new QuizQuestion[0]);
+        ScoringPlan[] scoringPlans = new ScoringPlan[quizQuestions.length];
+        for (int i = 0; i < quizQuestions.length; i++) {
+            scoringPlans[i] = compile(quizQuestions[i]);
+        }
+        return new QuizScoringPlan(quizQuestions, scoringPlans, quizExercise.getMaxTotalScore());
+    }
+
+    /**
+     * compile the scoring plan for the given question. Questions that cannot be compiled are scored with their scoring strategy.
+     *
+     * @param quizQuestion the question
+     * @return the compiled plan
+     */
+    public static ScoringPlan compile(QuizQuestion quizQuestion) {
+        ScoringPlan scoringPlan = null;
+        if (quizQuestion instanceof MultipleChoiceQuestion) {
+            scoringPlan = MultipleChoiceScoringPlan.compile((MultipleChoiceQuestion) quizQuestion);
+        }
+        else if (quizQuestion instanceof DragAndDropQuestion) {
+            scoringPlan = DragAndDropScoringPlan.compile((DragAndDropQuestion) quizQuestion);
+        }
+        return scoringPlan != null ? scoringPlan : new StrategyScoringPlan(quizQuestion);
+    }
+
+    /**
+     * calculates the scores for the given submission and all its submitted answers and saves them in scoreInPoints (like {@link QuizSubmission#calculateAndUpdateScores})
+     *
+     * @param quizSubmission the submission to score
+     */
+    public void calculateAndUpdateScores(QuizSubmission quizSubmission) {
+        double score = 0.0;
+        for (int i = 0; i < quizQuestions.length; i++) {
+            // search for submitted answer for this question
+            SubmittedAnswer submittedAnswer = quizSubmission.getSubmittedAnswerForQuestion(quizQuestions[i]);
+            if (submittedAnswer != null) {
+                double answerScore = scoringPlans[i].calculateScore(submittedAnswer);
+                submittedAnswer.setScoreInPoints(answerScore);
+                score += answerScore;
+            }
+        }
+        // set total score
+        quizSubmission.setScoreInPoints(score);
+    }
+
+    /**
+     * calculates the scores for the quiz submission of the given result and updates the score and the result string of the result. This is equivalent to
+     * {@link QuizSubmission#calculateAndUpdateScores} followed by {@link Result#evaluateSubmission}, but every answer is only scored once.
+     *
+     * @param result the result with the quiz submission to score
+     */
+    public void calculateAndUpdateScores(Result result) {
+        QuizSubmission quizSubmission = (QuizSubmission) result.getSubmission();
+        calculateAndUpdateScores(quizSubmission);
+        // map the resulting score to the 0 to 100 scale
+        result.setScore(Math.round(100.0 * quizSubmission.getScoreInPoints() / maxTotalScore));
+        result.setResultString(quizSubmission.getScoreInPoints(), (double) maxTotalScore);
+    }
+}
@@ -0,0 +1,18 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+
+/**
+ * A scoring plan is compiled once for a quiz question and scores many answers to this question. In contrast to a {@link ScoringStrategy}, it does not need to walk the entity
+ * collections of the question for every answer.
+ */
+public interface ScoringPlan {
+
+    /**
+     * Calculate the score for the given answer to the question this plan was compiled for
+     *
+     * @param submittedAnswer the answer to score
+     * @return the resulting score (usually between 0.0 and quizQuestion.getScore())
+     */
+    double calculateScore(SubmittedAnswer submittedAnswer);
+}
@@ -0,0 +1,24 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.quiz.QuizQuestion;
+
+/**
+ * Scoring plan that delegates to the {@link ScoringStrategy} of the question, e.g. for short answer questions, whose submitted texts have to be compared with the solutions anyway
+ */
+class StrategyScoringPlan implements ScoringPlan {
+
+    private final QuizQuestion quizQuestion;
+
+    private final ScoringStrategy scoringStrategy;
+
+    StrategyScoringPlan(QuizQuestion quizQuestion) {
+        this.quizQuestion = quizQuestion;
+        this.scoringStrategy = ScoringStrategyFactory.makeScoringStrategy(quizQuestion);
+    }
+
+    @Override
+    public double calculateScore(SubmittedAnswer submittedAnswer) {
+        return scoringStrategy.calculateScore(quizQuestion, submittedAnswer);
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.Complaint;
+import de.tum.in.www1.artemis.web.rest.dto.StatsExerciseCountDTO;
 
 /**
  * Spring Data JPA repository for the Complaint entity.
@@ -61,6 +62,16 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
      */
     long countByResult_Participation_Exercise_Id(Long exerciseId);
 
+    /**
+     * Counts the number of complaints of every exercise of a course
+     *
+     * @param courseId - the id of the course we want to filter by
+     * @return number of complaints associated to every exercise of course courseId that has complaints
+     */
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.StatsExerciseCountDTO(e.id, count(c)) "
+            + "from Complaint c join c.result r join r.participation p join p.exercise e where e.course.id = :courseId group by e.id")
+    List<StatsExerciseCountDTO> countByCourseIdGroupedByExercise(@Param("courseId") Long courseId);
+
     /**
      * This magic method counts the number of complaints associated to a exercise id and to the results assessed by a specific user, identified by a tutor id
      *
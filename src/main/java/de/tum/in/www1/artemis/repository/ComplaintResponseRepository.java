@@ -1,11 +1,15 @@
 package de.tum.in.www1.artemis.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.ComplaintResponse;
+import de.tum.in.www1.artemis.web.rest.dto.StatsExerciseCountDTO;
 
 /**
  * Spring Data JPA repository for the ComplaintResponse entity.
@@ -23,6 +27,17 @@ public interface ComplaintResponseRepository extends JpaRepository<ComplaintResp
      */
     long countByComplaint_Result_Participation_Exercise_Course_Id(Long courseId);
 
+    /**
+     * Counts the number of complaint responses of every exercise of a course
+     *
+     * @param courseId - the id of the course we want to filter by
+     * @return number of complaint responses associated to every exercise of course courseId that has complaint responses
+     */
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.StatsExerciseCountDTO(e.id, count(cr)) "
+            + "from ComplaintResponse cr join cr.complaint c join c.result r join r.participation p join p.exercise e "
+            + "where e.course.id = :courseId group by e.id")
+    List<StatsExerciseCountDTO> countByCourseIdGroupedByExercise(@Param("courseId") Long courseId);
+
     /**
      * Delete all complaint responses that belong to complaints of submission results of a given participation
      */
@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -26,6 +27,9 @@ public interface ModelingSubmissionRepository extends JpaRepository<ModelingSubm
     @Query("select distinct submission from ModelingSubmission submission left join fetch submission.participation p left join fetch submission.result r left join fetch r.feedbacks where p.exercise.id = :#{#exerciseId} and r.assessmentType = 'MANUAL'")
     List<ModelingSubmission> findByExerciseIdWithEagerResultsWithManualAssessment(@Param("exerciseId") Long exerciseId);
 
+    @Query("select submission.id from ModelingSubmission submission where submission.participation.exercise.id = :#{#exerciseId} and submission.result.assessmentType = 'MANUAL'")
+    Set<Long> findIdsByExerciseIdWithManualAssessment(@Param("exerciseId") Long exerciseId);
+
     @Query("select distinct submission from ModelingSubmission submission left join fetch submission.result r left join fetch r.feedbacks where submission.exampleSubmission = true and submission.id = :#{#submissionId}")
     Optional<ModelingSubmission> findExampleSubmissionByIdWithEagerResult(@Param("submissionId") Long submissionId);
 
@@ -1,15 +1,23 @@
 package de.tum.in.www1.artemis.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.Participation;
 import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.web.rest.dto.ParticipationResultDTO;
 
 /**
  * Spring Data JPA repository for the Participation entity.
@@ -24,11 +32,47 @@ public interface ParticipationRepository extends JpaRepository<Participation, Lo
 
     long countByExerciseId(@Param("exerciseId") Long exerciseId);
 
-    @Query("select distinct participation from Participation participation left join fetch participation.results where participation.exercise.course.id = :courseId")
-    List<Participation> findByCourseIdWithEagerResults(@Param("courseId") Long courseId);
-
-    @Query("SELECT DISTINCT participation FROM Participation participation LEFT JOIN FETCH participation.results r LEFT JOIN FETCH r.assessor WHERE participation.exercise.course.id = :courseId")
-    List<Participation> findByCourseIdWithEagerResultsAndAssessors(@Param("courseId") Long courseId);
+    /**
+     * A result is relevant for the scores of a course if it is rated (or has no rated flag for compatibility), has a completion date and a score and was created before the due
+     * date. In modeling and text exercises the submission date is compared with the due date, because the completion date of a manual assessment is usually after it. In quizzes
+     * every rated result is relevant. The condition refers to the result r with the submission s of the participation p of the exercise e.
+     */
+    String RELEVANT_RESULT = "r.completionDate is not null and r.score is not null and (r.rated is null or r.rated = true) and (type(e) = QuizExercise or e.dueDate is null "
+            + "or (type(e) in (ModelingExercise, TextExercise) and (s.submissionDate is null or s.submissionDate <= e.dueDate)) "
+            + "or (type(e) in (ProgrammingExercise, FileUploadExercise) and r.completionDate <= e.dueDate))";
+
+    /**
+     * The same condition as RELEVANT_RESULT for the result r2 with the submission s2, used in subqueries
+     */
+    String OTHER_RELEVANT_RESULT = "r2.completionDate is not null and r2.score is not null and (r2.rated is null or r2.rated = true) and (type(e) = QuizExercise "
+            + "or e.dueDate is null or (type(e) in (ModelingExercise, TextExercise) and (s2.submissionDate is null or s2.submissionDate <= e.dueDate)) "
+            + "or (type(e) in (ProgrammingExercise, FileUploadExercise) and r2.completionDate <= e.dueDate))";
+
+    /**
+     * Stream the participations of students in the course together with their relevant result, i.e. the relevant result for which no later relevant result exists. The stream
+     * has to be consumed and closed within a transaction.
+     *
+     * @param courseId the id of the course
+     * @return a stream of the participations with their relevant result
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.ParticipationResultDTO(p.id, e.id, u.id, u.login, u.firstName, u.lastName, u.email, r.id, r.score, "
+            + "r.completionDate, r.rated) from Participation p join p.student u join p.exercise e join p.results r left join r.submission s where e.course.id = :courseId and "
+            + RELEVANT_RESULT + " and not exists (select r2.id from Result r2 left join r2.submission s2 where r2.participation = p and " + OTHER_RELEVANT_RESULT
+            + " and (r2.completionDate > r.completionDate or (r2.completionDate = r.completionDate and r2.id > r.id))) order by p.id")
+    Stream<ParticipationResultDTO> streamWithRelevantResultByCourseId(@Param("courseId") Long courseId);
+
+    /**
+     * Stream the participations of students in the course that do not have a relevant result. The stream has to be consumed and closed within a transaction.
+     *
+     * @param courseId the id of the course
+     * @return a stream of the participations without relevant result
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.ParticipationResultDTO(p.id, e.id, u.id, u.login, u.firstName, u.lastName, u.email) "
+            + "from Participation p join p.student u join p.exercise e where e.course.id = :courseId "
+            + "and not exists (select r2.id from Result r2 left join r2.submission s2 where r2.participation = p and " + OTHER_RELEVANT_RESULT + ") order by p.id")
+    Stream<ParticipationResultDTO> streamWithoutRelevantResultByCourseId(@Param("courseId") Long courseId);
 
     Optional<Participation> findByExerciseIdAndStudentLogin(Long exerciseId, String username);
 
@@ -41,8 +85,9 @@ public interface ParticipationRepository extends JpaRepository<Participation, Lo
 
     List<Participation> findByBuildPlanIdAndInitializationState(String buildPlanId, InitializationState state);
 
-    @Query("select distinct participation from Participation participation left join fetch participation.results where participation.student.login = :#{#username}")
-    List<Participation> findByStudentUsernameWithEagerResults(@Param("username") String username);
+    List<Participation> findByInitializationStateInAndStudentIsNotNull(Collection<InitializationState> states);
+
+    List<Participation> findByStudentLogin(String username);
 
     @Query("select distinct participation from Participation participation left join fetch participation.results where participation.exercise.id = :#{#exerciseId}")
     List<Participation> findByExerciseIdWithEagerResults(@Param("exerciseId") Long exerciseId);
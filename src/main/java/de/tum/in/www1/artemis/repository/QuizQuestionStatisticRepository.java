@@ -1,6 +1,9 @@
 package de.tum.in.www1.artemis.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.quiz.QuizQuestionStatistic;
@@ -12,4 +15,7 @@ import de.tum.in.www1.artemis.domain.quiz.QuizQuestionStatistic;
 @Repository
 public interface QuizQuestionStatisticRepository extends JpaRepository<QuizQuestionStatistic, Long> {
 
+    @Modifying
+    @Query("update QuizQuestionStatistic s set s.ratedCorrectCounter = s.ratedCorrectCounter + :ratedCorrect, s.unRatedCorrectCounter = s.unRatedCorrectCounter + :unratedCorrect where s.id = :statisticId")
+    void incrementCorrectCounters(@Param("statisticId") Long statisticId, @Param("ratedCorrect") int ratedCorrect, @Param("unratedCorrect") int unratedCorrect);
 }
@@ -1,6 +1,11 @@
 package de.tum.in.www1.artemis.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
@@ -12,4 +17,30 @@ import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
 @Repository
 public interface QuizSubmissionRepository extends JpaRepository<QuizSubmission, Long> {
 
+    /**
+     * Get the ids of the submissions of the latest rated and the latest unrated result of each participation in the given quiz exercise, i.e. the submissions that are
+     * presented in the quiz statistics. If several results of a participation have the latest completion date, only the one with the highest id is taken, so that no submission
+     * is counted twice.
+     *
+     * @param exerciseId the id of the quiz exercise
+     * @return the ids of the quiz submissions
+     */
+    @Query("select submission.id from QuizSubmission submission join submission.result result where result.participation.exercise.id = :exerciseId and result.rated is not null "
+            + "and result.id = (select max(latestResult.id) from Result latestResult where latestResult.participation.id = result.participation.id and latestResult.rated = result.rated "
+            + "and latestResult.completionDate = (select max(otherResult.completionDate) from Result otherResult where otherResult.participation.id = result.participation.id "
+            + "and otherResult.rated = result.rated))")
+    List<Long> findIdsOfLatestRatedAndUnratedByExerciseId(@Param("exerciseId") Long exerciseId);
+
+    /**
+     * Get the logins of the users who have submitted in the given quiz exercise
+     *
+     * @param exerciseId the id of the quiz exercise
+     * @return the logins of the students with a submitted quiz submission
+     */
+    @Query("select distinct result.participation.student.login from QuizSubmission submission join submission.result result where result.participation.exercise.id = :exerciseId "
+            + "and submission.submitted = true")
+    List<String> findLoginsOfSubmittedUsersByExerciseId(@Param("exerciseId") Long exerciseId);
+
+    @Query("select distinct submission from QuizSubmission submission left join fetch submission.submittedAnswers left join fetch submission.result where submission.id in :submissionIds")
+    List<QuizSubmission> findWithEagerSubmittedAnswersAndResultByIdIn(@Param("submissionIds") Collection<Long> submissionIds);
 }
@@ -1,5 +1,7 @@
 package de.tum.in.www1.artemis.repository;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +13,8 @@ import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.Result;
 import de.tum.in.www1.artemis.domain.Submission;
+import de.tum.in.www1.artemis.web.rest.dto.StatsExerciseCountDTO;
+import de.tum.in.www1.artemis.web.rest.dto.StatsTutorLeaderboardDTO;
 
 /**
  * Spring Data JPA repository for the Result entity.
@@ -35,6 +39,9 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
 
     Optional<Result> findFirstByParticipationIdOrderByCompletionDateDesc(Long participationId);
 
+    @Query("select r from Result r join fetch r.participation p, LatestRatedResult l where l.resultId = r.id and p.student.login = :username")
+    List<Result> findLatestRatedResultsByStudentLogin(@Param("username") String username);
+
     Optional<Result> findFirstByParticipationIdAndRatedOrderByCompletionDateDesc(Long participationId, boolean rated);
 
     Optional<Result> findDistinctBySubmissionId(Long submissionId);
@@ -43,6 +50,9 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
 
     List<Result> findAllByParticipationExerciseIdAndAssessorId(Long exerciseId, Long assessorId);
 
+    @Query("select r.completionDate from Result r, ProgrammingSubmission s where r.submission.id = s.id and r.participation.buildPlanId = :buildPlanId and s.commitHash = :commitHash")
+    List<ZonedDateTime> findCompletionDatesByBuildPlanIdAndCommitHash(@Param("buildPlanId") String buildPlanId, @Param("commitHash") String commitHash);
+
     @Query("select r from Result r left join fetch r.feedbacks where r.id = :resultId")
     Optional<Result> findByIdWithEagerFeedbacks(@Param("resultId") Long id);
 
@@ -57,6 +67,9 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
      * not want to insert existing data, but rather specific data,the part SELECT :participationId, 0 specifies the fixed values. The specified values are only inserted, if there
      * is no result with the same participationId and rated = 0. The table dual is a dummy table name because we use specific values instead of values from a table. The parameter
      * nativeQuery is needed because the query is not a JPQL query string, but a native SQL string. Query taken from https://stackoverflow.com/a/913929.
+     * <p>
+     * The native query bypasses the Hibernate listeners that maintain the latest rated results, the inserted result is not relevant for them because it has no completion date.
+     * If a completion date is set in another native or bulk statement, LatestRatedResultService.updateLatestRatedResults has to be called for the participation.
      *
      * @param participationId the participation id for which the result should be inserted
      */
@@ -70,18 +83,36 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
 
     List<Result> findAllByParticipation_Exercise_CourseId(Long courseId);
 
-    // The query is used to build the tutor leaderboard for the instructor course dashboard, therefore we need only the rated results
-    @Query("SELECT DISTINCT r FROM Result r LEFT JOIN FETCH r.assessor WHERE r.participation.exercise.course.id = :courseId AND rated = true")
-    List<Result> findAllByParticipation_Exercise_CourseIdWithEagerAssessor(@Param("courseId") Long courseId);
-
-    // The query is used to build the tutor leaderboard for the instructor exercise dashboard, therefore we need only the rated results
-    @Query("SELECT DISTINCT r FROM Result r LEFT JOIN FETCH r.assessor WHERE r.participation.exercise.id = :exerciseId AND rated = true")
-    List<Result> findAllByParticipation_Exercise_IdWithEagerAssessor(@Param("exerciseId") Long exerciseId);
+    // The queries are used to build the tutor leaderboard for the instructor dashboards, therefore we need only the completed rated results
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.StatsTutorLeaderboardDTO(a.firstName, a.lastName, a.login, count(r), "
+            + "sum(case when r.hasComplaint = true then 1 else 0 end), a.id) "
+            + "from Result r join r.assessor a where r.participation.exercise.course.id = :courseId and r.rated = true and r.completionDate is not null and a.login is not null "
+            + "group by a.id, a.firstName, a.lastName, a.login")
+    List<StatsTutorLeaderboardDTO> findTutorLeaderboardByCourseId(@Param("courseId") Long courseId);
+
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.StatsTutorLeaderboardDTO(a.firstName, a.lastName, a.login, count(r), "
+            + "sum(case when r.hasComplaint = true then 1 else 0 end), a.id) "
+            + "from Result r join r.assessor a where r.participation.exercise.course.id = :courseId and r.rated = true and r.completionDate is not null and a.login is not null "
+            + "and a.id in :tutorIds group by a.id, a.firstName, a.lastName, a.login")
+    List<StatsTutorLeaderboardDTO> findTutorLeaderboardByCourseIdAndTutorIds(@Param("courseId") Long courseId, @Param("tutorIds") Collection<Long> tutorIds);
+
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.StatsTutorLeaderboardDTO(a.firstName, a.lastName, a.login, count(r), "
+            + "sum(case when r.hasComplaint = true then 1 else 0 end), a.id) "
+            + "from Result r join r.assessor a where r.participation.exercise.id = :exerciseId and r.rated = true and r.completionDate is not null and a.login is not null "
+            + "group by a.id, a.firstName, a.lastName, a.login")
+    List<StatsTutorLeaderboardDTO> findTutorLeaderboardByExerciseId(@Param("exerciseId") Long exerciseId);
 
     @Query("select result from Result result left join fetch result.submission where result.id = :resultId")
     Optional<Result> findByIdWithSubmission(@Param("resultId") long resultId);
 
+    @Query("select result from Result result left join fetch result.submission where result.participation.id in :participationIds")
+    List<Result> findAllByParticipationIdInWithSubmission(@Param("participationIds") Collection<Long> participationIds);
+
     long countByAssessorIsNotNullAndParticipation_ExerciseIdAndRatedAndCompletionDateIsNotNull(Long exerciseId, boolean rated);
 
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.StatsExerciseCountDTO(e.id, count(r)) from Result r join r.participation p join p.exercise e "
+            + "where e.course.id = :courseId and r.assessor is not null and r.rated = true and r.completionDate is not null group by e.id")
+    List<StatsExerciseCountDTO> countAssessmentsByCourseIdGroupedByExercise(@Param("courseId") Long courseId);
+
     long countByAssessor_IdAndParticipation_ExerciseIdAndRatedAndCompletionDateIsNotNull(Long tutorId, Long exerciseId, boolean rated);
 }
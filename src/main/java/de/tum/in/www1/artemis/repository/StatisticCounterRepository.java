@@ -1,6 +1,9 @@
 package de.tum.in.www1.artemis.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.quiz.QuizStatisticCounter;
@@ -12,4 +15,7 @@ import de.tum.in.www1.artemis.domain.quiz.QuizStatisticCounter;
 @Repository
 public interface StatisticCounterRepository extends JpaRepository<QuizStatisticCounter, Long> {
 
+    @Modifying
+    @Query("update QuizStatisticCounter c set c.ratedCounter = c.ratedCounter + :rated, c.unRatedCounter = c.unRatedCounter + :unrated where c.id = :counterId")
+    void incrementCounters(@Param("counterId") Long counterId, @Param("rated") int rated, @Param("unrated") int unrated);
 }
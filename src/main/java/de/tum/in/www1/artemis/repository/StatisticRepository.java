@@ -1,6 +1,9 @@
 package de.tum.in.www1.artemis.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.quiz.QuizStatistic;
@@ -12,4 +15,7 @@ import de.tum.in.www1.artemis.domain.quiz.QuizStatistic;
 @Repository
 public interface StatisticRepository extends JpaRepository<QuizStatistic, Long> {
 
+    @Modifying
+    @Query("update QuizStatistic s set s.participantsRated = s.participantsRated + :rated, s.participantsUnrated = s.participantsUnrated + :unrated where s.id = :statisticId")
+    void incrementParticipants(@Param("statisticId") Long statisticId, @Param("rated") int rated, @Param("unrated") int unrated);
 }
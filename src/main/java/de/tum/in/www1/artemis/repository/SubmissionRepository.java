@@ -4,9 +4,11 @@ import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.Submission;
+import de.tum.in.www1.artemis.web.rest.dto.StatsExerciseCountDTO;
 
 /**
  * Spring Data repository for the Submission entity.
@@ -24,4 +26,15 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
 
     @Query("select submission from Submission submission where type(submission) in (ModelingSubmission, TextSubmission) and submission.submitted = false and not submission.participation is null")
     List<Submission> findAllUnsubmittedModelingAndTextSubmissions();
+
+    /**
+     * @param courseId the id of the course you want the stats about
+     * @return the number of text and modeling submissions of every exercise of the course which have the submitted flag set to true and the submission date before the
+     *         exercise due date or no exercise due date at all, i.e. the submissions that should be assessed
+     */
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.StatsExerciseCountDTO(e.id, count(submission)) "
+            + "from Submission submission join submission.participation p join p.exercise e "
+            + "where e.course.id = :courseId and type(submission) in (ModelingSubmission, TextSubmission) and submission.submitted = true "
+            + "and (submission.submissionDate < e.dueDate or e.dueDate is null) group by e.id")
+    List<StatsExerciseCountDTO> countSubmissionsToAssessByCourseIdGroupedByExercise(@Param("courseId") Long courseId);
 }
@@ -63,10 +63,13 @@ public class JiraAuthenticationProvider implements ArtemisAuthenticationProvider
 
     private final CourseRepository courseRepository;
 
-    public JiraAuthenticationProvider(UserService userService, UserRepository userRepository, CourseRepository courseRepository) {
+    private final RestTemplate restTemplate;
+
+    public JiraAuthenticationProvider(UserService userService, UserRepository userRepository, CourseRepository courseRepository, RestTemplate connectorRestTemplate) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.courseRepository = courseRepository;
+        this.restTemplate = connectorRestTemplate;
     }
 
     @Override
@@ -90,7 +93,6 @@ public class JiraAuthenticationProvider implements ArtemisAuthenticationProvider
         String password = authentication.getCredentials().toString();
         HttpEntity<Principal> entity = new HttpEntity<>(
                 !skipPasswordCheck ? HeaderUtil.createAuthorization(username, password) : HeaderUtil.createAuthorization(JIRA_USER, JIRA_PASSWORD));
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> authenticationResponse = null;
         try {
             authenticationResponse = restTemplate.exchange(JIRA_URL + "/rest/api/2/user?username=" + username + "&expand=groups", HttpMethod.GET, entity, Map.class);
@@ -201,7 +203,6 @@ public class JiraAuthenticationProvider implements ArtemisAuthenticationProvider
         Map<String, Object> body = new HashMap<>();
         body.put("name", username);
         HttpEntity<?> entity = new HttpEntity<>(body, headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(JIRA_URL + "/rest/api/2/group/user?groupname=" + group, HttpMethod.POST, entity, Map.class);
         }
@@ -225,7 +226,6 @@ public class JiraAuthenticationProvider implements ArtemisAuthenticationProvider
     public Boolean checkIfGroupExists(String group) {
         HttpHeaders headers = HeaderUtil.createAuthorization(JIRA_USER, JIRA_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             ResponseEntity<Map> response = restTemplate.exchange(JIRA_URL + "/rest/api/2/group/member?groupname=" + group, HttpMethod.GET, entity, Map.class);
             if (response.getStatusCode().equals(HttpStatus.OK)) {
@@ -271,7 +271,6 @@ public class JiraAuthenticationProvider implements ArtemisAuthenticationProvider
     public Optional<String> getUsernameForEmail(String email) throws ArtemisAuthenticationException {
         HttpHeaders headers = HeaderUtil.createAuthorization(JIRA_USER, JIRA_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             ResponseEntity<ArrayList> authenticationResponse = restTemplate.exchange(JIRA_URL + "/rest/api/2/user/search?username=" + email, HttpMethod.GET, entity,
                     ArrayList.class);
@@ -0,0 +1,380 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
+import de.tum.in.www1.artemis.service.dto.BambooBuildResultNotificationDTO;
+
+/**
+ * Ingests the build results that the CI server sends to the application asynchronously, so that the request of the CI server is acknowledged right away and many builds finishing
+ * at the same time (e.g. at a submission deadline) do not block the request threads.
+ * <p>
+ * Every build result is written to a journal file before it is acknowledged and the file is deleted once the result has been processed, so that build results which have not
+ * been processed yet are replayed after a restart. The build results are distributed by plan key to a fixed number of partitions, every partition is processed in batches by one
+ * worker at a time, so the build results of a build plan are processed in the order in which they arrived. A build result that is still waiting in the queue is replaced by a newer
+ * build result of the same plan and commit hash.
+ * <p>
+ * A build result that fails is retried with an exponential backoff before it is moved out of the journal. A build result for which a result with the same plan key, commit hash
+ * and completion date already exists (e.g. because the application stopped after the result had been saved, but before the journal file was deleted) is not processed again.
+ */
+@Service
+public class BuildResultQueueService {
+
+    private final Logger log = LoggerFactory.getLogger(BuildResultQueueService.class);
+
+    private static final String JOURNAL_FILE_SUFFIX = ".json";
+
+    private static final String FAILED_DIRECTORY = "failed";
+
+    private final ResultService resultService;
+
+    private final ResultRepository resultRepository;
+
+    private final ParticipationService participationService;
+
+    private final ProgrammingExerciseService programmingExerciseService;
+
+    private final Optional<ContinuousIntegrationService> continuousIntegrationService;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolTaskExecutor ingestionExecutor;
+
+    private final List<Partition> partitions = new ArrayList<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The journal files of the build results that have been received since the start, they must not be queued again when the journal is replayed
+     */
+    private final Set<Path> receivedJournalFiles = ConcurrentHashMap.newKeySet();
+
+    @Value("${artemis.build-result-queue.journal-path:./build-result-queue/}")
+    private String journalPath;
+
+    @Value("${artemis.build-result-queue.batch-size:20}")
+    private int batchSize;
+
+    @Value("${artemis.build-result-queue.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${artemis.build-result-queue.retry.backoff:1000}")
+    private long backoff;
+
+    public BuildResultQueueService(ResultService resultService, ResultRepository resultRepository, ParticipationService participationService, ProgrammingExerciseService programmingExerciseService,
+            Optional<ContinuousIntegrationService> continuousIntegrationService, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+            @Value("${artemis.build-result-queue.threads:4}") int threads) {
+        this.resultService = resultService;
+        this.resultRepository = resultRepository;
+        this.participationService = participationService;
+        this.programmingExerciseService = programmingExerciseService;
+        this.continuousIntegrationService = continuousIntegrationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (int i = 0; i < threads; i++) {
+            partitions.add(new Partition());
+        }
+        ingestionExecutor = new ThreadPoolTaskExecutor();
+        ingestionExecutor.setThreadNamePrefix("BuildResultIngestion-");
+        ingestionExecutor.setCorePoolSize(threads);
+        ingestionExecutor.setMaxPoolSize(threads);
+        ingestionExecutor.initialize();
+    }
+
+    /**
+     * Replay the build results of the journal that have not been processed before the last shutdown. This happens only when the application is ready, so that the build results
+     * are not processed while other beans (e.g. the Hibernate listeners) are still initialized.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        Path journalDirectory = Paths.get(journalPath);
+        if (!Files.isDirectory(journalDirectory)) {
+            return;
+        }
+        List<Path> journalFiles;
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            journalFiles = files.filter(file -> file.getFileName().toString().endsWith(JOURNAL_FILE_SUFFIX)).filter(file -> !receivedJournalFiles.contains(file)).sorted()
+                    .collect(Collectors.toList());
+        }
+        catch (IOException e) {
+            log.error("Could not read the build result journal in " + journalDirectory, e);
+            return;
+        }
+        if (!journalFiles.isEmpty()) {
+            log.info("Replaying {} build results from the journal", journalFiles.size());
+        }
+        for (Path journalFile : journalFiles) {
+            try {
+                BambooBuildResultNotificationDTO requestBody = objectMapper.readValue(journalFile.toFile(), BambooBuildResultNotificationDTO.class);
+                String planKey = continuousIntegrationService.get().getPlanKey(requestBody);
+                String commitHash = continuousIntegrationService.get().getCommitHash(requestBody);
+                enqueue(new QueuedBuildResult(sequence.incrementAndGet(), planKey, commitHash, requestBody, journalFile));
+            }
+            catch (Exception e) {
+                log.error("Could not replay the build result " + journalFile, e);
+                moveToFailed(journalFile);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // build results that have not been processed yet stay in the journal and are replayed on the next start
+        ingestionExecutor.shutdown();
+    }
+
+    /**
+     * Add a build result that has been sent by the CI server to the queue. The build result is written to the journal before this method returns, if this fails it is only kept in
+     * memory.
+     *
+     * @param planKey     the plan key of the build
+     * @param requestBody the request body with the build result sent by the CI server
+     * @throws Exception if the commit hash cannot be read from the request body
+     */
+    public void addBuildResult(String planKey, BambooBuildResultNotificationDTO requestBody) throws Exception {
+        String commitHash = continuousIntegrationService.get().getCommitHash(requestBody);
+        long id = sequence.incrementAndGet();
+        Path journalFile = null;
+        try {
+            journalFile = writeJournalFile(id, requestBody);
+        }
+        catch (IOException e) {
+            log.error("Could not write the build result of plan " + planKey + " to the journal, it will be lost if the application stops before it has been processed", e);
+        }
+        enqueue(new QueuedBuildResult(id, planKey, commitHash, requestBody, journalFile));
+    }
+
+    private Path writeJournalFile(long id, BambooBuildResultNotificationDTO requestBody) throws IOException {
+        Path journalDirectory = Paths.get(journalPath);
+        Files.createDirectories(journalDirectory);
+        // the file name keeps the order of the build results when the journal is replayed
+        String fileName = String.format("%013d-%09d", System.currentTimeMillis(), id);
+        Path temporaryFile = journalDirectory.resolve(fileName + ".tmp");
+        Files.write(temporaryFile, objectMapper.writeValueAsBytes(requestBody));
+        Path journalFile = journalDirectory.resolve(fileName + JOURNAL_FILE_SUFFIX);
+        receivedJournalFiles.add(journalFile);
+        return Files.move(temporaryFile, journalFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void enqueue(QueuedBuildResult buildResult) {
+        Partition partition = partitions.get(Math.floorMod(buildResult.planKey.hashCode(), partitions.size()));
+        synchronized (partition) {
+            QueuedBuildResult replacedBuildResult = partition.buildResults.remove(buildResult.getKey());
+            if (replacedBuildResult != null) {
+                log.info("Replacing the queued build result of plan {} and commit {} with a newer one", buildResult.planKey, buildResult.commitHash);
+                deleteJournalFile(replacedBuildResult);
+            }
+            partition.buildResults.put(buildResult.getKey(), buildResult);
+            if (!partition.processing) {
+                partition.processing = true;
+                ingestionExecutor.execute(() -> processPartition(partition));
+            }
+        }
+    }
+
+    private void processPartition(Partition partition) {
+        while (true) {
+            List<QueuedBuildResult> batch = new ArrayList<>();
+            synchronized (partition) {
+                Iterator<QueuedBuildResult> iterator = partition.buildResults.values().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                    iterator.remove();
+                }
+                if (batch.isEmpty()) {
+                    partition.processing = false;
+                    return;
+                }
+            }
+            for (QueuedBuildResult buildResult : batch) {
+                process(buildResult);
+            }
+        }
+    }
+
+    /**
+     * Process a build result and retry it with an exponential backoff until it succeeds or the maximum number of attempts is reached. The build results of the same partition wait in
+     * the meantime, so that they are still processed in the order in which they arrived.
+     */
+    void process(QueuedBuildResult buildResult) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                processInTransaction(buildResult);
+                deleteJournalFile(buildResult);
+                return;
+            }
+            catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    log.error("An exception occurred during handling of the build result of plan " + buildResult.planKey + ", giving up after " + attempt + " attempts", e);
+                    if (buildResult.journalFile != null) {
+                        moveToFailed(buildResult.journalFile);
+                    }
+                    return;
+                }
+                log.warn("Could not process the build result of plan {}, retrying (attempt {} of {}): {}", buildResult.planKey, attempt, maxAttempts, e.toString());
+            }
+            try {
+                Thread.sleep(backoff << (attempt - 1));
+            }
+            catch (InterruptedException e) {
+                // the build result stays in the journal and is replayed on the next start
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Process a build result in its own transaction, so that a failing build result does not affect the others of the batch. The user is notified after the transaction has been
+     * committed.
+     */
+    private void processInTransaction(QueuedBuildResult buildResult) {
+        transactionTemplate.execute(status -> {
+            Optional<Participation> optionalParticipation = participationService.findLatestByBuildPlanIdAndInitializationState(buildResult.planKey, InitializationState.INITIALIZED);
+            if (!optionalParticipation.isPresent()) {
+                log.info("Participation is missing for notifyResultNew (PlanKey: {}).", buildResult.planKey);
+                return null;
+            }
+            if (isAlreadyProcessed(buildResult)) {
+                log.info("The build result of plan {} and commit {} has already been processed and is skipped", buildResult.planKey, buildResult.commitHash);
+                return null;
+            }
+            Participation participation = optionalParticipation.get();
+            if (buildResult.planKey.toLowerCase().contains("-base")) { // TODO: transfer this into constants
+                participation.setExercise(programmingExerciseService.getExerciseForTemplateParticipation(participation));
+            }
+            else if (buildResult.planKey.toLowerCase().contains("-solution")) { // TODO: transfer this into constants
+                participation.setExercise(programmingExerciseService.getExerciseForSolutionParticipation(participation));
+            }
+            Result result;
+            try {
+                result = resultService.onResultNotifiedNew(participation, buildResult.requestBody);
+            }
+            catch (Exception e) {
+                throw new IllegalStateException("Could not process the build result of plan " + buildResult.planKey, e);
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    resultService.notifyUser(participation, result);
+                }
+            });
+            log.info("ResultService succeeded for notifyResultNew (PlanKey: {}).", buildResult.planKey);
+            return result;
+        });
+    }
+
+    /**
+     * Check whether a result for the build of the given build result has already been saved. The completion date is compared in addition to the plan key and the commit hash,
+     * because a commit is built again when the tests of the exercise change and the new build has to replace the previous result.
+     */
+    private boolean isAlreadyProcessed(QueuedBuildResult buildResult) {
+        if (buildResult.commitHash == null || buildResult.requestBody.getBuild() == null || buildResult.requestBody.getBuild().getBuildCompletedDate() == null) {
+            return false;
+        }
+        // the database might not store fractions of seconds
+        long completionDate = ZonedDateTime.parse(buildResult.requestBody.getBuild().getBuildCompletedDate()).toEpochSecond();
+        return resultRepository.findCompletionDatesByBuildPlanIdAndCommitHash(buildResult.planKey, buildResult.commitHash).stream()
+                .anyMatch(existingCompletionDate -> existingCompletionDate != null && existingCompletionDate.toEpochSecond() == completionDate);
+    }
+
+    private void deleteJournalFile(QueuedBuildResult buildResult) {
+        if (buildResult.journalFile == null) {
+            return;
+        }
+        receivedJournalFiles.remove(buildResult.journalFile);
+        try {
+            Files.deleteIfExists(buildResult.journalFile);
+        }
+        catch (IOException e) {
+            log.error("Could not delete the build result " + buildResult.journalFile + " from the journal", e);
+        }
+    }
+
+    /**
+     * Keep build results that could not be processed for a manual inspection, but do not replay them again
+     */
+    private void moveToFailed(Path journalFile) {
+        receivedJournalFiles.remove(journalFile);
+        try {
+            Path failedDirectory = journalFile.resolveSibling(FAILED_DIRECTORY);
+            Files.createDirectories(failedDirectory);
+            Files.move(journalFile, failedDirectory.resolve(journalFile.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e) {
+            log.error("Could not move the failed build result " + journalFile + " out of the journal", e);
+        }
+    }
+
+    private static class Partition {
+
+        /**
+         * The queued build results of the partition in the order of their arrival, the key consists of the plan key and the commit hash
+         */
+        private final LinkedHashMap<String, QueuedBuildResult> buildResults = new LinkedHashMap<>();
+
+        /**
+         * Whether a worker is currently processing the partition
+         */
+        private boolean processing = false;
+    }
+
+    static class QueuedBuildResult {
+
+        private final long id;
+
+        private final String planKey;
+
+        private final String commitHash;
+
+        private final BambooBuildResultNotificationDTO requestBody;
+
+        private final Path journalFile;
+
+        QueuedBuildResult(long id, String planKey, String commitHash, BambooBuildResultNotificationDTO requestBody, Path journalFile) {
+            this.id = id;
+            this.planKey = planKey;
+            this.commitHash = commitHash;
+            this.requestBody = requestBody;
+            this.journalFile = journalFile;
+        }
+
+        /**
+         * @return the key under which the build result is queued, build results without commit hash are never replaced
+         */
+        private String getKey() {
+            return commitHash != null ? planKey + "/" + commitHash : planKey + "#" + id;
+        }
+    }
+}
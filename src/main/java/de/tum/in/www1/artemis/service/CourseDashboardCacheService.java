@@ -0,0 +1,417 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.config.Constants;
+import de.tum.in.www1.artemis.domain.*;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caches the course dashboard of every user as serialized JSON, so that a user who loads the dashboard again (e.g. many students at the start of a lecture) neither hits the
+ * database nor Jackson. A cached dashboard is only used as long as
+ * <ul>
+ * <li>no course, exercise, lecture or attachment has been changed,</li>
+ * <li>no participation or result of the user and the user itself (e.g. the groups) have been changed,</li>
+ * <li>no date (e.g. a release or due date) has passed that changes which courses, exercises, attachments or results are shown.</li>
+ * </ul>
+ * The changes are detected with Hibernate event listeners and only invalidate the cache after the transaction has been committed, so a dashboard that is built concurrently
+ * cannot be cached with the old data. A changed exercise, lecture or attachment only invalidates the dashboards that contain its course.
+ * <p>
+ * Every invalidation is stored with a new number of a sequence and a cached dashboard is valid as long as no invalidation that concerns it has a higher number than the one read
+ * before the dashboard was built. Invalidations are forgotten after the time to live, because all dashboards built before them have expired by then.
+ */
+@Service
+public class CourseDashboardCacheService {
+
+    private final Logger log = LoggerFactory.getLogger(CourseDashboardCacheService.class);
+
+    public static final String COURSE_DASHBOARD_CACHE = "courseDashboards";
+
+    /**
+     * All dates that change the content of a dashboard when they pass, except for the end of quizzes, which is not stored in the database
+     */
+    private static final List<String> UPCOMING_DATE_QUERIES = Arrays.asList("select min(c.startDate) from Course c where c.startDate > :now",
+            "select min(c.endDate) from Course c where c.endDate > :now", "select min(e.releaseDate) from Exercise e where e.releaseDate > :now",
+            "select min(e.dueDate) from Exercise e where e.dueDate > :now", "select min(e.assessmentDueDate) from Exercise e where e.assessmentDueDate > :now",
+            "select min(l.startDate) from Lecture l where l.startDate > :now", "select min(l.endDate) from Lecture l where l.endDate > :now",
+            "select min(a.releaseDate) from Attachment a where a.releaseDate > :now");
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache cache;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The version of all dashboards, it changes whenever a course is created, changed or deleted (e.g. the groups, which determine the courses of a user) or a date passes
+     */
+    private volatile long globalVersion;
+
+    /**
+     * The version of the exercises, lectures and attachments of every course that has been changed within the time to live
+     */
+    private final Map<Long, Invalidation> courseVersions = new ConcurrentHashMap<>();
+
+    /**
+     * The version of the participations and results of every user whose participations or results have been changed within the time to live
+     */
+    private final Map<String, Invalidation> userVersions = new ConcurrentHashMap<>();
+
+    /**
+     * The next date when the content of the dashboards changes, null if it has to be determined again
+     */
+    private volatile ZonedDateTime nextDateChange;
+
+    /**
+     * The users and courses that have been changed in the current transaction of a session
+     */
+    private final Map<SharedSessionContractImplementor, PendingInvalidation> pendingInvalidations = new ConcurrentHashMap<>();
+
+    @Value("${artemis.course-dashboard-cache.time-to-live:600}")
+    private long timeToLive;
+
+    public CourseDashboardCacheService(EntityManagerFactory entityManagerFactory, EntityManager entityManager, PlatformTransactionManager transactionManager,
+            MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter, CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = mappingJackson2HttpMessageConverter.getObjectMapper();
+        this.cache = cacheManager.getCache(COURSE_DASHBOARD_CACHE);
+        this.hitCounter = Counter.builder("artemis.course-dashboard.cache").description("Course dashboards that have been loaded").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("artemis.course-dashboard.cache").description("Course dashboards that have been loaded").tag("result", "miss").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        DashboardChangeListener listener = new DashboardChangeListener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+    }
+
+    /**
+     * Get the cached dashboard of the given user or build it with the given supplier and cache it
+     *
+     * @param login           the login of the user
+     * @param coursesSupplier builds the courses of the dashboard, only invoked if there is no valid cached dashboard
+     * @return the dashboard serialized as JSON
+     * @throws JsonProcessingException if the courses cannot be serialized
+     */
+    public byte[] getDashboard(String login, Supplier<List<Course>> coursesSupplier) throws JsonProcessingException {
+        ZonedDateTime now = ZonedDateTime.now();
+        if (nextDateChange == null || !now.isBefore(nextDateChange)) {
+            updateNextDateChange(now);
+        }
+        CachedDashboard cachedDashboard = cache.get(login, CachedDashboard.class);
+        if (cachedDashboard != null && now.isBefore(cachedDashboard.validUntil) && isValid(cachedDashboard, login)) {
+            hitCounter.increment();
+            return cachedDashboard.json;
+        }
+        missCounter.increment();
+        // the version is read before the dashboard is built, so that a change while it is built invalidates it right away
+        long version = sequence.get();
+        List<Course> courses = coursesSupplier.get();
+        byte[] json = objectMapper.writeValueAsBytes(courses);
+        Set<Long> courseIds = courses.stream().map(Course::getId).collect(Collectors.toCollection(HashSet::new));
+        ZonedDateTime validUntil = now.plusSeconds(timeToLive);
+        cache.put(login, new CachedDashboard(json, version, courseIds, nextDateChange.isBefore(validUntil) ? nextDateChange : validUntil));
+        return json;
+    }
+
+    private boolean isValid(CachedDashboard cachedDashboard, String login) {
+        if (globalVersion > cachedDashboard.version || getVersion(userVersions.get(login)) > cachedDashboard.version) {
+            return false;
+        }
+        for (Long courseId : cachedDashboard.courseIds) {
+            if (getVersion(courseVersions.get(courseId)) > cachedDashboard.version) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getVersion(Invalidation invalidation) {
+        return invalidation != null ? invalidation.version : 0;
+    }
+
+    /**
+     * Invalidate the cached dashboard of the given user, e.g. because the user has submitted in a quiz, which is only stored in memory until the quiz ends
+     *
+     * @param login the login of the user
+     */
+    public void invalidateUser(String login) {
+        userVersions.put(login, new Invalidation(sequence.incrementAndGet()));
+    }
+
+    /**
+     * Invalidate the cached dashboards that contain the given course, e.g. because one of its exercises has been changed
+     *
+     * @param courseId the id of the course
+     */
+    public void invalidateCourse(Long courseId) {
+        courseVersions.put(courseId, new Invalidation(sequence.incrementAndGet()));
+        // the exercise might have a new date that passes before the next known date change
+        nextDateChange = null;
+    }
+
+    /**
+     * Invalidate the cached dashboards of all users
+     */
+    public void invalidateAll() {
+        globalVersion = sequence.incrementAndGet();
+        nextDateChange = null;
+    }
+
+    /**
+     * Forget the invalidations that are older than the time to live, the dashboards they concern have expired in the meantime
+     */
+    @Scheduled(fixedDelayString = "${artemis.course-dashboard-cache.cleanup-interval:60000}")
+    public void removeExpiredInvalidations() {
+        long expiredBefore = System.currentTimeMillis() - timeToLive * 1000;
+        courseVersions.values().removeIf(invalidation -> invalidation.time < expiredBefore);
+        userVersions.values().removeIf(invalidation -> invalidation.time < expiredBefore);
+    }
+
+    /**
+     * All dashboards that have been cached before the next date change are outdated when it passes, so the global version changes and the next date change is determined. The
+     * next date change is also determined again after an exercise, lecture or attachment has been changed, which does not invalidate the dashboards of other courses.
+     */
+    private synchronized void updateNextDateChange(ZonedDateTime now) {
+        if (nextDateChange != null && now.isBefore(nextDateChange)) {
+            // another thread has already updated it
+            return;
+        }
+        if (nextDateChange != null) {
+            log.debug("Invalidate all course dashboards because a date has passed");
+            globalVersion = sequence.incrementAndGet();
+        }
+        nextDateChange = transactionTemplate.execute(status -> {
+            ZonedDateTime next = now.plusSeconds(timeToLive);
+            for (String query : UPCOMING_DATE_QUERIES) {
+                ZonedDateTime date = entityManager.createQuery(query, ZonedDateTime.class).setParameter("now", now).getSingleResult();
+                if (date != null && date.isBefore(next)) {
+                    next = date;
+                }
+            }
+            // quizzes that are currently running or start soon, their end is the release date plus the duration
+            List<Object[]> quizzes = entityManager.createQuery("select q.releaseDate, q.duration from QuizExercise q where q.isPlannedToStart = true and q.releaseDate > :since",
+                    Object[].class).setParameter("since", now.minusDays(1)).getResultList();
+            for (Object[] quiz : quizzes) {
+                if (quiz[0] != null && quiz[1] != null) {
+                    ZonedDateTime end = ((ZonedDateTime) quiz[0]).plusSeconds((Integer) quiz[1] + Constants.QUIZ_GRACE_PERIOD_IN_SECONDS);
+                    if (end.isAfter(now) && end.isBefore(next)) {
+                        next = end;
+                    }
+                }
+            }
+            return next;
+        });
+    }
+
+    private void changed(EventSource session, Object entity) {
+        String login = null;
+        Long courseId = null;
+        boolean courseChanged = false;
+        if (entity instanceof Result) {
+            Participation participation = ((Result) entity).getParticipation();
+            login = participation != null && participation.getStudent() != null ? participation.getStudent().getLogin() : null;
+        }
+        else if (entity instanceof Participation) {
+            login = ((Participation) entity).getStudent() != null ? ((Participation) entity).getStudent().getLogin() : null;
+        }
+        else if (entity instanceof User) {
+            login = ((User) entity).getLogin();
+        }
+        else if (entity instanceof Course) {
+            // the groups or dates of the course might have been changed, which changes the courses of the dashboards
+            courseChanged = true;
+        }
+        else if (entity instanceof Exercise || entity instanceof Lecture || entity instanceof Attachment) {
+            courseId = getCourseId(entity);
+            // all dashboards are invalidated if the course is not known
+            courseChanged = courseId == null;
+        }
+        if (login == null && courseId == null && !courseChanged) {
+            return;
+        }
+        PendingInvalidation pendingInvalidation = pendingInvalidations.computeIfAbsent(session, key -> {
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) this::invalidate);
+            return new PendingInvalidation();
+        });
+        synchronized (pendingInvalidation) {
+            pendingInvalidation.courseChanged |= courseChanged;
+            if (login != null) {
+                pendingInvalidation.logins.add(login);
+            }
+            if (courseId != null) {
+                pendingInvalidation.courseIds.add(courseId);
+            }
+        }
+    }
+
+    private Long getCourseId(Object entity) {
+        Course course = null;
+        if (entity instanceof Exercise) {
+            course = ((Exercise) entity).getCourse();
+        }
+        else if (entity instanceof Lecture) {
+            course = ((Lecture) entity).getCourse();
+        }
+        else if (entity instanceof Attachment) {
+            Attachment attachment = (Attachment) entity;
+            if (attachment.getLecture() != null) {
+                course = attachment.getLecture().getCourse();
+            }
+            else if (attachment.getExercise() != null) {
+                course = attachment.getExercise().getCourse();
+            }
+        }
+        return course != null ? course.getId() : null;
+    }
+
+    private void invalidate(boolean success, SharedSessionContractImplementor session) {
+        PendingInvalidation pendingInvalidation = pendingInvalidations.remove(session);
+        if (!success || pendingInvalidation == null) {
+            return;
+        }
+        if (pendingInvalidation.courseChanged) {
+            invalidateAll();
+        }
+        pendingInvalidation.courseIds.forEach(this::invalidateCourse);
+        pendingInvalidation.logins.forEach(this::invalidateUser);
+    }
+
+    private static class PendingInvalidation {
+
+        private boolean courseChanged = false;
+
+        private final Set<Long> courseIds = new HashSet<>();
+
+        private final Set<String> logins = new HashSet<>();
+    }
+
+    private static class Invalidation {
+
+        private final long version;
+
+        private final long time = System.currentTimeMillis();
+
+        Invalidation(long version) {
+            this.version = version;
+        }
+    }
+
+    private static class CachedDashboard implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] json;
+
+        /**
+         * The number of the sequence before the dashboard was built
+         */
+        private final long version;
+
+        private final Set<Long> courseIds;
+
+        /**
+         * The time after which the dashboard has to be built again, because it might contain a date that has passed
+         */
+        private final ZonedDateTime validUntil;
+
+        CachedDashboard(byte[] json, long version, Set<Long> courseIds, ZonedDateTime validUntil) {
+            this.json = json;
+            this.version = version;
+            this.courseIds = courseIds;
+            this.validUntil = validUntil;
+        }
+    }
+
+    private class DashboardChangeListener
+            implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+            PostCollectionRemoveEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            changed(event.getSession(), event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            changed(event.getSession(), event.getEntity());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            changed(event.getSession(), event.getEntity());
+        }
+
+        @Override
+        public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+            changed(event.getSession(), event.getAffectedOwnerOrNull());
+        }
+
+        @Override
+        public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+            changed(event.getSession(), event.getAffectedOwnerOrNull());
+        }
+
+        @Override
+        public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+            changed(event.getSession(), event.getAffectedOwnerOrNull());
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package de.tum.in.www1.artemis.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.tum.in.www1.artemis.repository.ComplaintRepository;
+import de.tum.in.www1.artemis.repository.ComplaintResponseRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.repository.SubmissionRepository;
+import de.tum.in.www1.artemis.web.rest.dto.StatsForCourseDTO;
+
+/**
+ * Calculates the counters of all exercises of a course for the tutor and instructor dashboards with one grouped query per counter instead of one query per exercise and
+ * counter. The counters are cached for a few seconds, so that the dashboards, which request them with several calls at once, share them.
+ */
+@Service
+public class CourseStatisticsService {
+
+    private final Logger log = LoggerFactory.getLogger(CourseStatisticsService.class);
+
+    public static final String COURSE_STATISTICS_CACHE = "courseStatistics";
+
+    private final SubmissionRepository submissionRepository;
+
+    private final ResultRepository resultRepository;
+
+    private final ComplaintRepository complaintRepository;
+
+    private final ComplaintResponseRepository complaintResponseRepository;
+
+    public CourseStatisticsService(SubmissionRepository submissionRepository, ResultRepository resultRepository, ComplaintRepository complaintRepository,
+            ComplaintResponseRepository complaintResponseRepository) {
+        this.submissionRepository = submissionRepository;
+        this.resultRepository = resultRepository;
+        this.complaintRepository = complaintRepository;
+        this.complaintResponseRepository = complaintResponseRepository;
+    }
+
+    /**
+     * Given a courseId, return the number of submissions to assess (text and modeling submissions that have been submitted before the due date), the number of completed
+     * assessments, the number of complaints and the number of complaint responses of every exercise of the course
+     *
+     * @param courseId - the course we are interested in
+     * @return the counters of all exercises of the course
+     */
+    @Cacheable(cacheNames = COURSE_STATISTICS_CACHE)
+    @Transactional(readOnly = true)
+    public StatsForCourseDTO getStatisticsForCourse(Long courseId) {
+        long start = System.currentTimeMillis();
+        StatsForCourseDTO statistics = new StatsForCourseDTO(submissionRepository.countSubmissionsToAssessByCourseIdGroupedByExercise(courseId),
+                resultRepository.countAssessmentsByCourseIdGroupedByExercise(courseId), complaintRepository.countByCourseIdGroupedByExercise(courseId),
+                complaintResponseRepository.countByCourseIdGroupedByExercise(courseId));
+        log.debug("Calculated the statistics of course {} in {}ms", courseId, System.currentTimeMillis() - start);
+        return statistics;
+    }
+}
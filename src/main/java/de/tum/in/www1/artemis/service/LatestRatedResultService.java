@@ -0,0 +1,220 @@
+package de.tum.in.www1.artemis.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.tum.in.www1.artemis.domain.LatestRatedResult;
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.Result;
+
+/**
+ * Maintains the {@link LatestRatedResult} of every participation. Whenever a result is created, updated or deleted (no matter if through the ResultRepository or through the
+ * cascade of a submission), the latest rated result of its participation is determined again right before the transaction is committed, so that the course dashboard does not
+ * need to load all results of a student.
+ * <p>
+ * The read model is updated with an upsert, so that two transactions that change results of the same participation at the same time do not fail with a duplicate key. Results that
+ * are changed with bulk or native statements bypass the listeners, their participations have to be passed to {@link #updateLatestRatedResults(Collection)}.
+ */
+@Service
+public class LatestRatedResultService {
+
+    private final Logger log = LoggerFactory.getLogger(LatestRatedResultService.class);
+
+    /**
+     * The same criteria as in Exercise.findLatestRatedResultWithCompletionDate and QuizExercise.findLatestRatedResultWithCompletionDate: for quizzes only rated results are
+     * relevant, for all other exercises also results without a rated flag are relevant
+     */
+    private static final String RELEVANT_RESULTS = "from result r join participation p on p.id = r.participation_id join exercise e on e.id = p.exercise_id "
+            + "where r.completion_date is not null and (r.rated = true or (r.rated is null and e.discriminator <> 'Q'))";
+
+    private static final String LATEST_RELEVANT_RESULT = "select r.participation_id, r.id " + RELEVANT_RESULTS
+            + " and r.participation_id = :participationId order by r.completion_date desc, r.id desc limit 1";
+
+    private static final String UPSERT_LATEST_RATED_RESULT = "insert into latest_rated_result (participation_id, result_id) " + LATEST_RELEVANT_RESULT
+            + " on duplicate key update result_id = values(result_id)";
+
+    /**
+     * The upsert for H2, which is used by the tests
+     */
+    private static final String MERGE_LATEST_RATED_RESULT = "merge into latest_rated_result (participation_id, result_id) key (participation_id) " + LATEST_RELEVANT_RESULT;
+
+    private static final String DELETE_LATEST_RATED_RESULT_WITHOUT_RELEVANT_RESULT = "delete from latest_rated_result where participation_id = :participationId "
+            + "and not exists (select r.id " + RELEVANT_RESULTS + " and r.participation_id = :participationId)";
+
+    private static final String FIND_PARTICIPATIONS_WITHOUT_LATEST_RATED_RESULT = "select distinct r.participation_id " + RELEVANT_RESULTS
+            + " and not exists (select l.participation_id from latest_rated_result l where l.participation_id = r.participation_id)";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private String upsertLatestRatedResult = UPSERT_LATEST_RATED_RESULT;
+
+    /**
+     * The ids of the participations whose latest rated result has to be determined again before the transaction of the session is committed
+     */
+    private final Map<SharedSessionContractImplementor, Set<Long>> pendingParticipationIds = new ConcurrentHashMap<>();
+
+    @Value("${artemis.latest-rated-result.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    public LatestRatedResultService(EntityManagerFactory entityManagerFactory, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        if (sessionFactory.getJdbcServices().getDialect() instanceof H2Dialect) {
+            upsertLatestRatedResult = MERGE_LATEST_RATED_RESULT;
+        }
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        ResultChangeListener listener = new ResultChangeListener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    /**
+     * Determine the latest rated result of all participations that have relevant results but no latest rated result, e.g. because their results have been created before the
+     * read model has been introduced. The participations are processed in batches, every batch in its own transaction.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long start = System.currentTimeMillis();
+        List<Long> participationIds = transactionTemplate.execute(status -> {
+            @SuppressWarnings("unchecked")
+            List<Number> ids = entityManager.createNativeQuery(FIND_PARTICIPATIONS_WITHOUT_LATEST_RATED_RESULT).getResultList();
+            return ids.stream().map(Number::longValue).collect(Collectors.toList());
+        });
+        if (participationIds.isEmpty()) {
+            return;
+        }
+        log.info("Determine the latest rated result of {} participations", participationIds.size());
+        for (int i = 0; i < participationIds.size(); i += backfillBatchSize) {
+            List<Long> batch = participationIds.subList(i, Math.min(i + backfillBatchSize, participationIds.size()));
+            transactionTemplate.execute(status -> {
+                batch.forEach(participationId -> updateLatestRatedResult(entityManager, participationId));
+                return null;
+            });
+        }
+        log.info("Determined the latest rated result of {} participations in {}ms", participationIds.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Determine the latest rated result of the given participations again, e.g. after their results have been changed with a bulk or native statement, which bypasses the
+     * listeners of this service
+     *
+     * @param participationIds the ids of the participations
+     */
+    @Transactional
+    public void updateLatestRatedResults(Collection<Long> participationIds) {
+        // the participations are always updated in the same order, so that concurrent transactions do not deadlock
+        new TreeSet<>(participationIds).forEach(participationId -> updateLatestRatedResult(entityManager, participationId));
+    }
+
+    /**
+     * Determine the latest rated result of the given participation again and store it in the read model
+     *
+     * @param entityManager   the entity manager of the current transaction
+     * @param participationId the id of the participation
+     */
+    private void updateLatestRatedResult(EntityManager entityManager, Long participationId) {
+        for (String statement : Arrays.asList(upsertLatestRatedResult, DELETE_LATEST_RATED_RESULT_WITHOUT_RELEVANT_RESULT)) {
+            // only the read model is affected, so that the statement does not invalidate the second level cache of the other entities
+            entityManager.createNativeQuery(statement).unwrap(NativeQuery.class).addSynchronizedEntityClass(LatestRatedResult.class)
+                    .setParameter("participationId", participationId).executeUpdate();
+        }
+    }
+
+    private void participationChanged(EventSource session, Long participationId) {
+        if (participationId == null) {
+            return;
+        }
+        Set<Long> participationIds = pendingParticipationIds.computeIfAbsent(session, key -> {
+            // the results are updated after the changes of the transaction have been flushed, but before it is committed
+            session.getActionQueue().registerProcess(new UpdateLatestRatedResultsProcess());
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completedSession) -> pendingParticipationIds.remove(completedSession));
+            // the participations are always updated in the same order, so that concurrent transactions do not deadlock
+            return new TreeSet<>();
+        });
+        participationIds.add(participationId);
+    }
+
+    private class UpdateLatestRatedResultsProcess implements BeforeTransactionCompletionProcess {
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            Set<Long> participationIds = pendingParticipationIds.remove(session);
+            if (participationIds != null) {
+                participationIds.forEach(participationId -> updateLatestRatedResult(session, participationId));
+            }
+        }
+    }
+
+    private class ResultChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            resultChanged(event.getSession(), event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            resultChanged(event.getSession(), event.getEntity());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Participation) {
+                // the participation does not exist anymore, so its latest rated result is removed
+                participationChanged(event.getSession(), ((Participation) event.getEntity()).getId());
+            }
+            else {
+                resultChanged(event.getSession(), event.getEntity());
+            }
+        }
+
+        private void resultChanged(EventSource session, Object entity) {
+            if (entity instanceof Result && ((Result) entity).getParticipation() != null) {
+                participationChanged(session, ((Result) entity).getParticipation().getId());
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+}
@@ -1,20 +1,16 @@
 package de.tum.in.www1.artemis.service;
 
-import static de.tum.in.www1.artemis.config.Constants.PROGRAMMING_SUBMISSION_RESOURCE_API_PATH;
 import static de.tum.in.www1.artemis.domain.enumeration.InitializationState.FINISHED;
 import static de.tum.in.www1.artemis.domain.enumeration.InitializationState.INITIALIZED;
 
-import java.net.URL;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
@@ -31,10 +27,12 @@ import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
 import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.security.SecurityUtils;
+import de.tum.in.www1.artemis.service.compass.CompassService;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
 import de.tum.in.www1.artemis.service.connectors.GitService;
 import de.tum.in.www1.artemis.service.connectors.VersionControlService;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
+import de.tum.in.www1.artemis.web.rest.dto.ParticipationResultDTO;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 
 /**
@@ -46,9 +44,6 @@ public class ParticipationService {
 
     private final Logger log = LoggerFactory.getLogger(ParticipationService.class);
 
-    @Value("${server.url}")
-    private String ARTEMIS_BASE_URL;
-
     private final ParticipationRepository participationRepository;
 
     private final ExerciseRepository exerciseRepository;
@@ -77,11 +72,16 @@ public class ParticipationService {
 
     private final ModelAssessmentConflictService conflictService;
 
+    private final ParticipationSetupService participationSetupService;
+
+    private final CompassService compassService;
+
     public ParticipationService(ParticipationRepository participationRepository, ExerciseRepository exerciseRepository, ResultRepository resultRepository,
             SubmissionRepository submissionRepository, ComplaintResponseRepository complaintResponseRepository, ComplaintRepository complaintRepository,
             QuizSubmissionService quizSubmissionService, ProgrammingExerciseRepository programmingExerciseRepository, UserService userService, Optional<GitService> gitService,
             Optional<ContinuousIntegrationService> continuousIntegrationService, Optional<VersionControlService> versionControlService,
-            SimpMessageSendingOperations messagingTemplate, ModelAssessmentConflictService conflictService) {
+            SimpMessageSendingOperations messagingTemplate, ModelAssessmentConflictService conflictService, ParticipationSetupService participationSetupService,
+            CompassService compassService) {
         this.participationRepository = participationRepository;
         this.exerciseRepository = exerciseRepository;
         this.resultRepository = resultRepository;
@@ -96,6 +96,8 @@ public class ParticipationService {
         this.versionControlService = versionControlService;
         this.messagingTemplate = messagingTemplate;
         this.conflictService = conflictService;
+        this.participationSetupService = participationSetupService;
+        this.compassService = compassService;
     }
 
     /**
@@ -111,8 +113,8 @@ public class ParticipationService {
     }
 
     /**
-     * This method is triggered when a student starts an exercise. It creates a Participation which connects the corresponding student and exercise. Additionally, it configures
-     * repository / build plan related stuff for programming exercises.
+     * This method is triggered when a student starts an exercise. It creates a Participation which connects the corresponding student and exercise. Additionally, it starts the
+     * asynchronous setup of the repository and the build plan for programming exercises.
      *
      * @param exercise
      * @param username
@@ -146,28 +148,32 @@ public class ParticipationService {
             // if (exercise.getCourse().isOnlineCourse()) {
             // participation.setLti(true);
             // } //TODO use lti in the future
-            ProgrammingExercise programmingExercise = (ProgrammingExercise) exercise;
-            participation.setInitializationState(InitializationState.UNINITIALIZED);
-            participation = copyRepository(participation, programmingExercise);
-            participation = configureRepository(participation);
-            participation = copyBuildPlan(participation, programmingExercise);
-            participation = configureBuildPlan(participation);
-            participation = configureRepositoryWebHook(participation);
-            // we configure the repository webhook after the build plan, because we might have to push an empty commit due to the bamboo workaround (see empty-commit-necessary)
-            participation.setInitializationState(INITIALIZED);
-            participation.setInitializationDate(ZonedDateTime.now());
-        }
-        else if (exercise instanceof QuizExercise || exercise instanceof ModelingExercise || exercise instanceof TextExercise) {
             if (participation.getInitializationState() == null || participation.getInitializationState() == FINISHED) {
-                // in case the participation was finished before, we set it to initialized again so that the user sees the correct button "Open modeling editor" on the client side
-                participation.setInitializationState(INITIALIZED);
+                participation.setInitializationState(InitializationState.UNINITIALIZED);
+                participation = save(participation);
             }
-            if (!Optional.ofNullable(participation.getInitializationDate()).isPresent()) {
-                participation.setInitializationDate(ZonedDateTime.now());
+            // an existing participation is not saved again, because its setup might be running and would be overwritten with the repository url, the build plan id and the
+            // initialization state loaded before
+        }
+        else {
+            if (exercise instanceof QuizExercise || exercise instanceof ModelingExercise || exercise instanceof TextExercise) {
+                if (participation.getInitializationState() == null || participation.getInitializationState() == FINISHED) {
+                    // in case the participation was finished before, we set it to initialized again
+                    // so that the user sees the correct button "Open modeling editor" on the client side
+                    participation.setInitializationState(INITIALIZED);
+                }
+                if (!Optional.ofNullable(participation.getInitializationDate()).isPresent()) {
+                    participation.setInitializationDate(ZonedDateTime.now());
+                }
             }
+            participation = save(participation);
         }
 
-        participation = save(participation);
+        if (exercise instanceof ProgrammingExercise) {
+            // the repository and the build plan are set up asynchronously, the student receives the progress via websocket and the stages that have already been completed are
+            // skipped
+            participationSetupService.setup(participation);
+        }
 
         if (isNewParticipation) {
             messagingTemplate.convertAndSendToUser(username, "/topic/exercise/" + exercise.getId() + "/participation", participation);
@@ -256,12 +262,17 @@ public class ParticipationService {
     }
 
     /**
-     * Service method to resume inactive participation (with previously deleted build plan)
+     * Service method to resume inactive participation (with previously deleted build plan). Participations in any other state are returned unchanged, e.g. if the build plan
+     * is still being set up.
      *
      * @param exercise exercise to which the inactive participation belongs
      * @return resumed participation
      */
     public Participation resumeExercise(Exercise exercise, Participation participation) {
+        if (participation.getInitializationState() != InitializationState.INACTIVE) {
+            log.debug("Participation {} is not inactive, but {}. Ignoring the request to resume it", participation.getId(), participation.getInitializationState());
+            return participation;
+        }
         // This is needed as a request using a custom query is made using the ProgrammingExerciseRepository, but the user is not authenticated
         // as the VCS-server performs the request
         SecurityUtils.setAuthorizationObject();
@@ -271,8 +282,10 @@ public class ParticipationService {
         if (!programmingExercise.isPresent()) {
             return null;
         }
-        participation = copyBuildPlan(participation, programmingExercise.get());
-        participation = configureBuildPlan(participation);
+        if (!participationSetupService.setupBuildPlan(participation, programmingExercise.get())) {
+            // another request resumes the participation at the moment
+            return participation;
+        }
         participation.setInitializationState(INITIALIZED);
         if (participation.getInitializationDate() == null) {
             // only set the date if it was not set before (which should NOT be the case)
@@ -282,65 +295,6 @@ public class ParticipationService {
         return participation;
     }
 
-    private Participation copyRepository(Participation participation, ProgrammingExercise exercise) {
-        if (!participation.getInitializationState().hasCompletedState(InitializationState.REPO_COPIED)) {
-            URL repositoryUrl = versionControlService.get().copyRepository(exercise.getTemplateRepositoryUrlAsUrl(), participation.getStudent().getLogin());
-            if (Optional.ofNullable(repositoryUrl).isPresent()) {
-                participation.setRepositoryUrl(repositoryUrl.toString());
-                participation.setInitializationState(InitializationState.REPO_COPIED);
-            }
-            return save(participation);
-        }
-        else {
-            return participation;
-        }
-    }
-
-    private Participation configureRepository(Participation participation) {
-        if (!participation.getInitializationState().hasCompletedState(InitializationState.REPO_CONFIGURED)) {
-            versionControlService.get().configureRepository(participation.getRepositoryUrlAsUrl(), participation.getStudent().getLogin());
-            participation.setInitializationState(InitializationState.REPO_CONFIGURED);
-            return save(participation);
-        }
-        else {
-            return participation;
-        }
-    }
-
-    private Participation copyBuildPlan(Participation participation, ProgrammingExercise exercise) {
-        if (!participation.getInitializationState().hasCompletedState(InitializationState.BUILD_PLAN_COPIED)) {
-            String buildPlanId = continuousIntegrationService.get().copyBuildPlan(exercise.getTemplateBuildPlanId(), participation.getStudent().getLogin());
-            participation.setBuildPlanId(buildPlanId);
-            participation.setInitializationState(InitializationState.BUILD_PLAN_COPIED);
-            return save(participation);
-        }
-        else {
-            return participation;
-        }
-    }
-
-    private Participation configureBuildPlan(Participation participation) {
-        if (!participation.getInitializationState().hasCompletedState(InitializationState.BUILD_PLAN_CONFIGURED)) {
-            continuousIntegrationService.get().configureBuildPlan(participation);
-            participation.setInitializationState(InitializationState.BUILD_PLAN_CONFIGURED);
-            return save(participation);
-        }
-        else {
-            return participation;
-        }
-    }
-
-    private Participation configureRepositoryWebHook(Participation participation) {
-        if (!participation.getInitializationState().hasCompletedState(InitializationState.INITIALIZED)) {
-            versionControlService.get().addWebHook(participation.getRepositoryUrlAsUrl(), ARTEMIS_BASE_URL + PROGRAMMING_SUBMISSION_RESOURCE_API_PATH + participation.getId(),
-                    "ArTEMiS WebHook");
-            return save(participation);
-        }
-        else {
-            return participation;
-        }
-    }
-
     /**
      * Get all the participations.
      *
@@ -486,14 +440,22 @@ public class ParticipationService {
     }
 
     /**
-     * Get all participations for the given student including all results
+     * Get all participations for the given student, every participation only includes its latest rated result (if there is one). The results are not filtered, the latest rated
+     * result is taken from the read model that is maintained by the LatestRatedResultService.
      *
      * @param username the username of the student
      * @return the list of entities
      */
     @Transactional(readOnly = true)
-    public List<Participation> findWithResultsByStudentUsername(String username) {
-        return participationRepository.findByStudentUsernameWithEagerResults(username);
+    public List<Participation> findWithLatestRatedResultByStudentUsername(String username) {
+        List<Participation> participations = participationRepository.findByStudentLogin(username);
+        Map<Long, Result> latestRatedResults = resultRepository.findLatestRatedResultsByStudentLogin(username).stream()
+                .collect(Collectors.toMap(result -> result.getParticipation().getId(), result -> result));
+        for (Participation participation : participations) {
+            Result latestRatedResult = latestRatedResults.get(participation.getId());
+            participation.setResults(latestRatedResult != null ? new HashSet<>(Collections.singleton(latestRatedResult)) : new HashSet<>());
+        }
+        return participations;
     }
 
     @Transactional(readOnly = true)
@@ -502,6 +464,32 @@ public class ParticipationService {
         return participationRepository.findByBuildPlanIdAndInitializationState(buildPlanId, state);
     }
 
+    /**
+     * Get the participation with the given build plan id and initialization state. In the rare case of multiple participations, the latest one is returned.
+     *
+     * @param buildPlanId the build plan id of the participation
+     * @param state       the initialization state of the participation
+     * @return the latest participation with the build plan id and state or an empty Optional if none exists
+     */
+    @Transactional(readOnly = true)
+    public Optional<Participation> findLatestByBuildPlanIdAndInitializationState(String buildPlanId, InitializationState state) {
+        List<Participation> participations = findByBuildPlanIdAndInitializationState(buildPlanId, state);
+        Optional<Participation> participation = Optional.empty();
+        if (participations.size() > 0) {
+            participation = Optional.of(participations.get(0));
+            if (participations.size() > 1) {
+                // in the rare case of multiple participations, take the latest one.
+                for (Participation otherParticipation : participations) {
+                    if (otherParticipation.getInitializationDate().isAfter(participation.get().getInitializationDate())) {
+                        participation = Optional.of(otherParticipation);
+                    }
+                }
+            }
+        }
+
+        return participation;
+    }
+
     @Transactional(readOnly = true)
     public List<Participation> findByExerciseId(Long exerciseId) {
         return participationRepository.findByExerciseId(exerciseId);
@@ -522,64 +510,35 @@ public class ParticipationService {
         return participationRepository.findByExerciseIdWithEagerSubmittedSubmissionsWithoutResults(exerciseId);
     }
 
+    /**
+     * Get the participations of all students in the course with their relevant result (the latest rated result before the due date). Only the values needed for the scores are
+     * loaded instead of the participations with all their results.
+     *
+     * @param courseId the id of the course
+     * @return the participations with their relevant result, the result values are null for participations without relevant result
+     */
     @Transactional(readOnly = true)
-    public List<Participation> findByCourseIdWithRelevantResults(Long courseId, Boolean includeNotRatedResults, Boolean includeAssessors) {
-        List<Participation> participations = includeAssessors ? participationRepository.findByCourseIdWithEagerResultsAndAssessors(courseId)
-                : participationRepository.findByCourseIdWithEagerResults(courseId);
-
-        return participations.stream()
-
-                // Filter out participations without Students
-                // These participations are used e.g. to store template and solution build plans in programming exercises
-                .filter(participation -> participation.getStudent() != null)
-
-                // filter all irrelevant results, i.e. rated = false or before exercise due date
-                .peek(participation -> {
-                    List<Result> relevantResults = new ArrayList<Result>();
-
-                    // search for the relevant result by filtering out irrelevant results using the continue keyword
-                    // this for loop is optimized for performance and thus not very easy to understand ;)
-                    for (Result result : participation.getResults()) {
-                        if (!includeNotRatedResults && result.isRated() == Boolean.FALSE) {
-                            // we are only interested in results with rated == null (for compatibility) and rated == Boolean.TRUE
-                            // TODO: for compatibility reasons, we include rated == null, in the future we can remove this
-                            continue;
-                        }
-                        if (result.getCompletionDate() == null || result.getScore() == null) {
-                            // we are only interested in results with completion date and with score
-                            continue;
-                        }
-                        if (participation.getExercise() instanceof QuizExercise) {
-                            // in quizzes we take all rated results, because we only have one! (independent of later checks)
-                        }
-                        else if (participation.getExercise().getDueDate() != null) {
-                            if (participation.getExercise() instanceof ModelingExercise || participation.getExercise() instanceof TextExercise) {
-                                if (result.getSubmission() != null && result.getSubmission().getSubmissionDate() != null
-                                        && result.getSubmission().getSubmissionDate().isAfter(participation.getExercise().getDueDate())) {
-                                    // Filter out late results using the submission date, because in this exercise types, the
-                                    // difference between submissionDate and result.completionDate can be significant due to manual assessment
-                                    continue;
-                                }
-                            }
-                            // For all other exercises the result completion date is the same as the submission date
-                            else if (result.getCompletionDate().isAfter(participation.getExercise().getDueDate())) {
-                                // and we continue (i.e. dismiss the result) if the result completion date is after the exercise due date
-                                continue;
-                            }
-                        }
-                        relevantResults.add(result);
-                    }
-                    if (!relevantResults.isEmpty()) {
-                        // make sure to take the latest result
-                        relevantResults.sort((r1, r2) -> r2.getCompletionDate().compareTo(r1.getCompletionDate()));
-                        Result correctResult = relevantResults.get(0);
-                        relevantResults.clear();
-                        relevantResults.add(correctResult);
-                    }
-                    participation.setResults(new HashSet<>(relevantResults));
-                    // remove unnecessary elements
-                    participation.getExercise().setCourse(null);
-                }).collect(Collectors.toList());
+    public List<ParticipationResultDTO> findWithRelevantResultByCourseId(Long courseId) {
+        List<ParticipationResultDTO> participations = new ArrayList<>();
+        forEachWithRelevantResultByCourseId(courseId, participations::add);
+        return participations;
+    }
+
+    /**
+     * Pass the participations of all students in the course with their relevant result to the given consumer one after another while they are read from the database, so that
+     * e.g. an export of the results of a large course does not need to keep them in memory
+     *
+     * @param courseId the id of the course
+     * @param consumer is called for every participation, first for the ones with a relevant result, then for the ones without
+     */
+    @Transactional(readOnly = true)
+    public void forEachWithRelevantResultByCourseId(Long courseId, Consumer<ParticipationResultDTO> consumer) {
+        try (Stream<ParticipationResultDTO> participations = participationRepository.streamWithRelevantResultByCourseId(courseId)) {
+            participations.forEach(consumer);
+        }
+        try (Stream<ParticipationResultDTO> participations = participationRepository.streamWithoutRelevantResultByCourseId(courseId)) {
+            participations.forEach(consumer);
+        }
     }
 
     /**
@@ -649,6 +608,8 @@ public class ParticipationService {
         }
         else if (participation.getExercise() instanceof ModelingExercise) {
             conflictService.deleteAllConflictsForParticipation(participation);
+            // the Compass engine of the exercise contains the assessments of the deleted results
+            compassService.removeCalculationEngine(participation.getExercise().getId());
         }
 
         if (participation.getExercise() instanceof ModelingExercise || participation.getExercise() instanceof TextExercise) {
@@ -0,0 +1,364 @@
+package de.tum.in.www1.artemis.service;
+
+import static de.tum.in.www1.artemis.config.Constants.PROGRAMMING_SUBMISSION_RESOURCE_API_PATH;
+
+import java.net.URL;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.repository.ParticipationRepository;
+import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
+import de.tum.in.www1.artemis.security.SecurityUtils;
+import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
+import de.tum.in.www1.artemis.service.connectors.VersionControlService;
+
+/**
+ * Sets up the repository and the build plan of a participation in a programming exercise asynchronously, so that the request of the student returns right away and many students
+ * starting an exercise at the same time do not block the request threads.
+ * <p>
+ * The setup consists of stages: the repository is copied and configured in the VCS while the build plan is copied in the CI server at the same time. Afterwards the build plan is
+ * configured with the repository and the webhook is added to the repository. Every stage is retried with an exponential backoff if it fails. The initialization state of the
+ * participation is saved after every stage and the participation is sent to the student, so that the setup is continued with the next stage after a restart.
+ * <p>
+ * Only one setup per participation runs at the same time on this instance. Setups that failed after all attempts are started again periodically.
+ */
+@Service
+public class ParticipationSetupService {
+
+    private final Logger log = LoggerFactory.getLogger(ParticipationSetupService.class);
+
+    /**
+     * The initialization states of participations whose setup has been started but not completed
+     */
+    private static final List<InitializationState> SETUP_STATES = Arrays.asList(InitializationState.UNINITIALIZED, InitializationState.REPO_COPIED,
+            InitializationState.REPO_CONFIGURED, InitializationState.BUILD_PLAN_COPIED, InitializationState.BUILD_PLAN_CONFIGURED);
+
+    @Value("${server.url}")
+    private String ARTEMIS_BASE_URL;
+
+    @Value("${artemis.participation-setup.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${artemis.participation-setup.retry.backoff:2000}")
+    private long backoff;
+
+    @Value("${artemis.participation-setup.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    private final ParticipationRepository participationRepository;
+
+    private final ProgrammingExerciseRepository programmingExerciseRepository;
+
+    private final Optional<ContinuousIntegrationService> continuousIntegrationService;
+
+    private final Optional<VersionControlService> versionControlService;
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final ThreadPoolTaskExecutor setupExecutor;
+
+    /**
+     * The ids of the participations whose setup is currently running, mapped to the lock that guards the initialization state of the participation during the setup
+     */
+    private final Map<Long, Object> runningSetups = new ConcurrentHashMap<>();
+
+    /**
+     * The ids of the participations whose setup failed in all attempts and is started again by {@link #retryFailedSetups()}
+     */
+    private final Set<Long> failedSetups = ConcurrentHashMap.newKeySet();
+
+    public ParticipationSetupService(ParticipationRepository participationRepository, ProgrammingExerciseRepository programmingExerciseRepository,
+            Optional<ContinuousIntegrationService> continuousIntegrationService, Optional<VersionControlService> versionControlService,
+            SimpMessageSendingOperations messagingTemplate, @Value("${artemis.participation-setup.threads:8}") int threads,
+            @Value("${artemis.participation-setup.queue-capacity:1000}") int queueCapacity) {
+        this.participationRepository = participationRepository;
+        this.programmingExerciseRepository = programmingExerciseRepository;
+        this.continuousIntegrationService = continuousIntegrationService;
+        this.versionControlService = versionControlService;
+        this.messagingTemplate = messagingTemplate;
+
+        // bounded pool and queue, so that the VCS and the CI server are not flooded with requests when many students start an exercise at the same time
+        setupExecutor = new ThreadPoolTaskExecutor();
+        setupExecutor.setThreadNamePrefix("ParticipationSetup-");
+        setupExecutor.setCorePoolSize(threads);
+        setupExecutor.setMaxPoolSize(threads);
+        setupExecutor.setQueueCapacity(queueCapacity);
+        setupExecutor.initialize();
+    }
+
+    /**
+     * Continue the setup of the participations that has been interrupted by the last shutdown. If several instances share the database, only one of them may resume the
+     * setups, the others disable it with artemis.participation-setup.resume-on-startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedSetups() {
+        if (!resumeOnStartup || !versionControlService.isPresent() || !continuousIntegrationService.isPresent()) {
+            return;
+        }
+        List<Participation> participations = participationRepository.findByInitializationStateInAndStudentIsNotNull(SETUP_STATES);
+        if (!participations.isEmpty()) {
+            log.info("Resuming the setup of {} participations", participations.size());
+        }
+        for (Participation participation : participations) {
+            if (participation.getExercise() instanceof ProgrammingExercise) {
+                startSetup(participation);
+            }
+        }
+    }
+
+    /**
+     * Start the setups again that failed in all attempts, e.g. because the VCS or the CI server was not reachable for a longer time
+     */
+    @Scheduled(fixedDelayString = "${artemis.participation-setup.retry.failed-interval:300000}", initialDelayString = "${artemis.participation-setup.retry.failed-interval:300000}")
+    public void retryFailedSetups() {
+        for (Long participationId : new ArrayList<>(failedSetups)) {
+            failedSetups.remove(participationId);
+            Optional<Participation> participation = participationRepository.findById(participationId);
+            // the participation might have been deleted or resumed in the meantime
+            if (participation.isPresent() && SETUP_STATES.contains(participation.get().getInitializationState())) {
+                log.info("Retrying the failed setup of participation {}", participationId);
+                startSetup(participation.get());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // interrupted setups are resumed on the next start
+        setupExecutor.shutdown();
+    }
+
+    /**
+     * Set up the repository and the build plan of the given participation asynchronously. If a transaction is active, the setup starts after it has been committed. The stages
+     * that have already been completed according to the initialization state of the participation are skipped.
+     *
+     * @param participation the saved participation of a student in a programming exercise
+     */
+    public void setup(Participation participation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    startSetup(participation);
+                }
+            });
+        }
+        else {
+            startSetup(participation);
+        }
+    }
+
+    /**
+     * Copy and configure the build plan of the given participation on the calling thread, e.g. to resume an inactive participation whose build plan has been deleted. The
+     * repository of the participation must already be configured.
+     *
+     * @param participation the participation whose build plan should be set up
+     * @param exercise      the programming exercise with the template participation
+     * @return false if the setup of the participation is already running, true otherwise
+     */
+    public boolean setupBuildPlan(Participation participation, ProgrammingExercise exercise) {
+        if (runningSetups.putIfAbsent(participation.getId(), new Object()) != null) {
+            log.debug("The setup of participation {} is already running", participation.getId());
+            return false;
+        }
+        try {
+            copyBuildPlan(participation, exercise);
+            configureBuildPlan(participation);
+            return true;
+        }
+        finally {
+            runningSetups.remove(participation.getId());
+        }
+    }
+
+    /**
+     * Start the stages of the setup on the executor, unless the setup of the participation is already running
+     *
+     * @return a future that completes when the setup has been completed or has failed
+     */
+    CompletableFuture<Void> startSetup(Participation participation) {
+        if (runningSetups.putIfAbsent(participation.getId(), new Object()) != null) {
+            log.debug("The setup of participation {} is already running", participation.getId());
+            return CompletableFuture.completedFuture(null);
+        }
+        log.debug("Start the setup of participation {}", participation.getId());
+        CompletableFuture<ProgrammingExercise> exercise;
+        try {
+            exercise = CompletableFuture.supplyAsync(() -> loadExercise(participation), setupExecutor);
+        }
+        catch (RejectedExecutionException e) {
+            // the queue is full, e.g. because many students started an exercise at the same time, the setup is started again by retryFailedSetups
+            log.warn("Could not start the setup of participation {}, because the queue of the setups is full", participation.getId());
+            runningSetups.remove(participation.getId());
+            failedSetups.add(participation.getId());
+            CompletableFuture<Void> rejectedSetup = new CompletableFuture<>();
+            rejectedSetup.completeExceptionally(e);
+            return rejectedSetup;
+        }
+
+        // the repository and the build plan do not depend on each other until the build plan is configured, so they are set up at the same time
+        CompletableFuture<Void> repository = exercise
+                .thenCompose(programmingExercise -> runStage(participation, "copy repository", () -> copyRepository(participation, programmingExercise)))
+                .thenCompose(ignored -> runStage(participation, "configure repository", () -> configureRepository(participation)));
+        CompletableFuture<Void> buildPlan = exercise
+                .thenCompose(programmingExercise -> runStage(participation, "copy build plan", () -> copyBuildPlan(participation, programmingExercise)));
+
+        // we configure the repository webhook after the build plan, because we might have to push an empty commit due to the bamboo workaround (see empty-commit-necessary)
+        return CompletableFuture.allOf(repository, buildPlan).thenCompose(ignored -> runStage(participation, "configure build plan", () -> configureBuildPlan(participation)))
+                .thenCompose(ignored -> runStage(participation, "add repository webhook", () -> configureRepositoryWebHook(participation))).whenComplete((ignored, throwable) -> {
+                    runningSetups.remove(participation.getId());
+                    if (throwable != null) {
+                        // the participation keeps the state of the last completed stage, the setup is continued from there by retryFailedSetups
+                        log.error("The setup of participation " + participation.getId() + " failed in state " + participation.getInitializationState(), throwable);
+                        failedSetups.add(participation.getId());
+                    }
+                    else {
+                        log.debug("Completed the setup of participation {}", participation.getId());
+                    }
+                });
+    }
+
+    private ProgrammingExercise loadExercise(Participation participation) {
+        // The custom query of the ProgrammingExerciseRepository needs an authentication object, which does not exist on the threads of the executor
+        SecurityUtils.setAuthorizationObject();
+        // Reload programming exercise from database so that the template participation is available
+        return programmingExerciseRepository.findById(participation.getExercise().getId())
+                .orElseThrow(() -> new IllegalStateException("Programming exercise of participation " + participation.getId() + " does not exist"));
+    }
+
+    /**
+     * Run the given stage on the executor and retry it with an exponential backoff until it succeeds or the maximum number of attempts is reached
+     */
+    private CompletableFuture<Void> runStage(Participation participation, String stageName, Runnable stage) {
+        return CompletableFuture.runAsync(() -> {
+            int attempt = 1;
+            while (true) {
+                try {
+                    stage.run();
+                    return;
+                }
+                catch (RuntimeException e) {
+                    if (attempt >= maxAttempts) {
+                        throw e;
+                    }
+                    log.warn("Could not {} of participation {}, retrying (attempt {} of {}): {}", stageName, participation.getId(), attempt, maxAttempts, e.toString());
+                }
+                try {
+                    Thread.sleep(backoff << (attempt - 1));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting to retry to " + stageName + " of participation " + participation.getId(), e);
+                }
+                attempt++;
+            }
+        }, setupExecutor);
+    }
+
+    private void copyRepository(Participation participation, ProgrammingExercise exercise) {
+        if (participation.getInitializationState().hasCompletedState(InitializationState.REPO_COPIED)) {
+            return;
+        }
+        URL repositoryUrl = versionControlService.get().copyRepository(exercise.getTemplateRepositoryUrlAsUrl(), participation.getStudent().getLogin());
+        if (repositoryUrl == null) {
+            throw new IllegalStateException("The VCS did not return the url of the copied repository");
+        }
+        synchronized (lockOf(participation)) {
+            participation.setRepositoryUrl(repositoryUrl.toString());
+            participation.setInitializationState(InitializationState.REPO_COPIED);
+            saveAndNotify(participation);
+        }
+    }
+
+    private void configureRepository(Participation participation) {
+        if (participation.getInitializationState().hasCompletedState(InitializationState.REPO_CONFIGURED)) {
+            return;
+        }
+        versionControlService.get().configureRepository(participation.getRepositoryUrlAsUrl(), participation.getStudent().getLogin());
+        synchronized (lockOf(participation)) {
+            // the build plan might have been copied in the meantime
+            participation.setInitializationState(participation.getBuildPlanId() != null ? InitializationState.BUILD_PLAN_COPIED : InitializationState.REPO_CONFIGURED);
+            saveAndNotify(participation);
+        }
+    }
+
+    private void copyBuildPlan(Participation participation, ProgrammingExercise exercise) {
+        // the build plan is copied while the repository is set up, so the build plan id shows whether this stage has been completed
+        if (participation.getBuildPlanId() != null || participation.getInitializationState().hasCompletedState(InitializationState.BUILD_PLAN_COPIED)) {
+            return;
+        }
+        String buildPlanId = continuousIntegrationService.get().copyBuildPlan(exercise.getTemplateBuildPlanId(), participation.getStudent().getLogin());
+        synchronized (lockOf(participation)) {
+            participation.setBuildPlanId(buildPlanId);
+            // the state only advances if the repository has been configured before, otherwise configureRepository advances it
+            if (participation.getInitializationState().hasCompletedState(InitializationState.REPO_CONFIGURED)) {
+                participation.setInitializationState(InitializationState.BUILD_PLAN_COPIED);
+            }
+            saveAndNotify(participation);
+        }
+    }
+
+    private void configureBuildPlan(Participation participation) {
+        if (participation.getInitializationState().hasCompletedState(InitializationState.BUILD_PLAN_CONFIGURED)) {
+            return;
+        }
+        continuousIntegrationService.get().configureBuildPlan(participation);
+        synchronized (lockOf(participation)) {
+            participation.setInitializationState(InitializationState.BUILD_PLAN_CONFIGURED);
+            saveAndNotify(participation);
+        }
+    }
+
+    private void configureRepositoryWebHook(Participation participation) {
+        if (participation.getInitializationState().hasCompletedState(InitializationState.INITIALIZED)) {
+            return;
+        }
+        versionControlService.get().addWebHook(participation.getRepositoryUrlAsUrl(), ARTEMIS_BASE_URL + PROGRAMMING_SUBMISSION_RESOURCE_API_PATH + participation.getId(),
+                "ArTEMiS WebHook");
+        synchronized (lockOf(participation)) {
+            participation.setInitializationState(InitializationState.INITIALIZED);
+            participation.setInitializationDate(ZonedDateTime.now());
+            saveAndNotify(participation);
+        }
+    }
+
+    /**
+     * The repository and the build plan are set up at the same time, so the stages that change the initialization state synchronize on the lock of the running setup
+     */
+    private Object lockOf(Participation participation) {
+        Object lock = runningSetups.get(participation.getId());
+        return lock != null ? lock : participation;
+    }
+
+    /**
+     * Save the progress of the setup and send the participation to the student, the caller must hold the lock of the participation
+     */
+    private void saveAndNotify(Participation participation) {
+        participationRepository.saveAndFlush(participation);
+        if (participation.getStudent() != null && participation.getExercise() != null) {
+            String topic = "/topic/exercise/" + participation.getExercise().getId() + "/participation";
+            messagingTemplate.convertAndSendToUser(participation.getStudent().getLogin(), topic, participation);
+        }
+    }
+}
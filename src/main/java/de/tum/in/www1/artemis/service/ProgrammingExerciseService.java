@@ -55,6 +55,7 @@ import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationUpdateService;
 import de.tum.in.www1.artemis.service.connectors.GitService;
 import de.tum.in.www1.artemis.service.connectors.VersionControlService;
+import de.tum.in.www1.artemis.service.dto.BitbucketPushNotificationDTO;
 import de.tum.in.www1.artemis.service.util.structureoraclegenerator.OracleGeneratorClient;
 
 @Service
@@ -104,7 +105,7 @@ public class ProgrammingExerciseService {
      *
      * @param programmingExercise The programmingExercise where the test cases got changed
      */
-    public void notifyChangedTestCases(ProgrammingExercise programmingExercise, Object requestBody) {
+    public void notifyChangedTestCases(ProgrammingExercise programmingExercise, BitbucketPushNotificationDTO requestBody) {
         for (Participation participation : programmingExercise.getParticipations()) {
 
             ProgrammingSubmission submission = new ProgrammingSubmission();
@@ -17,6 +17,7 @@ import de.tum.in.www1.artemis.repository.ParticipationRepository;
 import de.tum.in.www1.artemis.repository.ProgrammingSubmissionRepository;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
 import de.tum.in.www1.artemis.service.connectors.VersionControlService;
+import de.tum.in.www1.artemis.service.dto.BitbucketPushNotificationDTO;
 
 @Service
 @Transactional
@@ -47,7 +48,7 @@ public class ProgrammingSubmissionService {
         this.messagingTemplate = messagingTemplate;
     }
 
-    public void notifyPush(Long participationId, Object requestBody) {
+    public void notifyPush(Long participationId, BitbucketPushNotificationDTO requestBody) {
         Optional<Participation> optionalParticipation = participationRepository.findById(participationId);
         if (!optionalParticipation.isPresent()) {
             log.warn("Invalid participation received while notifying about push: " + participationId);
@@ -18,6 +18,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.quiz.*;
+import de.tum.in.www1.artemis.domain.quiz.scoring.QuizScoringPlan;
 import de.tum.in.www1.artemis.domain.view.QuizView;
 import de.tum.in.www1.artemis.repository.*;
 
@@ -249,6 +250,9 @@ public class QuizExerciseService {
      */
     @Transactional
     public void adjustResultsOnQuizChanges(QuizExercise quizExercise) {
+        // compile the scoring plan of the changed quiz once for all results
+        QuizScoringPlan scoringPlan = QuizScoringPlan.compile(quizExercise);
+
         // change existing results if an answer or and question was deleted
         for (Result result : resultRepository.findByParticipationExerciseIdOrderByCompletionDateAsc(quizExercise.getId())) {
 
@@ -264,12 +268,10 @@ public class QuizExerciseService {
             }
             quizSubmission.getSubmittedAnswers().removeAll(submittedAnswersToDelete);
 
-            // recalculate existing score
-            quizSubmission.calculateAndUpdateScores(quizExercise);
-            // update Successful-Flag in Result
+            // recalculate existing score and update Successful-Flag in Result
             result.getParticipation().setExercise(quizExercise);
             result.setSubmission(quizSubmission);
-            result.evaluateSubmission();
+            scoringPlan.calculateAndUpdateScores(result);
 
             // save the updated Result and its Submission
             resultRepository.save(result);
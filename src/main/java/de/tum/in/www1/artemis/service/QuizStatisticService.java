@@ -1,15 +1,27 @@
 package de.tum.in.www1.artemis.service;
 
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.tum.in.www1.artemis.domain.*;
-import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
-import de.tum.in.www1.artemis.domain.quiz.QuizQuestion;
-import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.domain.quiz.*;
 import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.dto.QuizStatisticRecalculationProgressDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizStatisticChangesDTO;
 
 /**
  * Created by Moritz Issig on 22.11.17.
@@ -17,9 +29,21 @@ import de.tum.in.www1.artemis.repository.*;
 @Service
 public class QuizStatisticService {
 
-    private final SimpMessageSendingOperations messagingTemplate;
+    private final Logger log = LoggerFactory.getLogger(QuizStatisticService.class);
+
+    /**
+     * the statistic changes of each quiz that have not been written to the database yet
+     */
+    private final Map<Long, QuizStatisticDelta> statisticDeltas = new ConcurrentHashMap<>();
+
+    private static final int RECALCULATION_CHUNK_SIZE = 500;
 
-    private final ParticipationRepository participationRepository;
+    private final Map<Long, QuizStatisticRecalculationProgressDTO> recalculationProgress = new ConcurrentHashMap<>();
+
+    @Value("${artemis.quiz.statistic-flush-interval:2000}")
+    private long statisticFlushInterval;
+
+    private final SimpMessageSendingOperations messagingTemplate;
 
     private final ResultRepository resultRepository;
 
@@ -29,55 +53,60 @@ public class QuizStatisticService {
 
     private final QuizQuestionStatisticRepository quizQuestionStatisticRepository;
 
-    public QuizStatisticService(SimpMessageSendingOperations messagingTemplate, ParticipationRepository participationRepository, ResultRepository resultRepository,
+    private final StatisticRepository statisticRepository;
+
+    private final StatisticCounterRepository statisticCounterRepository;
+
+    private final QuizExerciseService quizExerciseService;
+
+    private final ObjectMapper objectMapper;
+
+    public QuizStatisticService(SimpMessageSendingOperations messagingTemplate, ResultRepository resultRepository,
             QuizSubmissionRepository quizSubmissionRepository, QuizPointStatisticRepository quizPointStatisticRepository,
-            QuizQuestionStatisticRepository quizQuestionStatisticRepository) {
+            QuizQuestionStatisticRepository quizQuestionStatisticRepository, StatisticRepository statisticRepository, StatisticCounterRepository statisticCounterRepository,
+            QuizExerciseService quizExerciseService, MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter) {
         this.messagingTemplate = messagingTemplate;
-        this.participationRepository = participationRepository;
         this.resultRepository = resultRepository;
         this.quizSubmissionRepository = quizSubmissionRepository;
         this.quizPointStatisticRepository = quizPointStatisticRepository;
         this.quizQuestionStatisticRepository = quizQuestionStatisticRepository;
+        this.statisticRepository = statisticRepository;
+        this.statisticCounterRepository = statisticCounterRepository;
+        this.quizExerciseService = quizExerciseService;
+        this.objectMapper = mappingJackson2HttpMessageConverter.getObjectMapper();
     }
 
     /**
-     * 1. Go through all Results in the Participation and recalculate the score 2. recalculate the statistics of the given quizExercise
+     * 1. Go through the latest rated and unrated Result of every Participation 2. recalculate the statistics of the given quizExercise
+     * <p>
+     * The submissions of these results are loaded in chunks of {@link #RECALCULATION_CHUNK_SIZE} together with their submitted answers, so that the memory consumption does not
+     * depend on the number of participants. The question statistics of a chunk are updated in parallel.
      *
      * @param quizExercise the changed QuizExercise object which will be used to recalculate the existing Results and Statistics
      */
     public void recalculateStatistics(QuizExercise quizExercise) {
 
-        // reset all statistics
-        quizExercise.getQuizPointStatistic().resetStatistic();
-        for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
-            if (quizQuestion.getQuizQuestionStatistic() != null) {
-                quizQuestion.getQuizQuestionStatistic().resetStatistic();
-            }
-        }
-
-        // add the Results in every participation of the given quizExercise to the statistics
-        for (Participation participation : participationRepository.findByExerciseId(quizExercise.getId())) {
-
-            Result latestRatedResult = null;
-            Result latestUnratedResult = null;
+        // the recalculation includes all results that are already in the statistic changes that have not been written yet
+        discardStatisticChanges(quizExercise.getId());
 
-            // update all Results of a participation
-            for (Result result : resultRepository.findByParticipationIdOrderByCompletionDateDesc(participation.getId())) {
+        // reset all statistics
+        resetAllStatistics(quizExercise);
 
-                // find latest rated Result
-                if (result.isRated() == Boolean.TRUE && (latestRatedResult == null || latestRatedResult.getCompletionDate().isBefore(result.getCompletionDate()))) {
-                    latestRatedResult = result;
-                }
-                // find latest unrated Result
-                if (result.isRated() == Boolean.FALSE && (latestUnratedResult == null || latestUnratedResult.getCompletionDate().isBefore(result.getCompletionDate()))) {
-                    latestUnratedResult = result;
-                }
+        // add the latest rated and unrated Result of every participation of the given quizExercise to the statistics
+        List<Long> submissionIds = quizSubmissionRepository.findIdsOfLatestRatedAndUnratedByExerciseId(quizExercise.getId());
+        QuizStatisticRecalculationProgressDTO progress = new QuizStatisticRecalculationProgressDTO(0, submissionIds.size());
+        recalculationProgress.put(quizExercise.getId(), progress);
+        try {
+            for (int i = 0; i < submissionIds.size(); i += RECALCULATION_CHUNK_SIZE) {
+                List<Long> chunk = submissionIds.subList(i, Math.min(i + RECALCULATION_CHUNK_SIZE, submissionIds.size()));
+                addSubmissionsToAllStatistics(quizExercise, quizSubmissionRepository.findWithEagerSubmittedAnswersAndResultByIdIn(chunk));
+                progress.setProcessedSubmissions(i + chunk.size());
             }
-            // update statistics with latest rated und unrated Result
-            this.addResultToAllStatistics(quizExercise, latestRatedResult);
-            this.addResultToAllStatistics(quizExercise, latestUnratedResult);
-
         }
+        finally {
+            recalculationProgress.remove(quizExercise.getId());
+        }
+
         // save changed Statistics
         quizPointStatisticRepository.save(quizExercise.getQuizPointStatistic());
         for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
@@ -87,50 +116,381 @@ public class QuizStatisticService {
         }
     }
 
+    /**
+     * Get the progress of the currently running statistic recalculation of the given quiz
+     *
+     * @param quizId the id of the quizExercise
+     * @return the progress or null if the statistics of the quiz are not being recalculated
+     */
+    public QuizStatisticRecalculationProgressDTO getRecalculationProgress(Long quizId) {
+        return recalculationProgress.get(quizId);
+    }
+
+    /**
+     * add the results of the given submissions to all statistics of the given quizExercise. Each question statistic is only changed by one thread, so the question statistics can
+     * be updated in parallel.
+     *
+     * @param quizExercise    contains the object of the quiz, where the Results will be added
+     * @param quizSubmissions the submissions including their result and submitted answers
+     */
+    private void addSubmissionsToAllStatistics(QuizExercise quizExercise, List<QuizSubmission> quizSubmissions) {
+        for (QuizSubmission quizSubmission : quizSubmissions) {
+            Result result = quizSubmission.getResult();
+            quizExercise.getQuizPointStatistic().addResult(result.getScore(), result.isRated());
+        }
+        quizExercise.getQuizQuestions().parallelStream().filter(quizQuestion -> quizQuestion.getQuizQuestionStatistic() != null).forEach(quizQuestion -> {
+            for (QuizSubmission quizSubmission : quizSubmissions) {
+                quizQuestion.getQuizQuestionStatistic().addResult(quizSubmission.getSubmittedAnswerForQuestion(quizQuestion), quizSubmission.getResult().isRated());
+            }
+        });
+    }
+
     /**
      * 1. check for each result if it's rated -> true: check if there is an old Result -> true: remove the old Result from the statistics 2. add new Result to the
      * quiz-point-statistic and all question-statistics
+     * <p>
+     * The results are only added to the in-memory statistic changes of the quiz, which are written to the database by {@link #flushStatistics(Long)}. This way the statistics
+     * are not loaded and saved for every scheduler run, no matter how many students submit.
      *
      * @param results the results, which will be added to the statistics
-     * @param quiz    the quizExercise with Questions where the results should contain to
+     * @param quizId  the id of the quizExercise the results belong to
      */
-    public void updateStatistics(Set<Result> results, QuizExercise quiz) {
+    public void updateStatistics(Collection<Result> results, Long quizId) {
+
+        if (results == null || results.isEmpty() || quizId == null) {
+            return;
+        }
 
-        if (results != null && quiz != null && quiz.getQuizQuestions() != null) {
+        QuizStatisticDelta statisticDelta = getOrCreateStatisticDelta(quizId);
+        // check if quiz has been deleted
+        if (statisticDelta == null) {
+            return;
+        }
 
+        // load the results of all participations with unrated results at once to find the previous results
+        Set<Long> participationIds = new HashSet<>();
+        for (Result result : results) {
+            if (result.isRated() == Boolean.FALSE) {
+                participationIds.add(result.getParticipation().getId());
+            }
+        }
+        Map<Long, List<Result>> participationResults = new HashMap<>();
+        if (!participationIds.isEmpty()) {
+            for (Result result : resultRepository.findAllByParticipationIdInWithSubmission(participationIds)) {
+                participationResults.computeIfAbsent(result.getParticipation().getId(), id -> new ArrayList<>()).add(result);
+            }
+        }
+
+        synchronized (statisticDelta) {
+            // the changes were discarded because the statistics have been recalculated, which already includes these (saved) results
+            if (statisticDelta.isDiscarded()) {
+                return;
+            }
+            QuizExercise quiz = statisticDelta.getQuiz();
             for (Result result : results) {
                 // check if the result is rated
                 // NOTE: where is never an old Result if the new result is rated
                 if (result.isRated() == Boolean.FALSE) {
-                    removeResultFromAllStatistics(quiz, getPreviousResult(result));
+                    removeResultFromAllStatistics(quiz, getPreviousResult(result, participationResults.get(result.getParticipation().getId())));
                 }
                 addResultToAllStatistics(quiz, result);
             }
-            // save statistics
-            quizPointStatisticRepository.save(quiz.getQuizPointStatistic());
+            statisticDelta.setChanged(true);
+        }
+    }
+
+    /**
+     * Get the ids of all quizzes with statistic changes that should be written to the database now, i.e. the last write was at least artemis.quiz.statistic-flush-interval
+     * milliseconds ago
+     *
+     * @return the ids of the quizzes for which {@link #flushStatistics(Long)} should be invoked
+     */
+    public List<Long> getQuizIdsWithStatisticsDueForFlush() {
+        long now = System.currentTimeMillis();
+        List<Long> quizIds = new ArrayList<>();
+        for (Map.Entry<Long, QuizStatisticDelta> entry : statisticDeltas.entrySet()) {
+            if (now - entry.getValue().getLastFlush() >= statisticFlushInterval) {
+                quizIds.add(entry.getKey());
+            }
+        }
+        return quizIds;
+    }
+
+    /**
+     * Write the statistic changes of the given quiz to the database by incrementing the counters. If there were no changes since the last write, the in-memory statistic changes
+     * of the quiz are removed. The written changes are removed from the in-memory statistic changes right away, so that results added until the transaction is committed are
+     * written with the next flush. If the transaction is rolled back, the written changes are merged back, so that they are written with the next flush.
+     *
+     * @param quizId the id of the quizExercise whose statistic changes should be written
+     * @return the new values of all changed statistics and counters, or null if nothing was written
+     */
+    @Transactional
+    public QuizStatisticChangesDTO flushStatistics(Long quizId) {
+        QuizStatisticDelta statisticDelta = statisticDeltas.get(quizId);
+        if (statisticDelta == null) {
+            return null;
+        }
+
+        synchronized (statisticDelta) {
+            if (statisticDelta.isDiscarded()) {
+                return null;
+            }
+            if (!statisticDelta.isChanged()) {
+                // no results for a whole interval => free the memory, the changes are created again with the next result
+                statisticDeltas.remove(quizId, statisticDelta);
+                statisticDelta.setDiscarded(true);
+                return null;
+            }
+            Map<Long, int[]> statisticValuesBefore = copyValues(statisticDelta.getStatisticValues());
+            Map<Long, int[]> counterValuesBefore = copyValues(statisticDelta.getCounterValues());
+            QuizStatisticChangesDTO changes = saveStatisticChanges(statisticDelta);
+            resetAllStatistics(statisticDelta.getQuiz());
+            statisticDelta.setChanged(false);
+            statisticDelta.setLastFlush(System.currentTimeMillis());
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            mergeUnsavedStatisticChanges(statisticDelta, statisticValuesBefore, counterValuesBefore);
+                        }
+                    }
+                });
+            }
+            return changes;
+        }
+    }
+
+    /**
+     * Add the changes of a write that has been rolled back to the statistic changes again. The changes are the differences between the values after the write and the given values
+     * before the write, which are restored.
+     *
+     * @param statisticDelta        the statistic changes of the quiz
+     * @param statisticValuesBefore the values of the statistics before the write
+     * @param counterValuesBefore   the values of the counters before the write
+     */
+    private void mergeUnsavedStatisticChanges(QuizStatisticDelta statisticDelta, Map<Long, int[]> statisticValuesBefore, Map<Long, int[]> counterValuesBefore) {
+        synchronized (statisticDelta) {
+            // the statistics have been recalculated or the quiz has been deleted in the meantime
+            if (statisticDelta.isDiscarded()) {
+                return;
+            }
+            log.warn("Writing the statistic changes of quiz {} has failed, they are written again with the next flush", statisticDelta.getQuiz().getId());
+            QuizExercise quiz = statisticDelta.getQuiz();
+            List<QuizStatistic> statistics = new ArrayList<>();
+            List<QuizStatisticCounter> counters = new ArrayList<>(quiz.getQuizPointStatistic().getPointCounters());
+            statistics.add(quiz.getQuizPointStatistic());
             for (QuizQuestion quizQuestion : quiz.getQuizQuestions()) {
                 if (quizQuestion.getQuizQuestionStatistic() != null) {
-                    quizQuestionStatisticRepository.save(quizQuestion.getQuizQuestionStatistic());
+                    statistics.add(quizQuestion.getQuizQuestionStatistic());
+                    counters.addAll(getCounters(quizQuestion.getQuizQuestionStatistic()));
+                }
+            }
+            for (QuizStatistic statistic : statistics) {
+                int[] values = statisticDelta.getStatisticValues().get(statistic.getId());
+                int[] before = statisticValuesBefore.get(statistic.getId());
+                if (values == null || before == null) {
+                    continue;
                 }
+                statistic.setParticipantsRated(statistic.getParticipantsRated() + values[0] - before[0]);
+                statistic.setParticipantsUnrated(statistic.getParticipantsUnrated() + values[1] - before[1]);
+                if (statistic instanceof QuizQuestionStatistic) {
+                    QuizQuestionStatistic quizQuestionStatistic = (QuizQuestionStatistic) statistic;
+                    quizQuestionStatistic.setRatedCorrectCounter(quizQuestionStatistic.getRatedCorrectCounter() + values[2] - before[2]);
+                    quizQuestionStatistic.setUnRatedCorrectCounter(quizQuestionStatistic.getUnRatedCorrectCounter() + values[3] - before[3]);
+                }
+                System.arraycopy(before, 0, values, 0, values.length);
+            }
+            for (QuizStatisticCounter counter : counters) {
+                int[] values = statisticDelta.getCounterValues().get(counter.getId());
+                int[] before = counterValuesBefore.get(counter.getId());
+                if (values == null || before == null) {
+                    continue;
+                }
+                counter.setRatedCounter(counter.getRatedCounter() + values[0] - before[0]);
+                counter.setUnRatedCounter(counter.getUnRatedCounter() + values[1] - before[1]);
+                System.arraycopy(before, 0, values, 0, values.length);
+            }
+            statisticDelta.setChanged(true);
+        }
+    }
+
+    private static Map<Long, int[]> copyValues(Map<Long, int[]> values) {
+        Map<Long, int[]> copy = new HashMap<>();
+        values.forEach((id, value) -> copy.put(id, value.clone()));
+        return copy;
+    }
+
+    /**
+     * notify users via websocket about new results for the statistics. Only the changed values are sent and they are serialized only once for all subscribers.
+     *
+     * @param changes the new values of all statistics and counters that changed since the last broadcast
+     */
+    public void sendStatisticChangesToSubscribedClients(QuizStatisticChangesDTO changes) {
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(changes);
+            messagingTemplate.send("/topic/statistic/" + changes.getQuizId(), MessageBuilder.withPayload(payload).build());
+        }
+        catch (JsonProcessingException e) {
+            log.error("Exception occurred while serializing quiz statistic changes: {}", e);
+        }
+    }
+
+    /**
+     * Discard the statistic changes of the given quiz that have not been written to the database yet. This is necessary when the statistics are recalculated or the quiz is
+     * deleted or reset.
+     *
+     * @param quizId the id of the quizExercise
+     */
+    public void discardStatisticChanges(Long quizId) {
+        QuizStatisticDelta statisticDelta = statisticDeltas.remove(quizId);
+        if (statisticDelta != null) {
+            synchronized (statisticDelta) {
+                statisticDelta.setDiscarded(true);
             }
-            // notify users via websocket about new results for the statistics.
-            // filters out solution-Informations
-            quiz.filterForStatisticWebsocket();
-            messagingTemplate.convertAndSend("/topic/statistic/" + quiz.getId(), quiz);
         }
+    }
+
+    /**
+     * Get the statistic changes of the given quiz or create them if they don't exist yet. The changes are collected in a detached copy of the quiz with all statistics, whose
+     * counters are reset to 0, so that the counters contain the changes since the last write to the database. The current values are remembered to compute the new values that
+     * are sent to the clients.
+     *
+     * @param quizId the id of the quizExercise
+     * @return the statistic changes or null if the quiz doesn't exist
+     */
+    private QuizStatisticDelta getOrCreateStatisticDelta(Long quizId) {
+        QuizStatisticDelta statisticDelta = statisticDeltas.get(quizId);
+        if (statisticDelta != null) {
+            return statisticDelta;
+        }
+        QuizExercise quiz = quizExerciseService.findOneWithQuestionsAndStatistics(quizId);
+        if (quiz == null) {
+            return null;
+        }
+        statisticDelta = new QuizStatisticDelta(quiz);
+        QuizPointStatistic quizPointStatistic = quiz.getQuizPointStatistic();
+        statisticDelta.getStatisticValues().put(quizPointStatistic.getId(),
+                new int[] { quizPointStatistic.getParticipantsRated(), quizPointStatistic.getParticipantsUnrated(), 0, 0 });
+        for (PointCounter pointCounter : quizPointStatistic.getPointCounters()) {
+            statisticDelta.getCounterValues().put(pointCounter.getId(), new int[] { pointCounter.getRatedCounter(), pointCounter.getUnRatedCounter() });
+        }
+        for (QuizQuestion quizQuestion : quiz.getQuizQuestions()) {
+            QuizQuestionStatistic quizQuestionStatistic = quizQuestion.getQuizQuestionStatistic();
+            if (quizQuestionStatistic == null) {
+                continue;
+            }
+            statisticDelta.getStatisticValues().put(quizQuestionStatistic.getId(), new int[] { quizQuestionStatistic.getParticipantsRated(),
+                    quizQuestionStatistic.getParticipantsUnrated(), quizQuestionStatistic.getRatedCorrectCounter(), quizQuestionStatistic.getUnRatedCorrectCounter() });
+            for (QuizStatisticCounter counter : getCounters(quizQuestionStatistic)) {
+                statisticDelta.getCounterValues().put(counter.getId(), new int[] { counter.getRatedCounter(), counter.getUnRatedCounter() });
+            }
+        }
+        resetAllStatistics(quiz);
+        QuizStatisticDelta existingStatisticDelta = statisticDeltas.putIfAbsent(quizId, statisticDelta);
+        return existingStatisticDelta != null ? existingStatisticDelta : statisticDelta;
+    }
+
+    /**
+     * Add the counters of the quiz in the given statistic changes (which contain the changes since the last write) to the counters in the database
+     *
+     * @param statisticDelta the statistic changes of the quiz
+     * @return the new values of all changed statistics and counters
+     */
+    private QuizStatisticChangesDTO saveStatisticChanges(QuizStatisticDelta statisticDelta) {
+        QuizExercise quiz = statisticDelta.getQuiz();
+        QuizStatisticChangesDTO changes = new QuizStatisticChangesDTO(quiz.getId());
+        QuizPointStatistic quizPointStatistic = quiz.getQuizPointStatistic();
+        if (quizPointStatistic.getParticipantsRated() != 0 || quizPointStatistic.getParticipantsUnrated() != 0) {
+            statisticRepository.incrementParticipants(quizPointStatistic.getId(), quizPointStatistic.getParticipantsRated(), quizPointStatistic.getParticipantsUnrated());
+            int[] values = statisticDelta.getStatisticValues().get(quizPointStatistic.getId());
+            values[0] += quizPointStatistic.getParticipantsRated();
+            values[1] += quizPointStatistic.getParticipantsUnrated();
+            changes.getStatistics().add(new QuizStatisticChangesDTO.StatisticValues(quizPointStatistic.getId(), values[0], values[1], null, null));
+        }
+        for (PointCounter pointCounter : quizPointStatistic.getPointCounters()) {
+            saveCounterChanges(pointCounter, statisticDelta, changes);
+        }
+        for (QuizQuestion quizQuestion : quiz.getQuizQuestions()) {
+            QuizQuestionStatistic quizQuestionStatistic = quizQuestion.getQuizQuestionStatistic();
+            if (quizQuestionStatistic == null) {
+                continue;
+            }
+            boolean participantsChanged = quizQuestionStatistic.getParticipantsRated() != 0 || quizQuestionStatistic.getParticipantsUnrated() != 0;
+            boolean correctCountersChanged = quizQuestionStatistic.getRatedCorrectCounter() != 0 || quizQuestionStatistic.getUnRatedCorrectCounter() != 0;
+            if (participantsChanged) {
+                statisticRepository.incrementParticipants(quizQuestionStatistic.getId(), quizQuestionStatistic.getParticipantsRated(),
+                        quizQuestionStatistic.getParticipantsUnrated());
+            }
+            if (correctCountersChanged) {
+                quizQuestionStatisticRepository.incrementCorrectCounters(quizQuestionStatistic.getId(), quizQuestionStatistic.getRatedCorrectCounter(),
+                        quizQuestionStatistic.getUnRatedCorrectCounter());
+            }
+            if (participantsChanged || correctCountersChanged) {
+                int[] values = statisticDelta.getStatisticValues().get(quizQuestionStatistic.getId());
+                values[0] += quizQuestionStatistic.getParticipantsRated();
+                values[1] += quizQuestionStatistic.getParticipantsUnrated();
+                values[2] += quizQuestionStatistic.getRatedCorrectCounter();
+                values[3] += quizQuestionStatistic.getUnRatedCorrectCounter();
+                changes.getStatistics().add(new QuizStatisticChangesDTO.StatisticValues(quizQuestionStatistic.getId(), values[0], values[1], values[2], values[3]));
+            }
+            for (QuizStatisticCounter counter : getCounters(quizQuestionStatistic)) {
+                saveCounterChanges(counter, statisticDelta, changes);
+            }
+        }
+        return changes;
+    }
+
+    private void saveCounterChanges(QuizStatisticCounter counter, QuizStatisticDelta statisticDelta, QuizStatisticChangesDTO changes) {
+        if (counter.getRatedCounter() != 0 || counter.getUnRatedCounter() != 0) {
+            statisticCounterRepository.incrementCounters(counter.getId(), counter.getRatedCounter(), counter.getUnRatedCounter());
+            int[] values = statisticDelta.getCounterValues().get(counter.getId());
+            values[0] += counter.getRatedCounter();
+            values[1] += counter.getUnRatedCounter();
+            changes.getCounters().add(new QuizStatisticChangesDTO.CounterValues(counter.getId(), values[0], values[1]));
+        }
+    }
 
+    private Set<? extends QuizStatisticCounter> getCounters(QuizQuestionStatistic quizQuestionStatistic) {
+        if (quizQuestionStatistic instanceof MultipleChoiceQuestionStatistic) {
+            return ((MultipleChoiceQuestionStatistic) quizQuestionStatistic).getAnswerCounters();
+        }
+        if (quizQuestionStatistic instanceof DragAndDropQuestionStatistic) {
+            return ((DragAndDropQuestionStatistic) quizQuestionStatistic).getDropLocationCounters();
+        }
+        if (quizQuestionStatistic instanceof ShortAnswerQuestionStatistic) {
+            return ((ShortAnswerQuestionStatistic) quizQuestionStatistic).getShortAnswerSpotCounters();
+        }
+        return Collections.emptySet();
+    }
+
+    private void resetAllStatistics(QuizExercise quiz) {
+        quiz.getQuizPointStatistic().resetStatistic();
+        for (QuizQuestion quizQuestion : quiz.getQuizQuestions()) {
+            if (quizQuestion.getQuizQuestionStatistic() != null) {
+                quizQuestion.getQuizQuestionStatistic().resetStatistic();
+            }
+        }
     }
 
     /**
      * Go through all Results in the Participation and return the latest one before the new Result,
      *
-     * @param newResult the new result object which will replace the old Result in the Statistics
+     * @param newResult            the new result object which will replace the old Result in the Statistics
+     * @param participationResults all results of the participation of the new result
      * @return the previous Result, which is presented in the Statistics (null if where is no previous Result)
      */
-    private Result getPreviousResult(Result newResult) {
+    private Result getPreviousResult(Result newResult, List<Result> participationResults) {
         Result oldResult = null;
 
-        for (Result result : resultRepository.findByParticipationIdOrderByCompletionDateDesc(newResult.getParticipation().getId())) {
+        if (participationResults == null) {
+            return null;
+        }
+        for (Result result : participationResults) {
             // find the latest Result, which is presented in the Statistics
             if (result.isRated() == newResult.isRated() && result.getCompletionDate().isBefore(newResult.getCompletionDate()) && !result.equals(newResult)
                     && (oldResult == null || result.getCompletionDate().isAfter(oldResult.getCompletionDate()))) {
@@ -195,4 +555,65 @@ public class QuizStatisticService {
         }
     }
 
+    /**
+     * The statistic changes of one quiz since the last write to the database. They are only modified by the quiz scheduler, the lock on this object protects them against
+     * concurrent discards, e.g. when an instructor recalculates the statistics.
+     */
+    private static class QuizStatisticDelta {
+
+        private final QuizExercise quiz;
+
+        private boolean changed = false;
+
+        private boolean discarded = false;
+
+        private long lastFlush = System.currentTimeMillis();
+
+        /**
+         * the values of the statistics and counters (by id) in the database after the last write, which are also the values last sent to the clients
+         */
+        private final Map<Long, int[]> statisticValues = new HashMap<>();
+
+        private final Map<Long, int[]> counterValues = new HashMap<>();
+
+        QuizStatisticDelta(QuizExercise quiz) {
+            this.quiz = quiz;
+        }
+
+        QuizExercise getQuiz() {
+            return quiz;
+        }
+
+        Map<Long, int[]> getStatisticValues() {
+            return statisticValues;
+        }
+
+        Map<Long, int[]> getCounterValues() {
+            return counterValues;
+        }
+
+        boolean isChanged() {
+            return changed;
+        }
+
+        void setChanged(boolean changed) {
+            this.changed = changed;
+        }
+
+        boolean isDiscarded() {
+            return discarded;
+        }
+
+        void setDiscarded(boolean discarded) {
+            this.discarded = discarded;
+        }
+
+        long getLastFlush() {
+            return lastFlush;
+        }
+
+        void setLastFlush(long lastFlush) {
+            this.lastFlush = lastFlush;
+        }
+    }
 }
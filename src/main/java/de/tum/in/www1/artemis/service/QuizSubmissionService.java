@@ -12,6 +12,7 @@ import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
 import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.repository.ParticipationRepository;
 import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
 import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
@@ -24,9 +25,12 @@ public class QuizSubmissionService {
 
     private final ResultRepository resultRepository;
 
-    public QuizSubmissionService(QuizSubmissionRepository quizSubmissionRepository, ResultRepository resultRepository) {
+    private final ParticipationRepository participationRepository;
+
+    public QuizSubmissionService(QuizSubmissionRepository quizSubmissionRepository, ResultRepository resultRepository, ParticipationRepository participationRepository) {
         this.quizSubmissionRepository = quizSubmissionRepository;
         this.resultRepository = resultRepository;
+        this.participationRepository = participationRepository;
     }
 
     @Transactional(readOnly = true)
@@ -81,4 +85,19 @@ public class QuizSubmissionService {
         return result;
     }
 
+    /**
+     * Save a chunk of quiz participations (each containing exactly one quiz submission and one result) in one transaction. Saving the whole chunk in one transaction allows
+     * Hibernate to batch the JDBC statements and avoids one commit per student when a quiz ends.
+     *
+     * @param participations the new participations, each with its submission and result attached
+     */
+    @Transactional
+    public void saveQuizParticipations(List<Participation> participations) {
+        for (Participation participation : participations) {
+            Result result = participation.getResults().iterator().next();
+            participationRepository.save(participation);
+            quizSubmissionRepository.save((QuizSubmission) result.getSubmission());
+            resultRepository.save(result);
+        }
+    }
 }
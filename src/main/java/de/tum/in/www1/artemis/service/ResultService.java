@@ -20,6 +20,7 @@ import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
 import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
 import de.tum.in.www1.artemis.service.connectors.LtiService;
+import de.tum.in.www1.artemis.service.dto.BambooBuildResultNotificationDTO;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 
 /**
@@ -98,19 +99,26 @@ public class ResultService {
     }
 
     /**
-     * Use the given requestBody to extract the relevant information from it. Fetch and attach the result's feedback items to it.
+     * Use the given requestBody to extract the relevant information from it. Fetch and attach the result's feedback items to it. The user is not notified about the result, this
+     * has to be done with {@link #notifyUser(Participation, Result)} after the result has been committed.
      * 
      * @param participation Participation for which the build was finished
      * @param requestBody   RequestBody containing the build result and its feedback items
+     * @return the new result or null if the build does not lead to a result
      */
-    public void onResultNotifiedNew(Participation participation, Object requestBody) throws Exception {
+    public Result onResultNotifiedNew(Participation participation, BambooBuildResultNotificationDTO requestBody) throws Exception {
         log.info("Received new build result (NEW) for participation " + participation.getId());
 
-        Result result = continuousIntegrationService.get().onBuildCompletedNew(participation, requestBody);
-        notifyUser(participation, result);
+        return continuousIntegrationService.get().onBuildCompletedNew(participation, requestBody);
     }
 
-    private void notifyUser(Participation participation, Result result) {
+    /**
+     * Notify the user about a new result via websocket and send the result to the LTI consumers
+     *
+     * @param participation the participation of the result
+     * @param result        the new result, nothing is sent if it is null
+     */
+    public void notifyUser(Participation participation, Result result) {
         if (result != null) {
             // notify user via websocket
             messagingTemplate.convertAndSend("/topic/participation/" + participation.getId() + "/newResults", result);
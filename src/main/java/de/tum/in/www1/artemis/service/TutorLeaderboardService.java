@@ -0,0 +1,208 @@
+package de.tum.in.www1.artemis.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.tum.in.www1.artemis.domain.Complaint;
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.web.rest.dto.StatsTutorLeaderboardDTO;
+
+/**
+ * Calculates the tutor leaderboards of courses and exercises with aggregate queries that count the assessments and complaints of every tutor in the database. The leaderboards
+ * of courses are cached and refreshed incrementally: when a result or a complaint is saved, only the rows of the affected tutors are counted again the next time the
+ * leaderboard is requested.
+ */
+@Service
+public class TutorLeaderboardService {
+
+    private final Logger log = LoggerFactory.getLogger(TutorLeaderboardService.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ResultRepository resultRepository;
+
+    private final Map<Long, CourseLeaderboard> courseLeaderboards = new ConcurrentHashMap<>();
+
+    /**
+     * The ids of the tutors whose assessments or complaints have been changed in the current transaction of a session
+     */
+    private final Map<SharedSessionContractImplementor, Set<Long>> pendingTutorIds = new ConcurrentHashMap<>();
+
+    public TutorLeaderboardService(EntityManagerFactory entityManagerFactory, ResultRepository resultRepository) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.resultRepository = resultRepository;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        AssessmentChangeListener listener = new AssessmentChangeListener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    /**
+     * Given a courseId, this method returns the tutor leaderboard with the number of completed assessments and the number of complaints of every tutor in the course
+     *
+     * @param courseId - the course we are interested in
+     * @return a NOT SORTED tutor leaderboard with name, login, number of assessments and number of complaints
+     */
+    @Transactional(readOnly = true)
+    public List<StatsTutorLeaderboardDTO> getTutorLeaderboardForCourse(Long courseId) {
+        CourseLeaderboard leaderboard = courseLeaderboards.computeIfAbsent(courseId, CourseLeaderboard::new);
+        return leaderboard.refresh();
+    }
+
+    /**
+     * Given a exerciseId, this method returns the tutor leaderboard with the number of completed assessments and the number of complaints of every tutor in the exercise
+     *
+     * @param exerciseId - the exercise we are interested in
+     * @return a NOT SORTED tutor leaderboard with name, login, number of assessments and number of complaints
+     */
+    @Transactional(readOnly = true)
+    public List<StatsTutorLeaderboardDTO> getTutorLeaderboardForExercise(Long exerciseId) {
+        return resultRepository.findTutorLeaderboardByExerciseId(exerciseId);
+    }
+
+    private void assessmentChanged(EventSource session, User... assessors) {
+        for (User assessor : assessors) {
+            if (assessor == null || assessor.getId() == null) {
+                continue;
+            }
+            if (!session.isTransactionInProgress()) {
+                // without a transaction the change is already written, and no transaction completion would remove the pending tutors of the session again
+                markTutorsAsChanged(Collections.singleton(assessor.getId()));
+                continue;
+            }
+            Set<Long> tutorIds = pendingTutorIds.computeIfAbsent(session, key -> {
+                session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) this::transactionCompleted);
+                return ConcurrentHashMap.newKeySet();
+            });
+            tutorIds.add(assessor.getId());
+        }
+    }
+
+    private void transactionCompleted(boolean success, SharedSessionContractImplementor session) {
+        Set<Long> tutorIds = pendingTutorIds.remove(session);
+        if (success && tutorIds != null) {
+            markTutorsAsChanged(tutorIds);
+        }
+    }
+
+    private void markTutorsAsChanged(Set<Long> tutorIds) {
+        // the tutors are marked in every cached leaderboard, because the course of the changed results is not known without loading it
+        courseLeaderboards.values().forEach(leaderboard -> leaderboard.changedTutorIds.addAll(tutorIds));
+    }
+
+    /**
+     * Remove the cached leaderboard of a deleted course when the transaction of the deletion is completed, so that it does not stay in memory
+     */
+    private void courseDeleted(EventSource session, Long courseId) {
+        if (session.isTransactionInProgress()) {
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completedSession) -> courseLeaderboards.remove(courseId));
+        }
+        else {
+            courseLeaderboards.remove(courseId);
+        }
+    }
+
+    private class CourseLeaderboard {
+
+        private final Long courseId;
+
+        private final Map<Long, StatsTutorLeaderboardDTO> rows = new LinkedHashMap<>();
+
+        private final Set<Long> changedTutorIds = ConcurrentHashMap.newKeySet();
+
+        private boolean loaded = false;
+
+        CourseLeaderboard(Long courseId) {
+            this.courseId = courseId;
+        }
+
+        /**
+         * Count the rows of all changed tutors again, or of all tutors when the leaderboard is requested for the first time
+         *
+         * @return a copy of the rows of the leaderboard
+         */
+        private synchronized List<StatsTutorLeaderboardDTO> refresh() {
+            if (!loaded) {
+                changedTutorIds.clear();
+                resultRepository.findTutorLeaderboardByCourseId(courseId).forEach(row -> rows.put(row.tutorId, row));
+                loaded = true;
+            }
+            else if (!changedTutorIds.isEmpty()) {
+                Set<Long> tutorIds = new HashSet<>(changedTutorIds);
+                changedTutorIds.removeAll(tutorIds);
+                log.debug("Refresh the tutor leaderboard of course {} for {} tutors", courseId, tutorIds.size());
+                // tutors without any assessment in the course anymore are not part of the result and are removed
+                rows.keySet().removeAll(tutorIds);
+                resultRepository.findTutorLeaderboardByCourseIdAndTutorIds(courseId, tutorIds).forEach(row -> rows.put(row.tutorId, row));
+            }
+            List<StatsTutorLeaderboardDTO> leaderboard = new ArrayList<>();
+            rows.values().forEach(row -> leaderboard.add(new StatsTutorLeaderboardDTO(row.name, row.login, row.numberOfAssessments, row.numberOfComplaints, row.tutorId)));
+            return leaderboard;
+        }
+    }
+
+    private class AssessmentChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            changed(event.getSession(), event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            changed(event.getSession(), event.getEntity());
+            if (event.getEntity() instanceof Result && event.getOldState() != null) {
+                // the previous assessor loses the assessment when the result is assigned to another tutor
+                int assessorIndex = Arrays.asList(event.getPersister().getPropertyNames()).indexOf("assessor");
+                if (assessorIndex >= 0 && event.getOldState()[assessorIndex] instanceof User) {
+                    assessmentChanged(event.getSession(), (User) event.getOldState()[assessorIndex]);
+                }
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            changed(event.getSession(), event.getEntity());
+            if (event.getEntity() instanceof Course) {
+                courseDeleted(event.getSession(), ((Course) event.getEntity()).getId());
+            }
+        }
+
+        private void changed(EventSource session, Object entity) {
+            if (entity instanceof Result) {
+                assessmentChanged(session, ((Result) entity).getAssessor());
+            }
+            else if (entity instanceof Complaint && ((Complaint) entity).getResult() != null) {
+                assessmentChanged(session, ((Complaint) entity).getResult().getAssessor());
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package de.tum.in.www1.artemis.service;
 import java.security.Principal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -327,6 +329,20 @@ public class UserService {
         return userRepository.findOneByLogin(login);
     }
 
+    /**
+     * Get all users with the given logins in a single query
+     *
+     * @param logins the logins of the users
+     * @return the users that exist for the given logins (logins without a user are skipped)
+     */
+    @Transactional(readOnly = true)
+    public List<User> getUsersByLogins(Collection<String> logins) {
+        if (logins.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return userRepository.findAllByLoginIn(logins);
+    }
+
     @Transactional(readOnly = true)
     public User getUserWithGroupsAndAuthoritiesByLogin(String login) {
         User user = userRepository.findOneByLogin(login).orElse(null);
@@ -30,8 +30,9 @@ public interface CalculationEngine {
      *
      * @param modelingAssessment the new assessment as list of individual Feedback objects
      * @param submissionId       the id of the corresponding model
+     * @return the ids of the models whose automatic assessment has been updated, i.e. the models that contain one of the newly assessed elements
      */
-    void notifyNewAssessment(List<Feedback> modelingAssessment, long submissionId);
+    Collection<Long> notifyNewAssessment(List<Feedback> modelingAssessment, long submissionId);
 
     /**
      * Add a new model
@@ -3,6 +3,8 @@ package de.tum.in.www1.artemis.service.compass;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 import org.hibernate.Hibernate;
@@ -10,7 +12,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
 import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.domain.Feedback;
@@ -38,9 +39,18 @@ public class CompassCalculationEngine implements CalculationEngine {
 
     private ModelSelector modelSelector;
 
-    private LocalDateTime lastUsed;
+    private volatile LocalDateTime lastUsed;
 
-    CompassCalculationEngine(Set<ModelingSubmission> manuallyAssessedSubmissions) {
+    /**
+     * Protects the indices, the model selector and the models of this engine: methods that only read them acquire the read lock, methods that add models or assessments or change
+     * the models waiting for assessment acquire the write lock
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Create an empty engine, used when the engine is restored from a snapshot (see {@link CompassSnapshotService})
+     */
+    CompassCalculationEngine() {
         lastUsed = LocalDateTime.now();
         modelIndex = new ModelIndex();
         assessmentIndex = new AssessmentIndex();
@@ -49,6 +59,10 @@ public class CompassCalculationEngine implements CalculationEngine {
         modelSelector = new ModelSelector(); // TODO MJ fix Bug where on load of exercise no
         // modelsWaitingForAssessment are added ? No differentiation between
         // submitted and saved assessments!
+    }
+
+    CompassCalculationEngine(Set<ModelingSubmission> manuallyAssessedSubmissions) {
+        this();
 
         for (Submission manuallyAssessedSubmission : manuallyAssessedSubmissions) {
             // We have to unproxy here as sometimes the Submission is a Hibernate proxy resulting in a cast exception
@@ -76,38 +90,63 @@ public class CompassCalculationEngine implements CalculationEngine {
         if (model == null) {
             return elementConflictingFeedbackMapping;
         }
-        modelingAssessment.forEach(currentFeedback -> {
-            UMLElement currentElement = model.getElementByJSONID(currentFeedback.getReferenceElementId()); // TODO MJ return Optional ad throw Exception if no UMLElement found?
-            assessmentIndex.getAssessment(currentElement.getElementID()).ifPresent(assessment -> {
-                List<Feedback> feedbacks = assessment.getFeedbacks(currentElement.getContext());
-                List<Feedback> feedbacksInConflict = feedbacks.stream().filter(feedback -> !scoresAreConsideredEqual(feedback.getCredits(), currentFeedback.getCredits()))
-                        .collect(Collectors.toList());
-                if (!feedbacksInConflict.isEmpty()) {
-                    elementConflictingFeedbackMapping.put(currentElement.getJSONElementID(), feedbacksInConflict);
-                }
+        lock.readLock().lock();
+        try {
+            modelingAssessment.forEach(currentFeedback -> {
+                UMLElement currentElement = model.getElementByJSONID(currentFeedback.getReferenceElementId()); // TODO MJ return Optional ad throw Exception if no UMLElement found?
+                assessmentIndex.getAssessment(currentElement.getElementID()).ifPresent(assessment -> {
+                    List<Feedback> feedbacks = assessment.getFeedbacks(currentElement.getContext());
+                    List<Feedback> feedbacksInConflict = feedbacks.stream().filter(feedback -> !scoresAreConsideredEqual(feedback.getCredits(), currentFeedback.getCredits()))
+                            .collect(Collectors.toList());
+                    if (!feedbacksInConflict.isEmpty()) {
+                        elementConflictingFeedbackMapping.put(currentElement.getJSONElementID(), feedbacksInConflict);
+                    }
+                });
             });
-        });
+        }
+        finally {
+            lock.readLock().unlock();
+        }
         return elementConflictingFeedbackMapping;
     }
 
     private UMLClassDiagram getModel(ModelingSubmission modelingSubmission) {
-        UMLClassDiagram model = modelIndex.getModel(modelingSubmission.getId());
+        lock.readLock().lock();
+        try {
+            UMLClassDiagram model = modelIndex.getModel(modelingSubmission.getId());
+            if (model != null) {
+                return model;
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
         // TODO properly handle this case and make sure after server restart the modelIndex is reloaded properly
-        if (model == null) {
-            // handle the case that model is null (e.g. after server restart)
-            buildModel(modelingSubmission);
-            model = modelIndex.getModel(modelingSubmission.getId());
+        lock.writeLock().lock();
+        try {
+            UMLClassDiagram model = modelIndex.getModel(modelingSubmission.getId());
+            if (model == null) {
+                // handle the case that model is null (e.g. after server restart)
+                buildModel(modelingSubmission);
+                model = modelIndex.getModel(modelingSubmission.getId());
+                if (model != null) {
+                    automaticAssessmentController.assessModelAutomatically(model, assessmentIndex);
+                }
+            }
+            return model;
+        }
+        finally {
+            lock.writeLock().unlock();
         }
-        return model;
     }
 
     private void buildModel(ModelingSubmission modelingSubmission) {
         if (modelingSubmission.getModel() != null) {
-            buildModel(modelingSubmission.getId(), new JsonParser().parse(modelingSubmission.getModel()).getAsJsonObject());
+            buildModel(modelingSubmission.getId(), modelingSubmission.getModel());
         }
     }
 
-    private void buildModel(long modelSubmissionId, JsonObject jsonModel) {
+    private void buildModel(long modelSubmissionId, String jsonModel) {
         try {
             UMLClassDiagram model = JSONParser.buildModelFromJSON(jsonModel, modelSubmissionId);
             SimilarityDetector.analyzeSimilarity(model, modelIndex);
@@ -118,6 +157,70 @@ public class CompassCalculationEngine implements CalculationEngine {
         }
     }
 
+    /**
+     * Add a model from a snapshot. In contrast to {@link #notifyNewModel(String, long)} the element ids are not calculated with the SimilarityDetector, but taken from the snapshot.
+     *
+     * @param modelSubmissionId the id of the model submission
+     * @param model             the model as raw string
+     * @param elementIDs        the element id of every model element, the key is the json element id
+     * @throws IOException if the model cannot be parsed or does not fit to the element ids
+     */
+    void restoreModel(long modelSubmissionId, String model, Map<String, Integer> elementIDs) throws IOException {
+        lock.writeLock().lock();
+        try {
+            UMLClassDiagram umlModel = JSONParser.buildModelFromJSON(model, modelSubmissionId);
+            SimilarityDetector.restoreSimilarity(umlModel, modelIndex, elementIDs);
+            modelIndex.addModel(umlModel);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a manual assessment from a snapshot. In contrast to {@link #notifyNewAssessment(List, long)} the automatic assessments of the models are not updated, this has to be done
+     * with {@link #assessModelsAutomatically()} after all assessments of the snapshot are restored.
+     *
+     * @param modelingAssessment        the assessment as list of individual Feedback objects
+     * @param assessedModelSubmissionId the id of the assessed model submission
+     */
+    void restoreAssessment(List<Feedback> modelingAssessment, long assessedModelSubmissionId) {
+        lock.writeLock().lock();
+        try {
+            addManualAssessment(modelingAssessment, assessedModelSubmissionId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the element ids of all elements of a model, they are stored in a snapshot so that the SimilarityDetector does not have to run again when the engine is restored
+     *
+     * @param modelSubmissionId the id of the model submission
+     * @return the element id of every model element, the key is the json element id, or null if the model is not part of the engine
+     */
+    Map<String, Integer> getElementIDs(long modelSubmissionId) {
+        lock.readLock().lock();
+        try {
+            UMLClassDiagram model = modelIndex.getModel(modelSubmissionId);
+            if (model == null) {
+                return null;
+            }
+            Map<String, Integer> elementIDs = new HashMap<>();
+            for (UMLClass umlClass : model.getClassList()) {
+                elementIDs.put(umlClass.getJSONElementID(), umlClass.getElementID());
+                umlClass.getAttributes().forEach(attribute -> elementIDs.put(attribute.getJSONElementID(), attribute.getElementID()));
+                umlClass.getMethods().forEach(method -> elementIDs.put(method.getJSONElementID(), method.getElementID()));
+            }
+            model.getAssociationList().forEach(relation -> elementIDs.put(relation.getJSONElementID(), relation.getElementID()));
+            return elementIDs;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
     private void buildAssessment(ModelingSubmission submission) {
         UMLClassDiagram model = modelIndex.getModelMap().get(submission.getId());
         if (model == null || submission.getResult() == null) {
@@ -149,8 +252,14 @@ public class CompassCalculationEngine implements CalculationEngine {
         return automaticAssessmentController.getTotalConfidence();
     }
 
-    private void assessModelsAutomatically() {
-        automaticAssessmentController.assessModelsAutomatically(modelIndex, assessmentIndex);
+    void assessModelsAutomatically() {
+        lock.writeLock().lock();
+        try {
+            automaticAssessmentController.assessModelsAutomatically(modelIndex, assessmentIndex);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -159,61 +268,125 @@ public class CompassCalculationEngine implements CalculationEngine {
     @Override
     public Map.Entry<Long, Grade> getNextOptimalModel() {
         lastUsed = LocalDateTime.now();
-        Long optimalModelSubmissionId = modelSelector.selectNextModel(modelIndex);
-        if (optimalModelSubmissionId == null) {
-            return null;
+        lock.writeLock().lock();
+        try {
+            Long optimalModelSubmissionId = modelSelector.selectNextModel(modelIndex);
+            if (optimalModelSubmissionId == null) {
+                return null;
+            }
+            Grade grade = getGradeForModel(optimalModelSubmissionId);
+            // Should never happen
+            if (grade == null) {
+                grade = new CompassGrade();
+            }
+            return new AbstractMap.SimpleEntry<>(optimalModelSubmissionId, grade);
         }
-        Grade grade = getGradeForModel(optimalModelSubmissionId);
-        // Should never happen
-        if (grade == null) {
-            grade = new CompassGrade();
+        finally {
+            lock.writeLock().unlock();
         }
-        return new AbstractMap.SimpleEntry<>(optimalModelSubmissionId, grade);
     }
 
     @Override
     public Grade getGradeForModel(long modelSubmissionId) {
         lastUsed = LocalDateTime.now();
-        if (!modelIndex.getModelMap().containsKey(modelSubmissionId)) {
-            return null;
-        }
+        lock.readLock().lock();
+        try {
+            if (!modelIndex.getModelMap().containsKey(modelSubmissionId)) {
+                return null;
+            }
 
-        UMLClassDiagram model = modelIndex.getModelMap().get(modelSubmissionId);
-        CompassResult compassResult = model.getLastAssessmentCompassResult();
+            CompassResult compassResult = modelIndex.getModelMap().get(modelSubmissionId).getLastAssessmentCompassResult();
+            if (compassResult != null) {
+                return compassResult;
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
 
-        if (compassResult == null) {
-            return automaticAssessmentController.assessModelAutomatically(model, assessmentIndex);
+        // the model has not been assessed yet, the assessment changes the model and the statistics of the controller, so it requires the write lock
+        lock.writeLock().lock();
+        try {
+            UMLClassDiagram model = modelIndex.getModelMap().get(modelSubmissionId);
+            if (model == null) {
+                return null;
+            }
+            // another thread might have assessed the model in the meantime
+            CompassResult compassResult = model.getLastAssessmentCompassResult();
+            if (compassResult == null) {
+                compassResult = automaticAssessmentController.assessModelAutomatically(model, assessmentIndex);
+            }
+            return compassResult;
+        }
+        finally {
+            lock.writeLock().unlock();
         }
-        return compassResult;
     }
 
     @Override
     public Collection<Long> getModelIds() {
-        return modelIndex.getModelMap().keySet();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(modelIndex.getModelMap().keySet());
+        }
+        finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
-    public void notifyNewAssessment(List<Feedback> modelingAssessment, long assessedModelSubmissionId) {
+    public Collection<Long> notifyNewAssessment(List<Feedback> modelingAssessment, long assessedModelSubmissionId) {
         lastUsed = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            Set<Integer> changedElementIDs = addManualAssessment(modelingAssessment, assessedModelSubmissionId);
+            if (changedElementIDs == null) {
+                return Collections.emptyList();
+            }
+            // only the models that contain one of the newly assessed elements can get a different result
+            Collection<UMLClassDiagram> affectedModels = modelIndex.getModelsContainingElements(changedElementIDs);
+            automaticAssessmentController.assessModelsAutomatically(affectedModels, assessmentIndex);
+            return affectedModels.stream().map(UMLClassDiagram::getModelSubmissionId).collect(Collectors.toList());
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the elementIds whose assessments have been changed or null if the assessment could not be added
+     */
+    private Set<Integer> addManualAssessment(List<Feedback> modelingAssessment, long assessedModelSubmissionId) {
         modelSelector.addAlreadyAssessedModel(assessedModelSubmissionId);
         UMLClassDiagram model = modelIndex.getModel(assessedModelSubmissionId);
         if (model == null) {
             log.warn("Cannot add manual assessment to Compass, because the model in modelIndex is null for submission id " + assessedModelSubmissionId);
-            return;
+            return null;
         }
-        addNewManualAssessment(modelingAssessment, model);
+        Set<Integer> changedElementIDs = addNewManualAssessment(modelingAssessment, model);
         modelSelector.removeModelWaitingForAssessment(model.getModelSubmissionId());
-        assessModelsAutomatically();
+        return changedElementIDs;
     }
 
     @Override
     public void notifyNewModel(String model, long modelId) {
         lastUsed = LocalDateTime.now();
-        // Do not add models that might already exist
-        if (modelIndex.getModelMap().containsKey(modelId)) {
-            return;
+        lock.writeLock().lock();
+        try {
+            // Do not add models that might already exist
+            if (modelIndex.getModelMap().containsKey(modelId)) {
+                return;
+            }
+            buildModel(modelId, model);
+            // assess the new model right away, so that readers never have to calculate (and store) its result
+            UMLClassDiagram umlModel = modelIndex.getModel(modelId);
+            if (umlModel != null) {
+                automaticAssessmentController.assessModelAutomatically(umlModel, assessmentIndex);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
         }
-        buildModel(modelId, new JsonParser().parse(model).getAsJsonObject());
     }
 
     @Override
@@ -223,8 +396,17 @@ public class CompassCalculationEngine implements CalculationEngine {
 
     @Override
     public Map<Long, Grade> getModelsWaitingForAssessment() {
+        List<Long> modelIds;
+        lock.readLock().lock();
+        try {
+            modelIds = modelSelector.getModelsWaitingForAssessment();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        // the read lock must not be held here, getGradeForModel takes the write lock to assess unassessed models and a read lock cannot be upgraded
         Map<Long, Grade> optimalModels = new HashMap<>();
-        for (long modelId : modelSelector.getModelsWaitingForAssessment()) {
+        for (long modelId : modelIds) {
             optimalModels.put(modelId, getGradeForModel(modelId));
         }
         return optimalModels;
@@ -232,59 +414,77 @@ public class CompassCalculationEngine implements CalculationEngine {
 
     @Override
     public void removeModelWaitingForAssessment(long modelSubmissionId, boolean isAssessed) {
-        modelSelector.removeModelWaitingForAssessment(modelSubmissionId);
-        if (!isAssessed && (modelIndex.getModelMap().get(modelSubmissionId) == null || !modelIndex.getModelMap().get(modelSubmissionId).isEntirelyAssessed())) {
-            modelSelector.removeAlreadyAssessedModel(modelSubmissionId);
+        lock.writeLock().lock();
+        try {
+            modelSelector.removeModelWaitingForAssessment(modelSubmissionId);
+            if (!isAssessed && (modelIndex.getModelMap().get(modelSubmissionId) == null || !modelIndex.getModelMap().get(modelSubmissionId).isEntirelyAssessed())) {
+                modelSelector.removeAlreadyAssessedModel(modelSubmissionId);
+            }
+            else if (isAssessed) {
+                modelSelector.addAlreadyAssessedModel(modelSubmissionId);
+            }
         }
-        else if (isAssessed) {
-            modelSelector.addAlreadyAssessedModel(modelSubmissionId);
+        finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public void markModelAsUnassessed(long modelSubmissionId) {
-        modelSelector.removeAlreadyAssessedModel(modelSubmissionId);
+        lock.writeLock().lock();
+        try {
+            modelSelector.removeAlreadyAssessedModel(modelSubmissionId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
     }
 
     // TODO adapt the parser to support different UML diagrams
     @Override
     public List<Feedback> convertToFeedback(Grade grade, long modelId, Result result) {
-        UMLClassDiagram model = this.modelIndex.getModelMap().get(modelId);
-        if (model == null) {
-            return null;
-        }
+        lock.readLock().lock();
+        try {
+            UMLClassDiagram model = this.modelIndex.getModelMap().get(modelId);
+            if (model == null) {
+                return null;
+            }
 
-        List<Feedback> feedbackList = new ArrayList<>();
+            List<Feedback> feedbackList = new ArrayList<>();
 
-        for (Map.Entry<String, Double> gradePointsEntry : grade.getJsonIdPointsMapping().entrySet()) {
-            Feedback feedback = new Feedback();
+            for (Map.Entry<String, Double> gradePointsEntry : grade.getJsonIdPointsMapping().entrySet()) {
+                Feedback feedback = new Feedback();
 
-            String jsonElementID = gradePointsEntry.getKey();
-            UMLElement umlElement = model.getElementByJSONID(jsonElementID);
+                String jsonElementID = gradePointsEntry.getKey();
+                UMLElement umlElement = model.getElementByJSONID(jsonElementID);
 
-            if (umlElement == null) {
-                log.error("Element " + jsonElementID + " was not found in Model");
-                continue;
-            }
+                if (umlElement == null) {
+                    log.error("Element " + jsonElementID + " was not found in Model");
+                    continue;
+                }
 
-            feedback.setCredits(gradePointsEntry.getValue());
-            feedback.setPositive(feedback.getCredits() >= 0);
-            feedback.setText(grade.getJsonIdCommentsMapping().getOrDefault(jsonElementID, ""));
-            feedback.setReference(buildReferenceString(umlElement, jsonElementID));
-            feedback.setType(FeedbackType.AUTOMATIC);
-            feedback.setResult(result);
+                feedback.setCredits(gradePointsEntry.getValue());
+                feedback.setPositive(feedback.getCredits() >= 0);
+                feedback.setText(grade.getJsonIdCommentsMapping().getOrDefault(jsonElementID, ""));
+                feedback.setReference(buildReferenceString(umlElement, jsonElementID));
+                feedback.setType(FeedbackType.AUTOMATIC);
+                feedback.setResult(result);
 
-            feedbackList.add(feedback);
-        }
+                feedbackList.add(feedback);
+            }
 
-        // TODO: in the future we want to store this information as well, but for now we
-        // ignore it.
-        // jsonObject.addProperty(JSONMapping.assessmentElementConfidence,
-        // grade.getConfidence());
-        // jsonObject.addProperty(JSONMapping.assessmentElementCoverage,
-        // grade.getCoverage());
+            // TODO: in the future we want to store this information as well, but for now we
+            // ignore it.
+            // jsonObject.addProperty(JSONMapping.assessmentElementConfidence,
+            // grade.getConfidence());
+            // jsonObject.addProperty(JSONMapping.assessmentElementCoverage,
+            // grade.getCoverage());
 
-        return feedbackList;
+            return feedbackList;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -309,67 +509,78 @@ public class CompassCalculationEngine implements CalculationEngine {
     // better to return Java objects here
     @Override
     public JsonObject getStatistics() {
-        JsonObject jsonObject = new JsonObject();
-
-        JsonObject uniqueElements = new JsonObject();
-        int conflicts = 0;
-        for (UMLElement umlElement : this.modelIndex.getUniqueElements()) {
-            JsonObject uniqueElement = new JsonObject();
-            uniqueElement.addProperty("name", umlElement.getName());
-            uniqueElement.addProperty("apollonId", umlElement.getJSONElementID());
-            boolean conflict = this.hasConflict(umlElement.getElementID());
-            if (conflict) {
-                conflicts++;
-            }
-            uniqueElement.addProperty("conflicts", conflict);
-            uniqueElements.add(umlElement.getElementID() + "", uniqueElement);
-        }
-        jsonObject.add("uniqueElements", uniqueElements);
-
-        jsonObject.addProperty("numberModels", this.modelIndex.getModelCollection().size());
-        jsonObject.addProperty("numberConflicts", conflicts);
-        jsonObject.addProperty("totalConfidence", this.getTotalConfidence());
-        jsonObject.addProperty("totalCoverage", this.getTotalCoverage());
-
-        JsonObject models = new JsonObject();
-        for (Map.Entry<Long, UMLClassDiagram> modelEntry : this.getModelMap().entrySet()) {
-            JsonObject model = new JsonObject();
-            model.addProperty("coverage", modelEntry.getValue().getLastAssessmentCoverage());
-            model.addProperty("confidence", modelEntry.getValue().getLastAssessmentConfidence());
-            int modelConflicts = 0;
-            List<UMLElement> elements = new ArrayList<>();
-            elements.addAll(modelEntry.getValue().getClassList());
-            elements.addAll(modelEntry.getValue().getAssociationList());
-            for (UMLClass umlClass : modelEntry.getValue().getClassList()) {
-                elements.addAll(umlClass.getAttributes());
-                elements.addAll(umlClass.getMethods());
+        lock.readLock().lock();
+        try {
+            JsonObject jsonObject = new JsonObject();
+
+            JsonObject uniqueElements = new JsonObject();
+            int conflicts = 0;
+            for (UMLElement umlElement : this.modelIndex.getUniqueElements()) {
+                JsonObject uniqueElement = new JsonObject();
+                uniqueElement.addProperty("name", umlElement.getName());
+                uniqueElement.addProperty("apollonId", umlElement.getJSONElementID());
+                boolean conflict = this.hasConflict(umlElement.getElementID());
+                if (conflict) {
+                    conflicts++;
+                }
+                uniqueElement.addProperty("conflicts", conflict);
+                uniqueElements.add(umlElement.getElementID() + "", uniqueElement);
             }
-            for (UMLElement element : elements) {
-                boolean modelConflict = this.hasConflict(element.getElementID());
-                if (modelConflict) {
-                    modelConflicts++;
+            jsonObject.add("uniqueElements", uniqueElements);
+
+            jsonObject.addProperty("numberModels", this.modelIndex.getModelCollection().size());
+            jsonObject.addProperty("numberConflicts", conflicts);
+            jsonObject.addProperty("totalConfidence", this.getTotalConfidence());
+            jsonObject.addProperty("totalCoverage", this.getTotalCoverage());
+
+            JsonObject models = new JsonObject();
+            for (Map.Entry<Long, UMLClassDiagram> modelEntry : this.getModelMap().entrySet()) {
+                JsonObject model = new JsonObject();
+                model.addProperty("coverage", modelEntry.getValue().getLastAssessmentCoverage());
+                model.addProperty("confidence", modelEntry.getValue().getLastAssessmentConfidence());
+                int modelConflicts = 0;
+                List<UMLElement> elements = new ArrayList<>();
+                elements.addAll(modelEntry.getValue().getClassList());
+                elements.addAll(modelEntry.getValue().getAssociationList());
+                for (UMLClass umlClass : modelEntry.getValue().getClassList()) {
+                    elements.addAll(umlClass.getAttributes());
+                    elements.addAll(umlClass.getMethods());
                 }
+                for (UMLElement element : elements) {
+                    boolean modelConflict = this.hasConflict(element.getElementID());
+                    if (modelConflict) {
+                        modelConflicts++;
+                    }
+                }
+                model.addProperty("conflicts", modelConflicts);
+                model.addProperty("elements", elements.size());
+                model.addProperty("classes", elements.stream().filter(umlElement -> umlElement instanceof UMLClass).count());
+                model.addProperty("attributes", elements.stream().filter(umlElement -> umlElement instanceof UMLAttribute).count());
+                model.addProperty("methods", elements.stream().filter(umlElement -> umlElement instanceof UMLMethod).count());
+                model.addProperty("associations", elements.stream().filter(umlElement -> umlElement instanceof UMLClassRelationship).count());
+                models.add(modelEntry.getKey().toString(), model);
             }
-            model.addProperty("conflicts", modelConflicts);
-            model.addProperty("elements", elements.size());
-            model.addProperty("classes", elements.stream().filter(umlElement -> umlElement instanceof UMLClass).count());
-            model.addProperty("attributes", elements.stream().filter(umlElement -> umlElement instanceof UMLAttribute).count());
-            model.addProperty("methods", elements.stream().filter(umlElement -> umlElement instanceof UMLMethod).count());
-            model.addProperty("associations", elements.stream().filter(umlElement -> umlElement instanceof UMLClassRelationship).count());
-            models.add(modelEntry.getKey().toString(), model);
-        }
-        jsonObject.add("models", models);
+            jsonObject.add("models", models);
 
-        return jsonObject;
+            return jsonObject;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
     }
 
-    private void addNewManualAssessment(List<Feedback> modelingAssessment, UMLClassDiagram model) {
+    /**
+     * @return the elementIds whose assessments have been changed
+     */
+    private Set<Integer> addNewManualAssessment(List<Feedback> modelingAssessment, UMLClassDiagram model) {
         Map<String, Feedback> feedbackMapping = createElementIdFeedbackMapping(modelingAssessment);
         try {
-            automaticAssessmentController.addFeedbacksToAssessment(assessmentIndex, feedbackMapping, model);
+            return automaticAssessmentController.addFeedbacksToAssessment(assessmentIndex, feedbackMapping, model);
         }
         catch (IOException e) {
             log.error("manual assessment for " + model.getName() + " could not be added: " + e.getMessage());
+            // the assessment might have been added partially, so every element could be affected
+            return new HashSet<>(getElementIDs(model.getModelSubmissionId()).values());
         }
     }
 
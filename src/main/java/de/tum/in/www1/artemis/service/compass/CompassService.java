@@ -10,6 +10,8 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.google.gson.JsonObject;
 
@@ -48,6 +50,8 @@ public class CompassService {
 
     private final ConflictingResultService conflictingResultService;
 
+    private final CompassSnapshotService compassSnapshotService;
+
     /**
      * Map exerciseId to compass CalculationEngines
      */
@@ -76,13 +80,15 @@ public class CompassService {
     private static final int NUMBER_OF_OPTIMAL_MODELS = 10;
 
     public CompassService(ResultRepository resultRepository, ModelingExerciseRepository modelingExerciseRepository, ModelingSubmissionRepository modelingSubmissionRepository,
-            ParticipationRepository participationRepository, ModelAssessmentConflictService conflictService, ConflictingResultService conflictingResultService) {
+            ParticipationRepository participationRepository, ModelAssessmentConflictService conflictService, ConflictingResultService conflictingResultService,
+            CompassSnapshotService compassSnapshotService) {
         this.resultRepository = resultRepository;
         this.modelingExerciseRepository = modelingExerciseRepository;
         this.modelingSubmissionRepository = modelingSubmissionRepository;
         this.participationRepository = participationRepository;
         this.conflictService = conflictService;
         this.conflictingResultService = conflictingResultService;
+        this.compassSnapshotService = compassSnapshotService;
     }
 
     public boolean isSupported(DiagramType diagramType) {
@@ -185,7 +191,8 @@ public class CompassService {
     }
 
     /**
-     * Update the engine for the given exercise with a new manual assessment. Check for every model if new automatic assessments could be created with the new information.
+     * Update the engine for the given exercise with a new manual assessment. Check for every model that contains a newly assessed element if new automatic assessments could be
+     * created with the new information.
      *
      * @param exerciseId         the id of the exercise to which the assessed submission belongs
      * @param submissionId       the id of the submission for which a new assessment is added
@@ -197,9 +204,10 @@ public class CompassService {
             return;
         }
         CalculationEngine engine = compassCalculationEngines.get(exerciseId);
-        engine.notifyNewAssessment(modelingAssessment, submissionId);
-        // Check all models for new assessments
-        for (long id : engine.getModelIds()) {
+        Collection<Long> affectedModelIds = engine.notifyNewAssessment(modelingAssessment, submissionId);
+        compassSnapshotService.appendAssessment(exerciseId, submissionId, modelingAssessment);
+        // Check the models with an updated automatic assessment for new assessments, the results of all other models are unchanged
+        for (long id : affectedModelIds) {
             assessAutomatically(id, exerciseId);
         }
     }
@@ -341,10 +349,37 @@ public class CompassService {
         if (!loadExerciseIfSuspended(exerciseId)) {
             return;
         }
-        compassCalculationEngines.get(exerciseId).notifyNewModel(model, modelId);
+        CompassCalculationEngine engine = (CompassCalculationEngine) compassCalculationEngines.get(exerciseId);
+        boolean isNewModel = !engine.getModelIds().contains(modelId);
+        engine.notifyNewModel(model, modelId);
+        if (isNewModel) {
+            compassSnapshotService.appendModel(exerciseId, engine, modelId, model);
+        }
         assessAutomatically(modelId, exerciseId);
     }
 
+    /**
+     * Remove the calculation engine of the given exercise from memory and delete its snapshot, e.g. because participations or results of the exercise have been deleted. The
+     * engine is recomputed from the database the next time it is needed.
+     *
+     * @param exerciseId the id of the exercise
+     */
+    public void removeCalculationEngine(long exerciseId) {
+        compassCalculationEngines.remove(exerciseId);
+        compassSnapshotService.deleteSnapshot(exerciseId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // an engine loaded before the deletion is committed still contains the deleted assessments
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    compassCalculationEngines.remove(exerciseId);
+                    compassSnapshotService.deleteSnapshot(exerciseId);
+                }
+            });
+        }
+    }
+
     private CompassCalculationEngine getCalculationEngine(long exerciseId) { // TODO throw exception if exerciseId not existing
         loadExerciseIfSuspended(exerciseId);
         return (CompassCalculationEngine) compassCalculationEngines.get(exerciseId);
@@ -377,10 +412,16 @@ public class CompassService {
             return;
         }
         log.info("Loading Compass calculation engine for exercise " + exerciseId);
-        // get all the submissions for the given exercise that have a manual assessment
-        Set<ModelingSubmission> manuallyAssessedSubmissions = getSubmissionsWithManualAssessmentsForExercise(exerciseId);
-        // load new calculation engine with the submissions and add to list of engines
-        CalculationEngine calculationEngine = new CompassCalculationEngine(manuallyAssessedSubmissions);
+        // restore the engine from its snapshot, the engine is only recomputed from the database if there is no snapshot or it does not fit to the assessments in the database
+        Set<Long> assessedSubmissionIds = modelingSubmissionRepository.findIdsByExerciseIdWithManualAssessment(exerciseId);
+        CompassCalculationEngine calculationEngine = compassSnapshotService.loadEngine(exerciseId, assessedSubmissionIds).orElse(null);
+        if (calculationEngine == null) {
+            // get all the submissions for the given exercise that have a manual assessment
+            Set<ModelingSubmission> manuallyAssessedSubmissions = getSubmissionsWithManualAssessmentsForExercise(exerciseId);
+            // load new calculation engine with the submissions and add to list of engines
+            calculationEngine = new CompassCalculationEngine(manuallyAssessedSubmissions);
+            compassSnapshotService.saveSnapshot(exerciseId, manuallyAssessedSubmissions, calculationEngine);
+        }
         compassCalculationEngines.put(exerciseId, calculationEngine);
         // assess models after reload
         for (long id : calculationEngine.getModelIds()) {
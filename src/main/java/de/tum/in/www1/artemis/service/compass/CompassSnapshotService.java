@@ -0,0 +1,363 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.domain.Feedback;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.Submission;
+import de.tum.in.www1.artemis.domain.enumeration.FeedbackType;
+import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
+import de.tum.in.www1.artemis.service.compass.controller.JSONParser;
+import de.tum.in.www1.artemis.service.compass.controller.ModelIndex;
+import de.tum.in.www1.artemis.service.compass.controller.SimilarityDetector;
+import de.tum.in.www1.artemis.service.compass.strategy.NameSimilarity;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.*;
+import de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration;
+
+/**
+ * Persists the state of the Compass calculation engines on disk, so that an engine does not have to be recomputed after a restart or after it was removed from memory.
+ * <p>
+ * The snapshot of an exercise is a gzip compressed binary file that contains a sequence of records: every model of the engine together with the element ids determined by the
+ * SimilarityDetector and every manual assessment that was added to the engine. The snapshot is written completely when an engine is built from the database, afterwards new models
+ * and assessments are appended as separate gzip members. Restoring an engine replays the records without recalculating the similarity of the model elements.
+ * <p>
+ * A snapshot is only restored if it was written by the same similarity code and contains the assessments of exactly the submissions that are manually assessed in the database,
+ * otherwise the engine is recomputed. The snapshot of an exercise is deleted when its participations or results are deleted.
+ */
+@Service
+public class CompassSnapshotService {
+
+    private final Logger log = LoggerFactory.getLogger(CompassSnapshotService.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x434d5053;
+
+    private static final int SNAPSHOT_VERSION = 2;
+
+    /**
+     * The classes that determine the element ids and the automatic assessments of the models
+     */
+    private static final List<Class<?>> SIMILARITY_CLASSES = Arrays.asList(CompassConfiguration.class, SimilarityDetector.class, NameSimilarity.class, ModelIndex.class,
+            JSONParser.class, UMLElement.class, UMLClass.class, UMLAttribute.class, UMLMethod.class, UMLClassRelationship.class);
+
+    /**
+     * Checksum of the compiled similarity classes, element ids stored by a different version of these classes do not fit to the element ids calculated by this version
+     */
+    private static final long SIMILARITY_CHECKSUM = calculateSimilarityChecksum();
+
+    private static final byte MODEL_RECORD = 1;
+
+    private static final byte ASSESSMENT_RECORD = 2;
+
+    @Value("${artemis.compass.snapshot-path:./compass-snapshots/}")
+    private String snapshotPath;
+
+    /**
+     * Restore the calculation engine of the given exercise from its snapshot
+     *
+     * @param exerciseId            the id of the exercise
+     * @param assessedSubmissionIds the ids of the submissions of the exercise that are manually assessed in the database
+     * @return the restored engine or an empty Optional if there is no (valid) snapshot for the exercise
+     */
+    public synchronized Optional<CompassCalculationEngine> loadEngine(long exerciseId, Set<Long> assessedSubmissionIds) {
+        Path snapshot = getSnapshotPath(exerciseId);
+        if (!Files.exists(snapshot)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(snapshot))))) {
+            if (input.readInt() != SNAPSHOT_MAGIC || input.readInt() != SNAPSHOT_VERSION || input.readLong() != SIMILARITY_CHECKSUM) {
+                log.warn("Compass snapshot {} has an unknown format or was written by another version of the similarity calculation and is ignored", snapshot);
+                deleteSnapshot(exerciseId);
+                return Optional.empty();
+            }
+            CompassCalculationEngine engine = new CompassCalculationEngine();
+            Set<Long> snapshotAssessedSubmissionIds = new HashSet<>();
+            int records = 0;
+            int type;
+            while ((type = input.read()) != -1) {
+                readRecord(input, type, engine, snapshotAssessedSubmissionIds);
+                records++;
+            }
+            if (!snapshotAssessedSubmissionIds.equals(assessedSubmissionIds)) {
+                // e.g. results have been deleted or assessments have been added while the engine was not in memory
+                log.info("Compass snapshot {} contains {} assessments, but {} submissions are assessed in the database, the engine will be recomputed", snapshot,
+                        snapshotAssessedSubmissionIds.size(), assessedSubmissionIds.size());
+                deleteSnapshot(exerciseId);
+                return Optional.empty();
+            }
+            engine.assessModelsAutomatically();
+            log.info("Restored Compass calculation engine for exercise {} from {} snapshot records", exerciseId, records);
+            return Optional.of(engine);
+        }
+        catch (IOException | RuntimeException e) {
+            // this includes snapshots that end with an incomplete record (e.g. after a crash), records appended after such a record could not be read anymore
+            log.warn("Could not restore Compass calculation engine for exercise {} from snapshot {}, the engine will be recomputed: {}", exerciseId, snapshot, e.getMessage());
+            deleteSnapshot(exerciseId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Write a new snapshot for an engine that has just been built from the given submissions. The submissions have to be passed in the same order in which they were added to the
+     * engine, otherwise the element ids cannot be restored.
+     *
+     * @param exerciseId                  the id of the exercise
+     * @param manuallyAssessedSubmissions the submissions the engine was built from
+     * @param engine                      the engine
+     */
+    public synchronized void saveSnapshot(long exerciseId, Collection<ModelingSubmission> manuallyAssessedSubmissions, CompassCalculationEngine engine) {
+        Path snapshot = getSnapshotPath(exerciseId);
+        Path temporarySnapshot = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshot.getParent());
+            try (DataOutputStream output = openOutput(temporarySnapshot, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                output.writeInt(SNAPSHOT_MAGIC);
+                output.writeInt(SNAPSHOT_VERSION);
+                output.writeLong(SIMILARITY_CHECKSUM);
+                for (Submission submission : manuallyAssessedSubmissions) {
+                    ModelingSubmission modelingSubmission = (ModelingSubmission) Hibernate.unproxy(submission);
+                    Map<String, Integer> elementIDs = engine.getElementIDs(modelingSubmission.getId());
+                    if (modelingSubmission.getModel() == null || elementIDs == null) {
+                        continue;
+                    }
+                    writeModel(output, modelingSubmission.getId(), modelingSubmission.getModel(), elementIDs);
+                    if (modelingSubmission.getResult() != null) {
+                        writeAssessment(output, modelingSubmission.getId(), modelingSubmission.getResult().getFeedbacks());
+                    }
+                }
+            }
+            Files.move(temporarySnapshot, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            log.error("Could not write Compass snapshot for exercise " + exerciseId, e);
+            deleteSnapshot(exerciseId);
+        }
+    }
+
+    /**
+     * Append a model that was added to the engine of the given exercise to the snapshot of the exercise
+     *
+     * @param exerciseId        the id of the exercise
+     * @param engine            the engine the model was added to
+     * @param modelSubmissionId the id of the model submission
+     * @param model             the model as raw string
+     */
+    public synchronized void appendModel(long exerciseId, CompassCalculationEngine engine, long modelSubmissionId, String model) {
+        Map<String, Integer> elementIDs = engine.getElementIDs(modelSubmissionId);
+        if (elementIDs == null) {
+            return;
+        }
+        append(exerciseId, output -> writeModel(output, modelSubmissionId, model, elementIDs));
+    }
+
+    /**
+     * Append a manual assessment that was added to the engine of the given exercise to the snapshot of the exercise
+     *
+     * @param exerciseId         the id of the exercise
+     * @param modelSubmissionId  the id of the assessed model submission
+     * @param modelingAssessment the assessment as list of Feedback
+     */
+    public synchronized void appendAssessment(long exerciseId, long modelSubmissionId, List<Feedback> modelingAssessment) {
+        append(exerciseId, output -> writeAssessment(output, modelSubmissionId, modelingAssessment));
+    }
+
+    /**
+     * Delete the snapshot of the given exercise, the engine will be recomputed from the database the next time it is loaded
+     *
+     * @param exerciseId the id of the exercise
+     */
+    public synchronized void deleteSnapshot(long exerciseId) {
+        try {
+            Files.deleteIfExists(getSnapshotPath(exerciseId));
+        }
+        catch (IOException e) {
+            log.error("Could not delete Compass snapshot for exercise " + exerciseId, e);
+        }
+    }
+
+    private void append(long exerciseId, RecordWriter recordWriter) {
+        Path snapshot = getSnapshotPath(exerciseId);
+        // without the records written when the engine was built, the appended records are useless
+        if (!Files.exists(snapshot)) {
+            return;
+        }
+        try (DataOutputStream output = openOutput(snapshot, StandardOpenOption.APPEND)) {
+            recordWriter.write(output);
+        }
+        catch (IOException e) {
+            log.error("Could not append to Compass snapshot for exercise " + exerciseId + ", the snapshot is deleted", e);
+            deleteSnapshot(exerciseId);
+        }
+    }
+
+    private DataOutputStream openOutput(Path path, StandardOpenOption... options) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(path, options))));
+    }
+
+    /**
+     * Read a record and apply it to the engine, the ids of assessed submissions are added to the given set
+     */
+    private void readRecord(DataInputStream input, int type, CompassCalculationEngine engine, Set<Long> assessedSubmissionIds) throws IOException {
+        if (type == MODEL_RECORD) {
+            long modelSubmissionId = input.readLong();
+            String model = readString(input);
+            int numberOfElements = input.readInt();
+            Map<String, Integer> elementIDs = new HashMap<>();
+            for (int i = 0; i < numberOfElements; i++) {
+                elementIDs.put(readString(input), input.readInt());
+            }
+            engine.restoreModel(modelSubmissionId, model, elementIDs);
+        }
+        else if (type == ASSESSMENT_RECORD) {
+            long modelSubmissionId = input.readLong();
+            int numberOfFeedbacks = input.readInt();
+            List<Feedback> feedbacks = new ArrayList<>();
+            for (int i = 0; i < numberOfFeedbacks; i++) {
+                feedbacks.add(readFeedback(input));
+            }
+            engine.restoreAssessment(feedbacks, modelSubmissionId);
+            assessedSubmissionIds.add(modelSubmissionId);
+        }
+        else {
+            throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private void writeModel(DataOutputStream output, long modelSubmissionId, String model, Map<String, Integer> elementIDs) throws IOException {
+        output.writeByte(MODEL_RECORD);
+        output.writeLong(modelSubmissionId);
+        writeString(output, model);
+        output.writeInt(elementIDs.size());
+        for (Map.Entry<String, Integer> elementID : elementIDs.entrySet()) {
+            writeString(output, elementID.getKey());
+            output.writeInt(elementID.getValue());
+        }
+    }
+
+    private void writeAssessment(DataOutputStream output, long modelSubmissionId, List<Feedback> feedbacks) throws IOException {
+        output.writeByte(ASSESSMENT_RECORD);
+        output.writeLong(modelSubmissionId);
+        output.writeInt(feedbacks.size());
+        for (Feedback feedback : feedbacks) {
+            writeFeedback(output, feedback);
+        }
+    }
+
+    private void writeFeedback(DataOutputStream output, Feedback feedback) throws IOException {
+        writeNullableLong(output, feedback.getId());
+        writeNullableLong(output, feedback.getResult() != null ? feedback.getResult().getId() : null);
+        output.writeBoolean(feedback.getCredits() != null);
+        if (feedback.getCredits() != null) {
+            output.writeDouble(feedback.getCredits());
+        }
+        writeString(output, feedback.getText());
+        writeString(output, feedback.getDetailText());
+        writeString(output, feedback.getReference());
+        writeString(output, feedback.getType() != null ? feedback.getType().name() : null);
+        output.writeBoolean(feedback.isPositive() != null);
+        if (feedback.isPositive() != null) {
+            output.writeBoolean(feedback.isPositive());
+        }
+    }
+
+    private Feedback readFeedback(DataInputStream input) throws IOException {
+        Feedback feedback = new Feedback();
+        feedback.setId(readNullableLong(input));
+        Long resultId = readNullableLong(input);
+        if (resultId != null) {
+            // the result is only referenced by its id, e.g. when a conflict with this feedback is saved
+            Result result = new Result();
+            result.setId(resultId);
+            feedback.setResult(result);
+        }
+        feedback.setCredits(input.readBoolean() ? input.readDouble() : null);
+        feedback.setText(readString(input));
+        feedback.setDetailText(readString(input));
+        feedback.setReference(readString(input));
+        String type = readString(input);
+        feedback.setType(type != null ? FeedbackType.valueOf(type) : null);
+        feedback.setPositive(input.readBoolean() ? input.readBoolean() : null);
+        return feedback;
+    }
+
+    private void writeNullableLong(DataOutputStream output, Long value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value);
+        }
+    }
+
+    private Long readNullableLong(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readLong() : null;
+    }
+
+    /**
+     * Strings are written with their length and UTF-8 bytes, because DataOutput.writeUTF is limited to 64 KB which is not enough for larger models
+     */
+    private void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long calculateSimilarityChecksum() {
+        CRC32 checksum = new CRC32();
+        for (Class<?> similarityClass : SIMILARITY_CLASSES) {
+            try (InputStream classFile = similarityClass.getResourceAsStream(similarityClass.getSimpleName() + ".class")) {
+                if (classFile == null) {
+                    // without the class file, at least a renamed class invalidates the snapshots
+                    checksum.update(similarityClass.getName().getBytes(StandardCharsets.UTF_8));
+                    continue;
+                }
+                byte[] buffer = new byte[8192];
+                int length;
+                while ((length = classFile.read(buffer)) != -1) {
+                    checksum.update(buffer, 0, length);
+                }
+            }
+            catch (IOException e) {
+                checksum.update(similarityClass.getName().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return checksum.getValue();
+    }
+
+    private Path getSnapshotPath(long exerciseId) {
+        return Paths.get(snapshotPath, "exercise-" + exerciseId + ".snapshot");
+    }
+
+    private interface RecordWriter {
+
+        void write(DataOutputStream output) throws IOException;
+    }
+}
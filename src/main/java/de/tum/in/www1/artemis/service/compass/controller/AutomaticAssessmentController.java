@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.service.compass.controller;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,9 +19,14 @@ public class AutomaticAssessmentController {
 
     private final Logger log = LoggerFactory.getLogger(AutomaticAssessmentController.class);
 
-    private double totalCoverage;
+    /**
+     * Sum of the coverage and confidence of the last results of all assessed models, they are updated whenever the result of a model changes
+     */
+    private double coverageSum;
+
+    private double confidenceSum;
 
-    private double totalConfidence;
+    private int numberOfAssessedModels;
 
     /**
      * Add a score to an assessment, creates a new assessment if it does not exists
@@ -28,9 +34,11 @@ public class AutomaticAssessmentController {
      * @param index                manages all assessments
      * @param elementIdFeedbackMap maps elementIds to feedbacks
      * @param model                the UML model - contains all elements with its corresponding jsonIds
+     * @return the elementIds of the assessments that have been changed
      * @throws IOException if the score for the element is null
      */
-    public void addFeedbacksToAssessment(AssessmentIndex index, Map<String, Feedback> elementIdFeedbackMap, UMLClassDiagram model) throws IOException {
+    public Set<Integer> addFeedbacksToAssessment(AssessmentIndex index, Map<String, Feedback> elementIdFeedbackMap, UMLClassDiagram model) throws IOException {
+        Set<Integer> changedElementIDs = new HashSet<>();
         for (String jsonElementID : elementIdFeedbackMap.keySet()) {
             UMLElement element = model.getElementByJSONID(jsonElementID);
 
@@ -48,31 +56,82 @@ public class AutomaticAssessmentController {
                 Assessment newAssessment = new Assessment(context, elementIdFeedbackMap.get(jsonElementID));
                 index.addAssessment(element.getElementID(), newAssessment);
             }
+            changedElementIDs.add(element.getElementID());
         }
+        return changedElementIDs;
     }
 
     /**
-     * Loops over all models and triggers their automatic assessments
+     * Loops over all models and triggers their automatic assessments. The models are assessed in parallel, this is safe because every model only writes its own result and the
+     * assessment index is not modified while the models are assessed (the calculation engine holds its write lock).
      *
      * @param modelIndex      manages all models
      * @param assessmentIndex manages all assessments
      */
     public void assessModelsAutomatically(ModelIndex modelIndex, AssessmentIndex assessmentIndex) {
+        Map<UMLClassDiagram, CompassResult> compassResults = calculateModelResults(modelIndex.getModelCollection(), assessmentIndex);
+
+        synchronized (this) {
+            coverageSum = 0;
+            confidenceSum = 0;
+            numberOfAssessedModels = 0;
+            compassResults.forEach((model, compassResult) -> {
+                // the sums are calculated from scratch, so the previous result of the model must not be subtracted again
+                model.setLastAssessmentCompassResult(null);
+                updateModelResult(model, compassResult);
+            });
+        }
+    }
 
-        totalCoverage = 0;
-        totalConfidence = 0;
-
-        for (UMLClassDiagram model : modelIndex.getModelCollection()) {
+    /**
+     * Triggers the automatic assessments of the given models only, e.g. the models that contain an element whose assessment has changed. The total coverage and confidence are
+     * updated with the difference between the old and the new results of these models.
+     *
+     * @param models          the models that should be assessed again
+     * @param assessmentIndex manages all assessments
+     */
+    public void assessModelsAutomatically(Collection<UMLClassDiagram> models, AssessmentIndex assessmentIndex) {
+        Map<UMLClassDiagram, CompassResult> compassResults = calculateModelResults(models, assessmentIndex);
 
-            CompassResult compassResult = assessModelAutomatically(model, assessmentIndex);
+        synchronized (this) {
+            compassResults.forEach(this::updateModelResult);
+        }
+    }
 
-            totalCoverage += compassResult.getCoverage();
-            totalConfidence += compassResult.getConfidence();
+    private Map<UMLClassDiagram, CompassResult> calculateModelResults(Collection<UMLClassDiagram> models, AssessmentIndex assessmentIndex) {
+        return models.parallelStream().collect(Collectors.toMap(model -> model, model -> calculateModelResult(model, assessmentIndex)));
+    }
 
+    /**
+     * Replace the last result of the model and update the sums of the coverage and confidence accordingly. Has to be called while holding the monitor of this controller.
+     */
+    private void updateModelResult(UMLClassDiagram model, CompassResult compassResult) {
+        CompassResult previousResult = model.getLastAssessmentCompassResult();
+        if (previousResult != null) {
+            coverageSum -= previousResult.getCoverage();
+            confidenceSum -= previousResult.getConfidence();
+        }
+        else {
+            numberOfAssessedModels++;
         }
+        coverageSum += compassResult.getCoverage();
+        confidenceSum += compassResult.getConfidence();
+        model.setLastAssessmentCompassResult(compassResult);
+    }
 
-        totalConfidence /= modelIndex.getModelCollectionSize();
-        totalCoverage /= modelIndex.getModelCollectionSize();
+    /**
+     * Loop over all elements of a model, get their assessments and build a result with them. The result is stored as last result of the model.
+     *
+     * @param model           the UML model which contains all the model elements
+     * @param assessmentIndex manages all assessments
+     * @return a result
+     */
+    public CompassResult assessModelAutomatically(UMLClassDiagram model, AssessmentIndex assessmentIndex) {
+        CompassResult compassResult = calculateModelResult(model, assessmentIndex);
+        synchronized (this) {
+            updateModelResult(model, compassResult);
+        }
+        return compassResult;
     }
 
     /**
@@ -82,7 +141,7 @@ public class AutomaticAssessmentController {
      * @param assessmentIndex manages all assessments
      * @return a result
      */
-    public CompassResult assessModelAutomatically(UMLClassDiagram model, AssessmentIndex assessmentIndex) {
+    private CompassResult calculateModelResult(UMLClassDiagram model, AssessmentIndex assessmentIndex) {
         List<CompassResult> compassResultList = new ArrayList<>();
 
         double totalCount = 0;
@@ -127,11 +186,7 @@ public class AutomaticAssessmentController {
 
         compassResultList.add(new CompassResult(scoreHashMap, coverage));
 
-        CompassResult compassResult = CompassResult.buildResultFromResultList(compassResultList, coverage);
-
-        model.setLastAssessmentCompassResult(compassResult);
-
-        return compassResult;
+        return CompassResult.buildResultFromResultList(compassResultList, coverage);
     }
 
     private CompassResult assessConnectable(UMLClass umlClass, AssessmentIndex index) {
@@ -204,12 +259,12 @@ public class AutomaticAssessmentController {
         return new CompassResult(scoreHashMap, coverage);
     }
 
-    public double getTotalCoverage() {
-        return totalCoverage;
+    public synchronized double getTotalCoverage() {
+        return coverageSum / numberOfAssessedModels;
     }
 
-    public double getTotalConfidence() {
-        return totalConfidence;
+    public synchronized double getTotalConfidence() {
+        return confidenceSum / numberOfAssessedModels;
     }
 
 }
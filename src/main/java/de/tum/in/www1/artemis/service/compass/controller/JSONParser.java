@@ -1,6 +1,7 @@
 package de.tum.in.www1.artemis.service.compass.controller;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -11,10 +12,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.CaseFormat;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonNull;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLAttribute;
 import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
@@ -30,34 +29,60 @@ public class JSONParser {
     private final static Logger log = LoggerFactory.getLogger(JSONParser.class);
 
     /**
-     * Process a json object retrieved from a json formatted file to retrieve an UML model TODO adapt the parser to support different UML diagrams
+     * Process a json formatted model to retrieve an UML model TODO adapt the parser to support different UML diagrams. The json is read as token stream and only the properties
+     * needed for the UML model are kept, everything else (e.g. the bounds of the elements) is skipped without building a json tree.
      *
-     * @param root              the json object of an UML diagram
+     * @param model             the json string of an UML diagram
      * @param modelSubmissionId the Id of the model (actually the modeling submission id)
      * @return the model as java object
      * @throws IOException on unexpected json formats
      */
     // TODO CZ: refactor this (extract buildModelFromJSON to specific UML classes, e.g. UMLClass.buildModelFromJSON() to get the parsed class)
-    public static UMLClassDiagram buildModelFromJSON(JsonObject root, long modelSubmissionId) throws IOException {
-        JsonArray elements = root.getAsJsonArray(JSONMapping.elements);
-        Map<String, JsonObject> jsonElementMap = generateJsonElementMap(elements);
+    public static UMLClassDiagram buildModelFromJSON(String model, long modelSubmissionId) throws IOException {
+        List<JsonModelElement> elements = null;
+        List<JsonRelationship> relationships = null;
+
+        try (JsonReader reader = new JsonReader(new StringReader(model))) {
+            reader.setLenient(true);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String property = reader.nextName();
+                if (property.equals(JSONMapping.elements)) {
+                    elements = readElements(reader);
+                }
+                else if (property.equals(JSONMapping.relationships)) {
+                    relationships = readRelationships(reader);
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Unexpected json format: " + e.getMessage(), e);
+        }
+
+        if (elements == null || relationships == null) {
+            throw new IOException("Model does not contain " + JSONMapping.elements + " and " + JSONMapping.relationships + "!");
+        }
+        return buildModel(elements, relationships, modelSubmissionId);
+    }
 
-        JsonArray relationships = root.getAsJsonArray(JSONMapping.relationships);
+    private static UMLClassDiagram buildModel(List<JsonModelElement> elements, List<JsonRelationship> relationships, long modelSubmissionId) throws IOException {
+        Map<String, JsonModelElement> jsonElementMap = generateJsonElementMap(elements);
 
         Map<String, UMLClass> umlClassMap = new HashMap<>();
         List<UMLClassRelationship> umlAssociationList = new ArrayList<>();
         Map<String, UMLPackage> umlPackageMap = new HashMap<>();
 
         // <editor-fold desc="iterate over every package">
-        for (JsonElement elem : elements) {
-            JsonObject element = elem.getAsJsonObject();
-
-            String elementType = element.get(JSONMapping.elementType).getAsString();
-            if (elementType.equals(UMLPackage.UML_PACKAGE_TYPE)) {
-                String packageName = element.get(JSONMapping.elementName).getAsString();
+        for (JsonModelElement element : elements) {
+            if (required(element.type, JSONMapping.elementType).equals(UMLPackage.UML_PACKAGE_TYPE)) {
+                String packageName = required(element.name, JSONMapping.elementName);
 
                 List<UMLClass> umlClassList = new ArrayList<>();
-                String jsonElementId = element.get(JSONMapping.elementID).getAsString();
+                String jsonElementId = required(element.id, JSONMapping.elementID);
                 UMLPackage umlPackage = new UMLPackage(packageName, umlClassList, jsonElementId);
                 umlPackageMap.put(jsonElementId, umlPackage);
             }
@@ -65,32 +90,30 @@ public class JSONParser {
         // </editor-fold>
 
         // <editor-fold desc="iterate over every element (classes, attributes, methods)">
-        for (JsonElement elem : elements) {
-            JsonObject element = elem.getAsJsonObject();
-
-            String elementType = element.get(JSONMapping.elementType).getAsString();
+        for (JsonModelElement element : elements) {
+            String elementType = element.type;
             if (UMLClassType.getTypesAsList().contains(elementType)) {
-                String className = element.get(JSONMapping.elementName).getAsString();
+                String className = required(element.name, JSONMapping.elementName);
 
                 List<UMLAttribute> umlAttributesList = new ArrayList<>();
-                for (JsonElement attributeId : element.getAsJsonArray(JSONMapping.elementAttributes)) {
-                    JsonObject attribute = jsonElementMap.get(attributeId.getAsString());
+                for (String attributeId : required(element.attributes, JSONMapping.elementAttributes)) {
+                    JsonModelElement attribute = getReferencedElement(jsonElementMap, attributeId);
 
-                    String[] attributeNameArray = attribute.get(JSONMapping.elementName).getAsString().replaceAll(" ", "").split(":");
+                    String[] attributeNameArray = required(attribute.name, JSONMapping.elementName).replaceAll(" ", "").split(":");
                     String attributeName = attributeNameArray[0];
                     String attributeType = "";
                     if (attributeNameArray.length == 2) {
                         attributeType = attributeNameArray[1];
                     }
-                    UMLAttribute newAttr = new UMLAttribute(attributeName, attributeType, attribute.get(JSONMapping.elementID).getAsString());
+                    UMLAttribute newAttr = new UMLAttribute(attributeName, attributeType, required(attribute.id, JSONMapping.elementID));
                     umlAttributesList.add(newAttr);
                 }
 
                 List<UMLMethod> umlMethodList = new ArrayList<>();
-                for (JsonElement methodId : element.getAsJsonArray(JSONMapping.elementMethods)) {
-                    JsonObject method = jsonElementMap.get(methodId.getAsString());
+                for (String methodId : required(element.methods, JSONMapping.elementMethods)) {
+                    JsonModelElement method = getReferencedElement(jsonElementMap, methodId);
 
-                    String completeMethodName = method.get(JSONMapping.elementName).getAsString();
+                    String completeMethodName = required(method.name, JSONMapping.elementName);
                     String[] methodEntryArray = completeMethodName.replaceAll(" ", "").split(":");
                     String[] methodParts = methodEntryArray[0].split("[()]");
                     if (methodParts.length < 1) {
@@ -105,17 +128,15 @@ public class JSONParser {
                     if (methodEntryArray.length == 2) {
                         methodReturnType = methodEntryArray[1];
                     }
-                    UMLMethod newMethod = new UMLMethod(completeMethodName, methodName, methodReturnType, Arrays.asList(methodParams),
-                            method.get(JSONMapping.elementID).getAsString());
+                    UMLMethod newMethod = new UMLMethod(completeMethodName, methodName, methodReturnType, Arrays.asList(methodParams), required(method.id, JSONMapping.elementID));
                     umlMethodList.add(newMethod);
                 }
 
-                UMLClass newClass = new UMLClass(className, umlAttributesList, umlMethodList, element.get(JSONMapping.elementID).getAsString(),
+                UMLClass newClass = new UMLClass(className, umlAttributesList, umlMethodList, required(element.id, JSONMapping.elementID),
                         CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, elementType));
 
-                if (element.has(JSONMapping.elementOwner) && !element.get(JSONMapping.elementOwner).isJsonNull()) {
-                    String packageId = element.get(JSONMapping.elementOwner).getAsString();
-                    UMLPackage umlPackage = umlPackageMap.get(packageId);
+                if (element.owner != null) {
+                    UMLPackage umlPackage = umlPackageMap.get(element.owner);
                     if (umlPackage != null) {
                         umlPackage.addClass(newClass);
                         newClass.setUmlPackage(umlPackage);
@@ -138,34 +159,24 @@ public class JSONParser {
         // </editor-fold>
 
         // <editor-fold desc="iterate over every relationship">
-        for (JsonElement rel : relationships) {
-            JsonObject relationship = rel.getAsJsonObject();
+        for (JsonRelationship relationship : relationships) {
+            JsonRelationshipEnd relationshipSource = required(relationship.source, JSONMapping.relationshipSource);
+            JsonRelationshipEnd relationshipTarget = required(relationship.target, JSONMapping.relationshipTarget);
 
-            JsonObject relationshipSource = relationship.getAsJsonObject(JSONMapping.relationshipSource);
-            JsonObject relationshipTarget = relationship.getAsJsonObject(JSONMapping.relationshipTarget);
-
-            String sourceJSONID = relationshipSource.get(JSONMapping.relationshipEndpointID).getAsString();
-            String targetJSONID = relationshipTarget.get(JSONMapping.relationshipEndpointID).getAsString();
+            String sourceJSONID = required(relationshipSource.element, JSONMapping.relationshipEndpointID);
+            String targetJSONID = required(relationshipTarget.element, JSONMapping.relationshipEndpointID);
 
             UMLClass source = umlClassMap.get(sourceJSONID);
             UMLClass target = umlClassMap.get(targetJSONID);
 
-            JsonElement relationshipSourceRole = relationshipSource.has(JSONMapping.relationshipRole) ? relationshipSource.get(JSONMapping.relationshipRole) : JsonNull.INSTANCE;
-            JsonElement relationshipTargetRole = relationshipTarget.has(JSONMapping.relationshipRole) ? relationshipTarget.get(JSONMapping.relationshipRole) : JsonNull.INSTANCE;
-            JsonElement relationshipSourceMultiplicity = relationshipSource.has(JSONMapping.relationshipMultiplicity) ? relationshipSource.get(JSONMapping.relationshipMultiplicity)
-                    : JsonNull.INSTANCE;
-            JsonElement relationshipTargetMultiplicity = relationshipTarget.has(JSONMapping.relationshipMultiplicity) ? relationshipTarget.get(JSONMapping.relationshipMultiplicity)
-                    : JsonNull.INSTANCE;
-
-            String relationshipType = relationship.get(JSONMapping.relationshipType).getAsString();
+            String relationshipType = required(relationship.type, JSONMapping.relationshipType);
             relationshipType = CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, relationshipType);
 
             if (source != null && target != null) {
-                UMLClassRelationship newRelation = new UMLClassRelationship(source, target, relationshipType, relationship.get(JSONMapping.elementID).getAsString(),
-                        relationshipSourceRole.isJsonNull() ? "" : relationshipSourceRole.getAsString(),
-                        relationshipTargetRole.isJsonNull() ? "" : relationshipTargetRole.getAsString(),
-                        relationshipSourceMultiplicity.isJsonNull() ? "" : relationshipSourceMultiplicity.getAsString(),
-                        relationshipTargetMultiplicity.isJsonNull() ? "" : relationshipTargetMultiplicity.getAsString());
+                UMLClassRelationship newRelation = new UMLClassRelationship(source, target, relationshipType, required(relationship.id, JSONMapping.elementID),
+                        relationshipSource.role == null ? "" : relationshipSource.role, relationshipTarget.role == null ? "" : relationshipTarget.role,
+                        relationshipSource.multiplicity == null ? "" : relationshipSource.multiplicity,
+                        relationshipTarget.multiplicity == null ? "" : relationshipTarget.multiplicity);
                 umlAssociationList.add(newRelation);
             }
             else {
@@ -177,9 +188,186 @@ public class JSONParser {
         return new UMLClassDiagram(modelSubmissionId, new ArrayList<>(umlClassMap.values()), umlAssociationList, new ArrayList<>(umlPackageMap.values()));
     }
 
-    private static Map<String, JsonObject> generateJsonElementMap(JsonArray elements) {
-        Map<String, JsonObject> jsonElementMap = new HashMap<>();
-        elements.forEach(element -> jsonElementMap.put(element.getAsJsonObject().get("id").getAsString(), element.getAsJsonObject()));
+    private static Map<String, JsonModelElement> generateJsonElementMap(List<JsonModelElement> elements) throws IOException {
+        Map<String, JsonModelElement> jsonElementMap = new HashMap<>();
+        for (JsonModelElement element : elements) {
+            jsonElementMap.put(required(element.id, JSONMapping.elementID), element);
+        }
         return jsonElementMap;
     }
+
+    private static JsonModelElement getReferencedElement(Map<String, JsonModelElement> jsonElementMap, String elementId) throws IOException {
+        JsonModelElement element = jsonElementMap.get(elementId);
+        if (element == null) {
+            throw new IOException("Element " + elementId + " not part of model!");
+        }
+        return element;
+    }
+
+    private static <T> T required(T value, String property) throws IOException {
+        if (value == null) {
+            throw new IOException("Missing property " + property + "!");
+        }
+        return value;
+    }
+
+    private static List<JsonModelElement> readElements(JsonReader reader) throws IOException {
+        List<JsonModelElement> elements = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonModelElement element = new JsonModelElement();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                case JSONMapping.elementID:
+                    element.id = readString(reader);
+                    break;
+                case JSONMapping.elementType:
+                    element.type = readString(reader);
+                    break;
+                case JSONMapping.elementName:
+                    element.name = readString(reader);
+                    break;
+                case JSONMapping.elementOwner:
+                    element.owner = readString(reader);
+                    break;
+                case JSONMapping.elementAttributes:
+                    element.attributes = readStringArray(reader);
+                    break;
+                case JSONMapping.elementMethods:
+                    element.methods = readStringArray(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            elements.add(element);
+        }
+        reader.endArray();
+        return elements;
+    }
+
+    private static List<JsonRelationship> readRelationships(JsonReader reader) throws IOException {
+        List<JsonRelationship> relationships = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonRelationship relationship = new JsonRelationship();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                case JSONMapping.elementID:
+                    relationship.id = readString(reader);
+                    break;
+                case JSONMapping.relationshipType:
+                    relationship.type = readString(reader);
+                    break;
+                case JSONMapping.relationshipSource:
+                    relationship.source = readRelationshipEnd(reader);
+                    break;
+                case JSONMapping.relationshipTarget:
+                    relationship.target = readRelationshipEnd(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            relationships.add(relationship);
+        }
+        reader.endArray();
+        return relationships;
+    }
+
+    private static JsonRelationshipEnd readRelationshipEnd(JsonReader reader) throws IOException {
+        JsonRelationshipEnd relationshipEnd = new JsonRelationshipEnd();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case JSONMapping.relationshipEndpointID:
+                relationshipEnd.element = readString(reader);
+                break;
+            case JSONMapping.relationshipRole:
+                relationshipEnd.role = readString(reader);
+                break;
+            case JSONMapping.relationshipMultiplicity:
+                relationshipEnd.multiplicity = readString(reader);
+                break;
+            default:
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return relationshipEnd;
+    }
+
+    private static List<String> readStringArray(JsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(required(readString(reader), "array entry"));
+        }
+        reader.endArray();
+        return values;
+    }
+
+    /**
+     * @return the primitive value of the next token as string (like JsonElement.getAsString() of Gson) or null if it is a json null
+     */
+    private static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+        case NULL:
+            reader.nextNull();
+            return null;
+        case BOOLEAN:
+            return Boolean.toString(reader.nextBoolean());
+        case STRING:
+        case NUMBER:
+            return reader.nextString();
+        default:
+            throw new IOException("Expected a primitive value but was " + token + " at " + reader.getPath());
+        }
+    }
+
+    /**
+     * The properties of an element of the json model that are needed to build the UML model
+     */
+    private static class JsonModelElement {
+
+        private String id;
+
+        private String type;
+
+        private String name;
+
+        private String owner;
+
+        private List<String> attributes;
+
+        private List<String> methods;
+    }
+
+    /**
+     * The properties of a relationship of the json model that are needed to build the UML model
+     */
+    private static class JsonRelationship {
+
+        private String id;
+
+        private String type;
+
+        private JsonRelationshipEnd source;
+
+        private JsonRelationshipEnd target;
+    }
+
+    private static class JsonRelationshipEnd {
+
+        private String element;
+
+        private String role;
+
+        private String multiplicity;
+    }
 }
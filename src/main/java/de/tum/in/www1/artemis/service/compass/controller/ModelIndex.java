@@ -1,18 +1,22 @@
 package de.tum.in.www1.artemis.service.compass.controller;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.io.IOException;
+import java.util.*;
 
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLAttribute;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
 import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClassDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClassRelationship;
 import de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration;
 
+/**
+ * Keeps track of all models and unique model elements of a calculation engine. The index is not thread-safe, it is protected by the read/write lock of the
+ * CompassCalculationEngine.
+ */
 public class ModelIndex {
 
-    private Queue<UMLElement> uniqueModelElementList;
+    private List<UMLElement> uniqueModelElementList;
 
     /**
      * Note: The key is the model submission id
@@ -21,10 +25,23 @@ public class ModelIndex {
 
     private HashMap<UMLElement, Integer> modelElementMapping;
 
+    /**
+     * The unique elements grouped by their candidate key (see {@link #getCandidateKey(UMLElement)}), every group is ordered by element id. Only elements with the same candidate
+     * key can have a similarity above {@link CompassConfiguration#EQUALITY_THRESHOLD}, so a new element only has to be compared with the elements of its own group.
+     */
+    private Map<String, List<UMLElement>> candidateIndex;
+
+    /**
+     * Inverted index from an elementId to all models that contain an element with this id, used to find the models that are affected by a new assessment
+     */
+    private Map<Integer, Set<UMLClassDiagram>> elementModelMapping;
+
     public ModelIndex() {
         modelElementMapping = new HashMap<>();
-        uniqueModelElementList = new ConcurrentLinkedQueue<>();
+        uniqueModelElementList = new ArrayList<>();
         modelMap = new HashMap<>();
+        candidateIndex = new HashMap<>();
+        elementModelMapping = new HashMap<>();
     }
 
     /**
@@ -37,21 +54,127 @@ public class ModelIndex {
         if (modelElementMapping.containsKey(element)) {
             return modelElementMapping.get(element);
         }
-        // element is similar to existing element
-        for (UMLElement knownElement : uniqueModelElementList) {
-            if (knownElement.similarity(element) > CompassConfiguration.EQUALITY_THRESHOLD) {
+        List<UMLElement> candidates = candidateIndex.computeIfAbsent(getCandidateKey(element), key -> new ArrayList<>());
+        // element is similar to existing element, the candidates are ordered by element id so the first match is the same as in a scan over all unique elements
+        for (UMLElement knownElement : candidates) {
+            if (canBeSimilar(knownElement, element) && knownElement.similarity(element) > CompassConfiguration.EQUALITY_THRESHOLD) {
                 modelElementMapping.put(element, knownElement.getElementID());
                 return knownElement.getElementID();
             }
         }
         // element does not fit already known element
         uniqueModelElementList.add(element);
+        candidates.add(element);
         modelElementMapping.put(element, uniqueModelElementList.size() - 1);
         return uniqueModelElementList.size() - 1;
     }
 
+    /**
+     * Restore the internal id of a model element that has been determined by {@link #getElementID(UMLElement)} before. The elements have to be restored in the same order in
+     * which their ids were determined originally, i.e. a new unique element always gets the next free id.
+     *
+     * @param element   an element of a model
+     * @param elementID the elementId of the element
+     * @return its elementId
+     * @throws IOException if the elementId does not fit to the already restored elements
+     */
+    int restoreElementID(UMLElement element, int elementID) throws IOException {
+        if (elementID == uniqueModelElementList.size()) {
+            uniqueModelElementList.add(element);
+            candidateIndex.computeIfAbsent(getCandidateKey(element), key -> new ArrayList<>()).add(element);
+        }
+        else if (elementID < 0 || elementID > uniqueModelElementList.size()) {
+            throw new IOException("Element id " + elementID + " of element " + element.getJSONElementID() + " does not fit to the " + uniqueModelElementList.size()
+                    + " unique elements of the index");
+        }
+        modelElementMapping.put(element, elementID);
+        return elementID;
+    }
+
+    /**
+     * Get the key of the candidate group of an element. The similarity of two elements with different keys is never above the equality threshold:
+     * <ul>
+     * <li>elements of different classes always have a similarity of 0</li>
+     * <li>classes need the same class type, otherwise the name similarity can contribute at most {@link CompassConfiguration#CLASS_NAME_WEIGHT}</li>
+     * <li>attributes need the same type and either the same name or, for names longer than 3 characters, the same first 3 characters</li>
+     * </ul>
+     *
+     * @param element a model element
+     * @return the candidate key of the element
+     */
+    private String getCandidateKey(UMLElement element) {
+        if (element instanceof UMLClass) {
+            return UMLClass.class.getSimpleName() + "/" + element.getType();
+        }
+        if (element instanceof UMLAttribute) {
+            String name = element.getValue();
+            String nameKey = name.length() > 3 ? name.substring(0, 3) : "=" + name;
+            return UMLAttribute.class.getSimpleName() + "/" + ((UMLAttribute) element).getAttributeType() + "/" + nameKey;
+        }
+        return element.getClass().getName();
+    }
+
+    /**
+     * Cheap upper bound check that is done before the (expensive) similarity calculation of two elements with the same candidate key. It only rules out pairs whose similarity
+     * can not be above the equality threshold:
+     * <ul>
+     * <li>classes: the fuzzy name ratio is at most the one of two names that only differ in their length</li>
+     * <li>relationships: the relation type has to match, unless the known relationship is bidirectional and the new one might match it in reverse direction</li>
+     * </ul>
+     *
+     * @param knownElement a unique element of the index
+     * @param element      the new element
+     * @return false if the similarity of both elements is definitely not above the equality threshold
+     */
+    private boolean canBeSimilar(UMLElement knownElement, UMLElement element) {
+        if (knownElement instanceof UMLClass) {
+            int lengthSum = knownElement.getValue().length() + element.getValue().length();
+            if (lengthSum == 0) {
+                return true;
+            }
+            // same formula as the fuzzy ratio in NameSimilarity.nameContainsSimilarity with the minimal edit distance, i.e. the length difference
+            long maxRatio = Math.round(100 * ((lengthSum - Math.abs(knownElement.getValue().length() - element.getValue().length())) / (double) lengthSum));
+            double maxSimilarity = maxRatio / 100.0 * CompassConfiguration.CLASS_NAME_WEIGHT + CompassConfiguration.CLASS_TYPE_WEIGHT;
+            return maxSimilarity > CompassConfiguration.EQUALITY_THRESHOLD;
+        }
+        if (knownElement instanceof UMLClassRelationship) {
+            UMLClassRelationship.UMLRelationType knownType = ((UMLClassRelationship) knownElement).getRelationshipType();
+            return knownType == ((UMLClassRelationship) element).getRelationshipType() || knownType == UMLClassRelationship.UMLRelationType.CLASS_BIDIRECTIONAL;
+        }
+        return true;
+    }
+
+    /**
+     * Add a model to the index, the elementIds of the model elements have to be determined before
+     *
+     * @param model the new model
+     */
     public void addModel(UMLClassDiagram model) {
         modelMap.put(model.getModelSubmissionId(), model);
+        for (UMLClass umlClass : model.getClassList()) {
+            addElementOfModel(umlClass, model);
+            umlClass.getAttributes().forEach(attribute -> addElementOfModel(attribute, model));
+            umlClass.getMethods().forEach(method -> addElementOfModel(method, model));
+        }
+        model.getAssociationList().forEach(relation -> addElementOfModel(relation, model));
+    }
+
+    private void addElementOfModel(UMLElement element, UMLClassDiagram model) {
+        elementModelMapping.computeIfAbsent(element.getElementID(), elementID -> new HashSet<>()).add(model);
+    }
+
+    /**
+     * Get all models that contain at least one element with one of the given elementIds
+     *
+     * @param elementIDs the elementIds
+     * @return the models containing the elements
+     */
+    public Set<UMLClassDiagram> getModelsContainingElements(Collection<Integer> elementIDs) {
+        Set<UMLClassDiagram> models = new HashSet<>();
+        for (Integer elementID : elementIDs) {
+            models.addAll(elementModelMapping.getOrDefault(elementID, Collections.emptySet()));
+        }
+        return models;
     }
 
     public UMLClassDiagram getModel(long modelSubmissionId) {
@@ -20,6 +20,12 @@ public class ModelSelector {
      */
     private Set<Long> alreadyAssessedModels = new HashSet<>();
 
+    /**
+     * Caches the similarity between a candidate model and the other models, the similarity of two models never changes once they are added to the model index. Only the rows of
+     * models that have been candidates are computed, so the cache does not grow quadratically with the number of models. The key is the ModelSubmission id
+     */
+    private Map<Long, Map<Long, Double>> similarityCache = new HashMap<>();
+
     /**
      * Calculate the model which would mean the biggest knowledge gain to support the automatic assessment process The selected model is currently unassessed and not queued into
      * assessment (i.e. in alreadyAssessedModels)
@@ -62,7 +68,7 @@ public class ModelSelector {
         for (UMLClassDiagram candidate : candidates) {
             double similarity = 0;
             for (UMLClassDiagram model : partiallyAssessed) {
-                similarity += model.similarity(candidate);
+                similarity += getSimilarity(candidate, model);
             }
 
             // similarity /= modelIndex.getModelList().size();
@@ -75,7 +81,7 @@ public class ModelSelector {
         }
 
         if (selectedCandidateId != null) {
-            alreadyAssessedModels.add(selectedCandidateId);
+            addAlreadyAssessedModel(selectedCandidateId);
             modelsWaitingForAssessment.add(selectedCandidateId);
             return selectedCandidateId;
         }
@@ -83,7 +89,7 @@ public class ModelSelector {
         // if none exists, select any unassessed model
         for (UMLClassDiagram model : modelIndex.getModelCollection()) {
             if (model.isUnassessed() && !alreadyAssessedModels.contains(model.getModelSubmissionId())) {
-                alreadyAssessedModels.add(model.getModelSubmissionId());
+                addAlreadyAssessedModel(model.getModelSubmissionId());
                 modelsWaitingForAssessment.add(model.getModelSubmissionId());
                 return model.getModelSubmissionId();
             }
@@ -99,12 +105,36 @@ public class ModelSelector {
         return null;
     }
 
+    /**
+     * Get the similarity between a candidate and another model from the cache or calculate it if it has not been calculated before. As the similarity is symmetric, the cached row
+     * of the other model is used as well if it exists.
+     *
+     * @param candidate the candidate model
+     * @param model     the model to compare the candidate with
+     * @return the similarity between the two models
+     */
+    private double getSimilarity(UMLClassDiagram candidate, UMLClassDiagram model) {
+        Map<Long, Double> candidateSimilarities = similarityCache.computeIfAbsent(candidate.getModelSubmissionId(), id -> new HashMap<>());
+        Double similarity = candidateSimilarities.get(model.getModelSubmissionId());
+        if (similarity == null) {
+            Map<Long, Double> modelSimilarities = similarityCache.get(model.getModelSubmissionId());
+            similarity = modelSimilarities != null ? modelSimilarities.get(candidate.getModelSubmissionId()) : null;
+            if (similarity == null) {
+                similarity = model.similarity(candidate);
+            }
+            candidateSimilarities.put(model.getModelSubmissionId(), similarity);
+        }
+        return similarity;
+    }
+
     public List<Long> getModelsWaitingForAssessment() {
         return new ArrayList<>(modelsWaitingForAssessment);
     }
 
     public void addAlreadyAssessedModel(long modelId) {
         alreadyAssessedModels.add(modelId);
+        // the model will not be a candidate again unless it is marked as unassessed, in which case its similarities are calculated again
+        similarityCache.remove(modelId);
     }
 
     public void removeModelWaitingForAssessment(long modelId) {
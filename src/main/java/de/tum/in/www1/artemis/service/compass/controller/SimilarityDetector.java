@@ -1,6 +1,8 @@
 package de.tum.in.www1.artemis.service.compass.controller;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Map;
 
 import de.tum.in.www1.artemis.service.compass.assessment.Context;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
@@ -39,6 +41,44 @@ public class SimilarityDetector {
         setContext(model);
     }
 
+    /**
+     * Restore the elementIds of a model that have been determined by {@link #analyzeSimilarity(UMLClassDiagram, ModelIndex)} before, e.g. when the model is loaded from a snapshot.
+     * The models have to be restored in the same order in which they were analyzed originally.
+     *
+     * @param model      the model which contains the model elements
+     * @param index      the modelIndex which keeps track of all elementIds
+     * @param elementIDs the elementId of every model element, the key is the json element id
+     * @throws IOException if the elementId of a model element is missing
+     */
+    public static void restoreSimilarity(UMLClassDiagram model, ModelIndex index, Map<String, Integer> elementIDs) throws IOException {
+
+        for (UMLClass umlClass : model.getClassList()) {
+            umlClass.setElementID(index.restoreElementID(umlClass, getElementID(umlClass, elementIDs)));
+
+            for (UMLAttribute attribute : umlClass.getAttributes()) {
+                attribute.setElementID(index.restoreElementID(attribute, getElementID(attribute, elementIDs)));
+            }
+
+            for (UMLMethod method : umlClass.getMethods()) {
+                method.setElementID(index.restoreElementID(method, getElementID(method, elementIDs)));
+            }
+        }
+
+        for (UMLClassRelationship relation : model.getAssociationList()) {
+            relation.setElementID(index.restoreElementID(relation, getElementID(relation, elementIDs)));
+        }
+
+        setContext(model);
+    }
+
+    private static int getElementID(UMLElement element, Map<String, Integer> elementIDs) throws IOException {
+        Integer elementID = elementIDs.get(element.getJSONElementID());
+        if (elementID == null) {
+            throw new IOException("No elementId found for model element " + element.getJSONElementID());
+        }
+        return elementID;
+    }
+
     private static void setContext(UMLClassDiagram model) {
         for (UMLClass umlClass : model.getClassList()) {
             umlClass.setContext(generateContextForElement(model, umlClass));
@@ -1,17 +1,39 @@
 package de.tum.in.www1.artemis.service.compass.strategy;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
 import me.xdrop.fuzzywuzzy.FuzzySearch;
 import de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration;
 
 @SuppressWarnings("unused")
 public class NameSimilarity {
 
+    /**
+     * Caches the fuzzy ratio of name pairs, the same names are compared many times when all elements of the models of an exercise are compared with each other. The cache is cleared
+     * when it exceeds {@link CompassConfiguration#NAME_SIMILARITY_CACHE_SIZE} entries to bound its memory usage.
+     */
+    private static final Map<NamePair, Double> nameContainsSimilarityCache = new ConcurrentHashMap<>();
+
     /**
      * @return 1 if both strings have any word in common (splitting on uppercase), 0 otherwise
      */
     public static double nameContainsSimilarity(String string1, String string2) {
         // TODO longterm: think about an even more sophisticated approach that takes e.g. thesaurus and specific uml conventions into account
-        return FuzzySearch.ratio(string1, string2) / 100.0;
+        if (string1 == null || string2 == null) {
+            return FuzzySearch.ratio(string1, string2) / 100.0;
+        }
+        NamePair namePair = new NamePair(string1, string2);
+        Double similarity = nameContainsSimilarityCache.get(namePair);
+        if (similarity == null) {
+            similarity = FuzzySearch.ratio(string1, string2) / 100.0;
+            if (nameContainsSimilarityCache.size() >= CompassConfiguration.NAME_SIMILARITY_CACHE_SIZE) {
+                nameContainsSimilarityCache.clear();
+            }
+            nameContainsSimilarityCache.put(namePair, similarity);
+        }
+        return similarity;
     }
 
     public static double nameEqualsSimilarity(String string1, String string2) {
@@ -27,4 +49,36 @@ public class NameSimilarity {
         }
         return 0;
     }
+
+    private static class NamePair {
+
+        private final String name1;
+
+        private final String name2;
+
+        private final int hashCode;
+
+        NamePair(String name1, String name2) {
+            this.name1 = name1;
+            this.name2 = name2;
+            this.hashCode = Objects.hash(name1, name2);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (object == null || getClass() != object.getClass()) {
+                return false;
+            }
+            NamePair namePair = (NamePair) object;
+            return name1.equals(namePair.name1) && name2.equals(namePair.name2);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
@@ -61,4 +61,8 @@ public class UMLAttribute extends UMLElement {
     public String getType() {
         return UML_ATTRIBUTE_TYPE;
     }
+
+    public String getAttributeType() {
+        return type;
+    }
 }
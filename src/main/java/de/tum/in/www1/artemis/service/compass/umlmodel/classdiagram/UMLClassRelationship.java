@@ -160,6 +160,10 @@ public class UMLClassRelationship extends UMLElement {
         return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, type.name());
     }
 
+    public UMLRelationType getRelationshipType() {
+        return type;
+    }
+
     public UMLClass getSource() {
         return source;
     }
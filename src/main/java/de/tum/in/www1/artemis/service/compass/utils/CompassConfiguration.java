@@ -31,4 +31,6 @@ public class CompassConfiguration {
 
     public final static double PARTIALLY_NAME_WEIGHT = 0.8;
 
+    public final static int NAME_SIMILARITY_CACHE_SIZE = 100000;
+
 }
@@ -10,6 +10,7 @@ import de.tum.in.www1.artemis.repository.FeedbackRepository;
 import de.tum.in.www1.artemis.repository.ParticipationRepository;
 import de.tum.in.www1.artemis.repository.ProgrammingSubmissionRepository;
 import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.service.dto.BambooBuildResultNotificationDTO;
 import de.tum.in.www1.artemis.web.rest.util.HeaderUtil;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.slf4j.Logger;
@@ -72,10 +73,12 @@ public class BambooService implements ContinuousIntegrationService {
     private final Optional<VersionControlService> versionControlService;
     private final Optional<ContinuousIntegrationUpdateService> continuousIntegrationUpdateService;
     private final BambooBuildPlanService bambooBuildPlanService;
+    private final RestTemplate restTemplate;
 
     public BambooService(GitService gitService, ResultRepository resultRepository, FeedbackRepository feedbackRepository, ParticipationRepository participationRepository,
                          ProgrammingSubmissionRepository programmingSubmissionRepository, Optional<VersionControlService> versionControlService,
-                         Optional<ContinuousIntegrationUpdateService> continuousIntegrationUpdateService, BambooBuildPlanService bambooBuildPlanService) {
+                         Optional<ContinuousIntegrationUpdateService> continuousIntegrationUpdateService, BambooBuildPlanService bambooBuildPlanService,
+                         RestTemplate connectorRestTemplate) {
         this.gitService = gitService;
         this.resultRepository = resultRepository;
         this.feedbackRepository = feedbackRepository;
@@ -84,6 +87,7 @@ public class BambooService implements ContinuousIntegrationService {
         this.versionControlService = versionControlService;
         this.continuousIntegrationUpdateService = continuousIntegrationUpdateService;
         this.bambooBuildPlanService = bambooBuildPlanService;
+        this.restTemplate = connectorRestTemplate;
     }
 
     @Override
@@ -179,7 +183,6 @@ public class BambooService implements ContinuousIntegrationService {
     public void triggerBuild(Participation participation) {
         HttpHeaders headers = HeaderUtil.createAuthorization(BAMBOO_USER, BAMBOO_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(
                 BAMBOO_SERVER_URL + "/rest/api/latest/queue/" + participation.getBuildPlanId(),
@@ -415,13 +418,9 @@ public class BambooService implements ContinuousIntegrationService {
     }
 
     @Override
-    public String getPlanKey(Object requestBody) throws BambooException {
+    public String getPlanKey(BambooBuildResultNotificationDTO requestBody) throws BambooException {
         try {
-            Map<String, Object> requestBodyMap = (Map<String, Object>) requestBody;
-            Map<String, Object> planMap = (Map<String, Object>) requestBodyMap.get("plan");
-            String planKey = (String) planMap.get("key");
-
-            return planKey;
+            return requestBody.getPlan().getKey();
 
         } catch (Exception e) {
             log.error("Error when getting plan key");
@@ -430,12 +429,32 @@ public class BambooService implements ContinuousIntegrationService {
     }
 
     @Override
-    public Result onBuildCompletedNew(Participation participation, Object requestBody) throws Exception {
+    public String getCommitHash(BambooBuildResultNotificationDTO requestBody) throws BambooException {
+        try {
+            return getCommitHash(requestBody.getBuild().getVcs());
+
+        } catch (Exception e) {
+            log.error("Error when getting commit hash");
+            throw new BambooException("Could not get commit hash", e);
+        }
+    }
+
+    private String getCommitHash(List<BambooBuildResultNotificationDTO.VcsDTO> vcsList) {
+        String commitHash = null;
+        for (BambooBuildResultNotificationDTO.VcsDTO changeSet : vcsList) {
+            if (ASSIGNMENT_REPO_NAME.equals(changeSet.getRepositoryName())) { // We are only interested in the last commit hash of the assignment repo, not the test repo
+                commitHash = changeSet.getId();
+            }
+        }
+        return commitHash;
+    }
+
+    @Override
+    public Result onBuildCompletedNew(Participation participation, BambooBuildResultNotificationDTO requestBody) throws Exception {
         log.debug("Retrieving build result (NEW) ...");
         try {
-            Map<String, Object> requestBodyMap = (Map<String, Object>) requestBody;
-            Map<String, Object> buildMap = (Map<String, Object>) requestBodyMap.get("build");
-            String buildReason = (String) buildMap.get("reason");
+            BambooBuildResultNotificationDTO.BuildDTO build = requestBody.getBuild();
+            String buildReason = build.getReason();
             if (buildReason != null && buildReason.contains("First build for this plan")) {
                 //Filter the first build plan that was automatically executed when the build plan was created
                 return null;
@@ -444,30 +463,19 @@ public class BambooService implements ContinuousIntegrationService {
             Result result = new Result();
             result.setRatedIfNotExceeded(participation.getExercise().getDueDate(), ZonedDateTime.now());
             result.setAssessmentType(AssessmentType.AUTOMATIC);
-            result.setSuccessful((Boolean) buildMap.get("successful"));
-
-            Map<String, Object> testSummary = (Map<String, Object>) buildMap.get("testSummary");
-            result.setResultString((String) testSummary.get("description"));
-
-            result.setCompletionDate(ZonedDateTime.parse((String) buildMap.get("buildCompletedDate")));
+            result.setSuccessful(build.getSuccessful());
+            result.setResultString(build.getTestSummary().getDescription());
+            result.setCompletionDate(ZonedDateTime.parse(build.getBuildCompletedDate()));
             result.setScore(calculateScoreForResult(result));
-            result.setBuildArtifact((Boolean) buildMap.get("artifact"));
+            result.setBuildArtifact(build.getArtifact());
             result.setParticipation(participation);
 
-            addFeedbackToResultNew(result, (List<Object>) buildMap.get("jobs"));
+            addFeedbackToResultNew(result, build.getJobs());
 
             // save result, otherwise the next database access programmingSubmissionRepository.findByCommitHash will throw an exception
             resultRepository.save(result);
 
-            List<Object> vcsList = (List<Object>) buildMap.get("vcs");
-
-            String commitHash = null;
-            for (Object changeSet : vcsList) {
-                Map<String, Object> changeSetMap = (Map<String, Object>) changeSet;
-                if (changeSetMap.get("repositoryName").equals(ASSIGNMENT_REPO_NAME)) { // We are only interested in the last commit hash of the assignment repo, not the test repo
-                    commitHash = (String) changeSetMap.get("id");
-                }
-            }
+            String commitHash = getCommitHash(build.getVcs());
 
             if (commitHash == null) {
                 log.warn("Could not find Commit-Hash (Participation {}, Build-Plan {})", participation.getId(), participation.getBuildPlanId());
@@ -560,38 +568,28 @@ public class BambooService implements ContinuousIntegrationService {
      * @param jobs the jobs list of the requestBody
      * @return a list of feedbacks itemsstored in a result
      */
-    public List<Feedback> addFeedbackToResultNew(Result result, List<Object> jobs) {
+    public List<Feedback> addFeedbackToResultNew(Result result, List<BambooBuildResultNotificationDTO.JobDTO> jobs) {
         if (jobs == null) {
             return null;
         }
 
         try {
-            List<Map<String, Object>> castedJobs = (List<Map<String, Object>>) (Object) jobs; // TODO: check if this works correctly
-
-            for (Map<String, Object> job : castedJobs) {
-                List<Map<String, Object>> failedTests = (List<Map<String, Object>>) job.get("failedTests");
-                for (Map<String, Object> failedTest : failedTests) {
-                    String className = (String) failedTest.get("className");
-                    String methodName = (String) failedTest.get("name"); // in the attribute "methodName", bamboo seems to apply some unwanted logic
-
-                    List<String> errors = (List<String>) failedTest.get("errors");
-                    String errorMessageString = "";
-                    for (String error : errors) {
+            for (BambooBuildResultNotificationDTO.JobDTO job : jobs) {
+                List<BambooBuildResultNotificationDTO.TestDTO> failedTests = job.getFailedTests();
+                for (BambooBuildResultNotificationDTO.TestDTO failedTest : failedTests) {
+                    StringBuilder errorMessageString = new StringBuilder();
+                    for (String error : failedTest.getErrors()) {
                         //Splitting string at the first linebreak to only get the first line of the Exception
-                        errorMessageString += error.split("\\n", 2)[0] + "\n";
+                        errorMessageString.append(error.split("\\n", 2)[0]).append("\n");
                     }
 
                     log.debug("errorMSGString is {}", errorMessageString);
 
-                    createAutomaticFeedback(result, methodName, false, errorMessageString);
+                    createAutomaticFeedback(result, failedTest.getName(), false, errorMessageString.toString());
                 }
 
-                List<Map<String, Object>> succuessfulTests = (List<Map<String, Object>>) job.get("successfulTests");
-                for (Map<String, Object> succuessfulTest : succuessfulTests) {
-                    String className = (String) succuessfulTest.get("className");
-                    String methodName = (String) succuessfulTest.get("name"); // in the attribute "methodName", bamboo seems to apply some unwanted logic
-
-                    createAutomaticFeedback(result, methodName, true, null);
+                for (BambooBuildResultNotificationDTO.TestDTO successfulTest : job.getSuccessfulTests()) {
+                    createAutomaticFeedback(result, successfulTest.getName(), true, null);
                 }
 
                 if (!failedTests.isEmpty()) {
@@ -645,7 +643,6 @@ public class BambooService implements ContinuousIntegrationService {
     private Map<String, Object> retrieveLatestBuildResult(String planKey) {
         HttpHeaders headers = HeaderUtil.createAuthorization(BAMBOO_USER, BAMBOO_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> response = null;
         try {
             response = restTemplate.exchange(
@@ -722,7 +719,6 @@ public class BambooService implements ContinuousIntegrationService {
     public List<BuildLogEntry> retrieveLatestBuildLogs(String planKey) {
         HttpHeaders headers = HeaderUtil.createAuthorization(BAMBOO_USER, BAMBOO_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> response = null;
         try {
             response = restTemplate.exchange(
@@ -798,7 +794,6 @@ public class BambooService implements ContinuousIntegrationService {
     public String checkIfProjectExists(String projectKey, String projectName) {
         HttpHeaders headers = HeaderUtil.createAuthorization(BAMBOO_USER, BAMBOO_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> response = null;
         try {
             response = restTemplate.exchange(
@@ -843,7 +838,6 @@ public class BambooService implements ContinuousIntegrationService {
     private ResponseEntity retrieveArtifactPage(String url) throws BambooException {
         HttpHeaders headers = HeaderUtil.createAuthorization(BAMBOO_USER, BAMBOO_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<byte[]> response;
 
         try {
@@ -883,7 +877,6 @@ public class BambooService implements ContinuousIntegrationService {
     public Map<String, Boolean> retrieveBuildStatus(String planKey) {
         HttpHeaders headers = HeaderUtil.createAuthorization(BAMBOO_USER, BAMBOO_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> response = null;
         try {
             response = restTemplate.exchange(
@@ -915,7 +908,6 @@ public class BambooService implements ContinuousIntegrationService {
     public Boolean buildPlanIdIsValid(String buildPlanId) {
         HttpHeaders headers = HeaderUtil.createAuthorization(BAMBOO_USER, BAMBOO_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> response = null;
         try {
             response = restTemplate.exchange(
@@ -22,6 +22,7 @@ import de.tum.in.www1.artemis.domain.ProgrammingExercise;
 import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.exception.BitbucketException;
 import de.tum.in.www1.artemis.service.UserService;
+import de.tum.in.www1.artemis.service.dto.BitbucketPushNotificationDTO;
 import de.tum.in.www1.artemis.web.rest.util.HeaderUtil;
 
 @Service
@@ -50,8 +51,11 @@ public class BitbucketService implements VersionControlService {
 
     private final UserService userService;
 
-    public BitbucketService(UserService userService) {
+    private final RestTemplate restTemplate;
+
+    public BitbucketService(UserService userService, RestTemplate connectorRestTemplate) {
         this.userService = userService;
+        this.restTemplate = connectorRestTemplate;
     }
 
     @Override
@@ -114,7 +118,6 @@ public class BitbucketService implements VersionControlService {
         log.info("Delete bitbucket project " + projectKey);
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(baseUrl, HttpMethod.DELETE, entity, Map.class);
         }
@@ -208,7 +211,6 @@ public class BitbucketService implements VersionControlService {
         ((Map) body.get("project")).put("key", baseProjectKey);
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(body, headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> response;
         try {
             response = restTemplate.exchange(BITBUCKET_SERVER_URL + "/rest/api/1.0/projects/" + baseProjectKey + "/repos/" + baseRepositorySlug, HttpMethod.POST, entity,
@@ -253,7 +255,6 @@ public class BitbucketService implements VersionControlService {
     private Boolean userExists(String username) throws BitbucketException {
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(BITBUCKET_SERVER_URL + "/rest/api/1.0/users/" + username, HttpMethod.GET, entity, Map.class);
         }
@@ -284,7 +285,6 @@ public class BitbucketService implements VersionControlService {
                 .queryParam("addToDefaultGroup", "true").queryParam("notify", "false");
 
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
 
         log.debug("Creating Bitbucket user {} ({})", username, emailAddress);
 
@@ -312,7 +312,6 @@ public class BitbucketService implements VersionControlService {
         body.put("groups", groups);
         HttpEntity<?> entity = new HttpEntity<>(body, headers);
 
-        RestTemplate restTemplate = new RestTemplate();
 
         log.debug("Adding Bitbucket user {} to groups {}", username, groups);
 
@@ -336,7 +335,6 @@ public class BitbucketService implements VersionControlService {
         String baseUrl = BITBUCKET_SERVER_URL + "/rest/api/1.0/projects/" + projectKey + "/repos/" + repositorySlug + "/permissions/users?name=";// NAME&PERMISSION
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(baseUrl + username + "&permission=REPO_WRITE", HttpMethod.PUT, entity, Map.class);
         }
@@ -350,7 +348,6 @@ public class BitbucketService implements VersionControlService {
     public String checkIfProjectExists(String projectKey, String projectName) {
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> response = null;
         try {
             // first check that the project key is unique
@@ -399,7 +396,6 @@ public class BitbucketService implements VersionControlService {
         // TODO: add a description
         HttpEntity<?> entity = new HttpEntity<>(body, headers);
 
-        RestTemplate restTemplate = new RestTemplate();
 
         log.debug("Creating Bitbucket project {} with key {}", projectName, projectKey);
 
@@ -436,7 +432,6 @@ public class BitbucketService implements VersionControlService {
         body.put("name", repoName.toLowerCase());
         HttpEntity<?> entity = new HttpEntity<>(body, headers);
 
-        RestTemplate restTemplate = new RestTemplate();
 
         log.debug("Creating Bitbucket repo {} with parent key {}", repoName, projectKey);
 
@@ -457,7 +452,6 @@ public class BitbucketService implements VersionControlService {
         String baseUrl = BITBUCKET_SERVER_URL + "/rest/api/1.0/projects/" + projectKey + "/permissions/groups/?name="; // GROUPNAME&PERMISSION
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(baseUrl + groupName + "&permission=" + permission, HttpMethod.PUT, entity, Map.class);
         }
@@ -480,7 +474,6 @@ public class BitbucketService implements VersionControlService {
         String baseUrl = BITBUCKET_SERVER_URL + "/rest/api/1.0/projects/" + projectKey + "/repos/" + repositorySlug + "/webhooks";
 
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         ResponseEntity<Map> response;
         try {
             response = restTemplate.exchange(baseUrl, HttpMethod.GET, entity, Map.class);
@@ -523,7 +516,6 @@ public class BitbucketService implements VersionControlService {
 
         HttpEntity<?> entity = new HttpEntity<>(body, headers);
 
-        RestTemplate restTemplate = new RestTemplate();
 
         try {
             restTemplate.exchange(baseUrl, HttpMethod.POST, entity, Map.class);
@@ -539,7 +531,6 @@ public class BitbucketService implements VersionControlService {
         log.info("Delete WebHook {} on project {}-{}", webHookId, projectKey, repositorySlug);
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(baseUrl, HttpMethod.DELETE, entity, Map.class);
         }
@@ -566,7 +557,6 @@ public class BitbucketService implements VersionControlService {
         log.info("Delete repository " + baseUrl);
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(baseUrl, HttpMethod.DELETE, entity, Map.class);
         }
@@ -596,7 +586,6 @@ public class BitbucketService implements VersionControlService {
 
         HttpHeaders headers = HeaderUtil.createAuthorization(BITBUCKET_USER, BITBUCKET_PASSWORD);
         HttpEntity<?> entity = new HttpEntity<>(headers);
-        RestTemplate restTemplate = new RestTemplate();
         try {
             restTemplate.exchange(BITBUCKET_SERVER_URL + "/rest/api/1.0/projects/" + projectKey + "/repos/" + repositorySlug, HttpMethod.GET, entity, Map.class);
         }
@@ -607,17 +596,10 @@ public class BitbucketService implements VersionControlService {
     }
 
     @Override
-    public String getLastCommitHash(Object requestBody) throws BitbucketException {
-
-        // NOTE the requestBody should look like this:
-        // {"eventKey":"...","date":"...","actor":{...},"repository":{...},"changes":[{"ref":{...},"refId":"refs/heads/master","fromHash":"5626436a443eb898a5c5f74b6352f26ea2b7c84e","toHash":"662868d5e16406d1dd4dcfa8ac6c46ee3d677924","type":"UPDATE"}]}
-        // we are interested in the toHash
+    public String getLastCommitHash(BitbucketPushNotificationDTO requestBody) throws BitbucketException {
+        // we are interested in the toHash of the change
         try {
-            Map<String, Object> requestBodyMap = (Map<String, Object>) requestBody;
-            List<Object> changes = (List<Object>) requestBodyMap.get("changes");
-            Map<String, Object> lastChange = (Map<String, Object>) changes.get(0);
-            String hash = (String) lastChange.get("toHash");
-            return hash;
+            return requestBody.getChanges().get(0).getToHash();
         }
         catch (Exception e) {
             log.error("Error when getting hash of last commit");
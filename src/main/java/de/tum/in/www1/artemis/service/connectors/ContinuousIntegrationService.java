@@ -6,6 +6,7 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 
 import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.service.dto.BambooBuildResultNotificationDTO;
 
 public interface ContinuousIntegrationService {
 
@@ -79,7 +80,17 @@ public interface ContinuousIntegrationService {
      * @return the plan key of the build
      * @throws Exception if the Body could not be parsed
      */
-    public String getPlanKey(Object requestBody) throws Exception;
+    public String getPlanKey(BambooBuildResultNotificationDTO requestBody) throws Exception;
+
+    /**
+     * Get the commit hash of the assignment repository that has been built, the information of the build gets passed via the requestBody. The requestBody must match the
+     * information passed from the bamboo-server-notification-plugin, the body is described here: https://github.com/ls1intum/bamboo-server-notification-plugin
+     *
+     * @param requestBody The request Body received from the CI-Server.
+     * @return the commit hash of the assignment repository or null if the build does not contain it
+     * @throws Exception if the Body could not be parsed
+     */
+    public String getCommitHash(BambooBuildResultNotificationDTO requestBody) throws Exception;
 
     /**
      * Get the result of the finished build, the information of the build gets passed via the requestBody. The requestBody must match the information passed from the
@@ -90,7 +101,7 @@ public interface ContinuousIntegrationService {
      * @return the result of the build
      * @throws Exception if the Body could not be parsed
      */
-    public Result onBuildCompletedNew(Participation participation, Object requestBody) throws Exception;
+    public Result onBuildCompletedNew(Participation participation, BambooBuildResultNotificationDTO requestBody) throws Exception;
 
     /**
      * Get the current status of the build for the given participation, i.e. INACTIVE, QUEUED, or BUILDING.
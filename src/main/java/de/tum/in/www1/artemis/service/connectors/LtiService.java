@@ -1,5 +1,6 @@
 package de.tum.in.www1.artemis.service.connectors;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -13,7 +14,6 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.impl.client.BasicResponseHandler;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.imsglobal.lti.launch.LtiOauthVerifier;
 import org.imsglobal.lti.launch.LtiVerificationException;
 import org.imsglobal.lti.launch.LtiVerificationResult;
@@ -32,6 +32,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import de.tum.in.www1.artemis.config.ConnectorRequestInterceptor;
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.util.PatchedIMSPOXRequest;
 import de.tum.in.www1.artemis.exception.ArtemisAuthenticationException;
@@ -46,6 +47,7 @@ import de.tum.in.www1.artemis.security.jwt.TokenProvider;
 import de.tum.in.www1.artemis.service.UserService;
 import de.tum.in.www1.artemis.service.util.RandomUtil;
 import de.tum.in.www1.artemis.web.rest.dto.LtiLaunchRequestDTO;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 @Transactional
@@ -93,11 +95,15 @@ public class LtiService {
 
     private final TokenProvider tokenProvider;
 
+    private final HttpClient connectorHttpClient;
+
+    private final MeterRegistry meterRegistry;
+
     public final HashMap<String, Pair<LtiLaunchRequestDTO, Exercise>> launchRequestForSession = new HashMap<>();
 
     public LtiService(UserService userService, UserRepository userRepository, LtiOutcomeUrlRepository ltiOutcomeUrlRepository, ResultRepository resultRepository,
             PasswordEncoder passwordEncoder, Optional<ArtemisAuthenticationProvider> artemisAuthenticationProvider, LtiUserIdRepository ltiUserIdRepository,
-            HttpServletResponse response, TokenProvider tokenProvider) {
+            HttpServletResponse response, TokenProvider tokenProvider, HttpClient connectorHttpClient, MeterRegistry meterRegistry) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.ltiOutcomeUrlRepository = ltiOutcomeUrlRepository;
@@ -107,6 +113,8 @@ public class LtiService {
         this.ltiUserIdRepository = ltiUserIdRepository;
         this.response = response;
         this.tokenProvider = tokenProvider;
+        this.connectorHttpClient = connectorHttpClient;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -417,8 +425,17 @@ public class LtiService {
                 log.info("Reporting score {} for participation {} to LTI consumer with outcome URL {} using the source id {}", score, participation, ltiOutcomeUrl.getUrl(),
                         ltiOutcomeUrl.getSourcedId());
                 HttpPost request = PatchedIMSPOXRequest.buildReplaceResult(ltiOutcomeUrl.getUrl(), OAUTH_KEY, OAUTH_SECRET, ltiOutcomeUrl.getSourcedId(), score, null, false);
-                HttpClient client = HttpClientBuilder.create().build();
-                HttpResponse response = client.execute(request);
+                HttpResponse response;
+                long start = System.nanoTime();
+                try {
+                    response = connectorHttpClient.execute(request);
+                }
+                catch (IOException e) {
+                    ConnectorRequestInterceptor.record(meterRegistry, request.getURI().getHost(), request.getMethod(), "IO_ERROR", System.nanoTime() - start);
+                    throw e;
+                }
+                ConnectorRequestInterceptor.record(meterRegistry, request.getURI().getHost(), request.getMethod(), String.valueOf(response.getStatusLine().getStatusCode()),
+                        System.nanoTime() - start);
                 String responseString = new BasicResponseHandler().handleResponse(response);
                 log.info("Response from LTI consumer: {}", responseString);
                 if (response.getStatusLine().getStatusCode() >= 400) {
@@ -4,6 +4,7 @@ import java.net.URL;
 
 import de.tum.in.www1.artemis.domain.Participation;
 import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.service.dto.BitbucketPushNotificationDTO;
 
 public interface VersionControlService {
 
@@ -80,7 +81,7 @@ public interface VersionControlService {
      * @return the last commit hash that is included in the given requestBody
      * @throws Exception if the Body could not be parsed
      */
-    public String getLastCommitHash(Object requestBody) throws Exception;
+    public String getLastCommitHash(BitbucketPushNotificationDTO requestBody) throws Exception;
 
     /**
      * Creates a project on the VCS.
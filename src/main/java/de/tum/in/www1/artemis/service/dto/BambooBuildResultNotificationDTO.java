@@ -0,0 +1,176 @@
+package de.tum.in.www1.artemis.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A DTO representing the build result that the bamboo-server-notification-plugin sends when a build has finished, the body is described here:
+ * https://github.com/ls1intum/bamboo-server-notification-plugin. Only the properties that are needed to create the result are bound, the DTO cannot be changed after Jackson has
+ * created it.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BambooBuildResultNotificationDTO {
+
+    private PlanDTO plan;
+
+    private BuildDTO build;
+
+    BambooBuildResultNotificationDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public PlanDTO getPlan() {
+        return plan;
+    }
+
+    public BuildDTO getBuild() {
+        return build;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PlanDTO {
+
+        private String key;
+
+        PlanDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BuildDTO {
+
+        private String reason;
+
+        private Boolean successful;
+
+        private TestSummaryDTO testSummary;
+
+        private String buildCompletedDate;
+
+        private Boolean artifact;
+
+        private List<JobDTO> jobs = new ArrayList<>();
+
+        private List<VcsDTO> vcs = new ArrayList<>();
+
+        BuildDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public Boolean getSuccessful() {
+            return successful;
+        }
+
+        public TestSummaryDTO getTestSummary() {
+            return testSummary;
+        }
+
+        public String getBuildCompletedDate() {
+            return buildCompletedDate;
+        }
+
+        public Boolean getArtifact() {
+            return artifact;
+        }
+
+        public List<JobDTO> getJobs() {
+            return jobs;
+        }
+
+        public List<VcsDTO> getVcs() {
+            return vcs;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class TestSummaryDTO {
+
+        private String description;
+
+        TestSummaryDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JobDTO {
+
+        private List<TestDTO> failedTests = new ArrayList<>();
+
+        private List<TestDTO> successfulTests = new ArrayList<>();
+
+        JobDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public List<TestDTO> getFailedTests() {
+            return failedTests;
+        }
+
+        public List<TestDTO> getSuccessfulTests() {
+            return successfulTests;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class TestDTO {
+
+        private String className;
+
+        // in the attribute "methodName", bamboo seems to apply some unwanted logic, therefore only the name is bound
+        private String name;
+
+        private List<String> errors = new ArrayList<>();
+
+        TestDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class VcsDTO {
+
+        private String id;
+
+        private String repositoryName;
+
+        VcsDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getRepositoryName() {
+            return repositoryName;
+        }
+    }
+}
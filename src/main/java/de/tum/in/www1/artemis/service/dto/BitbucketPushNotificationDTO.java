@@ -0,0 +1,50 @@
+package de.tum.in.www1.artemis.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A DTO representing the notification that Bitbucket sends when commits have been pushed to a repository. Only the changes are bound, the body looks like this:
+ * {"eventKey":"...","date":"...","actor":{...},"repository":{...},"changes":[{"ref":{...},"refId":"refs/heads/master","fromHash":"...","toHash":"...","type":"UPDATE"}]}
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BitbucketPushNotificationDTO {
+
+    private List<ChangeDTO> changes = new ArrayList<>();
+
+    BitbucketPushNotificationDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public List<ChangeDTO> getChanges() {
+        return changes;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ChangeDTO {
+
+        private String refId;
+
+        private String fromHash;
+
+        private String toHash;
+
+        ChangeDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public String getRefId() {
+            return refId;
+        }
+
+        public String getFromHash() {
+            return fromHash;
+        }
+
+        public String getToHash() {
+            return toHash;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package de.tum.in.www1.artemis.service.dto;
+
+/**
+ * A DTO representing the progress of a running recalculation of the statistics of a quiz exercise.
+ */
+public class QuizStatisticRecalculationProgressDTO {
+
+    private int processedSubmissions;
+
+    private int totalSubmissions;
+
+    public QuizStatisticRecalculationProgressDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public QuizStatisticRecalculationProgressDTO(int processedSubmissions, int totalSubmissions) {
+        this.processedSubmissions = processedSubmissions;
+        this.totalSubmissions = totalSubmissions;
+    }
+
+    public int getProcessedSubmissions() {
+        return processedSubmissions;
+    }
+
+    public void setProcessedSubmissions(int processedSubmissions) {
+        this.processedSubmissions = processedSubmissions;
+    }
+
+    public int getTotalSubmissions() {
+        return totalSubmissions;
+    }
+
+    public void setTotalSubmissions(int totalSubmissions) {
+        this.totalSubmissions = totalSubmissions;
+    }
+}
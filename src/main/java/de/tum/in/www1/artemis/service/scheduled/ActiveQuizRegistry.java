@@ -0,0 +1,115 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.repository.QuizExerciseRepository;
+import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
+
+/**
+ * In-memory registry of the quizzes that receive submissions, so that saving a submission via websocket does not need to access the database. For each quiz it holds the timing
+ * state (release date, duration and whether the quiz is planned to start) and the users who have already submitted. Both are loaded from the database when a quiz is accessed for
+ * the first time, e.g. after a restart during a running quiz. The timing state is updated whenever the quiz is (re)scheduled after a change and everything is removed when the
+ * quiz is reset or deleted.
+ */
+@Component
+public class ActiveQuizRegistry {
+
+    private final QuizExerciseRepository quizExerciseRepository;
+
+    private final QuizSubmissionRepository quizSubmissionRepository;
+
+    /**
+     * detached quiz exercises that only contain the timing state
+     */
+    private final Map<Long, QuizExercise> quizTimings = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<String>> submittedUsers = new ConcurrentHashMap<>();
+
+    public ActiveQuizRegistry(QuizExerciseRepository quizExerciseRepository, QuizSubmissionRepository quizSubmissionRepository) {
+        this.quizExerciseRepository = quizExerciseRepository;
+        this.quizSubmissionRepository = quizSubmissionRepository;
+    }
+
+    /**
+     * Get the timing state of the given quiz. The quiz is loaded from the database only if it is not in the registry yet (concurrent requests for the same quiz wait for this
+     * single load).
+     *
+     * @param quizId the id of the quiz
+     * @return a quiz exercise that only contains the id and the timing state or null if the quiz does not exist
+     */
+    public QuizExercise getQuizTiming(Long quizId) {
+        return quizTimings.computeIfAbsent(quizId, id -> quizExerciseRepository.findById(id).map(this::copyTiming).orElse(null));
+    }
+
+    /**
+     * Update the timing state of the given quiz after it has been changed (e.g. edited, started or opened for practice)
+     *
+     * @param quizExercise the saved quiz exercise
+     */
+    public void updateQuizTiming(QuizExercise quizExercise) {
+        quizTimings.put(quizExercise.getId(), copyTiming(quizExercise));
+    }
+
+    /**
+     * @param quizId   the id of the quiz
+     * @param username the username of the user
+     * @return true if the user has already submitted in the given quiz
+     */
+    public boolean hasSubmitted(Long quizId, String username) {
+        return getSubmittedUsers(quizId).contains(username);
+    }
+
+    /**
+     * Remember that the given user has submitted in the given quiz
+     *
+     * @param quizId   the id of the quiz
+     * @param username the username of the user
+     */
+    public void setSubmitted(Long quizId, String username) {
+        getSubmittedUsers(quizId).add(username);
+    }
+
+    /**
+     * Get the users who have submitted in the given quiz. The users who have submitted before are loaded from the database only if the quiz is not in the registry yet
+     * (concurrent requests for the same quiz wait for this single load).
+     */
+    private Set<String> getSubmittedUsers(Long quizId) {
+        return submittedUsers.computeIfAbsent(quizId, id -> {
+            Set<String> users = ConcurrentHashMap.newKeySet();
+            users.addAll(quizSubmissionRepository.findLoginsOfSubmittedUsersByExerciseId(id));
+            return users;
+        });
+    }
+
+    /**
+     * Remove the submitted users of the given quiz, because it has ended and all submissions have been processed. The timing state is kept, so that late submissions are still
+     * rejected without database access.
+     *
+     * @param quizId the id of the quiz
+     */
+    public void removeSubmittedUsers(Long quizId) {
+        submittedUsers.remove(quizId);
+    }
+
+    /**
+     * Remove all data of the given quiz, e.g. because it was reset or deleted
+     *
+     * @param quizId the id of the quiz
+     */
+    public void clear(Long quizId) {
+        quizTimings.remove(quizId);
+        submittedUsers.remove(quizId);
+    }
+
+    private QuizExercise copyTiming(QuizExercise quizExercise) {
+        QuizExercise quizTiming = new QuizExercise().isPlannedToStart(quizExercise.isIsPlannedToStart()).duration(quizExercise.getDuration());
+        quizTiming.setId(quizExercise.getId());
+        quizTiming.setReleaseDate(quizExercise.getReleaseDate());
+        return quizTiming;
+    }
+}
@@ -0,0 +1,203 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link QuizSubmissionStore} that keeps the quiz data in the memory of this node. The data is striped by quiz and user: every quiz has its own concurrent map (or queue for the
+ * results), so the scheduler can drain one quiz without locking the others. Submissions, participations and results are only added inside compute on the outer map, so that they
+ * can never be written into an inner map that has already been removed when the quiz ended or was deleted.
+ */
+@Component
+public class LocalQuizSubmissionStore implements QuizSubmissionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalQuizSubmissionStore.class);
+
+    private final Map<Long, Map<String, QuizSubmission>> submissions = new ConcurrentHashMap<>();
+
+    private final Map<Long, Map<String, Participation>> participations = new ConcurrentHashMap<>();
+
+    private final Map<Long, Queue<Result>> results = new ConcurrentHashMap<>();
+
+    private final AtomicInteger submissionCount = new AtomicInteger();
+
+    private final AtomicInteger participationCount = new AtomicInteger();
+
+    private final AtomicInteger resultCount = new AtomicInteger();
+
+    /**
+     * the maximum number of submissions held in memory, 0 means unlimited
+     */
+    @Value("${artemis.quiz.submission-store.max-submissions:0}")
+    private int maxSubmissions;
+
+    public LocalQuizSubmissionStore(MeterRegistry meterRegistry) {
+        Gauge.builder("artemis.quiz.store.submissions", submissionCount, AtomicInteger::get).description("Number of quiz submissions held in memory").register(meterRegistry);
+        Gauge.builder("artemis.quiz.store.participations", participationCount, AtomicInteger::get).description("Number of processed quiz participations held in memory")
+                .register(meterRegistry);
+        Gauge.builder("artemis.quiz.store.results", resultCount, AtomicInteger::get).description("Number of quiz results waiting for the statistic update")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean updateSubmission(Long quizId, String username, QuizSubmission quizSubmission) {
+        AtomicBoolean stored = new AtomicBoolean(true);
+        // the submission is stored inside compute, so that the submission map of the quiz cannot be removed by removeSubmissions between the lookup of the map and the put,
+        // which would lose the submission and leave it in the count of the submissions
+        submissions.compute(quizId, (id, userSubmissions) -> {
+            if (userSubmissions == null) {
+                userSubmissions = new ConcurrentHashMap<>();
+            }
+            // the limit is only checked for new users, so that students who are already taking part can still update their submissions
+            if (maxSubmissions > 0 && submissionCount.get() >= maxSubmissions && !userSubmissions.containsKey(username)) {
+                log.warn("Could not store the quiz submission of {} in quiz {}, because {} submissions are already held in memory", username, quizId, maxSubmissions);
+                stored.set(false);
+                return userSubmissions.isEmpty() ? null : userSubmissions;
+            }
+            if (userSubmissions.put(username, quizSubmission) == null) {
+                submissionCount.incrementAndGet();
+            }
+            return userSubmissions;
+        });
+        return stored.get();
+    }
+
+    @Override
+    public QuizSubmission getSubmission(Long quizId, String username) {
+        Map<String, QuizSubmission> userSubmissions = submissions.get(quizId);
+        return userSubmissions != null ? userSubmissions.get(username) : null;
+    }
+
+    @Override
+    public Set<Long> getQuizIdsWithSubmissions() {
+        return new HashSet<>(submissions.keySet());
+    }
+
+    @Override
+    public Map<String, QuizSubmission> drainSubmissions(Long quizId, Predicate<QuizSubmission> filter) {
+        Map<String, QuizSubmission> drainedSubmissions = new HashMap<>();
+        Map<String, QuizSubmission> userSubmissions = submissions.get(quizId);
+        if (userSubmissions == null) {
+            return drainedSubmissions;
+        }
+        userSubmissions.forEach((username, quizSubmission) -> {
+            // only remove the submission if it has not been replaced in the meantime
+            if (filter.test(quizSubmission) && userSubmissions.remove(username, quizSubmission)) {
+                drainedSubmissions.put(username, quizSubmission);
+            }
+        });
+        submissionCount.addAndGet(-drainedSubmissions.size());
+        return drainedSubmissions;
+    }
+
+    @Override
+    public Map<String, QuizSubmission> removeSubmissions(Long quizId) {
+        Map<String, QuizSubmission> userSubmissions = submissions.remove(quizId);
+        if (userSubmissions == null) {
+            return new HashMap<>();
+        }
+        submissionCount.addAndGet(-userSubmissions.size());
+        return userSubmissions;
+    }
+
+    @Override
+    public void restoreSubmissions(Long quizId, Map<String, QuizSubmission> restoredSubmissions) {
+        submissions.compute(quizId, (id, userSubmissions) -> {
+            if (userSubmissions == null) {
+                userSubmissions = new ConcurrentHashMap<>();
+            }
+            for (Map.Entry<String, QuizSubmission> entry : restoredSubmissions.entrySet()) {
+                if (userSubmissions.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                    submissionCount.incrementAndGet();
+                }
+            }
+            return userSubmissions;
+        });
+    }
+
+    @Override
+    public void addParticipation(Long quizId, Participation participation) {
+        participations.compute(quizId, (id, userParticipations) -> {
+            if (userParticipations == null) {
+                userParticipations = new ConcurrentHashMap<>();
+            }
+            if (userParticipations.put(participation.getStudent().getLogin(), participation) == null) {
+                participationCount.incrementAndGet();
+            }
+            return userParticipations;
+        });
+    }
+
+    @Override
+    public Participation getParticipation(Long quizId, String username) {
+        Map<String, Participation> userParticipations = participations.get(quizId);
+        return userParticipations != null ? userParticipations.get(username) : null;
+    }
+
+    @Override
+    public Set<Long> getQuizIdsWithParticipations() {
+        return new HashSet<>(participations.keySet());
+    }
+
+    @Override
+    public Collection<Participation> drainParticipations(Long quizId) {
+        Map<String, Participation> userParticipations = participations.remove(quizId);
+        if (userParticipations == null) {
+            return Collections.emptyList();
+        }
+        participationCount.addAndGet(-userParticipations.size());
+        return userParticipations.values();
+    }
+
+    @Override
+    public void addResult(Long quizId, Result result) {
+        results.compute(quizId, (id, quizResults) -> {
+            if (quizResults == null) {
+                quizResults = new ConcurrentLinkedQueue<>();
+            }
+            quizResults.add(result);
+            resultCount.incrementAndGet();
+            return quizResults;
+        });
+    }
+
+    @Override
+    public Set<Long> getQuizIdsWithResults() {
+        return new HashSet<>(results.keySet());
+    }
+
+    @Override
+    public List<Result> drainResults(Long quizId) {
+        List<Result> drainedResults = new ArrayList<>();
+        Queue<Result> quizResults = results.remove(quizId);
+        if (quizResults == null) {
+            return drainedResults;
+        }
+        // results are only added inside compute, so no result can be added to the queue after it has been removed
+        drainedResults.addAll(quizResults);
+        resultCount.addAndGet(-drainedResults.size());
+        return drainedResults;
+    }
+
+    @Override
+    public void clear(Long quizId) {
+        removeSubmissions(quizId);
+        drainParticipations(quizId);
+        drainResults(quizId);
+    }
+}
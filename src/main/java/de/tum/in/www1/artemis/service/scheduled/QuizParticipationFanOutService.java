@@ -0,0 +1,223 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Sends the participations (including the quiz exercise and the result) to the students when a quiz ends. The participations are sent in parallel batches on a dedicated
+ * executor. All participations of a quiz contain the same quiz exercise, which is therefore only serialized once per fan-out and then written as raw JSON into every message.
+ */
+@Service
+public class QuizParticipationFanOutService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizParticipationFanOutService.class);
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ThreadPoolTaskExecutor fanOutExecutor;
+
+    private final Timer fanOutTimer;
+
+    private final Timer fanOutDelayTimer;
+
+    @Value("${artemis.quiz.fan-out.batch-size:50}")
+    private int batchSize;
+
+    public QuizParticipationFanOutService(SimpMessageSendingOperations messagingTemplate, MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter,
+            MeterRegistry meterRegistry, @Value("${artemis.quiz.fan-out.threads:4}") int threads) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = mappingJackson2HttpMessageConverter.getObjectMapper();
+
+        fanOutExecutor = new ThreadPoolTaskExecutor();
+        fanOutExecutor.setThreadNamePrefix("QuizFanOut-");
+        fanOutExecutor.setCorePoolSize(threads);
+        fanOutExecutor.setMaxPoolSize(threads);
+        // bounded queue: if the senders cannot keep up, the scheduler thread sends the next batch itself instead of queueing more messages in memory
+        fanOutExecutor.setQueueCapacity(threads * 2);
+        fanOutExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        fanOutExecutor.initialize();
+
+        this.fanOutTimer = Timer.builder("artemis.quiz.fan-out.duration").description("Time to send the participations of an ended quiz to all students")
+                .register(meterRegistry);
+        this.fanOutDelayTimer = Timer.builder("artemis.quiz.fan-out.delay").description("Time between the end of a quiz and the last student receiving the result")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdown();
+    }
+
+    /**
+     * send the given participations (with quiz and result) of an ended quiz to the students via websocket and wait until all messages have been sent
+     *
+     * @param quizExercise   the ended quiz
+     * @param participations the participations of the students in the quiz
+     * @return the number of participations that have been sent
+     */
+    public int sendParticipations(QuizExercise quizExercise, List<Participation> participations) {
+        if (participations.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        ObjectWriter writer = createSharedQuizExerciseWriter();
+        AtomicInteger counter = new AtomicInteger();
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int i = 0; i < participations.size(); i += batchSize) {
+            List<Participation> batch = participations.subList(i, Math.min(i + batchSize, participations.size()));
+            batches.add(CompletableFuture.runAsync(() -> sendBatch(quizExercise.getId(), batch, writer, counter), fanOutExecutor));
+        }
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+
+        fanOutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        ZonedDateTime dueDate = quizExercise.getDueDate();
+        if (dueDate != null) {
+            fanOutDelayTimer.record(Math.max(0, System.currentTimeMillis() - dueDate.toInstant().toEpochMilli()), TimeUnit.MILLISECONDS);
+        }
+        return counter.get();
+    }
+
+    private void sendBatch(Long quizId, List<Participation> batch, ObjectWriter writer, AtomicInteger counter) {
+        for (Participation participation : batch) {
+            if (participation.getStudent() == null || participation.getStudent().getLogin() == null) {
+                log.error("Participation is missing student (or student is missing username): {}", participation);
+                continue;
+            }
+            try {
+                byte[] payload = writer.writeValueAsBytes(participation);
+                // same destination as SimpMessagingTemplate.convertAndSendToUser, but with the already serialized payload
+                String user = StringUtils.replace(participation.getStudent().getLogin(), "/", "%2F");
+                messagingTemplate.send("/user/" + user + "/topic/exercise/" + quizId + "/participation", MessageBuilder.withPayload(payload).build());
+                counter.incrementAndGet();
+            }
+            catch (Exception e) {
+                log.error("Exception while sending the participation of {} in quiz {}:\n{}", participation.getStudent().getLogin(), quizId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * create a writer based on the application's object mapper, which serializes every quiz exercise only once and reuses the JSON afterwards. A new writer is created for every
+     * fan-out, so that the cached JSON is never outdated.
+     *
+     * @return the writer
+     */
+    private ObjectWriter createSharedQuizExerciseWriter() {
+        ObjectMapper fanOutMapper = objectMapper.copy();
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new BeanSerializerModifier() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDescription, JsonSerializer<?> serializer) {
+                if (QuizExercise.class.isAssignableFrom(beanDescription.getBeanClass())) {
+                    return new SharedQuizExerciseSerializer((JsonSerializer<Object>) serializer, fanOutMapper);
+                }
+                return serializer;
+            }
+        });
+        fanOutMapper.registerModule(module);
+        return fanOutMapper.writer();
+    }
+
+    /**
+     * Serializes a quiz exercise with the default serializer the first time and writes the resulting JSON as raw value afterwards
+     */
+    private static class SharedQuizExerciseSerializer extends StdSerializer<QuizExercise> implements ContextualSerializer, ResolvableSerializer {
+
+        private final JsonSerializer<Object> defaultSerializer;
+
+        private final ObjectMapper objectMapper;
+
+        private final Map<String, String> serializedQuizExercises = new ConcurrentHashMap<>();
+
+        SharedQuizExerciseSerializer(JsonSerializer<Object> defaultSerializer, ObjectMapper objectMapper) {
+            super(QuizExercise.class);
+            this.defaultSerializer = defaultSerializer;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (defaultSerializer instanceof ResolvableSerializer) {
+                ((ResolvableSerializer) defaultSerializer).resolve(provider);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+            // the contextual serializer (e.g. with ignored properties of the referencing property) needs its own cache
+            JsonSerializer<?> contextualSerializer = defaultSerializer;
+            if (defaultSerializer instanceof ContextualSerializer) {
+                contextualSerializer = ((ContextualSerializer) defaultSerializer).createContextual(provider, property);
+            }
+            return new SharedQuizExerciseSerializer((JsonSerializer<Object>) contextualSerializer, objectMapper);
+        }
+
+        @Override
+        public void serialize(QuizExercise quizExercise, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeRawValue(getSerializedQuizExercise(quizExercise, provider, null));
+        }
+
+        @Override
+        public void serializeWithType(QuizExercise quizExercise, JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+            generator.writeRawValue(getSerializedQuizExercise(quizExercise, provider, typeSerializer));
+        }
+
+        private String getSerializedQuizExercise(QuizExercise quizExercise, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+            String key = quizExercise.getId() + (typeSerializer != null ? "-typed" : "");
+            String json = serializedQuizExercises.get(key);
+            if (json == null) {
+                TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+                if (typeSerializer != null) {
+                    defaultSerializer.serializeWithType(quizExercise, buffer, provider, typeSerializer);
+                }
+                else {
+                    defaultSerializer.serialize(quizExercise, buffer, provider);
+                }
+                json = objectMapper.writeValueAsString(buffer);
+                serializedQuizExercises.putIfAbsent(key, json);
+            }
+            return json;
+        }
+    }
+}
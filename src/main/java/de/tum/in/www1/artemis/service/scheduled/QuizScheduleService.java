@@ -4,39 +4,47 @@ import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
 
+import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
 import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
 import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
-import de.tum.in.www1.artemis.repository.ParticipationRepository;
-import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
-import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.domain.quiz.scoring.QuizScoringPlan;
 import de.tum.in.www1.artemis.service.QuizExerciseService;
 import de.tum.in.www1.artemis.service.QuizStatisticService;
+import de.tum.in.www1.artemis.service.QuizSubmissionService;
 import de.tum.in.www1.artemis.service.UserService;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizStatisticChangesDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class QuizScheduleService {
 
     private static final Logger log = LoggerFactory.getLogger(QuizScheduleService.class);
 
-    private static Map<Long, Map<String, QuizSubmission>> submissionHashMap = new ConcurrentHashMap<>();
-
-    private static Map<Long, Map<String, Participation>> participationHashMap = new ConcurrentHashMap<>();
-
-    private static Map<Long, Set<Result>> resultHashMap = new ConcurrentHashMap<>();
+    /**
+     * the store for the submissions, participations and results of running quizzes, static because it is also accessed from entities
+     */
+    private static QuizSubmissionStore quizSubmissionStore;
 
     private static Map<Long, ScheduledFuture> quizStartSchedules = new ConcurrentHashMap<>();
 
+    private static Map<Long, ScheduledFuture> quizEndSchedules = new ConcurrentHashMap<>();
+
     private static ThreadPoolTaskScheduler threadPoolTaskScheduler = new ThreadPoolTaskScheduler();
     static {
         threadPoolTaskScheduler.setThreadNamePrefix("QuizScheduler");
@@ -46,13 +54,28 @@ public class QuizScheduleService {
 
     private ScheduledFuture scheduledFuture;
 
-    private final SimpMessageSendingOperations messagingTemplate;
+    private ScheduledFuture sweepFuture;
+
+    /**
+     * the quizzes with pending work (submitted submissions or quiz end) mapped to the time (System.nanoTime()) of the first request
+     */
+    private final Map<Long, Long> quizzesToProcess = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean processingScheduled = new AtomicBoolean(false);
 
-    private final ParticipationRepository participationRepository;
+    @Value("${artemis.quiz.persistence-batch-size:100}")
+    private int persistenceBatchSize;
 
-    private final ResultRepository resultRepository;
+    @Value("${artemis.quiz.processing-delay:500}")
+    private long processingDelay;
 
-    private final QuizSubmissionRepository quizSubmissionRepository;
+    @Value("${artemis.quiz.processing-retry-delay:5000}")
+    private long processingRetryDelay;
+
+    @Value("${artemis.quiz.sweep-interval:60000}")
+    private long sweepInterval;
+
+    private final QuizSubmissionService quizSubmissionService;
 
     private final UserService userService;
 
@@ -60,37 +83,53 @@ public class QuizScheduleService {
 
     private final QuizStatisticService quizStatisticService;
 
-    public QuizScheduleService(SimpMessageSendingOperations messagingTemplate, ParticipationRepository participationRepository, ResultRepository resultRepository,
-            QuizSubmissionRepository quizSubmissionRepository, UserService userService, QuizExerciseService quizExerciseService, QuizStatisticService quizStatisticService) {
-        this.messagingTemplate = messagingTemplate;
-        this.participationRepository = participationRepository;
-        this.resultRepository = resultRepository;
-        this.quizSubmissionRepository = quizSubmissionRepository;
+    private final QuizParticipationFanOutService quizParticipationFanOutService;
+
+    private final ActiveQuizRegistry activeQuizRegistry;
+
+    private final Timer submissionPersistenceTimer;
+
+    private final Counter processedSubmissionsCounter;
+
+    private final Timer processingLagTimer;
+
+    public QuizScheduleService(QuizSubmissionService quizSubmissionService, UserService userService, QuizExerciseService quizExerciseService,
+            QuizStatisticService quizStatisticService, QuizSubmissionStore quizSubmissionStore, QuizParticipationFanOutService quizParticipationFanOutService,
+            ActiveQuizRegistry activeQuizRegistry, MeterRegistry meterRegistry) {
+        QuizScheduleService.quizSubmissionStore = quizSubmissionStore;
+        this.quizSubmissionService = quizSubmissionService;
         this.userService = userService;
         this.quizExerciseService = quizExerciseService;
         this.quizStatisticService = quizStatisticService;
+        this.quizParticipationFanOutService = quizParticipationFanOutService;
+        this.activeQuizRegistry = activeQuizRegistry;
+        this.submissionPersistenceTimer = Timer.builder("artemis.quiz.submissions.persistence").description("Time to persist the quiz submissions of one quiz in one scheduler tick")
+                .register(meterRegistry);
+        this.processedSubmissionsCounter = Counter.builder("artemis.quiz.submissions.processed").description("Number of quiz submissions persisted by the quiz scheduler")
+                .register(meterRegistry);
+        this.processingLagTimer = Timer.builder("artemis.quiz.processing.lag").description("Time between a submission or quiz end and the start of its processing")
+                .register(meterRegistry);
+        Gauge.builder("artemis.quiz.processing.pending", quizzesToProcess, Map::size).description("Number of quizzes waiting to be processed").register(meterRegistry);
     }
 
     /**
-     * add a quizSubmission to the submissionHashMap
+     * add a quizSubmission to the quizSubmissionStore
      *
      * @param quizId         the quizId of the quiz the submission belongs to (first Key)
      * @param username       the username of the user, who submitted the submission (second Key)
      * @param quizSubmission the quizSubmission, which should be added (Value)
+     * @return false if the submission could not be stored because too many submissions are held in memory, true otherwise
      */
-    public static void updateSubmission(Long quizId, String username, QuizSubmission quizSubmission) {
+    public static boolean updateSubmission(Long quizId, String username, QuizSubmission quizSubmission) {
 
         if (quizSubmission != null && quizId != null && username != null) {
-            // check if there is already a quizSubmission with the same quiz
-            if (!submissionHashMap.containsKey(quizId)) {
-                submissionHashMap.put(quizId, new ConcurrentHashMap<>());
-            }
-            submissionHashMap.get(quizId).put(username, quizSubmission);
+            return quizSubmissionStore.updateSubmission(quizId, username, quizSubmission);
         }
+        return true;
     }
 
     /**
-     * add a result to resultHashMap for a statistic-update
+     * add a result to the quizSubmissionStore for a statistic-update
      *
      * @param quizId the quizId of the quiz the result belongs to (first Key)
      * @param result the result, which should be added
@@ -98,17 +137,12 @@ public class QuizScheduleService {
     public static void addResultToStatistic(Long quizId, Result result) {
 
         if (quizId != null && result != null) {
-            // check if there is already a result with the same quiz
-            if (!resultHashMap.containsKey(quizId)) {
-                resultHashMap.put(quizId, new HashSet<>());
-            }
-            resultHashMap.get(quizId).add(result);
+            quizSubmissionStore.addResult(quizId, result);
         }
-
     }
 
     /**
-     * add a participation to participationHashMap to send them back to the user when the quiz ends
+     * add a participation to the quizSubmissionStore to send them back to the user when the quiz ends
      *
      * @param quizId        the quizId of the quiz the result belongs to (first Key)
      * @param participation the result, which should be added
@@ -116,17 +150,12 @@ public class QuizScheduleService {
     private static void addParticipation(Long quizId, Participation participation) {
 
         if (quizId != null && participation != null) {
-            // check if there is already a result with the same quiz
-            if (!participationHashMap.containsKey(quizId)) {
-                participationHashMap.put(quizId, new ConcurrentHashMap<>());
-            }
-            participationHashMap.get(quizId).put(participation.getStudent().getLogin(), participation);
+            quizSubmissionStore.addParticipation(quizId, participation);
         }
-
     }
 
     /**
-     * get a quizSubmission from the submissionHashMap by quizId and username
+     * get a quizSubmission from the quizSubmissionStore by quizId and username
      *
      * @param quizId   the quizId of the quiz the submission belongs to (first Key)
      * @param username the username of the user, who submitted the submission (second Key)
@@ -138,21 +167,16 @@ public class QuizScheduleService {
         if (quizId == null || username == null) {
             return null;
         }
-        QuizSubmission quizSubmission;
-        // check if the the map contains submissions with the quizId
-        if (submissionHashMap.containsKey(quizId)) {
-            // return the quizSubmission with the username-Key
-            quizSubmission = submissionHashMap.get(quizId).get(username);
-            if (quizSubmission != null) {
-                return quizSubmission;
-            }
+        QuizSubmission quizSubmission = quizSubmissionStore.getSubmission(quizId, username);
+        if (quizSubmission != null) {
+            return quizSubmission;
         }
-        // return an empty quizSubmission if the maps contain no mapping for the keys
+        // return an empty quizSubmission if the store contains no mapping for the keys
         return new QuizSubmission().submittedAnswers(new HashSet<>());
     }
 
     /**
-     * get a participation from the participationHashMap by quizId and username
+     * get a participation from the quizSubmissionStore by quizId and username
      *
      * @param quizId   the quizId of the quiz, the participation belongs to (first Key)
      * @param username the username of the user, the participation belongs to (second Key)
@@ -162,21 +186,16 @@ public class QuizScheduleService {
         if (quizId == null || username == null) {
             return null;
         }
-        // check if the the map contains participations with the quizId
-        if (participationHashMap.containsKey(quizId)) {
-            // return the participation with the username-Key
-            return participationHashMap.get(quizId).get(username);
-        }
-        // return null if the maps contain no mapping for the keys
-        return null;
+        return quizSubmissionStore.getParticipation(quizId, username);
     }
 
     /**
-     * start scheduler
+     * start scheduler: the statistics are updated repeatedly, the submissions are processed when they are submitted and when the quiz ends
      */
     public void startSchedule(long delayInMillis) {
-        log.info("QuizScheduleService was started to run repeatedly with {} second gaps.", delayInMillis / 1000.0);
-        scheduledFuture = threadPoolTaskScheduler.scheduleWithFixedDelay(this::run, delayInMillis);
+        log.info("QuizScheduleService was started to update the statistics repeatedly with {} second gaps.", delayInMillis / 1000.0);
+        scheduledFuture = threadPoolTaskScheduler.scheduleWithFixedDelay(this::processStatistics, delayInMillis);
+        sweepFuture = threadPoolTaskScheduler.scheduleWithFixedDelay(this::requestProcessingOfEndedQuizzes, sweepInterval);
 
         // schedule quiz start for all existing quizzes that are planned to start in the future
         List<QuizExercise> quizExercises = quizExerciseService.findAllPlannedToStartInTheFutureWithQuestions();
@@ -192,15 +211,24 @@ public class QuizScheduleService {
         if (scheduledFuture != null) {
             scheduledFuture.cancel(false);
         }
+        if (sweepFuture != null) {
+            sweepFuture.cancel(false);
+        }
         for (Long quizId : quizStartSchedules.keySet()) {
             cancelScheduledQuizStart(quizId);
         }
+        for (Long quizId : quizEndSchedules.keySet()) {
+            cancelScheduledQuizEnd(quizId);
+        }
     }
 
     public void scheduleQuizStart(final QuizExercise quizExercise) {
         // first remove and cancel old scheduledFuture if it exists
         cancelScheduledQuizStart(quizExercise.getId());
 
+        // the quiz might have been changed (e.g. started or shortened) => update the timing state used when saving submissions
+        activeQuizRegistry.updateQuizTiming(quizExercise);
+
         if (quizExercise.isIsPlannedToStart() && quizExercise.getReleaseDate().isAfter(ZonedDateTime.now())) {
             // schedule sending out filtered quiz over websocket
             ScheduledFuture scheduledFuture = threadPoolTaskScheduler.schedule(() -> quizExerciseService.sendQuizExerciseToSubscribedClients(quizExercise),
@@ -209,6 +237,9 @@ public class QuizScheduleService {
             // save scheduled future in HashMap
             quizStartSchedules.put(quizExercise.getId(), scheduledFuture);
         }
+
+        // the end of the quiz might have changed as well
+        scheduleQuizEnd(quizExercise);
     }
 
     public void cancelScheduledQuizStart(Long quizId) {
@@ -219,103 +250,207 @@ public class QuizScheduleService {
     }
 
     public void clearQuizData(Long quizId) {
-        // delete all participation, submission, and result hashmap entries that correspond to this quiz
-        participationHashMap.remove(quizId);
-        submissionHashMap.remove(quizId);
-        resultHashMap.remove(quizId);
+        // delete all participations, submissions, and results in the store that correspond to this quiz
+        cancelScheduledQuizEnd(quizId);
+        quizzesToProcess.remove(quizId);
+        quizSubmissionStore.clear(quizId);
+        activeQuizRegistry.clear(quizId);
+        quizStatisticService.discardStatisticChanges(quizId);
     }
 
     /**
-     * 1. Check SubmissionHashMap for new submissions with “isSubmitted() == true” a. Process each Submission (set submissionType to “SubmissionType.MANUAL”) and create
-     * Participation and Result and save them to Database (DB Write) b. Remove processed Submissions from SubmissionHashMap and write Participation with Result into
-     * ParticipationHashMap and write Result into ResultHashMap 2. If Quiz has ended: a. Process all Submissions in SubmissionHashMap that belong to this quiz i. set “isSubmitted”
-     * to “true” and submissionType to “SubmissionType.TIMEOUT” ii. Create Participation and Result and save to Database (DB Write) iii. Remove processed Submissions from
-     * SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap b. Send out Participations (including QuizExercise and
-     * Result) from ParticipationHashMap via WebSocket to each user and remove them from ParticipationHashMap (WebSocket Send) 3. Update Statistics with Results from ResultHashMap
-     * (DB Read and DB Write) and remove from ResultHashMap 4. Send out new Statistics over WebSocket (WebSocket Send)
+     * notify the scheduler that a submission of a student has been saved in the store. Submitted submissions are processed right away (after a short delay, so that submissions
+     * arriving at the same time are persisted together) and it is ensured that the remaining submissions are processed when the quiz ends.
+     *
+     * @param quizExercise   the quiz the submission belongs to (only the timing state is used)
+     * @param quizSubmission the saved submission
      */
-    private void run() {
-        // global try-catch for error logging
-        try {
-            long start = System.currentTimeMillis();
+    public void submissionSaved(QuizExercise quizExercise, QuizSubmission quizSubmission) {
+        // the quiz end might not be scheduled yet, e.g. if the server was restarted during the quiz
+        if (!quizEndSchedules.containsKey(quizExercise.getId())) {
+            scheduleQuizEnd(quizExercise);
+        }
+        if (quizSubmission.isSubmitted()) {
+            requestProcessing(quizExercise.getId());
+        }
+    }
 
-            // create Participations and Results if the submission was submitted or if the quiz has ended and save them to Database (DB Write)
-            for (long quizId : submissionHashMap.keySet()) {
+    /**
+     * schedule the processing of all remaining submissions and the send out of the results at the end of the given quiz
+     *
+     * @param quizExercise the quiz (only the timing state is used)
+     */
+    private void scheduleQuizEnd(QuizExercise quizExercise) {
+        cancelScheduledQuizEnd(quizExercise.getId());
+        if (!Boolean.TRUE.equals(quizExercise.isIsPlannedToStart()) || quizExercise.getDuration() == null) {
+            return;
+        }
+        Long quizId = quizExercise.getId();
+        // isEnded() is true after the grace period, one additional second compensates the rounding of the remaining time to seconds
+        ZonedDateTime endDate = quizExercise.getDueDate().plusSeconds(Constants.QUIZ_GRACE_PERIOD_IN_SECONDS + 1);
+        ScheduledFuture scheduledFuture = threadPoolTaskScheduler.schedule(() -> {
+            quizEndSchedules.remove(quizId);
+            requestProcessing(quizId);
+        }, Date.from(endDate.toInstant()));
+        quizEndSchedules.put(quizId, scheduledFuture);
+    }
 
-                QuizExercise quizExercise = quizExerciseService.findOneWithQuestions(quizId);
-                // check if quiz has been deleted
-                if (quizExercise == null) {
-                    submissionHashMap.remove(quizId);
-                    continue;
-                }
+    private void cancelScheduledQuizEnd(Long quizId) {
+        ScheduledFuture scheduledFuture = quizEndSchedules.remove(quizId);
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+        }
+    }
 
-                // if quiz has ended, all submissions will be processed => we can remove the inner HashMap for this quiz
-                // if quiz hasn't ended, some submissions (those that are not submitted) will stay in HashMap => keep inner HashMap
-                Map<String, QuizSubmission> submissions;
-                if (quizExercise.isEnded()) {
-                    submissions = submissionHashMap.remove(quizId);
-                }
-                else {
-                    submissions = submissionHashMap.get(quizId);
-                }
+    /**
+     * add the given quiz to the quizzes that need to be processed and schedule the processing if it is not scheduled yet
+     *
+     * @param quizId the id of the quiz with new work
+     */
+    private void requestProcessing(Long quizId) {
+        quizzesToProcess.putIfAbsent(quizId, System.nanoTime());
+        if (processingScheduled.compareAndSet(false, true)) {
+            threadPoolTaskScheduler.schedule(this::processQuizzes, new Date(System.currentTimeMillis() + processingDelay));
+        }
+    }
 
-                int num = createParticipations(quizExercise, submissions);
+    /**
+     * Process all quizzes for which work was requested (submitted submissions or quiz end). The processing is synchronized, so that the same quiz is never processed twice at the
+     * same time.
+     */
+    private synchronized void processQuizzes() {
+        // requests arriving from now on schedule another processing
+        processingScheduled.set(false);
+        long start = System.currentTimeMillis();
+        for (Long quizId : new ArrayList<>(quizzesToProcess.keySet())) {
+            Long requestTime = quizzesToProcess.remove(quizId);
+            if (requestTime != null) {
+                processingLagTimer.record(System.nanoTime() - requestTime, TimeUnit.NANOSECONDS);
+            }
+            try {
+                processQuiz(quizId, start);
+            }
+            catch (Exception e) {
+                // e.g. the database is not reachable: the unsaved submissions have been put back into the store, so the quiz is processed again after a delay
+                log.error("Exception while processing quiz {}, retrying in {} ms", quizId, processingRetryDelay, e);
+                threadPoolTaskScheduler.schedule(() -> requestProcessing(quizId), new Date(System.currentTimeMillis() + processingRetryDelay));
+            }
+        }
+    }
 
-                if (num > 0) {
-                    log.info("Processed {} submissions after {} ms in quiz {}", num, System.currentTimeMillis() - start, quizExercise.getTitle());
+    /**
+     * Request the processing of all quizzes that have ended, but still have submissions or participations in the store, e.g. because the quiz end was not scheduled or its
+     * processing failed. This is a safety net that runs in a slow interval and does not access the database for quizzes in the registry.
+     */
+    private void requestProcessingOfEndedQuizzes() {
+        try {
+            Set<Long> quizIds = new HashSet<>(quizSubmissionStore.getQuizIdsWithSubmissions());
+            quizIds.addAll(quizSubmissionStore.getQuizIdsWithParticipations());
+            for (Long quizId : quizIds) {
+                QuizExercise quizTiming = activeQuizRegistry.getQuizTiming(quizId);
+                // quizzes that have been deleted are processed as well, so that their data is removed from the store
+                if (quizTiming == null || (Boolean.TRUE.equals(quizTiming.isIsPlannedToStart()) && quizTiming.isEnded())) {
+                    requestProcessing(quizId);
                 }
             }
+        }
+        catch (Exception e) {
+            log.error("Exception while checking for ended quizzes:\n{}", e.getMessage());
+        }
+    }
 
-            // Send out Participations from ParticipationHashMap to each user if the quiz has ended
-            for (long quizId : participationHashMap.keySet()) {
+    /**
+     * 1. Process the submissions with “isSubmitted() == true” in the submission store (set submissionType to “SubmissionType.MANUAL”): create Participation and Result, save them
+     * to Database (DB Write) and write Participation with Result and Result into the store 2. If Quiz has ended: a. Process all remaining Submissions of this quiz in the same way
+     * (set “isSubmitted” to “true” and submissionType to “SubmissionType.TIMEOUT”) b. Send out Participations (including QuizExercise and Result) from the store via WebSocket to
+     * each user and remove them from the store (WebSocket Send)
+     *
+     * @param quizId the id of the quiz to process
+     * @param start  the start time of the processing (for logging)
+     */
+    private void processQuiz(Long quizId, long start) {
+        QuizExercise quizExercise = quizExerciseService.findOneWithQuestions(quizId);
+        // check if quiz has been deleted
+        if (quizExercise == null) {
+            quizSubmissionStore.removeSubmissions(quizId);
+            quizSubmissionStore.drainParticipations(quizId);
+            return;
+        }
 
-                // get the Quiz without the statistics and questions from the database
-                Optional<QuizExercise> quizExercise = quizExerciseService.findById(quizId);
-                // check if quiz has been deleted
-                if (!quizExercise.isPresent()) {
-                    participationHashMap.remove(quizId);
-                    continue;
-                }
+        // create Participations and Results if the submission was submitted or if the quiz has ended and save them to Database (DB Write)
+        // if quiz has ended, all submissions will be processed => we can remove all submissions of this quiz from the store
+        // if quiz hasn't ended, only the submitted submissions are processed, the others stay in the store
+        Map<String, QuizSubmission> submissions;
+        if (quizExercise.isEnded()) {
+            submissions = quizSubmissionStore.removeSubmissions(quizId);
+        }
+        else {
+            submissions = quizSubmissionStore.drainSubmissions(quizId, QuizSubmission::isSubmitted);
+        }
 
-                // check if the quiz has ended
-                if (quizExercise.get().isEnded()) {
-                    // send the participation with containing result and quiz back to the users via websocket
-                    // and remove the participation from the ParticipationHashMap
-                    int counter = 0;
-                    for (Participation participation : participationHashMap.remove(quizId).values()) {
-                        if (participation.getStudent() == null || participation.getStudent().getLogin() == null) {
-                            log.error("Participation is missing student (or student is missing username): {}", participation);
-                            continue;
-                        }
-                        messagingTemplate.convertAndSendToUser(participation.getStudent().getLogin(), "/topic/exercise/" + quizId + "/participation", participation);
-                        counter++;
-                    }
-                    if (counter > 0) {
-                        log.info("Sent out {} participations after {} ms for quiz {}", counter, System.currentTimeMillis() - start, quizExercise.get().getTitle());
-                    }
-                }
+        int num;
+        try {
+            num = createParticipations(quizExercise, submissions);
+        }
+        finally {
+            // the submissions that could not be saved (e.g. because the database is not reachable) are put back into the store, so that they are processed again
+            if (!submissions.isEmpty()) {
+                quizSubmissionStore.restoreSubmissions(quizId, submissions);
             }
+        }
+        if (!submissions.isEmpty()) {
+            throw new IllegalStateException("Could not save the submissions of " + submissions.size() + " users in quiz " + quizId);
+        }
+        if (num > 0) {
+            log.info("Processed {} submissions after {} ms in quiz {}", num, System.currentTimeMillis() - start, quizExercise.getTitle());
+        }
 
-            // Update Statistics with Results from ResultHashMap (DB Read and DB Write) and remove from ResultHashMap
-            for (long quizId : resultHashMap.keySet()) {
+        // Send out Participations from the store to each user if the quiz has ended
+        if (quizExercise.isEnded()) {
+            // send the participation with containing result and quiz back to the users via websocket (in parallel)
+            // and remove the participation from the store
+            List<Participation> participations = new ArrayList<>(quizSubmissionStore.drainParticipations(quizId));
+            int counter = quizParticipationFanOutService.sendParticipations(quizExercise, participations);
+            // all submissions have been processed => the submitted users are no longer needed to reject new submissions
+            activeQuizRegistry.removeSubmittedUsers(quizId);
+            if (counter > 0) {
+                log.info("Sent out {} participations after {} ms for quiz {}", counter, System.currentTimeMillis() - start, quizExercise.getTitle());
+            }
+        }
+    }
 
-                // get the Quiz with the statistic from the database
-                QuizExercise quizExercise = quizExerciseService.findOneWithQuestionsAndStatistics(quizId);
-                // check if quiz has been deleted
-                if (quizExercise == null) {
-                    resultHashMap.remove(quizId);
-                    continue;
-                }
+    /**
+     * 1. Update Statistics with Results from the store (in memory) and remove them from the store 2. Write the Statistic changes (DB Write) and send out new Statistics over
+     * WebSocket (WebSocket Send) in the configured interval. Without new results, this does not access the database.
+     */
+    private void processStatistics() {
+        // global try-catch for error logging
+        try {
+            long start = System.currentTimeMillis();
 
-                // update statistic with all results of the quizExercise
+            // Update Statistics with Results from the store (in memory) and remove them from the store
+            for (long quizId : quizSubmissionStore.getQuizIdsWithResults()) {
                 try {
-                    quizStatisticService.updateStatistics(resultHashMap.remove(quizId), quizExercise);
-                    log.debug("Updated statistics after {} ms for quiz {}", System.currentTimeMillis() - start, quizExercise.getTitle());
+                    quizStatisticService.updateStatistics(quizSubmissionStore.drainResults(quizId), quizId);
                 }
                 catch (Exception e) {
                     log.error("Exception in StatisticService.updateStatistics():\n{}", e.getMessage());
                 }
             }
+
+            // Write the collected statistic changes to the Database (DB Write) and send out the new Statistics in the configured interval
+            for (long quizId : quizStatisticService.getQuizIdsWithStatisticsDueForFlush()) {
+                try {
+                    QuizStatisticChangesDTO changes = quizStatisticService.flushStatistics(quizId);
+                    if (changes != null) {
+                        quizStatisticService.sendStatisticChangesToSubscribedClients(changes);
+                        log.debug("Updated statistics after {} ms for quiz {}", System.currentTimeMillis() - start, quizId);
+                    }
+                }
+                catch (Exception e) {
+                    log.error("Exception in StatisticService.flushStatistics():\n{}", e.getMessage());
+                }
+            }
         }
         catch (Exception e) {
             log.error("Exception in Quiz Schedule:\n{}", e.getMessage());
@@ -324,102 +459,187 @@ public class QuizScheduleService {
 
     /**
      * check if the user submitted the submission or if the quiz has ended: if true: -> Create Participation and Result and save to Database (DB Write) Remove processed Submissions
-     * from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
+     * from the store and write Participations with Result into the store and Results into the store
      *
      * @param quizExercise      the quiz which should be checked
-     * @param userSubmissionMap a Map with all submissions for the given quizExercise mapped by the username
+     * @param userSubmissionMap a Map with all submissions for the given quizExercise mapped by the username, the processed submissions are removed from it, so that only the
+     *                          submissions that could not be saved remain
      * @return the number of created participations
      */
     private int createParticipations(QuizExercise quizExercise, Map<String, QuizSubmission> userSubmissionMap) {
-        int counter = 0;
+        // all given submissions are due in this tick (they have already been removed from the store), so that they can be persisted together
+        Map<String, QuizSubmission> dueSubmissions = new HashMap<>();
+
+        for (Map.Entry<String, QuizSubmission> entry : userSubmissionMap.entrySet()) {
+            QuizSubmission quizSubmission = entry.getValue();
+            // first case: the user submitted the quizSubmission
+            if (quizSubmission.isSubmitted()) {
+                activeQuizRegistry.setSubmitted(quizExercise.getId(), entry.getKey());
+                if (quizSubmission.getType() == null) {
+                    quizSubmission.setType(SubmissionType.MANUAL);
+                }
+                dueSubmissions.put(entry.getKey(), quizSubmission);
+                // second case: the quiz has ended
+            }
+            else if (quizExercise.isEnded()) {
+                quizSubmission.setSubmitted(true);
+                quizSubmission.setType(SubmissionType.TIMEOUT);
+                quizSubmission.setSubmissionDate(ZonedDateTime.now());
+                dueSubmissions.put(entry.getKey(), quizSubmission);
+            }
+        }
 
-        for (String username : userSubmissionMap.keySet()) {
-            try {
-                // first case: the user submitted the quizSubmission
-                if (userSubmissionMap.get(username).isSubmitted()) {
-                    QuizSubmission quizSubmission = userSubmissionMap.remove(username);
-                    if (quizSubmission.getType() == null) {
-                        quizSubmission.setType(SubmissionType.MANUAL);
-                    }
+        if (dueSubmissions.isEmpty()) {
+            return 0;
+        }
 
-                    // Create Participation and Result and save to Database (DB Write)
-                    // Remove processed Submissions from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
-                    createParticipationWithResultAndWriteItInHashMaps(quizExercise, username, quizSubmission);
-                    counter++;
-                    // second case: the quiz has ended
-                }
-                else if (quizExercise.isEnded()) {
-                    QuizSubmission quizSubmission = userSubmissionMap.remove(username);
-                    quizSubmission.setSubmitted(true);
-                    quizSubmission.setType(SubmissionType.TIMEOUT);
-                    quizSubmission.setSubmissionDate(ZonedDateTime.now());
-
-                    // Create Participation and Result and save to Database (DB Write)
-                    // Remove processed Submissions from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
-                    createParticipationWithResultAndWriteItInHashMaps(quizExercise, username, quizSubmission);
-                    counter++;
-                }
+        // Create Participations and Results and save them to Database (DB Write)
+        // Remove processed Submissions from the store and write Participations with Result into the store and Results into the store
+        Set<String> processedUsernames = new HashSet<>(dueSubmissions.keySet());
+        long start = System.nanoTime();
+        int counter = createParticipationsWithResultsAndWriteThemInStore(quizExercise, dueSubmissions);
+        submissionPersistenceTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        processedSubmissionsCounter.increment(counter);
+        processedUsernames.removeAll(dueSubmissions.keySet());
+        userSubmissionMap.keySet().removeAll(processedUsernames);
+        return counter;
+    }
+
+    /**
+     * create Participations and Results for all given submissions and save them to Database (DB Write). The users are resolved with one query and the participations are saved in
+     * chunks of {@link #persistenceBatchSize}, each chunk in its own transaction. If a chunk cannot be saved, its participations are saved one by one, so that one faulty
+     * submission does not affect the other students.
+     *
+     * @param quizExercise    the quizExercise the quizSubmissions belong to
+     * @param userSubmissions the quizSubmissions, which are used to calculate the Results, mapped by the username. The processed submissions are removed, so that only the
+     *                        submissions that could not be saved remain.
+     * @return the number of saved participations
+     */
+    private int createParticipationsWithResultsAndWriteThemInStore(QuizExercise quizExercise, Map<String, QuizSubmission> userSubmissions) {
+        Map<String, User> users = new HashMap<>();
+        for (User user : userService.getUsersByLogins(userSubmissions.keySet())) {
+            users.put(user.getLogin(), user);
+        }
+
+        // compile the scoring plan once for all submissions of this quiz
+        QuizScoringPlan scoringPlan = QuizScoringPlan.compile(quizExercise);
+
+        List<Participation> participations = new ArrayList<>();
+        Iterator<Map.Entry<String, QuizSubmission>> iterator = userSubmissions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, QuizSubmission> entry = iterator.next();
+            User user = users.get(entry.getKey());
+            if (user == null) {
+                // the submission can never be saved, so it is not processed again
+                log.error("Could not process the submission of {} in quiz {}, because the user does not exist", entry.getKey(), quizExercise.getId());
+                iterator.remove();
+                continue;
+            }
+            try {
+                participations.add(createParticipationWithResult(quizExercise, scoringPlan, user, entry.getValue()));
             }
             catch (Exception e) {
-                log.error("Exception in createParticipations() for {} in quiz {}:\n{}", username, quizExercise.getId(), e.getMessage());
+                // the score calculation fails again for the same submission, so it is not processed again
+                log.error("Exception in createParticipations() for {} in quiz {}:\n{}", entry.getKey(), quizExercise.getId(), e.getMessage());
+                iterator.remove();
             }
         }
 
+        int counter = 0;
+        for (int i = 0; i < participations.size(); i += persistenceBatchSize) {
+            List<Participation> chunk = participations.subList(i, Math.min(i + persistenceBatchSize, participations.size()));
+            try {
+                quizSubmissionService.saveQuizParticipations(chunk);
+                counter += writeInStore(quizExercise, chunk, userSubmissions);
+            }
+            catch (Exception e) {
+                log.warn("Could not save {} participations in one transaction in quiz {}, saving them one by one:\n{}", chunk.size(), quizExercise.getId(), e.getMessage());
+                for (Participation participation : chunk) {
+                    try {
+                        // the rolled back transaction might already have assigned ids, which would lead to a merge instead of a persist
+                        resetIds(participation);
+                        quizSubmissionService.saveQuizParticipations(Collections.singletonList(participation));
+                        counter += writeInStore(quizExercise, Collections.singletonList(participation), userSubmissions);
+                    }
+                    catch (Exception ex) {
+                        // the submission stays in the given map, so that it is put back into the store and saved again in the retry
+                        log.error("Exception in createParticipations() for {} in quiz {}:\n{}", participation.getStudent().getLogin(), quizExercise.getId(), ex.getMessage());
+                        resetIds(participation);
+                    }
+                }
+            }
+        }
         return counter;
     }
 
     /**
-     * create Participation and Result if the submission was submitted or if the quiz has ended and save them to Database (DB Write)
+     * create Participation and Result for the given submission without saving them
      *
      * @param quizExercise   the quizExercise the quizSubmission belongs to
-     * @param username       the user, who submitted the quizSubmission
+     * @param scoringPlan    the compiled scoring plan of the quizExercise
+     * @param user           the user, who submitted the quizSubmission (might be null if the user does not exist)
      * @param quizSubmission the quizSubmission, which is used to calculate the Result
+     * @return the new participation containing the submission and the result
      */
-    private Participation createParticipationWithResultAndWriteItInHashMaps(QuizExercise quizExercise, String username, QuizSubmission quizSubmission) {
+    private Participation createParticipationWithResult(QuizExercise quizExercise, QuizScoringPlan scoringPlan, User user, QuizSubmission quizSubmission) {
+        // create new participation
+        Participation participation = new Participation();
+        participation.setStudent(user);
+        // add the quizExercise to the participation
+        participation.setExercise(quizExercise);
 
-        if (quizExercise != null && username != null && quizSubmission != null) {
+        // create new result
+        Result result = new Result().participation(participation).submission(quizSubmission);
+        result.setRated(true);
+        result.setAssessmentType(AssessmentType.AUTOMATIC);
+        result.setCompletionDate(quizSubmission.getSubmissionDate());
+        result.setSubmission(quizSubmission);
 
-            // create and save new participation
-            Participation participation = new Participation();
-            Optional<User> user = userService.getUserByLogin(username);
-            if (user.isPresent()) {
-                participation.setStudent(user.get());
-            }
-            // add the quizExercise to the participation
-            participation.setExercise(quizExercise);
-
-            // create new result
-            Result result = new Result().participation(participation).submission(quizSubmission);
-            result.setRated(true);
-            result.setAssessmentType(AssessmentType.AUTOMATIC);
-            result.setCompletionDate(quizSubmission.getSubmissionDate());
-            result.setSubmission(quizSubmission);
+        // calculate scores and update result and submission accordingly
+        scoringPlan.calculateAndUpdateScores(result);
 
-            // calculate scores and update result and submission accordingly
-            quizSubmission.calculateAndUpdateScores(quizExercise);
-            result.evaluateSubmission();
+        // add result to participation
+        participation.addResult(result);
 
-            // add result to participation
-            participation.addResult(result);
+        // add submission to participation
+        participation.addSubmissions(quizSubmission);
 
-            // add submission to participation
-            participation.addSubmissions(quizSubmission);
+        participation.setInitializationState(InitializationState.FINISHED);
+        participation.setExercise(quizExercise);
 
-            participation.setInitializationState(InitializationState.FINISHED);
-            participation.setExercise(quizExercise);
-
-            // save participation, result and quizSubmission
-            participationRepository.save(participation);
-            quizSubmissionRepository.save(quizSubmission);
-            resultRepository.save(result);
+        return participation;
+    }
 
-            // add the participation to the participationHashMap for the send out at the end of the quiz
+    /**
+     * write the saved participations into the store (for the send out at the end of the quiz) and their results into the store (for the statistic-Update)
+     *
+     * @param quizExercise    the quizExercise the participations belong to
+     * @param participations  the saved participations
+     * @param userSubmissions the submissions that still have to be saved mapped by the username, the submissions of the saved participations are removed from it
+     * @return the number of participations written into the store
+     */
+    private int writeInStore(QuizExercise quizExercise, List<Participation> participations, Map<String, QuizSubmission> userSubmissions) {
+        for (Participation participation : participations) {
             QuizScheduleService.addParticipation(quizExercise.getId(), participation);
-            // add the result of the participation resultHashMap for the statistic-Update
-            QuizScheduleService.addResultToStatistic(quizExercise.getId(), result);
+            QuizScheduleService.addResultToStatistic(quizExercise.getId(), participation.getResults().iterator().next());
+            userSubmissions.remove(participation.getStudent().getLogin());
+        }
+        return participations.size();
+    }
 
-            return participation;
+    /**
+     * reset the ids of a participation and its submission, submitted answers and result after a rolled back transaction
+     *
+     * @param participation the participation that could not be saved
+     */
+    private void resetIds(Participation participation) {
+        participation.setId(null);
+        Result result = participation.getResults().iterator().next();
+        result.setId(null);
+        QuizSubmission quizSubmission = (QuizSubmission) result.getSubmission();
+        quizSubmission.setId(null);
+        for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
+            submittedAnswer.setId(null);
         }
-        return null;
     }
 }
@@ -0,0 +1,124 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Store for the quiz data that is kept in memory while a quiz is running: the latest submission of every student, the participations that are sent to the students when the
+ * quiz ends and the results that still have to be added to the statistics. All operations must be safe to be called concurrently from the websocket threads and the quiz
+ * scheduler. The default implementation is {@link LocalQuizSubmissionStore}, other implementations (e.g. a distributed one) can be provided as Spring bean instead.
+ */
+public interface QuizSubmissionStore {
+
+    /**
+     * add or replace the submission of the given user in the given quiz
+     *
+     * @param quizId         the id of the quiz the submission belongs to
+     * @param username       the username of the user, who submitted the submission
+     * @param quizSubmission the submission
+     * @return false if the submission was not stored because the store is full, true otherwise
+     */
+    boolean updateSubmission(Long quizId, String username, QuizSubmission quizSubmission);
+
+    /**
+     * @param quizId   the id of the quiz
+     * @param username the username of the user
+     * @return the stored submission of the user in the quiz or null if there is none
+     */
+    QuizSubmission getSubmission(Long quizId, String username);
+
+    /**
+     * @return the ids of all quizzes with stored submissions
+     */
+    Set<Long> getQuizIdsWithSubmissions();
+
+    /**
+     * remove all submissions of the given quiz that match the given filter. A submission is only removed if it has not been replaced concurrently, so that no update of a
+     * student gets lost.
+     *
+     * @param quizId the id of the quiz
+     * @param filter the filter, which decides if a submission is removed
+     * @return the removed submissions mapped by the username
+     */
+    Map<String, QuizSubmission> drainSubmissions(Long quizId, Predicate<QuizSubmission> filter);
+
+    /**
+     * remove all submissions of the given quiz, e.g. because the quiz has ended or has been deleted
+     *
+     * @param quizId the id of the quiz
+     * @return the removed submissions mapped by the username
+     */
+    Map<String, QuizSubmission> removeSubmissions(Long quizId);
+
+    /**
+     * put drained submissions back into the store, because they could not be processed, e.g. because the database was not reachable. A submission that has been stored for the
+     * same user in the meantime is kept. The maximum number of submissions is not checked, because the submissions have been held in memory before.
+     *
+     * @param quizId          the id of the quiz
+     * @param userSubmissions the submissions mapped by the username
+     */
+    void restoreSubmissions(Long quizId, Map<String, QuizSubmission> userSubmissions);
+
+    /**
+     * add the participation of a processed submission, which will be sent to the user when the quiz ends
+     *
+     * @param quizId        the id of the quiz the participation belongs to
+     * @param participation the participation with the student, the submission and the result
+     */
+    void addParticipation(Long quizId, Participation participation);
+
+    /**
+     * @param quizId   the id of the quiz
+     * @param username the username of the user
+     * @return the stored participation of the user in the quiz or null if there is none
+     */
+    Participation getParticipation(Long quizId, String username);
+
+    /**
+     * @return the ids of all quizzes with stored participations
+     */
+    Set<Long> getQuizIdsWithParticipations();
+
+    /**
+     * remove all participations of the given quiz
+     *
+     * @param quizId the id of the quiz
+     * @return the removed participations
+     */
+    Collection<Participation> drainParticipations(Long quizId);
+
+    /**
+     * add a result, which still has to be added to the statistics of the quiz
+     *
+     * @param quizId the id of the quiz the result belongs to
+     * @param result the result
+     */
+    void addResult(Long quizId, Result result);
+
+    /**
+     * @return the ids of all quizzes with stored results
+     */
+    Set<Long> getQuizIdsWithResults();
+
+    /**
+     * remove all results of the given quiz
+     *
+     * @param quizId the id of the quiz
+     * @return the removed results
+     */
+    List<Result> drainResults(Long quizId);
+
+    /**
+     * remove all submissions, participations and results of the given quiz
+     *
+     * @param quizId the id of the quiz
+     */
+    void clear(Long quizId);
+}
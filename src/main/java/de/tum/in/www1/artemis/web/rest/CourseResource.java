@@ -15,12 +15,14 @@ import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -30,10 +32,10 @@ import de.tum.in.www1.artemis.domain.enumeration.TutorParticipationStatus;
 import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
 import de.tum.in.www1.artemis.exception.ArtemisAuthenticationException;
 import de.tum.in.www1.artemis.repository.ComplaintRepository;
-import de.tum.in.www1.artemis.repository.ComplaintResponseRepository;
 import de.tum.in.www1.artemis.repository.CourseRepository;
 import de.tum.in.www1.artemis.security.ArtemisAuthenticationProvider;
 import de.tum.in.www1.artemis.service.*;
+import de.tum.in.www1.artemis.web.rest.dto.StatsForCourseDTO;
 import de.tum.in.www1.artemis.web.rest.dto.StatsForInstructorDashboardDTO;
 import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
@@ -73,30 +75,25 @@ public class CourseResource {
 
     private final ObjectMapper objectMapper;
 
-    private final TextAssessmentService textAssessmentService;
+    private final TutorLeaderboardService tutorLeaderboardService;
 
     private final LectureService lectureService;
 
     private final ComplaintRepository complaintRepository;
 
-    private final ComplaintResponseRepository complaintResponseRepository;
-
     private final NotificationService notificationService;
 
-    private final TextSubmissionService textSubmissionService;
-
-    private final ModelingSubmissionService modelingSubmissionService;
-
     private final ResultService resultService;
 
-    private final ComplaintService complaintService;
+    private final CourseDashboardCacheService courseDashboardCacheService;
+
+    private final CourseStatisticsService courseStatisticsService;
 
     public CourseResource(Environment env, UserService userService, CourseService courseService, ParticipationService participationService, CourseRepository courseRepository,
             ExerciseService exerciseService, AuthorizationCheckService authCheckService, TutorParticipationService tutorParticipationService,
             MappingJackson2HttpMessageConverter springMvcJacksonConverter, Optional<ArtemisAuthenticationProvider> artemisAuthenticationProvider,
-            TextAssessmentService textAssessmentService, ComplaintRepository complaintRepository, ComplaintResponseRepository complaintResponseRepository,
-            LectureService lectureService, NotificationService notificationService, TextSubmissionService textSubmissionService,
-            ModelingSubmissionService modelingSubmissionService, ResultService resultService, ComplaintService complaintService) {
+            TutorLeaderboardService tutorLeaderboardService, ComplaintRepository complaintRepository, LectureService lectureService, NotificationService notificationService,
+            ResultService resultService, CourseDashboardCacheService courseDashboardCacheService, CourseStatisticsService courseStatisticsService) {
         this.env = env;
         this.userService = userService;
         this.courseService = courseService;
@@ -107,15 +104,13 @@ public class CourseResource {
         this.tutorParticipationService = tutorParticipationService;
         this.artemisAuthenticationProvider = artemisAuthenticationProvider;
         this.objectMapper = springMvcJacksonConverter.getObjectMapper();
-        this.textAssessmentService = textAssessmentService;
+        this.tutorLeaderboardService = tutorLeaderboardService;
         this.complaintRepository = complaintRepository;
-        this.complaintResponseRepository = complaintResponseRepository;
         this.lectureService = lectureService;
         this.notificationService = notificationService;
-        this.textSubmissionService = textSubmissionService;
-        this.modelingSubmissionService = modelingSubmissionService;
         this.resultService = resultService;
-        this.complaintService = complaintService;
+        this.courseDashboardCacheService = courseDashboardCacheService;
+        this.courseStatisticsService = courseStatisticsService;
     }
 
     /**
@@ -273,13 +268,20 @@ public class CourseResource {
      * GET /courses/for-dashboard
      *
      * @param principal the current user principal
-     * @return the list of courses (the user has access to) including all exercises with participation and result for the user
+     * @return the list of courses (the user has access to) including all exercises with participation and result for the user, serialized as JSON
+     * @throws JsonProcessingException if the courses cannot be serialized
      */
     @GetMapping("/courses/for-dashboard")
     @PreAuthorize("hasAnyRole('USER', 'TA', 'INSTRUCTOR', 'ADMIN')")
-    public List<Course> getAllCoursesForDashboard(Principal principal) {
-        long start = System.currentTimeMillis();
+    public ResponseEntity<byte[]> getAllCoursesForDashboard(Principal principal) throws JsonProcessingException {
         log.debug("REST request to get all Courses the user has access to with exercises, participations and results");
+        // the dashboard is only built if the user has not loaded it since the last relevant change
+        byte[] dashboard = courseDashboardCacheService.getDashboard(principal.getName(), () -> findAllCoursesForDashboard(principal));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(dashboard);
+    }
+
+    private List<Course> findAllCoursesForDashboard(Principal principal) {
+        long start = System.currentTimeMillis();
         log.debug("/courses/for-dashboard.start");
         User user = userService.getUserWithGroupsAndAuthorities();
 
@@ -287,13 +289,10 @@ public class CourseResource {
         List<Course> courses = courseService.findAllActiveWithExercisesForUser(principal, user);
 
         log.debug("          /courses/for-dashboard.findAllActiveWithExercisesForUser in " + (System.currentTimeMillis() - start) + "ms");
-        // get all participations of this user
+        // get all participations of this user, only the relevant result (the latest rated one which is displayed in the user interface) is loaded
         // TODO: can we limit the following call to only retrieve participations and results for active courses?
-        // TODO: can we only load the relevant result (the latest rated one which is displayed in the user interface)
-        // Idea: we should save the current rated result in Participation and make sure that this is being set correctly when new results are added
-        // this would also improve the performance for other REST calls
-        List<Participation> participations = participationService.findWithResultsByStudentUsername(principal.getName());
-        log.debug("          /courses/for-dashboard.findWithResultsByStudentUsername in " + (System.currentTimeMillis() - start) + "ms");
+        List<Participation> participations = participationService.findWithLatestRatedResultByStudentUsername(principal.getName());
+        log.debug("          /courses/for-dashboard.findWithLatestRatedResultByStudentUsername in " + (System.currentTimeMillis() - start) + "ms");
 
         long exerciseCount = 0;
         for (Course course : courses) {
@@ -335,6 +334,7 @@ public class CourseResource {
         exercises = exercises.stream().filter(exercise -> exercise instanceof TextExercise || exercise instanceof ModelingExercise).collect(Collectors.toList());
 
         List<TutorParticipation> tutorParticipations = tutorParticipationService.findAllByCourseAndTutor(course, user);
+        StatsForCourseDTO stats = courseStatisticsService.getStatisticsForCourse(courseId);
 
         for (Exercise exercise : exercises) {
             TutorParticipation tutorParticipation = tutorParticipations.stream().filter(participation -> participation.getAssessedExercise().getId().equals(exercise.getId()))
@@ -345,18 +345,8 @@ public class CourseResource {
                         return emptyTutorParticipation;
                     });
 
-            long numberOfSubmissions = 0;
-            if (exercise instanceof TextExercise) {
-                numberOfSubmissions = textSubmissionService.countSubmissionsToAssessByExerciseId(exercise.getId());
-            }
-            else {
-                numberOfSubmissions += modelingSubmissionService.countSubmissionsToAssessByExerciseId(exercise.getId());
-            }
-
-            long numberOfAssessments = resultService.countNumberOfAssessmentsForExercise(exercise.getId());
-
-            exercise.setNumberOfParticipations((int) numberOfSubmissions);
-            exercise.setNumberOfAssessments((int) numberOfAssessments);
+            exercise.setNumberOfParticipations((int) stats.getNumberOfSubmissionsToAssess(exercise.getId()));
+            exercise.setNumberOfAssessments((int) stats.getNumberOfAssessments(exercise.getId()));
             exercise.setTutorParticipations(Collections.singleton(tutorParticipation));
         }
 
@@ -384,18 +374,14 @@ public class CourseResource {
             return forbidden();
         User user = userService.getUserWithGroupsAndAuthorities();
 
-        long numberOfSubmissions = textSubmissionService.countSubmissionsToAssessByCourseId(courseId);
-        numberOfSubmissions += modelingSubmissionService.countSubmissionsToAssessByCourseId(courseId);
-        data.set("numberOfSubmissions", objectMapper.valueToTree(numberOfSubmissions));
-
-        long numberOfAssessments = resultService.countNumberOfAssessments(courseId);
-        data.set("numberOfAssessments", objectMapper.valueToTree(numberOfAssessments));
+        StatsForCourseDTO stats = courseStatisticsService.getStatisticsForCourse(courseId);
+        data.set("numberOfSubmissions", objectMapper.valueToTree(stats.getTotalNumberOfSubmissionsToAssess()));
+        data.set("numberOfAssessments", objectMapper.valueToTree(stats.getTotalNumberOfAssessments()));
 
         long numberOfTutorAssessments = resultService.countNumberOfAssessmentsForTutor(courseId, user.getId());
         data.set("numberOfTutorAssessments", objectMapper.valueToTree(numberOfTutorAssessments));
 
-        long numberOfComplaints = complaintService.countComplaintsByCourseId(courseId);
-        data.set("numberOfComplaints", objectMapper.valueToTree(numberOfComplaints));
+        data.set("numberOfComplaints", objectMapper.valueToTree(stats.getTotalNumberOfComplaints()));
 
         long numberOfTutorComplaints = complaintRepository.countByResult_Participation_Exercise_Course_IdAndResult_Assessor_Id(courseId, user.getId());
         data.set("numberOfTutorComplaints", objectMapper.valueToTree(numberOfTutorComplaints));
@@ -457,21 +443,12 @@ public class CourseResource {
                 .collect(Collectors.toSet());
 
         course.setExercises(interestingExercises);
+        StatsForCourseDTO stats = courseStatisticsService.getStatisticsForCourse(courseId);
 
         for (Exercise exercise : interestingExercises) {
-            long numberOfParticipations = 0;
-            if (exercise instanceof TextExercise) {
-                numberOfParticipations = textSubmissionService.countSubmissionsToAssessByExerciseId(exercise.getId());
-            }
-            else {
-                numberOfParticipations += modelingSubmissionService.countSubmissionsToAssessByExerciseId(exercise.getId());
-            }
-
-            long numberOfAssessments = resultService.countNumberOfAssessmentsForExercise(exercise.getId());
-            long numberOfComplaints = complaintService.countComplaintsByExerciseId(exercise.getId());
-            exercise.setNumberOfParticipations((int) numberOfParticipations);
-            exercise.setNumberOfAssessments((int) numberOfAssessments);
-            exercise.setNumberOfComplaints((int) numberOfComplaints);
+            exercise.setNumberOfParticipations((int) stats.getNumberOfSubmissionsToAssess(exercise.getId()));
+            exercise.setNumberOfAssessments((int) stats.getNumberOfAssessments(exercise.getId()));
+            exercise.setNumberOfComplaints((int) stats.getNumberOfComplaints(exercise.getId()));
         }
         long end = System.currentTimeMillis();
         log.info("Finished /courses/" + courseId + "/with-exercises-and-relevant-participations call in " + (end - start) + "ms");
@@ -498,23 +475,17 @@ public class CourseResource {
         }
 
         StatsForInstructorDashboardDTO stats = new StatsForInstructorDashboardDTO();
-
-        long numberOfComplaints = complaintRepository.countByResult_Participation_Exercise_Course_Id(courseId);
-        long numberOfComplaintResponses = complaintResponseRepository.countByComplaint_Result_Participation_Exercise_Course_Id(courseId);
+        StatsForCourseDTO courseStats = courseStatisticsService.getStatisticsForCourse(courseId);
 
         stats.numberOfStudents = courseService.countNumberOfStudentsForCourse(course);
         stats.numberOfTutors = courseService.countNumberOfTutorsForCourse(course);
-        stats.numberOfComplaints = numberOfComplaints;
-        stats.numberOfOpenComplaints = numberOfComplaints - numberOfComplaintResponses;
-
-        long numberOfSubmissions = textSubmissionService.countSubmissionsToAssessByCourseId(courseId);
-        numberOfSubmissions += modelingSubmissionService.countSubmissionsToAssessByCourseId(courseId);
-
-        stats.numberOfSubmissions = numberOfSubmissions;
-        stats.numberOfAssessments = resultService.countNumberOfAssessments(courseId);
+        stats.numberOfComplaints = courseStats.getTotalNumberOfComplaints();
+        stats.numberOfOpenComplaints = courseStats.getTotalNumberOfComplaints() - courseStats.getTotalNumberOfComplaintResponses();
+        stats.numberOfSubmissions = courseStats.getTotalNumberOfSubmissionsToAssess();
+        stats.numberOfAssessments = courseStats.getTotalNumberOfAssessments();
 
         log.info("Finished simple stats in " + (System.currentTimeMillis() - start) + "ms");
-        stats.tutorLeaderboard = textAssessmentService.calculateTutorLeaderboardForCourse(courseId);
+        stats.tutorLeaderboard = tutorLeaderboardService.getTutorLeaderboardForCourse(courseId);
         log.info("Finished /courses/" + courseId + "/stats-for-instructor-dashboard call in " + (System.currentTimeMillis() - start) + "ms");
         return ResponseEntity.ok(stats);
     }
@@ -57,7 +57,7 @@ public class ExerciseResource {
 
     private final ObjectMapper objectMapper;
 
-    private final TextAssessmentService textAssessmentService;
+    private final TutorLeaderboardService tutorLeaderboardService;
 
     private final ComplaintRepository complaintRepository;
 
@@ -69,7 +69,7 @@ public class ExerciseResource {
 
     public ExerciseResource(ExerciseService exerciseService, ParticipationService participationService, UserService userService, CourseService courseService,
             AuthorizationCheckService authCheckService, TutorParticipationService tutorParticipationService, ExampleSubmissionRepository exampleSubmissionRepository,
-            ObjectMapper objectMapper, TextAssessmentService textAssessmentService, ComplaintRepository complaintRepository, TextSubmissionService textSubmissionService,
+            ObjectMapper objectMapper, TutorLeaderboardService tutorLeaderboardService, ComplaintRepository complaintRepository, TextSubmissionService textSubmissionService,
             ModelingSubmissionService modelingSubmissionService, ResultService resultService) {
         this.exerciseService = exerciseService;
         this.participationService = participationService;
@@ -79,7 +79,7 @@ public class ExerciseResource {
         this.tutorParticipationService = tutorParticipationService;
         this.exampleSubmissionRepository = exampleSubmissionRepository;
         this.objectMapper = objectMapper;
-        this.textAssessmentService = textAssessmentService;
+        this.tutorLeaderboardService = tutorLeaderboardService;
         this.complaintRepository = complaintRepository;
         this.textSubmissionService = textSubmissionService;
         this.modelingSubmissionService = modelingSubmissionService;
@@ -240,7 +240,7 @@ public class ExerciseResource {
         long numberOfOpenComplaints = complaintRepository.countByResult_Participation_Exercise_Id(id);
         data.set("numberOfOpenComplaints", objectMapper.valueToTree(numberOfOpenComplaints));
 
-        List<StatsTutorLeaderboardDTO> tutorLeaderboard = textAssessmentService.calculateTutorLeaderboardForExercise(id);
+        List<StatsTutorLeaderboardDTO> tutorLeaderboard = tutorLeaderboardService.getTutorLeaderboardForExercise(id);
         data.set("tutorLeaderboard", objectMapper.valueToTree(tutorLeaderboard));
 
         return ResponseEntity.ok(data);
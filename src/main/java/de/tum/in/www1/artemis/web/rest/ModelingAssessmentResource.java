@@ -253,7 +253,12 @@ public class ModelingAssessmentResource extends AssessmentResource {
             // you cannot cancel the assessment of other tutors
             return forbidden();
         }
+        boolean wasCompleted = modelingSubmission.getResult().getCompletionDate() != null;
         modelingAssessmentService.cancelAssessmentOfSubmission(modelingSubmission);
+        if (wasCompleted) {
+            // the Compass engine of the exercise contains the submitted assessment of the deleted result
+            compassService.removeCalculationEngine(modelingSubmission.getParticipation().getExercise().getId());
+        }
         return ResponseEntity.ok().build();
     }
 
@@ -4,20 +4,29 @@ import static de.tum.in.www1.artemis.web.rest.util.ResponseUtil.badRequest;
 import static de.tum.in.www1.artemis.web.rest.util.ResponseUtil.forbidden;
 import static java.time.ZonedDateTime.now;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.text.StringEscapeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -33,6 +42,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Sets;
 
 import de.tum.in.www1.artemis.domain.*;
@@ -42,6 +52,7 @@ import de.tum.in.www1.artemis.service.*;
 import de.tum.in.www1.artemis.service.UserService;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
 import de.tum.in.www1.artemis.service.connectors.VersionControlService;
+import de.tum.in.www1.artemis.web.rest.dto.ParticipationResultDTO;
 import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
@@ -80,9 +91,11 @@ public class ParticipationResource {
 
     private final UserService userService;
 
+    private final ObjectMapper objectMapper;
+
     public ParticipationResource(ParticipationService participationService, CourseService courseService, QuizExerciseService quizExerciseService, ExerciseService exerciseService,
             AuthorizationCheckService authCheckService, Optional<ContinuousIntegrationService> continuousIntegrationService, Optional<VersionControlService> versionControlService,
-            TextSubmissionService textSubmissionService, ResultService resultService, UserService userService) {
+            TextSubmissionService textSubmissionService, ResultService resultService, UserService userService, MappingJackson2HttpMessageConverter springMvcJacksonConverter) {
         this.participationService = participationService;
         this.quizExerciseService = quizExerciseService;
         this.exerciseService = exerciseService;
@@ -93,6 +106,7 @@ public class ParticipationResource {
         this.textSubmissionService = textSubmissionService;
         this.resultService = resultService;
         this.userService = userService;
+        this.objectMapper = springMvcJacksonConverter.getObjectMapper();
     }
 
     /**
@@ -312,26 +326,81 @@ public class ParticipationResource {
     }
 
     /**
-     * GET /courses/:courseId/participations : get all the participations for a course
+     * GET /courses/:courseId/participations : get all the participations of students in a course with their relevant result
      *
-     * @param courseId
-     * @return
+     * @param courseId the id of the course
+     * @return the participations with the values of their relevant result, which are null for participations without relevant result
      */
     @GetMapping(value = "/courses/{courseId}/participations")
     @PreAuthorize("hasAnyRole('TA', 'INSTRUCTOR', 'ADMIN')")
-    public ResponseEntity<List<Participation>> getAllParticipationsForCourse(@PathVariable Long courseId) {
+    public ResponseEntity<List<ParticipationResultDTO>> getAllParticipationsForCourse(@PathVariable Long courseId) {
         long start = System.currentTimeMillis();
         log.debug("REST request to get all Participations for Course {}", courseId);
         Course course = courseService.findOne(courseId);
         if (!courseService.userHasAtLeastTAPermissions(course)) {
             throw new AccessForbiddenException("You are not allowed to access this resource");
         }
-        List<Participation> participations = participationService.findByCourseIdWithRelevantResults(courseId, false, false);
+        List<ParticipationResultDTO> participations = participationService.findWithRelevantResultByCourseId(courseId);
         long end = System.currentTimeMillis();
         log.info("Found " + participations.size() + " particpations with results in " + (end - start) + " ms");
         return ResponseEntity.ok().body(participations);
     }
 
+    /**
+     * GET /courses/:courseId/participations/export : export the participations of students in a course with their relevant result, either as CSV with a header line or as
+     * newline delimited JSON with one participation per line. The participations are written while they are read from the database, so that the export of large courses does not
+     * need to keep them in memory.
+     *
+     * @param courseId the id of the course
+     * @param format   either "csv" or "ndjson"
+     * @param response the response to which the participations are written
+     * @throws IOException if the participations cannot be written to the response
+     */
+    @GetMapping(value = "/courses/{courseId}/participations/export")
+    @PreAuthorize("hasAnyRole('TA', 'INSTRUCTOR', 'ADMIN')")
+    public void exportAllParticipationsForCourse(@PathVariable Long courseId, @RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Participations for Course {} as {}", courseId, format);
+        Course course = courseService.findOne(courseId);
+        if (!courseService.userHasAtLeastTAPermissions(course)) {
+            throw new AccessForbiddenException("You are not allowed to access this resource");
+        }
+        boolean csv = "csv".equals(format);
+        if (!csv && !"ndjson".equals(format)) {
+            throw new BadRequestAlertException("The export format must be csv or ndjson", ENTITY_NAME, "invalidExportFormat");
+        }
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader("Content-Disposition", "attachment; filename=\"course-" + courseId + "-results." + format + "\"");
+
+        long start = System.currentTimeMillis();
+        Writer writer = response.getWriter();
+        if (csv) {
+            writer.write("participationId,exerciseId,studentId,login,firstName,lastName,email,resultId,score,completionDate,rated\n");
+        }
+        try {
+            participationService.forEachWithRelevantResultByCourseId(courseId, participation -> {
+                try {
+                    writer.write(csv ? toCsvLine(participation) : objectMapper.writeValueAsString(participation));
+                    writer.write("\n");
+                }
+                catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        }
+        catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        writer.flush();
+        log.info("Exported the participations of course " + courseId + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private String toCsvLine(ParticipationResultDTO participation) {
+        return Stream.of(participation.participationId, participation.exerciseId, participation.studentId, participation.studentLogin, participation.studentFirstName,
+                participation.studentLastName, participation.studentEmail, participation.resultId, participation.score, participation.completionDate, participation.rated)
+                .map(value -> value == null ? "" : StringEscapeUtils.escapeCsv(value.toString())).collect(Collectors.joining(","));
+    }
+
     /**
      * GET /participations/:id : get the "id" participation.
      *
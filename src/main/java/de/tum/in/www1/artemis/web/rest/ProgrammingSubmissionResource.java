@@ -13,6 +13,7 @@ import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.ExerciseService;
 import de.tum.in.www1.artemis.service.ProgrammingExerciseService;
 import de.tum.in.www1.artemis.service.ProgrammingSubmissionService;
+import de.tum.in.www1.artemis.service.dto.BitbucketPushNotificationDTO;
 
 /**
  * REST controller for managing ProgrammingSubmission.
@@ -46,7 +47,7 @@ public class ProgrammingSubmissionResource {
      * @return the ResponseEntity with status 200 (OK), or with status 400 (Bad Request) if the latest commit was already notified about
      */
     @PostMapping(value = Constants.PROGRAMMING_SUBMISSION_RESOURCE_PATH + "{participationId}")
-    public ResponseEntity<?> notifyPush(@PathVariable("participationId") Long participationId, @RequestBody Object requestBody) {
+    public ResponseEntity<?> notifyPush(@PathVariable("participationId") Long participationId, @RequestBody BitbucketPushNotificationDTO requestBody) {
 
         log.info("REST request to inform about new commit+push for participation: {}", participationId);
         programmingSubmissionService.notifyPush(participationId, requestBody);
@@ -61,7 +62,7 @@ public class ProgrammingSubmissionResource {
      * @return the ResponseEntity with status 200 (OK)
      */
     @PostMapping(Constants.TEST_CASE_CHANGED_PATH + "{exerciseId}")
-    public ResponseEntity<Void> testCaseChanged(@PathVariable Long exerciseId, @RequestBody Object requestBody) {
+    public ResponseEntity<Void> testCaseChanged(@PathVariable Long exerciseId, @RequestBody BitbucketPushNotificationDTO requestBody) {
         log.info("REST request to inform about changed test cases of ProgrammingExercise : {}", exerciseId);
         // This is needed as a request using a custom query is made using the ExerciseRepository, but the user is not authenticated
         // as the VCS-server performs the request
@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 import de.tum.in.www1.artemis.domain.Course;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.service.*;
+import de.tum.in.www1.artemis.service.dto.QuizStatisticRecalculationProgressDTO;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
 import de.tum.in.www1.artemis.web.rest.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
@@ -209,6 +210,26 @@ public class QuizExerciseResource {
         return ResponseUtil.wrapOrNotFound(Optional.ofNullable(quizExercise));
     }
 
+    /**
+     * GET /quiz-exercises/:quizExerciseId/recalculate-statistics/progress : get the progress of the currently running recalculation of the statistics
+     *
+     * @param quizExerciseId the id of the quizExercise whose statistics are recalculated
+     * @return the ResponseEntity with status 200 (OK) and with body the progress, or with status 404 (Not Found) if no recalculation is running
+     */
+    @GetMapping("/quiz-exercises/{quizExerciseId}/recalculate-statistics/progress")
+    @PreAuthorize("hasAnyRole('TA', 'INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<QuizStatisticRecalculationProgressDTO> getRecalculationProgress(@PathVariable Long quizExerciseId) {
+        log.debug("REST request to get the statistic recalculation progress of QuizExercise : {}", quizExerciseId);
+        Optional<QuizExercise> quizExercise = quizExerciseService.findById(quizExerciseId);
+        if (!quizExercise.isPresent()) {
+            return notFound();
+        }
+        if (!authCheckService.isAllowedToSeeExercise(quizExercise.get(), null)) {
+            return forbidden();
+        }
+        return ResponseUtil.wrapOrNotFound(Optional.ofNullable(quizStatisticService.getRecalculationProgress(quizExerciseId)));
+    }
+
     /**
      * GET /quiz-exercises/:id/for-student : get the "id" quizExercise. (information filtered for students)
      *
@@ -234,6 +255,29 @@ public class QuizExerciseResource {
         return ResponseEntity.ok(quizExercise);
     }
 
+    /**
+     * GET /quiz-exercises/:id/for-statistic : get the "id" quizExercise with its statistics, but without the solution (information filtered for the statistic websocket). The
+     * statistic changes sent on the websocket are applied to it by the statistic pages of students.
+     *
+     * @param id the id of the quizExercise to retrieve
+     * @return the ResponseEntity with status 200 (OK) and with body the quizExercise, or with status 404 (Not Found)
+     */
+    @GetMapping("/quiz-exercises/{id}/for-statistic")
+    @PreAuthorize("hasAnyRole('USER', 'TA', 'INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<QuizExercise> getQuizExerciseForStatistic(@PathVariable Long id) {
+        log.debug("REST request to get QuizExercise with statistics : {}", id);
+
+        QuizExercise quizExercise = quizExerciseService.findOneWithQuestionsAndStatistics(id);
+        if (quizExercise == null) {
+            return notFound();
+        }
+        if (!authCheckService.isAllowedToSeeExercise(quizExercise, null)) {
+            return forbidden();
+        }
+        quizExercise.filterForStatisticWebsocket();
+        return ResponseEntity.ok(quizExercise);
+    }
+
     /**
      * POST /quiz-exercises/:id/:action : perform the specified action for the quiz now
      *
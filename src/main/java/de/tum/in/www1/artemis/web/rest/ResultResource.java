@@ -23,10 +23,13 @@ import org.springframework.web.bind.annotation.*;
 import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.service.*;
+import de.tum.in.www1.artemis.service.compass.CompassService;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
+import de.tum.in.www1.artemis.service.dto.BambooBuildResultNotificationDTO;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 import de.tum.in.www1.artemis.web.rest.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
@@ -61,11 +64,13 @@ public class ResultResource {
 
     private final ContinuousIntegrationService continuousIntegrationService;
 
-    private final ProgrammingExerciseService programmingExerciseService;
+    private final BuildResultQueueService buildResultQueueService;
+
+    private final CompassService compassService;
 
     public ResultResource(UserService userService, ResultRepository resultRepository, ParticipationService participationService, ResultService resultService,
             AuthorizationCheckService authCheckService, FeedbackService feedbackService, ExerciseService exerciseService, ContinuousIntegrationService continuousIntegrationService,
-            ProgrammingExerciseService programmingExerciseService) {
+            BuildResultQueueService buildResultQueueService, CompassService compassService) {
 
         this.userService = userService;
         this.resultRepository = resultRepository;
@@ -75,7 +80,8 @@ public class ResultResource {
         this.exerciseService = exerciseService;
         this.authCheckService = authCheckService;
         this.continuousIntegrationService = continuousIntegrationService;
-        this.programmingExerciseService = programmingExerciseService;
+        this.buildResultQueueService = buildResultQueueService;
+        this.compassService = compassService;
     }
 
     /**
@@ -133,7 +139,7 @@ public class ResultResource {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
 
-        Optional<Participation> participation = getParticipation(planKey);
+        Optional<Participation> participation = participationService.findLatestByBuildPlanIdAndInitializationState(planKey, InitializationState.INITIALIZED);
         if (participation.isPresent()) {
             resultService.onResultNotifiedOld(participation.get());
             return ResponseEntity.ok().build();
@@ -143,9 +149,16 @@ public class ResultResource {
         }
     }
 
+    /**
+     * POST /programming-exercises/new-result : Notify the application about a new build result for a programming exercise. This API is invoked by the CI Server at the end of the build/test result.
+     * The build result is only queued here and processed asynchronously by the {@link BuildResultQueueService}.
+     *
+     * @param token       the authentication token of the CI server
+     * @param requestBody the build result sent by the CI server
+     * @return the ResponseEntity with status 200 (OK) if the build result has been queued, or with status 400 (Bad Request) if the request body cannot be parsed
+     */
     @PostMapping(value = Constants.NEW_RESULT_RESOURCE_PATH)
-    @Transactional
-    public ResponseEntity<?> notifyResultNew(@RequestHeader("Authorization") String token, @RequestBody Object requestBody) {
+    public ResponseEntity<?> notifyResultNew(@RequestHeader("Authorization") String token, @RequestBody BambooBuildResultNotificationDTO requestBody) {
         log.info("Received result notify (NEW)");
         if (token == null || !token.equals(CI_AUTHENTICATION_TOKEN)) {
             log.info("Cancelling request with invalid token {}", token);
@@ -155,25 +168,9 @@ public class ResultResource {
         try {
             String planKey = continuousIntegrationService.getPlanKey(requestBody);
             log.info("PlanKey for received notifyResultNew is {}", planKey);
-            Optional<Participation> optionalParticipation = getParticipation(planKey);
-            if (optionalParticipation.isPresent()) {
-                Participation participation = optionalParticipation.get();
-                if (planKey.toLowerCase().contains("-base")) { // TODO: transfer this into constants
-                    participation.setExercise(programmingExerciseService.getExerciseForTemplateParticipation(participation));
-                }
-                else if (planKey.toLowerCase().contains("-solution")) { // TODO: transfer this into constants
-                    participation.setExercise(programmingExerciseService.getExerciseForSolutionParticipation(participation));
-                }
-                resultService.onResultNotifiedNew(participation, requestBody);
-                log.info("ResultService succeeded for notifyResultNew (PlanKey: {}).", planKey);
-                return ResponseEntity.ok().build();
-            }
-            else {
-                log.info("Participation is missing for notifyResultNew (PlanKey: {}).", planKey);
-                // return ok so that Bamboo does not think it was an error
-                return ResponseEntity.ok().build();
-            }
-
+            // a missing participation is only detected when the build result is processed, ok is returned in this case as well so that Bamboo does not think it was an error
+            buildResultQueueService.addBuildResult(planKey, requestBody);
+            return ResponseEntity.ok().build();
         }
         catch (Exception e) {
             log.error("An exception occurred during handling of notifyResultNew", e);
@@ -182,24 +179,6 @@ public class ResultResource {
 
     }
 
-    private Optional<Participation> getParticipation(String planKey) {
-        List<Participation> participations = participationService.findByBuildPlanIdAndInitializationState(planKey, InitializationState.INITIALIZED);
-        Optional<Participation> participation = Optional.empty();
-        if (participations.size() > 0) {
-            participation = Optional.of(participations.get(0));
-            if (participations.size() > 1) {
-                // in the rare case of multiple participations, take the latest one.
-                for (Participation otherParticipation : participations) {
-                    if (otherParticipation.getInitializationDate().isAfter(participation.get().getInitializationDate())) {
-                        participation = Optional.of(otherParticipation);
-                    }
-                }
-            }
-        }
-
-        return participation;
-    }
-
     /**
      * PUT /results : Updates an existing result.
      *
@@ -449,6 +428,10 @@ public class ResultResource {
             if (!userHasPermissions(course))
                 return forbidden();
             resultRepository.deleteById(resultId);
+            if (participation.getExercise() instanceof ModelingExercise) {
+                // the Compass engine of the exercise might contain the assessment of the deleted result
+                compassService.removeCalculationEngine(participation.getExercise().getId());
+            }
             return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, resultId.toString())).build();
         }
         return ResponseEntity.notFound().build();
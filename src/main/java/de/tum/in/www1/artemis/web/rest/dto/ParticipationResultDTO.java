@@ -0,0 +1,52 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A participation of a student with its relevant result (the latest rated result before the due date), as used for the scores of a course. All result values are null if the
+ * participation has no relevant result.
+ */
+public class ParticipationResultDTO {
+
+    public long participationId;
+
+    public long exerciseId;
+
+    public long studentId;
+
+    public String studentLogin;
+
+    public String studentFirstName;
+
+    public String studentLastName;
+
+    public String studentEmail;
+
+    public Long resultId;
+
+    public Long score;
+
+    public ZonedDateTime completionDate;
+
+    public Boolean rated;
+
+    public ParticipationResultDTO(Long participationId, Long exerciseId, Long studentId, String studentLogin, String studentFirstName, String studentLastName,
+            String studentEmail) {
+        this.participationId = participationId;
+        this.exerciseId = exerciseId;
+        this.studentId = studentId;
+        this.studentLogin = studentLogin;
+        this.studentFirstName = studentFirstName;
+        this.studentLastName = studentLastName;
+        this.studentEmail = studentEmail;
+    }
+
+    public ParticipationResultDTO(Long participationId, Long exerciseId, Long studentId, String studentLogin, String studentFirstName, String studentLastName,
+            String studentEmail, Long resultId, Long score, ZonedDateTime completionDate, Boolean rated) {
+        this(participationId, exerciseId, studentId, studentLogin, studentFirstName, studentLastName, studentEmail);
+        this.resultId = resultId;
+        this.score = score;
+        this.completionDate = completionDate;
+        this.rated = rated;
+    }
+}
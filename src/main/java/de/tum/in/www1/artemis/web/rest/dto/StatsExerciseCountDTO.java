@@ -0,0 +1,16 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+/**
+ * A counter of one exercise, e.g. the number of assessments, as returned by the grouped count queries of the repositories
+ */
+public class StatsExerciseCountDTO {
+
+    public long exerciseId;
+
+    public long count;
+
+    public StatsExerciseCountDTO(Long exerciseId, Long count) {
+        this.exerciseId = exerciseId;
+        this.count = count;
+    }
+}
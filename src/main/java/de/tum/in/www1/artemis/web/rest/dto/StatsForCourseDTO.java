@@ -0,0 +1,67 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The counters of all exercises of a course that are shown in the tutor and instructor dashboards
+ */
+public class StatsForCourseDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public final Map<Long, Long> numberOfSubmissionsToAssess;
+
+    public final Map<Long, Long> numberOfAssessments;
+
+    public final Map<Long, Long> numberOfComplaints;
+
+    public final Map<Long, Long> numberOfComplaintResponses;
+
+    public StatsForCourseDTO(List<StatsExerciseCountDTO> submissionsToAssess, List<StatsExerciseCountDTO> assessments, List<StatsExerciseCountDTO> complaints,
+            List<StatsExerciseCountDTO> complaintResponses) {
+        this.numberOfSubmissionsToAssess = toMap(submissionsToAssess);
+        this.numberOfAssessments = toMap(assessments);
+        this.numberOfComplaints = toMap(complaints);
+        this.numberOfComplaintResponses = toMap(complaintResponses);
+    }
+
+    public long getNumberOfSubmissionsToAssess(Long exerciseId) {
+        return numberOfSubmissionsToAssess.getOrDefault(exerciseId, 0L);
+    }
+
+    public long getNumberOfAssessments(Long exerciseId) {
+        return numberOfAssessments.getOrDefault(exerciseId, 0L);
+    }
+
+    public long getNumberOfComplaints(Long exerciseId) {
+        return numberOfComplaints.getOrDefault(exerciseId, 0L);
+    }
+
+    public long getTotalNumberOfSubmissionsToAssess() {
+        return sum(numberOfSubmissionsToAssess);
+    }
+
+    public long getTotalNumberOfAssessments() {
+        return sum(numberOfAssessments);
+    }
+
+    public long getTotalNumberOfComplaints() {
+        return sum(numberOfComplaints);
+    }
+
+    public long getTotalNumberOfComplaintResponses() {
+        return sum(numberOfComplaintResponses);
+    }
+
+    private static Map<Long, Long> toMap(List<StatsExerciseCountDTO> counts) {
+        return Collections.unmodifiableMap(counts.stream().collect(Collectors.toMap(count -> count.exerciseId, count -> count.count)));
+    }
+
+    private static long sum(Map<Long, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
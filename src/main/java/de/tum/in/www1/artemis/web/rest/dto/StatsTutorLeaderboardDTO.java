@@ -19,4 +19,11 @@ public class StatsTutorLeaderboardDTO {
         this.numberOfComplaints = numberOfComplaints;
         this.tutorId = tutorId;
     }
+
+    /**
+     * Used by the aggregate queries of the ResultRepository, which count the assessments and complaints of every tutor
+     */
+    public StatsTutorLeaderboardDTO(String firstName, String lastName, String login, Long numberOfAssessments, Long numberOfComplaints, Long tutorId) {
+        this(firstName + " " + lastName, login, numberOfAssessments.intValue(), numberOfComplaints.intValue(), tutorId);
+    }
 }
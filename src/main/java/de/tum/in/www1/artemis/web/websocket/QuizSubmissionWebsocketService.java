@@ -2,7 +2,6 @@ package de.tum.in.www1.artemis.web.websocket;
 
 import java.security.Principal;
 import java.time.ZonedDateTime;
-import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,13 +11,14 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Controller;
 
-import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
-import de.tum.in.www1.artemis.service.ParticipationService;
-import de.tum.in.www1.artemis.service.QuizExerciseService;
+import de.tum.in.www1.artemis.service.CourseDashboardCacheService;
+import de.tum.in.www1.artemis.service.scheduled.ActiveQuizRegistry;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
+import de.tum.in.www1.artemis.web.websocket.dto.QuizSubmissionErrorDTO;
 
 @SuppressWarnings("unused")
 @Controller
@@ -26,48 +26,43 @@ public class QuizSubmissionWebsocketService {
 
     private static final Logger log = LoggerFactory.getLogger(QuizSubmissionWebsocketService.class);
 
-    private final QuizExerciseService quizExerciseService;
-
-    private final ParticipationService participationService;
+    private final ActiveQuizRegistry activeQuizRegistry;
 
     private final SimpMessageSendingOperations messagingTemplate;
 
     private final AuthorizationCheckService authCheckService;
 
-    public QuizSubmissionWebsocketService(QuizExerciseService quizExerciseService, ParticipationService participationService, SimpMessageSendingOperations messagingTemplate,
-            AuthorizationCheckService authCheckService) {
-        this.quizExerciseService = quizExerciseService;
-        this.participationService = participationService;
+    private final QuizScheduleService quizScheduleService;
+
+    private final CourseDashboardCacheService courseDashboardCacheService;
+
+    public QuizSubmissionWebsocketService(ActiveQuizRegistry activeQuizRegistry, SimpMessageSendingOperations messagingTemplate, AuthorizationCheckService authCheckService,
+            QuizScheduleService quizScheduleService, CourseDashboardCacheService courseDashboardCacheService) {
+        this.activeQuizRegistry = activeQuizRegistry;
         this.messagingTemplate = messagingTemplate;
         this.authCheckService = authCheckService;
+        this.quizScheduleService = quizScheduleService;
+        this.courseDashboardCacheService = courseDashboardCacheService;
     }
 
     @MessageMapping("/topic/quizExercise/{exerciseId}/submission")
     public void saveSubmission(@DestinationVariable Long exerciseId, @Payload QuizSubmission quizSubmission, Principal principal) {
         String username = principal.getName();
 
-        // check if submission is still allowed
-        Optional<QuizExercise> quizExercise = quizExerciseService.findById(exerciseId);
-        if (!quizExercise.isPresent()) {
+        // check if submission is still allowed (the timing state is cached, so that no database access is necessary)
+        QuizExercise quizExercise = activeQuizRegistry.getQuizTiming(exerciseId);
+        if (quizExercise == null) {
             return;
         }
-        if (!quizExercise.get().isSubmissionAllowed()) {
-            // TODO: notify user that submission was not saved because quiz is not active over payload and handle this case in the client
-            messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", null);
+        if (!quizExercise.isSubmissionAllowed()) {
+            sendError(username, exerciseId, QuizSubmissionErrorDTO.QUIZ_NOT_ACTIVE);
             return;
         }
 
         // check if user already submitted for this quiz
-        Participation participation = participationService.participationForQuizWithResult(quizExercise.get(), username);
-        if (!participation.getResults().isEmpty()) {
-            // NOTE: At this point, there can only be one Result because we already checked
-            // if the quiz is active, so there is no way the student could have already practiced
-            Result result = (Result) participation.getResults().toArray()[0];
-            if (result.getSubmission().isSubmitted()) {
-                // TODO: notify user that submission was not saved because they already submitted over payload and handle this case in the client
-                messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", null);
-                return;
-            }
+        if (activeQuizRegistry.hasSubmitted(exerciseId, username)) {
+            sendError(username, exerciseId, QuizSubmissionErrorDTO.ALREADY_SUBMITTED);
+            return;
         }
 
         // recreate pointers back to submission in each submitted answer
@@ -78,10 +73,27 @@ public class QuizSubmissionWebsocketService {
         // set submission date
         quizSubmission.setSubmissionDate(ZonedDateTime.now());
 
-        // save submission to HashMap
-        QuizScheduleService.updateSubmission(exerciseId, username, quizSubmission);
+        // save submission to the quiz submission store
+        if (!QuizScheduleService.updateSubmission(exerciseId, username, quizSubmission)) {
+            // the submission store is full, the client keeps the answers and sends them again with the next change
+            sendError(username, exerciseId, QuizSubmissionErrorDTO.SERVER_OVERLOADED);
+            return;
+        }
+        if (quizSubmission.isSubmitted()) {
+            activeQuizRegistry.setSubmitted(exerciseId, username);
+        }
+        quizScheduleService.submissionSaved(quizExercise, quizSubmission);
+        // the submission is only stored in memory until the quiz ends, so the cached dashboard of the user is not invalidated by the database
+        courseDashboardCacheService.invalidateUser(username);
 
         // send updated submission over websocket
         messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", quizSubmission);
     }
+
+    /**
+     * Notify the user that the submission was not saved, the client shows the message of the given error
+     */
+    private void sendError(String username, Long exerciseId, String error) {
+        messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", new QuizSubmissionErrorDTO(error));
+    }
 }
@@ -0,0 +1,171 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO containing the new values of all quiz statistics and statistic counters of a quiz that changed since the last broadcast. Clients apply these values to the quiz they
+ * loaded before, so the quiz itself does not have to be sent again.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuizStatisticChangesDTO {
+
+    private Long quizId;
+
+    private List<StatisticValues> statistics = new ArrayList<>();
+
+    private List<CounterValues> counters = new ArrayList<>();
+
+    public QuizStatisticChangesDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public QuizStatisticChangesDTO(Long quizId) {
+        this.quizId = quizId;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(Long quizId) {
+        this.quizId = quizId;
+    }
+
+    public List<StatisticValues> getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(List<StatisticValues> statistics) {
+        this.statistics = statistics;
+    }
+
+    public List<CounterValues> getCounters() {
+        return counters;
+    }
+
+    public void setCounters(List<CounterValues> counters) {
+        this.counters = counters;
+    }
+
+    public boolean isEmpty() {
+        return statistics.isEmpty() && counters.isEmpty();
+    }
+
+    /**
+     * The new values of a QuizPointStatistic (without correct counters) or a QuizQuestionStatistic
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class StatisticValues {
+
+        private Long id;
+
+        private Integer participantsRated;
+
+        private Integer participantsUnrated;
+
+        private Integer ratedCorrectCounter;
+
+        private Integer unRatedCorrectCounter;
+
+        public StatisticValues() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public StatisticValues(Long id, Integer participantsRated, Integer participantsUnrated, Integer ratedCorrectCounter, Integer unRatedCorrectCounter) {
+            this.id = id;
+            this.participantsRated = participantsRated;
+            this.participantsUnrated = participantsUnrated;
+            this.ratedCorrectCounter = ratedCorrectCounter;
+            this.unRatedCorrectCounter = unRatedCorrectCounter;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Integer getParticipantsRated() {
+            return participantsRated;
+        }
+
+        public void setParticipantsRated(Integer participantsRated) {
+            this.participantsRated = participantsRated;
+        }
+
+        public Integer getParticipantsUnrated() {
+            return participantsUnrated;
+        }
+
+        public void setParticipantsUnrated(Integer participantsUnrated) {
+            this.participantsUnrated = participantsUnrated;
+        }
+
+        public Integer getRatedCorrectCounter() {
+            return ratedCorrectCounter;
+        }
+
+        public void setRatedCorrectCounter(Integer ratedCorrectCounter) {
+            this.ratedCorrectCounter = ratedCorrectCounter;
+        }
+
+        public Integer getUnRatedCorrectCounter() {
+            return unRatedCorrectCounter;
+        }
+
+        public void setUnRatedCorrectCounter(Integer unRatedCorrectCounter) {
+            this.unRatedCorrectCounter = unRatedCorrectCounter;
+        }
+    }
+
+    /**
+     * The new values of a QuizStatisticCounter (PointCounter, AnswerCounter, DropLocationCounter or ShortAnswerSpotCounter)
+     */
+    public static class CounterValues {
+
+        private Long id;
+
+        private int ratedCounter;
+
+        private int unRatedCounter;
+
+        public CounterValues() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public CounterValues(Long id, int ratedCounter, int unRatedCounter) {
+            this.id = id;
+            this.ratedCounter = ratedCounter;
+            this.unRatedCounter = unRatedCounter;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public int getRatedCounter() {
+            return ratedCounter;
+        }
+
+        public void setRatedCounter(int ratedCounter) {
+            this.ratedCounter = ratedCounter;
+        }
+
+        public int getUnRatedCounter() {
+            return unRatedCounter;
+        }
+
+        public void setUnRatedCounter(int unRatedCounter) {
+            this.unRatedCounter = unRatedCounter;
+        }
+    }
+}
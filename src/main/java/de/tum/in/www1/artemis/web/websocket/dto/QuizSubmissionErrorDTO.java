@@ -0,0 +1,23 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+/**
+ * DTO that is sent to a student instead of the saved quiz submission when the submission could not be saved. The error is the key of the message that the client shows.
+ */
+public class QuizSubmissionErrorDTO {
+
+    public static final String QUIZ_NOT_ACTIVE = "quizNotActive";
+
+    public static final String ALREADY_SUBMITTED = "alreadySubmitted";
+
+    public static final String SERVER_OVERLOADED = "serverOverloaded";
+
+    private final String error;
+
+    public QuizSubmissionErrorDTO(String error) {
+        this.error = error;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -2,6 +2,31 @@ import { Injectable } from '@angular/core';
 import { Router } from '@angular/router';
 import { QuizExercise, QuizExerciseService } from '../../entities/quiz-exercise';
 import { QuizQuestion, QuizQuestionType } from '../../entities/quiz-question';
+import { QuizStatistic } from '../../entities/quiz-statistic';
+import { QuizQuestionStatistic } from '../../entities/quiz-question-statistic';
+import { QuizStatisticCounter } from '../../entities/quiz-statistic-counter';
+import { MultipleChoiceQuestionStatistic } from '../../entities/multiple-choice-question-statistic';
+import { DragAndDropQuestionStatistic } from '../../entities/drag-and-drop-question-statistic';
+import { ShortAnswerQuestionStatistic } from '../../entities/short-answer-question-statistic';
+
+/**
+ * the new values of all statistics and counters of a quiz that changed since the last websocket message
+ */
+export interface QuizStatisticChanges {
+    quizId: number;
+    statistics: {
+        id: number;
+        participantsRated: number;
+        participantsUnrated: number;
+        ratedCorrectCounter?: number;
+        unRatedCorrectCounter?: number;
+    }[];
+    counters: {
+        id: number;
+        ratedCounter: number;
+        unRatedCounter: number;
+    }[];
+}
 
 @Injectable({ providedIn: 'root' })
 export class QuizStatisticUtil {
@@ -62,4 +87,52 @@ export class QuizStatisticUtil {
             }
         }
     }
+
+    /**
+     * apply the changed statistic values received via websocket to the statistics of the given quizExercise
+     *
+     * @param quizExercise: the quizExercise with all statistics
+     * @param changes: the new values of all statistics and counters that changed
+     */
+    applyStatisticChanges(quizExercise: QuizExercise, changes: QuizStatisticChanges) {
+        const statistics = new Map<number, QuizStatistic>();
+        const counters = new Map<number, QuizStatisticCounter>();
+        const addCounters = (statisticCounters: QuizStatisticCounter[]) => {
+            (statisticCounters || []).forEach(counter => counters.set(counter.id, counter));
+        };
+        if (quizExercise.quizPointStatistic) {
+            statistics.set(quizExercise.quizPointStatistic.id, quizExercise.quizPointStatistic);
+            addCounters(quizExercise.quizPointStatistic.pointCounters);
+        }
+        (quizExercise.quizQuestions || []).forEach(question => {
+            const questionStatistic = question.quizQuestionStatistic;
+            if (!questionStatistic) {
+                return;
+            }
+            statistics.set(questionStatistic.id, questionStatistic);
+            addCounters((questionStatistic as MultipleChoiceQuestionStatistic).answerCounters);
+            addCounters((questionStatistic as DragAndDropQuestionStatistic).dropLocationCounters);
+            addCounters((questionStatistic as ShortAnswerQuestionStatistic).shortAnswerSpotCounters);
+        });
+
+        (changes.statistics || []).forEach(statisticChange => {
+            const statistic = statistics.get(statisticChange.id);
+            if (!statistic) {
+                return;
+            }
+            statistic.participantsRated = statisticChange.participantsRated;
+            statistic.participantsUnrated = statisticChange.participantsUnrated;
+            if (statisticChange.ratedCorrectCounter !== undefined) {
+                (statistic as QuizQuestionStatistic).ratedCorrectCounter = statisticChange.ratedCorrectCounter;
+                (statistic as QuizQuestionStatistic).unRatedCorrectCounter = statisticChange.unRatedCorrectCounter;
+            }
+        });
+        (changes.counters || []).forEach(counterChange => {
+            const counter = counters.get(counterChange.id);
+            if (counter) {
+                counter.ratedCounter = counterChange.ratedCounter;
+                counter.unRatedCounter = counterChange.unRatedCounter;
+            }
+        });
+    }
 }
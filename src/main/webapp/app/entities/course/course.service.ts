@@ -10,6 +10,7 @@ import { Course, StatsForInstructorDashboard, StatsForTutorDashboard } from './c
 import { ProgrammingExercise } from '../programming-exercise/programming-exercise.model';
 import { ModelingExercise } from '../modeling-exercise/modeling-exercise.model';
 import { Participation } from '../participation/participation.model';
+import { Result } from '../result/result.model';
 import { TextExercise } from '../text-exercise/text-exercise.model';
 import { FileUploadExercise } from '../file-upload-exercise/file-upload-exercise.model';
 import { Exercise } from '../exercise/exercise.model';
@@ -19,6 +20,20 @@ import { NotificationService } from 'app/entities/notification';
 import { LectureService } from 'app/entities/lecture/lecture.service';
 
 export type EntityResponseType = HttpResponse<Course>;
+
+interface ParticipationResultDTO {
+    participationId: number;
+    exerciseId: number;
+    studentId: number;
+    studentLogin: string;
+    studentFirstName: string;
+    studentLastName: string;
+    studentEmail: string;
+    resultId?: number;
+    score?: number;
+    completionDate?: string;
+    rated?: boolean;
+}
 export type EntityArrayResponseType = HttpResponse<Course[]>;
 
 @Injectable({ providedIn: 'root' })
@@ -71,7 +86,36 @@ export class CourseService {
     }
 
     findAllParticipationsWithResults(courseId: number): Observable<Participation[]> {
-        return this.http.get<Participation[]>(`${this.resourceUrl}/${courseId}/participations`);
+        return this.http
+            .get<ParticipationResultDTO[]>(`${this.resourceUrl}/${courseId}/participations`)
+            .pipe(map((participationResults: ParticipationResultDTO[]) => participationResults.map(this.convertParticipationResultFromServer)));
+    }
+
+    /**
+     * The server only sends the values that are needed for the scores of a course, these are converted into a participation with the student, the exercise id and the
+     * relevant result (if there is one)
+     */
+    private convertParticipationResultFromServer(participationResult: ParticipationResultDTO): Participation {
+        const participation = new Participation();
+        participation.id = participationResult.participationId;
+        participation.student = new User(
+            participationResult.studentId,
+            participationResult.studentLogin,
+            participationResult.studentFirstName,
+            participationResult.studentLastName,
+            participationResult.studentEmail,
+        );
+        participation.exercise = { id: participationResult.exerciseId } as Exercise;
+        participation.results = [];
+        if (participationResult.resultId != null) {
+            const result = new Result();
+            result.id = participationResult.resultId;
+            result.score = participationResult.score;
+            result.rated = participationResult.rated;
+            result.completionDate = participationResult.completionDate != null ? moment(participationResult.completionDate) : null;
+            participation.results.push(result);
+        }
+        return participation;
     }
 
     findAllResultsOfCourseForExerciseAndCurrentUser(courseId: number): Observable<Course> {
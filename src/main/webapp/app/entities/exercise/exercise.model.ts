@@ -32,6 +32,7 @@ export const enum ParticipationStatus {
     MODELING_EXERCISE = 'modeling-exercise',
     TEXT_EXERCISE = 'text-exercise',
     UNINITIALIZED = 'uninitialized',
+    SETTING_UP = 'setting-up',
     INITIALIZED = 'initialized',
     INACTIVE = 'inactive',
 }
@@ -1,4 +1,5 @@
 import { SimpleChanges } from '@angular/core';
+import { InitializationState, Participation } from './participation.model';
 
 export const hasParticipationChanged = (changes: SimpleChanges) => {
     return (
@@ -7,3 +8,16 @@ export const hasParticipationChanged = (changes: SimpleChanges) => {
         (!changes.participation.previousValue || changes.participation.previousValue.id !== changes.participation.currentValue.id)
     );
 };
+
+/**
+ * The server is still copying or configuring the repository or the build plan of a participation in one of these states
+ */
+export const isParticipationSettingUp = (participation: Participation) => {
+    return [
+        InitializationState.UNINITIALIZED,
+        InitializationState.REPO_COPIED,
+        InitializationState.REPO_CONFIGURED,
+        InitializationState.BUILD_PLAN_COPIED,
+        InitializationState.BUILD_PLAN_CONFIGURED,
+    ].includes(participation.initializationState);
+};
@@ -9,6 +9,7 @@ export const enum InitializationState {
     UNINITIALIZED = 'UNINITIALIZED',
     REPO_COPIED = 'REPO_COPIED',
     REPO_CONFIGURED = 'REPO_CONFIGURED',
+    INACTIVE = 'INACTIVE',
     BUILD_PLAN_COPIED = 'BUILD_PLAN_COPIED',
     BUILD_PLAN_CONFIGURED = 'BUILD_PLAN_CONFIGURED',
     INITIALIZED = 'INITIALIZED',
@@ -68,6 +68,12 @@ export class QuizExerciseService {
             .map((res: EntityResponseType) => this.exerciseService.convertDateFromServer(res));
     }
 
+    findForStatistic(id: number): Observable<EntityResponseType> {
+        return this.http
+            .get<QuizExercise>(`${this.resourceUrl}/${id}/for-statistic`, { observe: 'response' })
+            .map((res: EntityResponseType) => this.exerciseService.convertDateFromServer(res));
+    }
+
     start(id: number): Observable<HttpResponse<string>> {
         return this.http.post<HttpResponse<string>>(`${this.resourceUrl}/${id}/start-now`, { observe: 'response' });
     }
@@ -2,7 +2,7 @@ import { Component, HostBinding, Input, OnInit, OnDestroy } from '@angular/core'
 import { Exercise, ExerciseCategory, ExerciseService, ExerciseType, ParticipationStatus, getIcon, getIconTooltip } from 'app/entities/exercise';
 import { JhiAlertService } from 'ng-jhipster';
 import { QuizExercise } from 'app/entities/quiz-exercise';
-import { InitializationState, Participation, ParticipationService, ParticipationWebsocketService } from 'app/entities/participation';
+import { InitializationState, isParticipationSettingUp, Participation, ParticipationService, ParticipationWebsocketService } from 'app/entities/participation';
 import * as moment from 'moment';
 import { Subscription } from 'rxjs/Subscription';
 
@@ -62,7 +62,7 @@ export class CourseExerciseRowComponent implements OnInit, OnDestroy {
                               return el.id === changedParticipation.id ? changedParticipation : el;
                           })
                         : [changedParticipation];
-                this.participationStatus(this.exercise);
+                this.exercise.participationStatus = this.participationStatus(this.exercise);
             }
         });
         this.exercise.participationStatus = this.participationStatus(this.exercise);
@@ -146,6 +146,8 @@ export class CourseExerciseRowComponent implements OnInit, OnDestroy {
             return ParticipationStatus.UNINITIALIZED;
         } else if (exercise.participations[0].initializationState === InitializationState.INITIALIZED) {
             return ParticipationStatus.INITIALIZED;
+        } else if (isParticipationSettingUp(exercise.participations[0])) {
+            return ParticipationStatus.SETTING_UP;
         }
         return ParticipationStatus.INACTIVE;
     }
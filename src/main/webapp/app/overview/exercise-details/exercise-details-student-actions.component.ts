@@ -1,7 +1,7 @@
 import { Component, HostBinding, Input, OnInit } from '@angular/core';
 import { Exercise, ExerciseType, ParticipationStatus } from 'app/entities/exercise';
 import { QuizExercise } from 'app/entities/quiz-exercise';
-import { InitializationState, Participation } from 'app/entities/participation';
+import { InitializationState, isParticipationSettingUp, Participation } from 'app/entities/participation';
 import * as moment from 'moment';
 import { CourseExerciseService } from 'app/entities/course';
 import { Router } from '@angular/router';
@@ -34,6 +34,7 @@ export class ExerciseDetailsStudentActionsComponent implements OnInit {
     readonly MODELING_EXERCISE = ParticipationStatus.MODELING_EXERCISE;
     readonly TEXT_EXERCISE = ParticipationStatus.TEXT_EXERCISE;
     readonly UNINITIALIZED = ParticipationStatus.UNINITIALIZED;
+    readonly SETTING_UP = ParticipationStatus.SETTING_UP;
     readonly INITIALIZED = ParticipationStatus.INITIALIZED;
     readonly INACTIVE = ParticipationStatus.INACTIVE;
 
@@ -102,6 +103,8 @@ export class ExerciseDetailsStudentActionsComponent implements OnInit {
             return ParticipationStatus.UNINITIALIZED;
         } else if (this.exercise.participations[0].initializationState === InitializationState.INITIALIZED) {
             return ParticipationStatus.INITIALIZED;
+        } else if (isParticipationSettingUp(this.exercise.participations[0])) {
+            return ParticipationStatus.SETTING_UP;
         }
         return ParticipationStatus.INACTIVE;
     }
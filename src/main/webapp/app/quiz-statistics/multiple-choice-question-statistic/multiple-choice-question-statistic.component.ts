@@ -3,7 +3,7 @@ import { QuizExercise, QuizExerciseService } from '../../entities/quiz-exercise'
 import { ActivatedRoute, Router } from '@angular/router';
 import { AccountService, JhiWebsocketService } from '../../core';
 import { TranslateService } from '@ngx-translate/core';
-import { QuizStatisticUtil } from '../../components/util/quiz-statistic-util.service';
+import { QuizStatisticChanges, QuizStatisticUtil } from '../../components/util/quiz-statistic-util.service';
 import { ArtemisMarkdown } from '../../components/util/markdown.service';
 import { MultipleChoiceQuestion } from '../../entities/multiple-choice-question';
 import { MultipleChoiceQuestionStatistic } from '../../entities/multiple-choice-question-statistic';
@@ -77,6 +77,11 @@ export class MultipleChoiceQuestionStatisticComponent implements OnInit, OnDestr
                 this.quizExerciseService.find(params['quizId']).subscribe(res => {
                     this.loadQuiz(res.body, false);
                 });
+            } else {
+                // students cannot load the quiz with the solution, the statistic changes of the websocket are applied to the quiz filtered for the statistic
+                this.quizExerciseService.findForStatistic(params['quizId']).subscribe(res => {
+                    this.loadQuiz(res.body, false);
+                });
             }
 
             // subscribe websocket for new statistical data
@@ -84,8 +89,11 @@ export class MultipleChoiceQuestionStatisticComponent implements OnInit, OnDestr
             this.jhiWebsocketService.subscribe(this.websocketChannelForData);
 
             // ask for new Data if the websocket for new statistical data was notified
-            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe(quiz => {
-                this.loadQuiz(quiz, true);
+            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe((changes: QuizStatisticChanges) => {
+                if (this.quizExercise) {
+                    this.quizStatisticUtil.applyStatisticChanges(this.quizExercise, changes);
+                    this.loadQuiz(this.quizExercise, true);
+                }
             });
 
             // add Axes-labels based on selected language
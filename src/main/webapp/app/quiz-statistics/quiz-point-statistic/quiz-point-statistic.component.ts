@@ -10,6 +10,7 @@ import { createOptions, DataSet, DataSetProvider } from '../quiz-statistic/quiz-
 import { Subscription } from 'rxjs/Subscription';
 import { PointCounter } from 'app/entities/point-counter';
 import * as moment from 'moment';
+import { QuizStatisticChanges, QuizStatisticUtil } from '../../components/util/quiz-statistic-util.service';
 
 @Component({
     selector: 'jhi-quiz-point-statistic',
@@ -61,6 +62,7 @@ export class QuizPointStatisticComponent implements OnInit, OnDestroy, DataSetPr
         private translateService: TranslateService,
         private quizExerciseService: QuizExerciseService,
         private jhiWebsocketService: JhiWebsocketService,
+        private quizStatisticUtil: QuizStatisticUtil,
     ) {
         this.options = createOptions(this);
     }
@@ -72,6 +74,11 @@ export class QuizPointStatisticComponent implements OnInit, OnDestroy, DataSetPr
                 this.quizExerciseService.find(params['quizId']).subscribe(res => {
                     this.loadQuizSuccess(res.body);
                 });
+            } else {
+                // students cannot load the quiz with the solution, the statistic changes of the websocket are applied to the quiz filtered for the statistic
+                this.quizExerciseService.findForStatistic(params['quizId']).subscribe(res => {
+                    this.loadQuizSuccess(res.body);
+                });
             }
 
             // subscribe websocket for new statistical data
@@ -94,8 +101,11 @@ export class QuizPointStatisticComponent implements OnInit, OnDestroy, DataSetPr
             }
 
             // ask for new Data if the websocket for new statistical data was notified
-            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe(quiz => {
-                this.loadNewData(quiz.quizPointStatistic);
+            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe((changes: QuizStatisticChanges) => {
+                if (this.quizExercise) {
+                    this.quizStatisticUtil.applyStatisticChanges(this.quizExercise, changes);
+                    this.loadNewData(this.quizExercise.quizPointStatistic);
+                }
             });
 
             // listen to connect / disconnect events
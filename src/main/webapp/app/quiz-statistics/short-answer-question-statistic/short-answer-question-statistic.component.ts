@@ -3,7 +3,7 @@ import { QuizExercise, QuizExerciseService } from '../../entities/quiz-exercise'
 import { ActivatedRoute, Router } from '@angular/router';
 import { AccountService, JhiWebsocketService } from '../../core';
 import { TranslateService } from '@ngx-translate/core';
-import { QuizStatisticUtil } from '../../components/util/quiz-statistic-util.service';
+import { QuizStatisticChanges, QuizStatisticUtil } from '../../components/util/quiz-statistic-util.service';
 import { ShortAnswerQuestionUtil } from '../../components/util/short-answer-question-util.service';
 import { ArtemisMarkdown } from '../../components/util/markdown.service';
 import { ShortAnswerQuestion } from '../../entities/short-answer-question';
@@ -91,6 +91,11 @@ export class ShortAnswerQuestionStatisticComponent implements OnInit, OnDestroy,
                 this.quizExerciseService.find(params['quizId']).subscribe(res => {
                     this.loadQuiz(res.body, false);
                 });
+            } else {
+                // students cannot load the quiz with the solution, the statistic changes of the websocket are applied to the quiz filtered for the statistic
+                this.quizExerciseService.findForStatistic(params['quizId']).subscribe(res => {
+                    this.loadQuiz(res.body, false);
+                });
             }
 
             // subscribe websocket for new statistical data
@@ -98,8 +103,11 @@ export class ShortAnswerQuestionStatisticComponent implements OnInit, OnDestroy,
             this.jhiWebsocketService.subscribe(this.websocketChannelForData);
 
             // ask for new Data if the websocket for new statistical data was notified
-            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe(quiz => {
-                this.loadQuiz(quiz, true);
+            this.jhiWebsocketService.receive(this.websocketChannelForData).subscribe((changes: QuizStatisticChanges) => {
+                if (this.quizExercise) {
+                    this.quizStatisticUtil.applyStatisticChanges(this.quizExercise, changes);
+                    this.loadQuiz(this.quizExercise, true);
+                }
             });
 
             // add Axes-labels based on selected language
@@ -289,8 +289,12 @@ export class QuizComponent implements OnInit, OnDestroy {
             // submission channel => react to new submissions
             this.jhiWebsocketService.subscribe('/user' + this.submissionChannel);
             this.jhiWebsocketService.receive('/user' + this.submissionChannel).subscribe(
-                submission => {
-                    this.onSaveSuccess(submission);
+                payload => {
+                    if (!payload || payload.error) {
+                        this.onSaveError(payload ? payload.error : 'saveFailed');
+                    } else {
+                        this.onSaveSuccess(payload);
+                    }
                 },
                 error => {
                     this.onSubmitError(error);
@@ -798,19 +802,6 @@ export class QuizComponent implements OnInit, OnDestroy {
      * @param quizSubmission The quiz submission data from the server
      */
     onSaveSuccess(quizSubmission: QuizSubmission) {
-        if (!quizSubmission) {
-            // TODO: Include reason why saving failed
-            alert('Saving Answers failed.');
-            this.unsavedChanges = true;
-            this.isSubmitting = false;
-            if (this.outstandingWebsocketResponses > 0) {
-                this.outstandingWebsocketResponses--;
-            }
-            if (this.outstandingWebsocketResponses === 0) {
-                this.isSaving = false;
-            }
-            return;
-        }
         if (quizSubmission.submitted) {
             this.outstandingWebsocketResponses = 0;
             this.isSaving = false;
@@ -838,6 +829,22 @@ export class QuizComponent implements OnInit, OnDestroy {
         }
     }
 
+    /**
+     * Callback function for handling a quiz submission that the server could not save
+     * @param error The key of the reason sent by the server (quizNotActive, alreadySubmitted or serverOverloaded)
+     */
+    onSaveError(error: string) {
+        this.jhiAlertService.error('arTeMiSApp.quizExercise.submissionError.' + error);
+        this.unsavedChanges = true;
+        this.isSubmitting = false;
+        if (this.outstandingWebsocketResponses > 0) {
+            this.outstandingWebsocketResponses--;
+        }
+        if (this.outstandingWebsocketResponses === 0) {
+            this.isSaving = false;
+        }
+    }
+
     /**
      * Checks if the student has interacted with each question of the quiz
      * for a Multiple Choice Questions it checks if an answer option was selected
@@ -0,0 +1,109 @@
+package de.tum.in.www1.artemis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
+import de.tum.in.www1.artemis.repository.CourseRepository;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+import de.tum.in.www1.artemis.util.ModelFactory;
+import de.tum.in.www1.artemis.util.RequestUtilService;
+
+/**
+ * Loads the course dashboard with a large number of courses, exercises and results. It takes much longer than the other tests and is therefore excluded from the regular tests,
+ * run it with ./gradlew benchmarkTest
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class CourseDashboardBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseDashboardBenchmarkTest.class);
+
+    private static final ZonedDateTime now = ZonedDateTime.now();
+
+    @Autowired
+    DatabaseUtilService database;
+
+    @Autowired
+    RequestUtilService request;
+
+    @Autowired
+    CourseRepository courseRepo;
+
+    @Autowired
+    ExerciseRepository exerciseRepo;
+
+    @Autowired
+    ResultRepository resultRepo;
+
+    @Before
+    public void initTestCase() {
+        database.resetDatabase();
+        database.addUsers(1, 0);
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "USER")
+    public void getAllCoursesForDashboardWith50CoursesAnd40Exercises() throws Exception {
+        Map<Long, Result> expectedResults = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            for (ModelingExercise exercise : addCourseWithExercises(40)) {
+                Participation participation = database.addParticipationForExercise(exercise, "student1");
+                addResult(participation, now.minusHours(3), true);
+                expectedResults.put(exercise.getId(), addResult(participation, now.minusHours(2), true));
+                addResult(participation, now.minusHours(1), false);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        List<Course> courses = request.getList("/api/courses/for-dashboard", HttpStatus.OK, Course.class);
+        log.info("Loaded the dashboard with {} courses and {} exercises in {}ms", courses.size(), expectedResults.size(), System.currentTimeMillis() - start);
+
+        assertThat(courses).as("all courses are shown").hasSize(50);
+        for (Course course : courses) {
+            assertThat(course.getExercises()).as("all exercises are shown").hasSize(40);
+            for (Exercise exercise : course.getExercises()) {
+                assertThat(exercise.getParticipations()).as("participation is shown").hasSize(1);
+                Set<Result> results = exercise.getParticipations().iterator().next().getResults();
+                assertThat(results).as("only the latest rated result is shown").containsExactly(expectedResults.get(exercise.getId()));
+            }
+        }
+    }
+
+    private List<ModelingExercise> addCourseWithExercises(int numberOfExercises) {
+        Course course = ModelFactory.generateCourse(null, now.minusDays(1), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor");
+        courseRepo.save(course);
+        List<ModelingExercise> exercises = new ArrayList<>();
+        for (int i = 0; i < numberOfExercises; i++) {
+            exercises.add(exerciseRepo.save(ModelFactory.generateModelingExercise(now.minusDays(1), now.plusDays(1), now.plusDays(2), DiagramType.ClassDiagram, course)));
+        }
+        return exercises;
+    }
+
+    private Result addResult(Participation participation, ZonedDateTime completionDate, Boolean rated) {
+        Result result = new Result().participation(participation).rated(rated).score(100L);
+        result.setCompletionDate(completionDate);
+        return resultRepo.save(result);
+    }
+}
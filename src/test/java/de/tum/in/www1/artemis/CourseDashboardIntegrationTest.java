@@ -0,0 +1,110 @@
+package de.tum.in.www1.artemis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
+import de.tum.in.www1.artemis.repository.CourseRepository;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.util.DatabaseUtilService;
+import de.tum.in.www1.artemis.util.ModelFactory;
+import de.tum.in.www1.artemis.util.RequestUtilService;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class CourseDashboardIntegrationTest {
+
+    private static final ZonedDateTime now = ZonedDateTime.now();
+
+    @Autowired
+    DatabaseUtilService database;
+
+    @Autowired
+    RequestUtilService request;
+
+    @Autowired
+    CourseRepository courseRepo;
+
+    @Autowired
+    ExerciseRepository exerciseRepo;
+
+    @Autowired
+    ResultRepository resultRepo;
+
+    @Before
+    public void initTestCase() {
+        database.resetDatabase();
+        database.addUsers(1, 0);
+    }
+
+    @Test
+    public void latestRatedResultIsMaintained() {
+        ModelingExercise exercise = addCourseWithExercises(1).get(0);
+        Participation participation = database.addParticipationForExercise(exercise, "student1");
+        Result olderResult = addResult(participation, now.minusHours(2), true);
+        Result latestResult = addResult(participation, now.minusHours(1), null);
+        addResult(participation, now, false);
+        addResult(participation, null, true);
+        assertThat(resultRepo.findLatestRatedResultsByStudentLogin("student1")).as("latest rated result with completion date is stored").containsExactly(latestResult);
+
+        resultRepo.delete(latestResult);
+        assertThat(resultRepo.findLatestRatedResultsByStudentLogin("student1")).as("older result is stored after the latest one has been deleted").containsExactly(olderResult);
+
+        olderResult.setRated(false);
+        resultRepo.save(olderResult);
+        assertThat(resultRepo.findLatestRatedResultsByStudentLogin("student1")).as("no result is stored without rated results").isEmpty();
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "USER")
+    public void cachedDashboardIsInvalidatedByNewResult() throws Exception {
+        ModelingExercise exercise = addCourseWithExercises(1).get(0);
+        Participation participation = database.addParticipationForExercise(exercise, "student1");
+        Result firstResult = addResult(participation, now.minusHours(1), true);
+        assertThat(getResultsOnDashboard()).as("first result is shown").containsExactly(firstResult);
+        assertThat(getResultsOnDashboard()).as("cached dashboard shows the first result").containsExactly(firstResult);
+
+        Result secondResult = addResult(participation, now, true);
+        assertThat(getResultsOnDashboard()).as("new result is shown").containsExactly(secondResult);
+    }
+
+    private Set<Result> getResultsOnDashboard() throws Exception {
+        List<Course> courses = request.getList("/api/courses/for-dashboard", HttpStatus.OK, Course.class);
+        assertThat(courses).as("course is shown").hasSize(1);
+        return courses.get(0).getExercises().iterator().next().getParticipations().iterator().next().getResults();
+    }
+
+    private List<ModelingExercise> addCourseWithExercises(int numberOfExercises) {
+        Course course = ModelFactory.generateCourse(null, now.minusDays(1), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor");
+        courseRepo.save(course);
+        List<ModelingExercise> exercises = new ArrayList<>();
+        for (int i = 0; i < numberOfExercises; i++) {
+            exercises.add(exerciseRepo.save(ModelFactory.generateModelingExercise(now.minusDays(1), now.plusDays(1), now.plusDays(2), DiagramType.ClassDiagram, course)));
+        }
+        return exercises;
+    }
+
+    private Result addResult(Participation participation, ZonedDateTime completionDate, Boolean rated) {
+        Result result = new Result().participation(participation).rated(rated).score(100L);
+        result.setCompletionDate(completionDate);
+        return resultRepo.save(result);
+    }
+}
@@ -2,8 +2,10 @@ package de.tum.in.www1.artemis;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Ignore;
@@ -16,12 +18,26 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
 import de.tum.in.www1.artemis.repository.CourseRepository;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.service.CourseStatisticsService;
+import de.tum.in.www1.artemis.service.TutorLeaderboardService;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
 import de.tum.in.www1.artemis.util.ModelFactory;
 import de.tum.in.www1.artemis.util.RequestUtilService;
+import de.tum.in.www1.artemis.web.rest.dto.StatsForCourseDTO;
+import de.tum.in.www1.artemis.web.rest.dto.StatsTutorLeaderboardDTO;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -38,6 +54,21 @@ public class CourseIntegrationTest {
     @Autowired
     CourseRepository courseRepo;
 
+    @Autowired
+    ExerciseRepository exerciseRepo;
+
+    @Autowired
+    ResultRepository resultRepo;
+
+    @Autowired
+    UserRepository userRepo;
+
+    @Autowired
+    TutorLeaderboardService tutorLeaderboardService;
+
+    @Autowired
+    CourseStatisticsService courseStatisticsService;
+
     @Before
     public void resetDatabase() {
         database.resetDatabase();
@@ -73,6 +104,66 @@ public class CourseIntegrationTest {
         request.getList("/api/courses", HttpStatus.FORBIDDEN, Course.class);
     }
 
+    @Test
+    public void tutorLeaderboardIsRefreshedAfterNewAssessment() {
+        database.addUsers(2, 1);
+        ZonedDateTime now = ZonedDateTime.now();
+        Course course = courseRepo.save(ModelFactory.generateCourse(null, now.minusDays(1), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor"));
+        ModelingExercise exercise = exerciseRepo.save(ModelFactory.generateModelingExercise(now.minusDays(1), now.plusDays(1), now.plusDays(2), DiagramType.ClassDiagram, course));
+        User tutor = userRepo.findOneByLogin("tutor1").get();
+
+        addAssessment(database.addParticipationForExercise(exercise, "student1"), tutor, true);
+        List<StatsTutorLeaderboardDTO> leaderboard = tutorLeaderboardService.getTutorLeaderboardForCourse(course.getId());
+        assertThat(leaderboard).as("tutor is on the leaderboard").hasSize(1);
+        assertThat(leaderboard.get(0).numberOfAssessments).as("assessment is counted").isEqualTo(1);
+        assertThat(leaderboard.get(0).numberOfComplaints).as("complaint is counted").isEqualTo(1);
+
+        addAssessment(database.addParticipationForExercise(exercise, "student2"), tutor, false);
+        leaderboard = tutorLeaderboardService.getTutorLeaderboardForCourse(course.getId());
+        assertThat(leaderboard).as("tutor is on the leaderboard once").hasSize(1);
+        assertThat(leaderboard.get(0).numberOfAssessments).as("new assessment is counted").isEqualTo(2);
+        assertThat(leaderboard.get(0).numberOfComplaints).as("no new complaint is counted").isEqualTo(1);
+    }
+
+    @Test
+    public void tutorLeaderboardIsRemovedAfterCourseDeletion() {
+        ZonedDateTime now = ZonedDateTime.now();
+        Course course = courseRepo.save(ModelFactory.generateCourse(null, now.minusDays(1), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor"));
+        tutorLeaderboardService.getTutorLeaderboardForCourse(course.getId());
+        Map<?, ?> courseLeaderboards = (Map<?, ?>) ReflectionTestUtils.getField(AopTestUtils.getTargetObject(tutorLeaderboardService), "courseLeaderboards");
+        assertThat(courseLeaderboards).as("leaderboard is cached").containsKey(course.getId());
+
+        courseRepo.deleteById(course.getId());
+        assertThat(courseLeaderboards).as("leaderboard of deleted course is removed").doesNotContainKey(course.getId());
+    }
+
+    @Test
+    public void statisticsForCourseAreCountedPerExercise() {
+        database.addUsers(2, 1);
+        ZonedDateTime now = ZonedDateTime.now();
+        Course course = courseRepo.save(ModelFactory.generateCourse(null, now.minusDays(1), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor"));
+        ModelingExercise firstExercise = exerciseRepo
+                .save(ModelFactory.generateModelingExercise(now.minusDays(1), now.plusDays(1), now.plusDays(2), DiagramType.ClassDiagram, course));
+        ModelingExercise secondExercise = exerciseRepo
+                .save(ModelFactory.generateModelingExercise(now.minusDays(1), now.plusDays(1), now.plusDays(2), DiagramType.ClassDiagram, course));
+        User tutor = userRepo.findOneByLogin("tutor1").get();
+        addAssessment(database.addParticipationForExercise(firstExercise, "student1"), tutor, false);
+        addAssessment(database.addParticipationForExercise(firstExercise, "student2"), tutor, false);
+        addAssessment(database.addParticipationForExercise(secondExercise, "student1"), tutor, false);
+
+        StatsForCourseDTO stats = courseStatisticsService.getStatisticsForCourse(course.getId());
+        assertThat(stats.getNumberOfAssessments(firstExercise.getId())).as("assessments of the first exercise are counted").isEqualTo(2);
+        assertThat(stats.getNumberOfAssessments(secondExercise.getId())).as("assessments of the second exercise are counted").isEqualTo(1);
+        assertThat(stats.getTotalNumberOfAssessments()).as("assessments of the course are counted").isEqualTo(3);
+        assertThat(stats.getNumberOfComplaints(firstExercise.getId())).as("exercise without complaints has no complaints").isEqualTo(0);
+    }
+
+    private void addAssessment(Participation participation, User assessor, boolean hasComplaint) {
+        Result result = new Result().participation(participation).rated(true).score(100L).assessor(assessor).hasComplaint(hasComplaint);
+        result.setCompletionDate(ZonedDateTime.now());
+        resultRepo.save(result);
+    }
+
     public void loadInitialCourses() {
         Course course = ModelFactory.generateCourse(1L, null, null, new HashSet<>());
         assertThat(courseRepo.findAll()).as("course repo got initialized correctly").contains(course);
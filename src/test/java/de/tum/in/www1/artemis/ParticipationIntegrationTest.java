@@ -1,8 +1,13 @@
 package de.tum.in.www1.artemis;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.net.URI;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Ignore;
@@ -15,15 +20,26 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.tum.in.www1.artemis.domain.Course;
 import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.DiagramType;
+import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
 import de.tum.in.www1.artemis.repository.CourseRepository;
 import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.service.ParticipationService;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
+import de.tum.in.www1.artemis.util.ModelFactory;
 import de.tum.in.www1.artemis.util.RequestUtilService;
+import de.tum.in.www1.artemis.web.rest.dto.ParticipationResultDTO;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -40,16 +56,28 @@ public class ParticipationIntegrationTest {
     @Autowired
     UserRepository userRepo;
 
+    @Autowired
+    ResultRepository resultRepo;
+
+    @Autowired
+    ParticipationService participationService;
+
     @Autowired
     RequestUtilService request;
 
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     @Autowired
     DatabaseUtilService database;
 
     @Before
     public void initTestCase() {
         database.resetDatabase();
-        database.addUsers(2, 0);
+        database.addUsers(2, 1);
         database.addCourseWithDifferentModelingExercises();
     }
 
@@ -66,4 +94,99 @@ public class ParticipationIntegrationTest {
         assertThat(participation.getStudent()).as("Student got set").isNotNull();
         assertThat(participation.getStudent().getLogin()).as("Correct student got set").isEqualTo("student1");
     }
+
+    @Test
+    public void findWithRelevantResultByCourseId() {
+        ZonedDateTime now = ZonedDateTime.now();
+        Course course = courseRepo.save(ModelFactory.generateCourse(null, now.minusDays(2), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor"));
+        ModelingExercise exercise = exerciseRepo
+                .save(ModelFactory.generateModelingExercise(now.minusDays(2), now.plusDays(1), now.plusDays(2), DiagramType.ClassDiagram, course));
+        Participation participation = database.addParticipationForExercise(exercise, "student1");
+        addResult(participation, now.minusHours(2), true);
+        Result relevantResult = addResult(participation, now.minusHours(1), true);
+        addResult(participation, now, false);
+        Participation participationWithoutResult = database.addParticipationForExercise(exercise, "student2");
+
+        List<ParticipationResultDTO> participations = participationService.findWithRelevantResultByCourseId(course.getId());
+        assertThat(participations).as("both participations are found").hasSize(2);
+        ParticipationResultDTO first = participations.get(0);
+        assertThat(first.participationId).as("participation with result comes first").isEqualTo(participation.getId());
+        assertThat(first.studentLogin).as("student is set").isEqualTo("student1");
+        assertThat(first.resultId).as("latest rated result is relevant").isEqualTo(relevantResult.getId());
+        ParticipationResultDTO second = participations.get(1);
+        assertThat(second.participationId).as("participation without result is found").isEqualTo(participationWithoutResult.getId());
+        assertThat(second.resultId).as("participation without result has no result").isNull();
+    }
+
+    @Test
+    @WithMockUser(username = "tutor1", roles = "TA")
+    public void exportAllParticipationsForCourseAsCsv() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now();
+        Course course = courseRepo.save(ModelFactory.generateCourse(null, now.minusDays(2), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor"));
+        ModelingExercise exercise = exerciseRepo
+                .save(ModelFactory.generateModelingExercise(now.minusDays(2), now.plusDays(1), now.plusDays(2), DiagramType.ClassDiagram, course));
+        Participation participation = database.addParticipationForExercise(exercise, "student1");
+        Result result = addResult(participation, now.minusHours(1), true);
+        Participation participationWithoutResult = database.addParticipationForExercise(exercise, "student2");
+
+        String csv = mvc.perform(get("/api/courses/" + course.getId() + "/participations/export")).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"course-" + course.getId() + "-results.csv\"")).andReturn().getResponse()
+                .getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertThat(lines).as("header line and one line per participation").hasSize(3);
+        assertThat(lines[0]).as("header line").isEqualTo("participationId,exerciseId,studentId,login,firstName,lastName,email,resultId,score,completionDate,rated");
+        assertThat(lines[1]).as("participation with result")
+                .startsWith(participation.getId() + "," + exercise.getId() + "," + participation.getStudent().getId() + ",student1,student1First,student1Last,")
+                .contains("," + result.getId() + ",100,").endsWith(",true");
+        assertThat(lines[2]).as("participation without result has empty result columns")
+                .startsWith(participationWithoutResult.getId() + "," + exercise.getId() + "," + participationWithoutResult.getStudent().getId() + ",student2,")
+                .endsWith(",,,,");
+    }
+
+    @Test
+    @WithMockUser(username = "tutor1", roles = "TA")
+    public void exportAllParticipationsForCourseAsNdjson() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now();
+        Course course = courseRepo.save(ModelFactory.generateCourse(null, now.minusDays(2), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor"));
+        ModelingExercise exercise = exerciseRepo
+                .save(ModelFactory.generateModelingExercise(now.minusDays(2), now.plusDays(1), now.plusDays(2), DiagramType.ClassDiagram, course));
+        Participation participation = database.addParticipationForExercise(exercise, "student1");
+        Result result = addResult(participation, now.minusHours(1), true);
+        Participation participationWithoutResult = database.addParticipationForExercise(exercise, "student2");
+
+        String ndjson = mvc.perform(get("/api/courses/" + course.getId() + "/participations/export").param("format", "ndjson")).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"course-" + course.getId() + "-results.ndjson\"")).andReturn().getResponse()
+                .getContentAsString();
+
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).as("one line per participation").hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("participationId").asLong()).as("participation with result comes first").isEqualTo(participation.getId());
+        assertThat(first.get("studentLogin").asText()).as("student is set").isEqualTo("student1");
+        assertThat(first.get("resultId").asLong()).as("relevant result is set").isEqualTo(result.getId());
+        assertThat(first.get("score").asLong()).as("score is set").isEqualTo(100L);
+        assertThat(first.get("rated").asBoolean()).as("rated is set").isTrue();
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("participationId").asLong()).as("participation without result is exported").isEqualTo(participationWithoutResult.getId());
+        assertThat(second.get("resultId").isNull()).as("participation without result has no result").isTrue();
+    }
+
+    @Test
+    @WithMockUser(username = "tutor1", roles = "TA")
+    public void exportAllParticipationsForCourseWithInvalidFormat() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now();
+        Course course = courseRepo.save(ModelFactory.generateCourse(null, now.minusDays(2), now.plusDays(2), new HashSet<>(), "tumuser", "tutor", "tutor"));
+
+        mvc.perform(get("/api/courses/" + course.getId() + "/participations/export").param("format", "xlsx")).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.invalidExportFormat"));
+    }
+
+    private Result addResult(Participation participation, ZonedDateTime completionDate, boolean rated) {
+        Result result = new Result().participation(participation).rated(rated).score(100L);
+        result.setCompletionDate(completionDate);
+        return resultRepo.save(result);
+    }
 }
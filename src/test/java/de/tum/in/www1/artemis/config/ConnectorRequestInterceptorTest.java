@@ -0,0 +1,101 @@
+package de.tum.in.www1.artemis.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConnectorRequestInterceptorTest {
+
+    private HttpServer server;
+
+    private CloseableHttpClient httpClient;
+
+    private RestTemplate restTemplate;
+
+    private MeterRegistry meterRegistry;
+
+    private AtomicInteger requests;
+
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // fails twice with 503 before it answers
+        server.createContext("/flaky", exchange -> respond(exchange, requests.incrementAndGet() <= 2 ? 503 : 200));
+        server.createContext("/unavailable", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 503);
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        meterRegistry = new SimpleMeterRegistry();
+        httpClient = HttpClients.custom().disableAutomaticRetries().build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.setInterceptors(Collections.singletonList(new ConnectorRequestInterceptor(meterRegistry, 3, 1)));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testGetIsRetriedUntilSuccessful() {
+        String response = restTemplate.getForObject(baseUrl + "/flaky", String.class);
+
+        assertThat(response).isEqualTo("200");
+        assertThat(requests.get()).isEqualTo(3);
+        assertThat(meterRegistry.get(ConnectorRequestInterceptor.RETRY_METRIC).counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(ConnectorRequestInterceptor.REQUEST_METRIC).tag("host", "localhost").tag("method", "GET").tag("outcome", "200").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void testGetFailsAfterMaxAttempts() {
+        assertThatThrownBy(() -> restTemplate.getForObject(baseUrl + "/unavailable", String.class)).isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(requests.get()).isEqualTo(3);
+        assertThat(meterRegistry.get(ConnectorRequestInterceptor.REQUEST_METRIC).tag("outcome", "503").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPostIsNotRetried() {
+        assertThatThrownBy(() -> restTemplate.postForObject(baseUrl + "/unavailable", "body", String.class)).isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(meterRegistry.find(ConnectorRequestInterceptor.RETRY_METRIC).counter()).isNull();
+    }
+
+    private void respond(HttpExchange exchange, int status) throws IOException {
+        byte[] body = String.valueOf(status).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
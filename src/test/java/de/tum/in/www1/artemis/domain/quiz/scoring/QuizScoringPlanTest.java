@@ -0,0 +1,135 @@
+package de.tum.in.www1.artemis.domain.quiz.scoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tum.in.www1.artemis.domain.enumeration.ScoringType;
+import de.tum.in.www1.artemis.domain.quiz.*;
+
+public class QuizScoringPlanTest {
+
+    MultipleChoiceQuestion multipleChoiceQuestion;
+
+    AnswerOption correctOption1;
+
+    AnswerOption correctOption2;
+
+    AnswerOption wrongOption;
+
+    DragAndDropQuestion dragAndDropQuestion;
+
+    DragItem dragItem1;
+
+    DragItem dragItem2;
+
+    DropLocation dropLocation1;
+
+    DropLocation dropLocation2;
+
+    @Before
+    public void setUp() {
+        correctOption1 = new AnswerOption().isCorrect(true);
+        correctOption1.setId(1L);
+        correctOption2 = new AnswerOption().isCorrect(true);
+        correctOption2.setId(2L);
+        wrongOption = new AnswerOption().isCorrect(false);
+        wrongOption.setId(3L);
+        multipleChoiceQuestion = new MultipleChoiceQuestion();
+        multipleChoiceQuestion.setQuizQuestionStatistic(new MultipleChoiceQuestionStatistic());
+        multipleChoiceQuestion.score(4);
+        multipleChoiceQuestion.addAnswerOptions(correctOption1).addAnswerOptions(correctOption2).addAnswerOptions(wrongOption);
+
+        dragItem1 = new DragItem();
+        dragItem1.setId(11L);
+        dragItem2 = new DragItem();
+        dragItem2.setId(12L);
+        dropLocation1 = new DropLocation();
+        dropLocation1.setId(21L);
+        dropLocation2 = new DropLocation();
+        dropLocation2.setId(22L);
+        dragAndDropQuestion = new DragAndDropQuestion();
+        dragAndDropQuestion.setQuizQuestionStatistic(new DragAndDropQuestionStatistic());
+        dragAndDropQuestion.score(6);
+        dragAndDropQuestion.addDragItems(dragItem1).addDragItems(dragItem2).addDropLocations(dropLocation1).addDropLocations(dropLocation2);
+        dragAndDropQuestion.addCorrectMappings(mapping(31L, dragItem1, dropLocation1)).addCorrectMappings(mapping(32L, dragItem2, dropLocation2));
+    }
+
+    @Test
+    public void testMultipleChoiceMatchesScoringStrategy() {
+        for (ScoringType scoringType : ScoringType.values()) {
+            multipleChoiceQuestion.scoringType(scoringType);
+            assertSameScore(multipleChoiceQuestion, multipleChoiceAnswer());
+            assertSameScore(multipleChoiceQuestion, multipleChoiceAnswer(correctOption1));
+            assertSameScore(multipleChoiceQuestion, multipleChoiceAnswer(correctOption1, correctOption2));
+            assertSameScore(multipleChoiceQuestion, multipleChoiceAnswer(correctOption1, wrongOption));
+            assertSameScore(multipleChoiceQuestion, multipleChoiceAnswer(correctOption1, correctOption2, wrongOption));
+        }
+    }
+
+    @Test
+    public void testMultipleChoiceWithInvalidOptionMatchesScoringStrategy() {
+        wrongOption.invalid(true);
+        for (ScoringType scoringType : ScoringType.values()) {
+            multipleChoiceQuestion.scoringType(scoringType);
+            assertSameScore(multipleChoiceQuestion, multipleChoiceAnswer(correctOption1, correctOption2, wrongOption));
+            assertSameScore(multipleChoiceQuestion, multipleChoiceAnswer(correctOption2));
+        }
+    }
+
+    @Test
+    public void testDragAndDropMatchesScoringStrategy() {
+        for (ScoringType scoringType : ScoringType.values()) {
+            dragAndDropQuestion.scoringType(scoringType);
+            assertSameScore(dragAndDropQuestion, dragAndDropAnswer());
+            assertSameScore(dragAndDropQuestion, dragAndDropAnswer(mapping(41L, dragItem1, dropLocation1)));
+            assertSameScore(dragAndDropQuestion, dragAndDropAnswer(mapping(41L, dragItem1, dropLocation1), mapping(42L, dragItem2, dropLocation2)));
+            assertSameScore(dragAndDropQuestion, dragAndDropAnswer(mapping(41L, dragItem2, dropLocation1), mapping(42L, dragItem1, dropLocation2)));
+        }
+    }
+
+    @Test
+    public void testDragAndDropWithInvalidDropLocationMatchesScoringStrategy() {
+        dropLocation2.invalid(true);
+        for (ScoringType scoringType : ScoringType.values()) {
+            dragAndDropQuestion.scoringType(scoringType);
+            assertSameScore(dragAndDropQuestion, dragAndDropAnswer(mapping(41L, dragItem1, dropLocation1)));
+            assertSameScore(dragAndDropQuestion, dragAndDropAnswer(mapping(41L, dragItem1, dropLocation2)));
+        }
+    }
+
+    @Test
+    public void testInvalidQuestionGetsFullScore() {
+        multipleChoiceQuestion.invalid(true);
+        assertThat(QuizScoringPlan.compile(multipleChoiceQuestion).calculateScore(multipleChoiceAnswer())).isEqualTo(4.0);
+        assertSameScore(multipleChoiceQuestion, multipleChoiceAnswer());
+    }
+
+    private void assertSameScore(QuizQuestion question, SubmittedAnswer answer) {
+        double expected = ScoringStrategyFactory.makeScoringStrategy(question).calculateScore(question, answer);
+        assertThat(QuizScoringPlan.compile(question).calculateScore(answer)).isEqualTo(expected);
+    }
+
+    private SubmittedAnswer multipleChoiceAnswer(AnswerOption... selectedOptions) {
+        MultipleChoiceSubmittedAnswer answer = new MultipleChoiceSubmittedAnswer();
+        for (AnswerOption option : selectedOptions) {
+            answer.addSelectedOptions(option);
+        }
+        return answer.question(multipleChoiceQuestion);
+    }
+
+    private SubmittedAnswer dragAndDropAnswer(DragAndDropMapping... mappings) {
+        DragAndDropSubmittedAnswer answer = new DragAndDropSubmittedAnswer();
+        for (DragAndDropMapping mapping : mappings) {
+            answer.addMappings(mapping);
+        }
+        return answer.question(dragAndDropQuestion);
+    }
+
+    private DragAndDropMapping mapping(Long id, DragItem dragItem, DropLocation dropLocation) {
+        DragAndDropMapping mapping = new DragAndDropMapping().dragItem(dragItem).dropLocation(dropLocation);
+        mapping.setId(id);
+        return mapping;
+    }
+}
@@ -0,0 +1,188 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
+import de.tum.in.www1.artemis.service.dto.BambooBuildResultNotificationDTO;
+
+public class BuildResultQueueServiceTest {
+
+    private static final String PLAN_KEY = "TEST-STUDENT1";
+
+    private static final String COMMIT_HASH = "4b825dc642cb6eb9a060e54bf8d69288fbee4904";
+
+    private static final String BUILD_COMPLETED_DATE = "2019-05-10T10:15:30.123Z";
+
+    private static final String BUILD_RESULT = "{\"plan\":{\"key\":\"" + PLAN_KEY + "\"},\"build\":{\"buildCompletedDate\":\"" + BUILD_COMPLETED_DATE + "\",\"vcs\":[{\"id\":\""
+            + COMMIT_HASH + "\",\"repositoryName\":\"assignment\"}]}}";
+
+    @Rule
+    public TemporaryFolder journalFolder = new TemporaryFolder();
+
+    ResultService resultService = mock(ResultService.class);
+
+    ResultRepository resultRepository = mock(ResultRepository.class);
+
+    ParticipationService participationService = mock(ParticipationService.class);
+
+    ContinuousIntegrationService continuousIntegrationService = mock(ContinuousIntegrationService.class);
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    BuildResultQueueService buildResultQueueService;
+
+    BambooBuildResultNotificationDTO requestBody;
+
+    Participation participation = new Participation();
+
+    Result result = new Result();
+
+    @Before
+    public void initTestCase() throws Exception {
+        buildResultQueueService = new BuildResultQueueService(resultService, resultRepository, participationService, mock(ProgrammingExerciseService.class),
+                Optional.of(continuousIntegrationService), objectMapper, new TestTransactionManager(), 2);
+        ReflectionTestUtils.setField(buildResultQueueService, "journalPath", journalFolder.getRoot().getAbsolutePath());
+        ReflectionTestUtils.setField(buildResultQueueService, "batchSize", 20);
+        ReflectionTestUtils.setField(buildResultQueueService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(buildResultQueueService, "backoff", 1L);
+
+        requestBody = objectMapper.readValue(BUILD_RESULT, BambooBuildResultNotificationDTO.class);
+        participation.setId(1L);
+        when(participationService.findLatestByBuildPlanIdAndInitializationState(PLAN_KEY, InitializationState.INITIALIZED)).thenReturn(Optional.of(participation));
+        when(resultRepository.findCompletionDatesByBuildPlanIdAndCommitHash(PLAN_KEY, COMMIT_HASH)).thenReturn(Collections.emptyList());
+        when(continuousIntegrationService.getPlanKey(any())).thenReturn(PLAN_KEY);
+        when(continuousIntegrationService.getCommitHash(any())).thenReturn(COMMIT_HASH);
+    }
+
+    @After
+    public void tearDown() {
+        buildResultQueueService.shutdown();
+    }
+
+    @Test
+    public void failedBuildResultIsRetried() throws Exception {
+        Path journalFile = writeJournalFile("0000000000001-000000001.json");
+        when(resultService.onResultNotifiedNew(participation, requestBody)).thenThrow(new IllegalStateException("Deadlock found")).thenReturn(result);
+
+        buildResultQueueService.process(new BuildResultQueueService.QueuedBuildResult(1, PLAN_KEY, COMMIT_HASH, requestBody, journalFile));
+
+        verify(resultService, times(2)).onResultNotifiedNew(participation, requestBody);
+        verify(resultService).notifyUser(participation, result);
+        assertThat(Files.exists(journalFile)).as("processed build result is removed from the journal").isFalse();
+        assertThat(Files.exists(journalFolder.getRoot().toPath().resolve("failed"))).as("build result is not moved to the failed directory").isFalse();
+    }
+
+    @Test
+    public void failingBuildResultIsMovedToFailedDirectory() throws Exception {
+        Path journalFile = writeJournalFile("0000000000001-000000001.json");
+        when(resultService.onResultNotifiedNew(participation, requestBody)).thenThrow(new IllegalStateException("Deadlock found"));
+
+        buildResultQueueService.process(new BuildResultQueueService.QueuedBuildResult(1, PLAN_KEY, COMMIT_HASH, requestBody, journalFile));
+
+        verify(resultService, times(3)).onResultNotifiedNew(participation, requestBody);
+        verify(resultService, never()).notifyUser(any(), any());
+        assertThat(Files.exists(journalFile)).as("failed build result is removed from the journal").isFalse();
+        assertThat(Files.exists(journalFolder.getRoot().toPath().resolve("failed").resolve(journalFile.getFileName()))).as("failed build result is kept").isTrue();
+    }
+
+    @Test
+    public void processedBuildResultIsNotProcessedAgain() throws Exception {
+        // e.g. the application stopped after the result had been saved, but before the journal file was deleted
+        Path journalFile = writeJournalFile("0000000000001-000000001.json");
+        when(resultRepository.findCompletionDatesByBuildPlanIdAndCommitHash(PLAN_KEY, COMMIT_HASH))
+                .thenReturn(Collections.singletonList(ZonedDateTime.parse("2019-05-10T10:15:30Z")));
+
+        buildResultQueueService.process(new BuildResultQueueService.QueuedBuildResult(1, PLAN_KEY, COMMIT_HASH, requestBody, journalFile));
+
+        verify(resultService, never()).onResultNotifiedNew(any(), any());
+        assertThat(Files.exists(journalFile)).as("skipped build result is removed from the journal").isFalse();
+    }
+
+    @Test
+    public void newBuildOfProcessedCommitIsProcessed() throws Exception {
+        // e.g. the commit is built again after the tests of the exercise have changed
+        when(resultRepository.findCompletionDatesByBuildPlanIdAndCommitHash(PLAN_KEY, COMMIT_HASH))
+                .thenReturn(Collections.singletonList(ZonedDateTime.parse("2019-05-10T09:00:00Z")));
+        when(resultService.onResultNotifiedNew(participation, requestBody)).thenReturn(result);
+
+        buildResultQueueService.process(new BuildResultQueueService.QueuedBuildResult(1, PLAN_KEY, COMMIT_HASH, requestBody, null));
+
+        verify(resultService).onResultNotifiedNew(participation, requestBody);
+        verify(resultService).notifyUser(participation, result);
+    }
+
+    @Test
+    public void journalIsReplayed() throws Exception {
+        Path journalFile = writeJournalFile("0000000000001-000000001.json");
+        when(resultService.onResultNotifiedNew(any(), any())).thenReturn(result);
+
+        buildResultQueueService.replayJournal();
+
+        verify(resultService, timeout(10000)).notifyUser(participation, result);
+        verify(resultService, times(1)).onResultNotifiedNew(eq(participation), any());
+    }
+
+    @Test
+    public void receivedBuildResultIsNotReplayedAgain() throws Exception {
+        when(resultService.onResultNotifiedNew(any(), any())).then(invocation -> {
+            // the journal is replayed while the received build result is processed
+            buildResultQueueService.replayJournal();
+            return result;
+        });
+
+        buildResultQueueService.addBuildResult(PLAN_KEY, requestBody);
+
+        verify(resultService, timeout(10000)).notifyUser(participation, result);
+        verify(resultService, times(1)).onResultNotifiedNew(eq(participation), any());
+    }
+
+    private Path writeJournalFile(String fileName) throws Exception {
+        return Files.write(journalFolder.getRoot().toPath().resolve(fileName), BUILD_RESULT.getBytes());
+    }
+
+    /**
+     * A transaction manager without a resource, the transaction synchronizations are called like with a real transaction manager
+     */
+    private static class TestTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.Mockito.*;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.tum.in.www1.artemis.domain.Participation;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.repository.ParticipationRepository;
+import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
+import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
+import de.tum.in.www1.artemis.service.connectors.VersionControlService;
+
+public class ParticipationSetupServiceTest {
+
+    private static final String TEMPLATE_REPOSITORY_URL = "https://vcs.example.com/scm/test/test-exercise.git";
+
+    private static final String REPOSITORY_URL = "https://vcs.example.com/scm/test/test-student1.git";
+
+    ParticipationRepository participationRepository = mock(ParticipationRepository.class);
+
+    ProgrammingExerciseRepository programmingExerciseRepository = mock(ProgrammingExerciseRepository.class);
+
+    ContinuousIntegrationService continuousIntegrationService = mock(ContinuousIntegrationService.class);
+
+    VersionControlService versionControlService = mock(VersionControlService.class);
+
+    SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+
+    ParticipationSetupService participationSetupService;
+
+    Participation participation;
+
+    @Before
+    public void initTestCase() throws Exception {
+        participationSetupService = new ParticipationSetupService(participationRepository, programmingExerciseRepository, Optional.of(continuousIntegrationService),
+                Optional.of(versionControlService), messagingTemplate, 4, 100);
+        ReflectionTestUtils.setField(participationSetupService, "ARTEMIS_BASE_URL", "https://artemis.example.com");
+        ReflectionTestUtils.setField(participationSetupService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(participationSetupService, "backoff", 1L);
+
+        Participation templateParticipation = new Participation();
+        templateParticipation.setRepositoryUrl(TEMPLATE_REPOSITORY_URL);
+        templateParticipation.setBuildPlanId("TEST-BASE");
+        ProgrammingExercise exercise = new ProgrammingExercise();
+        exercise.setId(2L);
+        exercise.setTemplateParticipation(templateParticipation);
+
+        User student = new User();
+        student.setId(3L);
+        student.setLogin("student1");
+        participation = new Participation();
+        participation.setId(1L);
+        participation.setStudent(student);
+        participation.setExercise(exercise);
+        participation.setInitializationState(InitializationState.UNINITIALIZED);
+
+        when(programmingExerciseRepository.findById(2L)).thenReturn(Optional.of(exercise));
+        when(participationRepository.findById(1L)).thenReturn(Optional.of(participation));
+        when(participationRepository.saveAndFlush(any(Participation.class))).then(returnsFirstArg());
+        when(versionControlService.copyRepository(new URL(TEMPLATE_REPOSITORY_URL), "student1")).thenReturn(new URL(REPOSITORY_URL));
+        when(continuousIntegrationService.copyBuildPlan("TEST-BASE", "student1")).thenReturn("TEST-STUDENT1");
+    }
+
+    @After
+    public void tearDown() {
+        participationSetupService.shutdown();
+    }
+
+    @Test
+    public void setupCompletesAllStages() throws Exception {
+        participationSetupService.startSetup(participation).get(10, TimeUnit.SECONDS);
+
+        assertThat(participation.getInitializationState()).as("setup is completed").isEqualTo(InitializationState.INITIALIZED);
+        assertThat(participation.getInitializationDate()).as("initialization date is set").isNotNull();
+        assertThat(participation.getRepositoryUrl()).as("repository is copied").isEqualTo(REPOSITORY_URL);
+        assertThat(participation.getBuildPlanId()).as("build plan is copied").isEqualTo("TEST-STUDENT1");
+        verify(versionControlService).configureRepository(new URL(REPOSITORY_URL), "student1");
+        verify(continuousIntegrationService).configureBuildPlan(participation);
+        verify(versionControlService).addWebHook(eq(new URL(REPOSITORY_URL)), anyString(), eq("ArTEMiS WebHook"));
+        // the progress is saved and sent to the student after every stage
+        verify(participationRepository, times(5)).saveAndFlush(participation);
+        verify(messagingTemplate, times(5)).convertAndSendToUser("student1", "/topic/exercise/2/participation", participation);
+    }
+
+    @Test
+    public void setupSkipsCompletedStages() throws Exception {
+        participation.setRepositoryUrl(REPOSITORY_URL);
+        participation.setBuildPlanId("TEST-STUDENT1");
+        participation.setInitializationState(InitializationState.BUILD_PLAN_COPIED);
+
+        participationSetupService.startSetup(participation).get(10, TimeUnit.SECONDS);
+
+        assertThat(participation.getInitializationState()).as("setup is completed").isEqualTo(InitializationState.INITIALIZED);
+        verify(versionControlService, never()).copyRepository(any(), any());
+        verify(versionControlService, never()).configureRepository(any(), any());
+        verify(continuousIntegrationService, never()).copyBuildPlan(any(), any());
+        verify(continuousIntegrationService).configureBuildPlan(participation);
+    }
+
+    @Test
+    public void failedStageIsRetried() throws Exception {
+        when(versionControlService.copyRepository(new URL(TEMPLATE_REPOSITORY_URL), "student1")).thenThrow(new IllegalStateException("VCS not reachable"))
+                .thenReturn(new URL(REPOSITORY_URL));
+
+        participationSetupService.startSetup(participation).get(10, TimeUnit.SECONDS);
+
+        assertThat(participation.getInitializationState()).as("setup is completed").isEqualTo(InitializationState.INITIALIZED);
+        verify(versionControlService, times(2)).copyRepository(new URL(TEMPLATE_REPOSITORY_URL), "student1");
+    }
+
+    @Test
+    public void failedSetupIsStartedAgainLater() throws Exception {
+        doThrow(new IllegalStateException("CI server not reachable")).when(continuousIntegrationService).configureBuildPlan(participation);
+
+        CompletableFuture<Void> setup = participationSetupService.startSetup(participation);
+        assertThatThrownBy(() -> setup.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(participation.getInitializationState()).as("state of the last completed stage is kept").isEqualTo(InitializationState.BUILD_PLAN_COPIED);
+        verify(continuousIntegrationService, times(3)).configureBuildPlan(participation);
+
+        doNothing().when(continuousIntegrationService).configureBuildPlan(participation);
+        participationSetupService.retryFailedSetups();
+
+        verify(versionControlService, timeout(10000)).addWebHook(eq(new URL(REPOSITORY_URL)), anyString(), eq("ArTEMiS WebHook"));
+        // the stages completed before the failure are not repeated
+        verify(versionControlService).copyRepository(new URL(TEMPLATE_REPOSITORY_URL), "student1");
+        verify(continuousIntegrationService).copyBuildPlan("TEST-BASE", "student1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void rejectedSetupIsStartedAgainLater() {
+        // the executor rejects new setups after the shutdown, like it does when its queue is full
+        participationSetupService.shutdown();
+
+        CompletableFuture<Void> setup = participationSetupService.startSetup(participation);
+
+        assertThat(setup.isCompletedExceptionally()).as("setup is rejected").isTrue();
+        assertThat((Map<Long, Object>) ReflectionTestUtils.getField(participationSetupService, "runningSetups")).as("rejected setup is not running").isEmpty();
+        assertThat((Set<Long>) ReflectionTestUtils.getField(participationSetupService, "failedSetups")).as("rejected setup is started again later").containsExactly(1L);
+    }
+
+    @Test
+    public void runningSetupIsNotStartedTwice() throws Exception {
+        CountDownLatch copyStarted = new CountDownLatch(1);
+        CountDownLatch continueCopy = new CountDownLatch(1);
+        when(versionControlService.copyRepository(new URL(TEMPLATE_REPOSITORY_URL), "student1")).then(invocation -> {
+            copyStarted.countDown();
+            continueCopy.await(10, TimeUnit.SECONDS);
+            return new URL(REPOSITORY_URL);
+        });
+
+        CompletableFuture<Void> firstSetup = participationSetupService.startSetup(participation);
+        assertThat(copyStarted.await(10, TimeUnit.SECONDS)).as("setup is running").isTrue();
+        CompletableFuture<Void> secondSetup = participationSetupService.startSetup(participation);
+        assertThat(secondSetup.isDone()).as("second setup is skipped").isTrue();
+        assertThat(participationSetupService.setupBuildPlan(participation, (ProgrammingExercise) participation.getExercise())).as("build plan is not set up again").isFalse();
+
+        continueCopy.countDown();
+        firstSetup.get(10, TimeUnit.SECONDS);
+        verify(versionControlService, times(1)).copyRepository(new URL(TEMPLATE_REPOSITORY_URL), "student1");
+        verify(continuousIntegrationService, times(1)).copyBuildPlan("TEST-BASE", "student1");
+    }
+}
@@ -0,0 +1,116 @@
+package de.tum.in.www1.artemis.service.compass;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ResourceUtils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.Feedback;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
+import de.tum.in.www1.artemis.service.compass.grade.Grade;
+
+public class CompassSnapshotServiceTest {
+
+    private static final long EXERCISE_ID = 1;
+
+    @Rule
+    public TemporaryFolder snapshotFolder = new TemporaryFolder();
+
+    CompassSnapshotService compassSnapshotService = new CompassSnapshotService();
+
+    Set<ModelingSubmission> assessedSubmissions = new LinkedHashSet<>();
+
+    Set<Long> assessedSubmissionIds = new HashSet<>();
+
+    CompassCalculationEngine engine;
+
+    @Before
+    public void initTestCase() throws Exception {
+        ReflectionTestUtils.setField(compassSnapshotService, "snapshotPath", snapshotFolder.getRoot().getAbsolutePath());
+        assessedSubmissions.add(createSubmission(54727, "model.54727.json", "assessment.54727.json"));
+        assessedSubmissions.add(createSubmission(54745, "model.54745.json", "assessment.54745.json"));
+        assessedSubmissionIds.addAll(Arrays.asList(54727L, 54745L));
+
+        engine = new CompassCalculationEngine(assessedSubmissions);
+        compassSnapshotService.saveSnapshot(EXERCISE_ID, assessedSubmissions, engine);
+        // models and assessments added later are appended to the snapshot
+        String model = loadFile("test-data/model-submission/model.54742.json");
+        engine.notifyNewModel(model, 54742);
+        compassSnapshotService.appendModel(EXERCISE_ID, engine, 54742, model);
+    }
+
+    @Test
+    public void restoredEngineEqualsOriginalEngine() throws Exception {
+        Optional<CompassCalculationEngine> restoredEngine = compassSnapshotService.loadEngine(EXERCISE_ID, assessedSubmissionIds);
+
+        assertThat(restoredEngine).as("engine is restored").isPresent();
+        assertThat(restoredEngine.get().getModelIds()).as("all models are restored").containsExactlyInAnyOrderElementsOf(engine.getModelIds());
+        for (long modelId : engine.getModelIds()) {
+            assertThat(restoredEngine.get().getElementIDs(modelId)).as("element ids of model " + modelId).isEqualTo(engine.getElementIDs(modelId));
+            Grade grade = engine.getGradeForModel(modelId);
+            Grade restoredGrade = restoredEngine.get().getGradeForModel(modelId);
+            assertThat(restoredGrade.getPoints()).as("points of model " + modelId).isEqualTo(grade.getPoints());
+            assertThat(restoredGrade.getCoverage()).as("coverage of model " + modelId).isEqualTo(grade.getCoverage());
+            assertThat(restoredGrade.getConfidence()).as("confidence of model " + modelId).isEqualTo(grade.getConfidence());
+        }
+    }
+
+    @Test
+    public void appendedAssessmentIsRestored() throws Exception {
+        List<Feedback> assessment = loadAssessment("assessment.54727.v2.json");
+        engine.notifyNewAssessment(assessment, 54742);
+        compassSnapshotService.appendAssessment(EXERCISE_ID, 54742, assessment);
+        assessedSubmissionIds.add(54742L);
+
+        Optional<CompassCalculationEngine> restoredEngine = compassSnapshotService.loadEngine(EXERCISE_ID, assessedSubmissionIds);
+
+        assertThat(restoredEngine).as("engine is restored").isPresent();
+        assertThat(restoredEngine.get().getGradeForModel(54742).getPoints()).as("points of newly assessed model").isEqualTo(engine.getGradeForModel(54742).getPoints());
+    }
+
+    @Test
+    public void snapshotWithDeletedAssessmentIsNotRestored() {
+        // e.g. the result of a submission was deleted while the engine was not in memory
+        assessedSubmissionIds.remove(54745L);
+
+        assertThat(compassSnapshotService.loadEngine(EXERCISE_ID, assessedSubmissionIds)).as("outdated snapshot is not restored").isNotPresent();
+        assertThat(Files.exists(snapshotFolder.getRoot().toPath().resolve("exercise-" + EXERCISE_ID + ".snapshot"))).as("outdated snapshot is deleted").isFalse();
+    }
+
+    @Test
+    public void deletedSnapshotIsNotRestored() {
+        compassSnapshotService.deleteSnapshot(EXERCISE_ID);
+
+        assertThat(compassSnapshotService.loadEngine(EXERCISE_ID, assessedSubmissionIds)).as("deleted snapshot is not restored").isNotPresent();
+    }
+
+    private ModelingSubmission createSubmission(long id, String modelFile, String assessmentFile) throws Exception {
+        ModelingSubmission submission = new ModelingSubmission();
+        submission.setId(id);
+        submission.setModel(loadFile("test-data/model-submission/" + modelFile));
+        Result result = new Result();
+        result.setFeedbacks(loadAssessment(assessmentFile));
+        submission.setResult(result);
+        return submission;
+    }
+
+    private List<Feedback> loadAssessment(String assessmentFile) throws Exception {
+        ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper.readValue(loadFile("test-data/model-assessment/" + assessmentFile), mapper.getTypeFactory().constructCollectionType(List.class, Feedback.class));
+    }
+
+    private String loadFile(String path) throws Exception {
+        return new String(Files.readAllBytes(ResourceUtils.getFile("classpath:" + path).toPath()));
+    }
+}
@@ -0,0 +1,58 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClassDiagram;
+
+public class AutomaticAssessmentControllerTest {
+
+    AutomaticAssessmentController automaticAssessmentController = new AutomaticAssessmentController();
+
+    ModelIndex modelIndex = new ModelIndex();
+
+    AssessmentIndex assessmentIndex = new AssessmentIndex();
+
+    UMLClassDiagram emptyModel;
+
+    UMLClassDiagram unassessedModel;
+
+    @Before
+    public void initTestCase() {
+        // a model without elements is completely covered, a model with an element without assessment is not covered at all
+        emptyModel = new UMLClassDiagram(1, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        UMLClass umlClass = new UMLClass("Customer", new ArrayList<>(), new ArrayList<>(), "class-1", UMLClass.UMLClassType.CLASS.name());
+        unassessedModel = new UMLClassDiagram(2, Collections.singletonList(umlClass), new ArrayList<>(), new ArrayList<>());
+        modelIndex.addModel(emptyModel);
+        modelIndex.addModel(unassessedModel);
+    }
+
+    @Test
+    public void totalCoverageIsKeptByRepeatedFullAssessments() {
+        automaticAssessmentController.assessModelsAutomatically(modelIndex, assessmentIndex);
+        assertThat(automaticAssessmentController.getTotalCoverage()).as("total coverage after first assessment").isCloseTo(0.5, within(0.001));
+
+        automaticAssessmentController.assessModelsAutomatically(modelIndex, assessmentIndex);
+        assertThat(automaticAssessmentController.getTotalCoverage()).as("total coverage after second assessment").isCloseTo(0.5, within(0.001));
+    }
+
+    @Test
+    public void totalCoverageOfFullAssessmentAfterSingleAssessments() {
+        automaticAssessmentController.assessModelAutomatically(emptyModel, assessmentIndex);
+        automaticAssessmentController.assessModelsAutomatically(Collections.singletonList(unassessedModel), assessmentIndex);
+        assertThat(automaticAssessmentController.getTotalCoverage()).as("total coverage of single assessments").isCloseTo(0.5, within(0.001));
+
+        automaticAssessmentController.assessModelsAutomatically(modelIndex, assessmentIndex);
+        assertThat(automaticAssessmentController.getTotalCoverage()).as("total coverage after full assessment").isCloseTo(0.5, within(0.001));
+
+        automaticAssessmentController.assessModelAutomatically(emptyModel, assessmentIndex);
+        assertThat(automaticAssessmentController.getTotalCoverage()).as("total coverage after assessing a model again").isCloseTo(0.5, within(0.001));
+    }
+}
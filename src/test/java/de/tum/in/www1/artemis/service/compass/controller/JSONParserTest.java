@@ -0,0 +1,75 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ResourceUtils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.*;
+
+public class JSONParserTest {
+
+    private static final List<String> CLASS_DIAGRAMS = Arrays.asList("empty-model.json", "model.54727.json", "model.54727.cpy.json", "model.54742.json", "model.54745.json",
+            "model.conflict.1.json", "model.conflict.2.json");
+
+    @Test
+    public void streamingParserBuildsSameModelsAsTreeParser() throws Exception {
+        long modelSubmissionId = 1;
+        for (String fileName : CLASS_DIAGRAMS) {
+            String model = new String(Files.readAllBytes(ResourceUtils.getFile("classpath:test-data/model-submission/" + fileName).toPath()));
+            JsonObject root = new JsonParser().parse(model).getAsJsonObject();
+
+            UMLClassDiagram expectedModel = TreeJSONParser.buildModelFromJSON(root, modelSubmissionId);
+            UMLClassDiagram actualModel = JSONParser.buildModelFromJSON(model, modelSubmissionId);
+
+            assertThat(actualModel.getModelSubmissionId()).as("model submission id of " + fileName).isEqualTo(expectedModel.getModelSubmissionId());
+            assertThat(describeClasses(actualModel)).as("classes of " + fileName).isEqualTo(describeClasses(expectedModel));
+            assertThat(describeRelationships(actualModel)).as("relationships of " + fileName).isEqualTo(describeRelationships(expectedModel));
+            assertThat(describePackages(actualModel)).as("packages of " + fileName).isEqualTo(describePackages(expectedModel));
+            modelSubmissionId++;
+        }
+    }
+
+    /**
+     * Describe all properties of the classes (including their attributes and methods) that the parser sets, sorted by their id, so that the order of the classes in the model does
+     * not matter
+     */
+    private List<String> describeClasses(UMLClassDiagram model) {
+        return model.getClassList().stream().map(umlClass -> {
+            String umlPackage = umlClass.getUmlPackage() != null ? umlClass.getUmlPackage().getJSONElementID() : null;
+            String attributes = umlClass.getAttributes().stream().map(attribute -> attribute.getJSONElementID() + " " + attribute.getName() + ":" + attribute.getAttributeType()
+                    + " in " + ((UMLClass) ReflectionTestUtils.getField(attribute, "parentClass")).getJSONElementID()).collect(Collectors.joining(", "));
+            String methods = umlClass.getMethods().stream()
+                    .map(method -> method.getJSONElementID() + " " + ReflectionTestUtils.getField(method, "completeName") + " " + method.getName() + " "
+                            + ReflectionTestUtils.getField(method, "parameters") + ":" + ReflectionTestUtils.getField(method, "returnType") + " in "
+                            + ((UMLClass) ReflectionTestUtils.getField(method, "parentClass")).getJSONElementID())
+                    .collect(Collectors.joining(", "));
+            return umlClass.getJSONElementID() + " " + umlClass.getName() + " " + umlClass.getType() + " in " + umlPackage + " [" + attributes + "] [" + methods + "]";
+        }).sorted().collect(Collectors.toList());
+    }
+
+    private List<String> describeRelationships(UMLClassDiagram model) {
+        return model.getAssociationList().stream()
+                .map(relationship -> relationship.getJSONElementID() + " " + relationship.getRelationshipType() + " " + relationship.getSource().getJSONElementID() + " "
+                        + ReflectionTestUtils.getField(relationship, "sourceRole") + " " + ReflectionTestUtils.getField(relationship, "sourceMultiplicity") + " -> "
+                        + relationship.getTarget().getJSONElementID() + " " + ReflectionTestUtils.getField(relationship, "targetRole") + " "
+                        + ReflectionTestUtils.getField(relationship, "targetMultiplicity"))
+                .sorted().collect(Collectors.toList());
+    }
+
+    private List<String> describePackages(UMLClassDiagram model) {
+        return model.getPackageList().stream().map(umlPackage -> {
+            @SuppressWarnings("unchecked")
+            List<UMLClass> classes = (List<UMLClass>) ReflectionTestUtils.getField(umlPackage, "classes");
+            return umlPackage.getJSONElementID() + " " + umlPackage.getName() + " " + classes.stream().map(UMLClass::getJSONElementID).sorted().collect(Collectors.toList());
+        }).sorted().collect(Collectors.toList());
+    }
+}
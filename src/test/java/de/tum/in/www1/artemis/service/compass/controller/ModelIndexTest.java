@@ -0,0 +1,172 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.*;
+import de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration;
+
+public class ModelIndexTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelIndexTest.class);
+
+    private static final int NUMBER_OF_MODELS = 200;
+
+    private static final List<String> CLASS_NAMES = Arrays.asList("Customer", "Order", "Product", "Invoice", "Address", "Payment", "Shipment", "Account", "Employee", "Department",
+            "Car", "Bus", "Vehicle", "Engine", "Wheel");
+
+    private static final List<String> ATTRIBUTE_NAMES = Arrays.asList("id", "name", "price", "amount", "date", "street", "city", "number", "nameOfCustomer", "orderDate");
+
+    private static final List<String> TYPES = Arrays.asList("String", "int", "double", "Date", "");
+
+    private static final List<String> METHOD_NAMES = Arrays.asList("getName", "setName", "calculateTotal", "addItem", "pay", "ship", "drive");
+
+    private static final List<String> ROLES = Arrays.asList("", "", "owner", "items", "parent");
+
+    private static final List<String> MULTIPLICITIES = Arrays.asList("", "", "1", "0..1", "*", "1..*");
+
+    @Test
+    public void testElementIdsMatchLinearScan() {
+        List<UMLClassDiagram> indexedModels = createModels(NUMBER_OF_MODELS);
+        List<UMLClassDiagram> scannedModels = createModels(NUMBER_OF_MODELS);
+
+        ModelIndex modelIndex = new ModelIndex();
+        long start = System.nanoTime();
+        for (UMLClassDiagram model : indexedModels) {
+            assignElementIds(model, modelIndex::getElementID);
+        }
+        long indexedDuration = System.nanoTime() - start;
+
+        List<UMLElement> uniqueElements = new ArrayList<>();
+        start = System.nanoTime();
+        for (UMLClassDiagram model : scannedModels) {
+            assignElementIds(model, element -> getElementIdWithLinearScan(uniqueElements, element));
+        }
+        long scanDuration = System.nanoTime() - start;
+
+        log.info("Assigned element ids of {} models in {}ms with the candidate index and in {}ms with a linear scan", NUMBER_OF_MODELS, indexedDuration / 1000000,
+                scanDuration / 1000000);
+
+        assertThat(modelIndex.getNumberOfUniqueElements()).isEqualTo(uniqueElements.size());
+        for (int i = 0; i < NUMBER_OF_MODELS; i++) {
+            assertThat(elementIds(indexedModels.get(i))).as("element ids of model " + i).isEqualTo(elementIds(scannedModels.get(i)));
+        }
+    }
+
+    /**
+     * The element id assignment of ModelIndex before the candidate index was introduced
+     */
+    private int getElementIdWithLinearScan(List<UMLElement> uniqueElements, UMLElement element) {
+        for (UMLElement knownElement : uniqueElements) {
+            if (knownElement.similarity(element) > CompassConfiguration.EQUALITY_THRESHOLD) {
+                return knownElement.getElementID();
+            }
+        }
+        uniqueElements.add(element);
+        return uniqueElements.size() - 1;
+    }
+
+    private void assignElementIds(UMLClassDiagram model, ElementIdProvider elementIdProvider) {
+        for (UMLClass umlClass : model.getClassList()) {
+            umlClass.setElementID(elementIdProvider.getElementId(umlClass));
+            for (UMLAttribute attribute : umlClass.getAttributes()) {
+                attribute.setElementID(elementIdProvider.getElementId(attribute));
+            }
+            for (UMLMethod method : umlClass.getMethods()) {
+                method.setElementID(elementIdProvider.getElementId(method));
+            }
+        }
+        for (UMLClassRelationship relation : model.getAssociationList()) {
+            relation.setElementID(elementIdProvider.getElementId(relation));
+        }
+    }
+
+    private List<Integer> elementIds(UMLClassDiagram model) {
+        List<Integer> elementIds = new ArrayList<>();
+        for (UMLClass umlClass : model.getClassList()) {
+            elementIds.add(umlClass.getElementID());
+            umlClass.getAttributes().forEach(attribute -> elementIds.add(attribute.getElementID()));
+            umlClass.getMethods().forEach(method -> elementIds.add(method.getElementID()));
+        }
+        model.getAssociationList().forEach(relation -> elementIds.add(relation.getElementID()));
+        return elementIds;
+    }
+
+    /**
+     * Creates synthetic class diagrams, the same number of models always results in the same diagrams
+     */
+    private List<UMLClassDiagram> createModels(int numberOfModels) {
+        Random random = new Random(42);
+        List<UMLClassDiagram> models = new ArrayList<>();
+        for (long modelId = 0; modelId < numberOfModels; modelId++) {
+            List<UMLClass> classes = new ArrayList<>();
+            int numberOfClasses = 3 + random.nextInt(5);
+            for (int i = 0; i < numberOfClasses; i++) {
+                String classId = modelId + "-class-" + i;
+                List<UMLAttribute> attributes = new ArrayList<>();
+                int numberOfAttributes = random.nextInt(4);
+                for (int j = 0; j < numberOfAttributes; j++) {
+                    attributes.add(new UMLAttribute(withTypo(pick(random, ATTRIBUTE_NAMES), random), pick(random, TYPES), classId + "-attribute-" + j));
+                }
+                List<UMLMethod> methods = new ArrayList<>();
+                int numberOfMethods = random.nextInt(3);
+                for (int j = 0; j < numberOfMethods; j++) {
+                    String name = withTypo(pick(random, METHOD_NAMES), random);
+                    List<String> parameters = new ArrayList<>();
+                    int numberOfParameters = random.nextInt(3);
+                    for (int k = 0; k < numberOfParameters; k++) {
+                        parameters.add(pick(random, TYPES));
+                    }
+                    methods.add(new UMLMethod(name + "()", name, pick(random, TYPES), parameters, classId + "-method-" + j));
+                }
+                String type = pick(random, Arrays.asList(UMLClass.UMLClassType.values())).name();
+                UMLClass umlClass = new UMLClass(withTypo(pick(random, CLASS_NAMES), random), attributes, methods, classId, type);
+                attributes.forEach(attribute -> attribute.setParentClass(umlClass));
+                methods.forEach(method -> method.setParentClass(umlClass));
+                classes.add(umlClass);
+            }
+            List<UMLClassRelationship> relationships = new ArrayList<>();
+            int numberOfRelationships = random.nextInt(numberOfClasses + 1);
+            for (int i = 0; i < numberOfRelationships; i++) {
+                String type = pick(random, Arrays.asList(UMLClassRelationship.UMLRelationType.values())).name();
+                relationships.add(new UMLClassRelationship(pick(random, classes), pick(random, classes), type, modelId + "-relationship-" + i, pick(random, ROLES),
+                        pick(random, ROLES), pick(random, MULTIPLICITIES), pick(random, MULTIPLICITIES)));
+            }
+            models.add(new UMLClassDiagram(modelId, classes, relationships, new ArrayList<>()));
+        }
+        return models;
+    }
+
+    private String withTypo(String name, Random random) {
+        int typo = random.nextInt(6);
+        int position = random.nextInt(name.length());
+        if (typo == 0) {
+            return name.substring(0, position) + name.substring(position + 1);
+        }
+        if (typo == 1) {
+            return name.substring(0, position) + "x" + name.substring(position);
+        }
+        if (typo == 2) {
+            return name.toLowerCase();
+        }
+        return name;
+    }
+
+    private <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private interface ElementIdProvider {
+
+        int getElementId(UMLElement element);
+    }
+}
@@ -0,0 +1,58 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tum.in.www1.artemis.repository.QuizExerciseRepository;
+import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
+
+public class ActiveQuizRegistryTest {
+
+    QuizSubmissionRepository quizSubmissionRepository = mock(QuizSubmissionRepository.class);
+
+    ActiveQuizRegistry activeQuizRegistry;
+
+    @Before
+    public void initTestCase() {
+        activeQuizRegistry = new ActiveQuizRegistry(mock(QuizExerciseRepository.class), quizSubmissionRepository);
+        when(quizSubmissionRepository.findLoginsOfSubmittedUsersByExerciseId(1L)).thenReturn(Arrays.asList("student1", "student2"));
+        when(quizSubmissionRepository.findLoginsOfSubmittedUsersByExerciseId(2L)).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    public void submittedUsersAreLoadedFromDatabase() {
+        // e.g. after a restart during a running quiz, the users who submitted before must still be rejected
+        assertThat(activeQuizRegistry.hasSubmitted(1L, "student1")).as("submission in database is found").isTrue();
+        assertThat(activeQuizRegistry.hasSubmitted(1L, "student2")).as("submission in database is found").isTrue();
+        assertThat(activeQuizRegistry.hasSubmitted(1L, "student3")).as("user without submission may submit").isFalse();
+
+        activeQuizRegistry.setSubmitted(1L, "student3");
+        assertThat(activeQuizRegistry.hasSubmitted(1L, "student3")).as("new submission is registered").isTrue();
+        verify(quizSubmissionRepository, times(1)).findLoginsOfSubmittedUsersByExerciseId(1L);
+    }
+
+    @Test
+    public void submittedUsersAreLoadedBeforeFirstSubmission() {
+        activeQuizRegistry.setSubmitted(1L, "student3");
+
+        assertThat(activeQuizRegistry.hasSubmitted(1L, "student1")).as("submission in database is kept").isTrue();
+        assertThat(activeQuizRegistry.hasSubmitted(1L, "student3")).as("new submission is registered").isTrue();
+        assertThat(activeQuizRegistry.hasSubmitted(2L, "student1")).as("submissions of other quizzes are separate").isFalse();
+        verify(quizSubmissionRepository, times(1)).findLoginsOfSubmittedUsersByExerciseId(1L);
+    }
+
+    @Test
+    public void submittedUsersAreLoadedAgainAfterReset() {
+        activeQuizRegistry.setSubmitted(2L, "student1");
+        activeQuizRegistry.clear(2L);
+
+        assertThat(activeQuizRegistry.hasSubmitted(2L, "student1")).as("reset quiz has no submissions").isFalse();
+        verify(quizSubmissionRepository, times(2)).findLoginsOfSubmittedUsersByExerciseId(2L);
+    }
+}
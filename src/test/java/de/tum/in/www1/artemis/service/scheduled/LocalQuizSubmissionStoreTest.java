@@ -0,0 +1,67 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LocalQuizSubmissionStoreTest {
+
+    LocalQuizSubmissionStore quizSubmissionStore;
+
+    @Before
+    public void initTestCase() {
+        quizSubmissionStore = new LocalQuizSubmissionStore(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(quizSubmissionStore, "maxSubmissions", 2);
+    }
+
+    @Test
+    public void removedSubmissionsAreNotCountedAnymore() {
+        assertThat(quizSubmissionStore.updateSubmission(1L, "student1", new QuizSubmission())).as("submission is stored").isTrue();
+        assertThat(quizSubmissionStore.updateSubmission(2L, "student2", new QuizSubmission())).as("submission is stored").isTrue();
+        assertThat(quizSubmissionStore.updateSubmission(2L, "student3", new QuizSubmission())).as("store is full").isFalse();
+
+        quizSubmissionStore.removeSubmissions(1L);
+
+        assertThat(submissionCount()).as("removed submission is not counted").isEqualTo(1);
+        assertThat(quizSubmissionStore.updateSubmission(2L, "student3", new QuizSubmission())).as("submission is stored after the removal").isTrue();
+        assertThat(quizSubmissionStore.getSubmission(2L, "student3")).as("submission can be found").isNotNull();
+    }
+
+    @Test
+    public void rejectedSubmissionDoesNotCreateQuiz() {
+        quizSubmissionStore.updateSubmission(1L, "student1", new QuizSubmission());
+        quizSubmissionStore.updateSubmission(1L, "student2", new QuizSubmission());
+
+        assertThat(quizSubmissionStore.updateSubmission(2L, "student3", new QuizSubmission())).as("store is full").isFalse();
+        assertThat(quizSubmissionStore.getQuizIdsWithSubmissions()).as("quiz without stored submission is not registered").containsExactly(1L);
+    }
+
+    @Test
+    public void restoredSubmissionsDoNotReplaceNewerSubmissions() {
+        QuizSubmission drainedSubmission = new QuizSubmission();
+        drainedSubmission.setSubmitted(true);
+        quizSubmissionStore.updateSubmission(1L, "student1", drainedSubmission);
+        quizSubmissionStore.drainSubmissions(1L, QuizSubmission::isSubmitted);
+        QuizSubmission newerSubmission = new QuizSubmission();
+        quizSubmissionStore.updateSubmission(1L, "student1", newerSubmission);
+
+        quizSubmissionStore.restoreSubmissions(1L, Collections.singletonMap("student1", drainedSubmission));
+        quizSubmissionStore.restoreSubmissions(1L, Collections.singletonMap("student2", drainedSubmission));
+
+        assertThat(quizSubmissionStore.getSubmission(1L, "student1")).as("newer submission is kept").isSameAs(newerSubmission);
+        assertThat(quizSubmissionStore.getSubmission(1L, "student2")).as("drained submission is restored").isSameAs(drainedSubmission);
+        assertThat(submissionCount()).as("restored submissions are counted").isEqualTo(2);
+    }
+
+    private int submissionCount() {
+        return ((AtomicInteger) ReflectionTestUtils.getField(quizSubmissionStore, "submissionCount")).get();
+    }
+}